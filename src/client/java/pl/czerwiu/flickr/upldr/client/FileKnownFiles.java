@@ -0,0 +1,62 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Known files kept in a text file, one "sha256 photoId" line per upload, so repeated runs
+ * (e.g. a nightly sync of a photo directory) skip what earlier runs uploaded.
+ * The file is read once when created and appended to after each upload.
+ */
+@Slf4j
+public class FileKnownFiles implements KnownFiles {
+
+    private final Path path;
+    private final Map<String, String> photoIds = new ConcurrentHashMap<>();
+
+    /**
+     * @param path file to read and append to, created on the first upload if it doesn't exist
+     * @throws IOException if the existing file can't be read
+     */
+    public FileKnownFiles(Path path) throws IOException {
+        this.path = path;
+        if (Files.exists(path)) {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length == 2) {
+                    photoIds.put(fields[0], fields[1]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String photoId(String sha256) {
+        return photoIds.get(sha256);
+    }
+
+    /**
+     * Remembers uploaded content. A failed write is logged, the upload itself has succeeded.
+     */
+    @Override
+    public synchronized void record(String sha256, String photoId) {
+        if (photoIds.put(sha256, photoId) != null) {
+            return;
+        }
+        try {
+            Files.writeString(path, sha256 + " " + photoId + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Failed to record uploaded file: path={}, error={}", path, e.getMessage());
+        }
+    }
+}
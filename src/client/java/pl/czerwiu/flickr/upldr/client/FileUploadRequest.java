@@ -0,0 +1,87 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.czerwiu.flickr.upldr.dto.UploadPriority;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Album and photo metadata of a file uploaded by {@link UpldrClient}, the form fields of POST /upload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileUploadRequest {
+
+    /**
+     * Album name (required), created if it doesn't exist.
+     */
+    private String album;
+
+    /**
+     * Further albums to add the photo to.
+     */
+    private List<String> additionalAlbums;
+
+    /**
+     * Photo title.
+     */
+    private String title;
+
+    /**
+     * Photo description.
+     */
+    private String description;
+
+    /**
+     * Comma-separated tags.
+     */
+    private String tags;
+
+    /**
+     * Duplicate check mode: 1 = check all photos, 2 = check recent uploads only, null = no check.
+     */
+    private Integer dedupCheck;
+
+    /**
+     * Scheduling lane, INTERACTIVE if not set.
+     */
+    private UploadPriority priority;
+
+    /**
+     * Preserve submission order of uploads within the album.
+     */
+    private boolean ordered;
+
+    /**
+     * ID to follow the upload's progress under, sent as the Upload-Id header.
+     */
+    private String uploadId;
+
+    /**
+     * Album followed by the additional albums, trimmed, without blank names
+     * and case-insensitive duplicates, as the service adds the photo to them.
+     */
+    public List<String> albums() {
+        List<String> names = new ArrayList<>();
+        names.add(album);
+        if (additionalAlbums != null) {
+            names.addAll(additionalAlbums);
+        }
+        Map<String, String> albums = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name != null && !name.trim().isEmpty()) {
+                albums.putIfAbsent(name.trim().toLowerCase(Locale.ROOT), name.trim());
+            }
+        }
+        return List.copyOf(albums.values());
+    }
+}
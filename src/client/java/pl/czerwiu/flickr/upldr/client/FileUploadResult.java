@@ -0,0 +1,26 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of one file of {@link UpldrClient#uploadAll}.
+ *
+ * @param file     uploaded file
+ * @param response upload response, null if the upload failed
+ * @param error    why the upload failed, null if it succeeded
+ */
+public record FileUploadResult(Path file, UploadResponse response, Throwable error) {
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return true if the file was not sent because its content was uploaded before
+     */
+    public boolean isSkipped() {
+        return response != null && UpldrClient.STATUS_SKIPPED.equals(response.getStatus());
+    }
+}
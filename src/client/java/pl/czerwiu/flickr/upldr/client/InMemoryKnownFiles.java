@@ -0,0 +1,22 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Known files kept in memory, for the lifetime of the client.
+ */
+public class InMemoryKnownFiles implements KnownFiles {
+
+    private final Map<String, String> photoIds = new ConcurrentHashMap<>();
+
+    @Override
+    public String photoId(String sha256) {
+        return photoIds.get(sha256);
+    }
+
+    @Override
+    public void record(String sha256, String photoId) {
+        photoIds.put(sha256, photoId);
+    }
+}
@@ -0,0 +1,23 @@
+package pl.czerwiu.flickr.upldr.client;
+
+/**
+ * SHA-256 hashes of file contents already uploaded, with the Flickr photo IDs they were uploaded as.
+ * Lets {@link UpldrClient} skip files whose content is on Flickr already, whatever their name or path.
+ * Implementations must be thread-safe.
+ */
+public interface KnownFiles {
+
+    /**
+     * @param sha256 hex SHA-256 of the file content
+     * @return photo ID the content was uploaded as, or null if it's not known
+     */
+    String photoId(String sha256);
+
+    /**
+     * Remembers uploaded content.
+     *
+     * @param sha256  hex SHA-256 of the file content
+     * @param photoId Flickr photo ID it was uploaded as
+     */
+    void record(String sha256, String photoId);
+}
@@ -0,0 +1,64 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import java.io.FileNotFoundException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * multipart/form-data body of an upload: form fields first (the reactive stack needs them
+ * before the file), then the file part streamed from disk.
+ */
+final class MultipartBody {
+
+    private static final String CRLF = "\r\n";
+
+    private final String boundary = "upldr-" + UUID.randomUUID();
+    private final StringBuilder fields = new StringBuilder();
+
+    /**
+     * Adds a form field, skipped if the value is null.
+     */
+    MultipartBody field(String name, Object value) {
+        if (value != null) {
+            fields.append("--").append(boundary).append(CRLF)
+                .append("Content-Disposition: form-data; name=\"").append(name).append('"').append(CRLF)
+                .append(CRLF)
+                .append(value).append(CRLF);
+        }
+        return this;
+    }
+
+    String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    /**
+     * Completes the body with the file part. The file is read on each send, so the publisher
+     * can be reused for retries. The part declares its size, so the server can reject a file
+     * over its limit before reading it.
+     *
+     * @throws FileNotFoundException if the file doesn't exist
+     */
+    HttpRequest.BodyPublisher withFile(String name, Path file, long size, String contentType)
+            throws FileNotFoundException {
+        String head = fields + "--" + boundary + CRLF
+            + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename(file) + '"' + CRLF
+            + "Content-Type: " + contentType + CRLF
+            + "Content-Length: " + size + CRLF
+            + CRLF;
+        String tail = CRLF + "--" + boundary + "--" + CRLF;
+        return HttpRequest.BodyPublishers.concat(
+            HttpRequest.BodyPublishers.ofByteArray(head.getBytes(StandardCharsets.UTF_8)),
+            HttpRequest.BodyPublishers.ofFile(file),
+            HttpRequest.BodyPublishers.ofByteArray(tail.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String filename(Path file) {
+        return file.getFileName().toString()
+            .replace("\"", "%22")
+            .replace("\r", "")
+            .replace("\n", "");
+    }
+}
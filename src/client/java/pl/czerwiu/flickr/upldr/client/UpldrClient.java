@@ -0,0 +1,333 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import lombok.extern.slf4j.Slf4j;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Client of the upload API (POST /upload).
+ * <p>
+ * Files are streamed from disk, never loaded into memory, over pooled keep-alive connections
+ * of one HttpClient. Up to {@link UpldrClientConfig#getMaxConcurrentUploads()} uploads run at once.
+ * Uploads failing in a way a retry can help (no response, 500, 503, 504, 429 with Retry-After)
+ * are retried, waiting as long as the server's Retry-After asks. All attempts of an upload send
+ * the same Idempotency-Key, so a retry after a lost response doesn't upload the file twice.
+ * With {@link UpldrClientConfig#getKnownFiles()} set, files whose content was uploaded before
+ * are skipped.
+ * <p>
+ * Thread-safe; create one per service and close it when done.
+ */
+@Slf4j
+public class UpldrClient implements AutoCloseable {
+
+    /**
+     * Status of the response of a skipped upload, next to the service's SUCCESS and PARTIAL.
+     */
+    public static final String STATUS_SKIPPED = "SKIPPED";
+
+    /**
+     * Time the server has after the Request-Timeout to answer before the client gives up.
+     */
+    private static final Duration REQUEST_TIMEOUT_GRACE = Duration.ofSeconds(10);
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final UpldrClientConfig config;
+    private final URI uploadUri;
+    private final String authorization;
+    private final HttpClient httpClient;
+    private final JsonMapper jsonMapper;
+    private final Semaphore permits;
+    private final ExecutorService uploads;
+
+    public UpldrClient(UpldrClientConfig config) {
+        if (config.getBaseUri() == null) {
+            throw new IllegalArgumentException("Base URI is required");
+        }
+        this.config = config;
+        String baseUri = config.getBaseUri().toString();
+        this.uploadUri = URI.create((baseUri.endsWith("/") ? baseUri : baseUri + "/") + "upload");
+        this.authorization = config.getUsername() != null
+            ? "Basic " + Base64.getEncoder().encodeToString(
+                (config.getUsername() + ":" + config.getPassword()).getBytes(StandardCharsets.UTF_8))
+            : null;
+        this.httpClient = HttpClient.newBuilder()
+            // The service speaks HTTP/1.1 on cleartext, skip the h2c upgrade attempt
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(config.getConnectTimeout())
+            .build();
+        this.jsonMapper = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+        this.permits = new Semaphore(Math.max(1, config.getMaxConcurrentUploads()));
+        this.uploads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("upldr-client-", 0).factory());
+    }
+
+    /**
+     * Uploads a file; waits for a free slot if the concurrency limit is reached.
+     *
+     * @param file    image or video to upload
+     * @param request album and photo metadata
+     * @return future completed with the upload response, status SKIPPED for known content,
+     *         or failed with {@link UpldrClientException}
+     */
+    public CompletableFuture<UploadResponse> upload(Path file, FileUploadRequest request) {
+        return CompletableFuture.supplyAsync(() -> doUpload(file, request), uploads);
+    }
+
+    /**
+     * Uploads files in parallel, up to the concurrency limit. Failures are reported per file
+     * and don't stop the other uploads.
+     *
+     * @param files    images or videos to upload
+     * @param requests album and photo metadata of each file
+     * @return future completed with one result per file, in the order of the files
+     */
+    public CompletableFuture<List<FileUploadResult>> uploadAll(List<Path> files,
+                                                               Function<Path, FileUploadRequest> requests) {
+        List<CompletableFuture<FileUploadResult>> results = files.stream()
+            .map(file -> upload(file, requests.apply(file))
+                .handle((response, error) -> new FileUploadResult(file, response,
+                    error instanceof CompletionException && error.getCause() != null ? error.getCause() : error)))
+            .toList();
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+            .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    private UploadResponse doUpload(Path file, FileUploadRequest request) {
+        List<String> albums = request.albums();
+        if (albums.isEmpty()) {
+            throw new IllegalArgumentException("Album name is required");
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpldrClientException("Upload interrupted", file.toString(), ErrorCategory.RETRYABLE, e);
+        }
+        try {
+            // Hashing reads the whole file, so it counts against the concurrency limit too
+            KnownFiles knownFiles = config.getKnownFiles();
+            String contentHash = knownFiles != null ? sha256(file) : null;
+            if (contentHash != null) {
+                String photoId = knownFiles.photoId(contentHash);
+                if (photoId != null) {
+                    log.debug("Skipping known file: file={}, photoId={}", file, photoId);
+                    return UploadResponse.builder()
+                        .photoId(photoId)
+                        .album(albums.getFirst())
+                        .status(STATUS_SKIPPED)
+                        .build();
+                }
+            }
+
+            UploadResponse response = send(file, request, albums, idempotencyKey(file, albums, contentHash));
+            if (contentHash != null) {
+                knownFiles.record(contentHash, response.getPhotoId());
+            }
+            return response;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private UploadResponse send(Path file, FileUploadRequest request, List<String> albums, String idempotencyKey) {
+        HttpRequest httpRequest = httpRequest(file, request, albums, idempotencyKey);
+        for (int attempt = 1; ; attempt++) {
+            UpldrClientException failure;
+            Duration retryAfter = null;
+            try {
+                HttpResponse<byte[]> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() == 200) {
+                    return jsonMapper.readValue(response.body(), UploadResponse.class);
+                }
+                failure = new UpldrClientException(response.statusCode(), errorResponse(response.body()));
+                retryAfter = retryAfter(response.headers());
+            } catch (IOException e) {
+                failure = new UpldrClientException("Upload failed: " + e.getMessage(), file.toString(),
+                    ErrorCategory.RETRYABLE, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UpldrClientException("Upload interrupted", file.toString(), ErrorCategory.RETRYABLE, e);
+            }
+
+            boolean retryable = failure.getCategory() == ErrorCategory.RETRYABLE
+                || failure.getCategory() == ErrorCategory.QUOTA && retryAfter != null;
+            Duration wait = retryAfter != null ? retryAfter : backoff(attempt);
+            if (!retryable || attempt >= config.getMaxAttempts() || wait.compareTo(config.getMaxBackoff()) > 0) {
+                throw failure;
+            }
+
+            log.atDebug()
+                .setMessage("Retrying upload")
+                .addKeyValue("file", file)
+                .addKeyValue("attempt", attempt)
+                .addKeyValue("status", failure.getStatus())
+                .addKeyValue("waitMs", wait.toMillis())
+                .log();
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+        }
+    }
+
+    private HttpRequest httpRequest(Path file, FileUploadRequest request, List<String> albums, String idempotencyKey) {
+        MultipartBody body = new MultipartBody();
+        albums.forEach(album -> body.field("album", album));
+        body.field("title", request.getTitle())
+            .field("description", request.getDescription())
+            .field("tags", request.getTags())
+            .field("dedupCheck", request.getDedupCheck())
+            .field("priority", request.getPriority())
+            .field("ordered", request.isOrdered() ? true : null);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uploadUri)
+            .header("Content-Type", body.contentType())
+            .header("Idempotency-Key", idempotencyKey);
+        try {
+            builder.POST(body.withFile("file", file, Files.size(file), contentType(file)));
+        } catch (IOException e) {
+            throw readFailure(file, e);
+        }
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        if (request.getUploadId() != null) {
+            builder.header("Upload-Id", request.getUploadId());
+        }
+        Duration requestTimeout = config.getRequestTimeout();
+        if (requestTimeout != null) {
+            builder.header(UploadDeadline.HEADER, String.valueOf(Math.max(1, requestTimeout.toSeconds())))
+                .timeout(requestTimeout.plus(REQUEST_TIMEOUT_GRACE));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Derives the key from the content, name and albums when the file is hashed, so even a new run
+     * retrying an upload whose response was lost gets the first upload's result.
+     */
+    private static String idempotencyKey(Path file, List<String> albums, String contentHash) {
+        if (contentHash == null) {
+            return UUID.randomUUID().toString();
+        }
+        String identity = contentHash + "|" + file.getFileName() + "|" + String.join("|", albums);
+        return UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private Duration backoff(int attempt) {
+        Duration backoff = config.getInitialBackoff().multipliedBy(1L << Math.min(attempt - 1, 20));
+        return backoff.compareTo(config.getMaxBackoff()) > 0 ? config.getMaxBackoff() : backoff;
+    }
+
+    /**
+     * @return wait requested by Retry-After (seconds or an HTTP date), null if absent or invalid
+     */
+    private static Duration retryAfter(HttpHeaders headers) {
+        String value = headers.firstValue("Retry-After").orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Duration wait = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return wait.isNegative() ? Duration.ZERO : wait;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private ErrorResponse errorResponse(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            return jsonMapper.readValue(body, ErrorResponse.class);
+        } catch (JacksonException e) {
+            // Not the service's error format, e.g. from a proxy
+            return null;
+        }
+    }
+
+    private static String contentType(Path file) {
+        try {
+            String contentType = Files.probeContentType(file);
+            return contentType != null ? contentType : "application/octet-stream";
+        } catch (IOException e) {
+            return "application/octet-stream";
+        }
+    }
+
+    private static UpldrClientException readFailure(Path file, IOException e) {
+        return e instanceof FileNotFoundException || e instanceof NoSuchFileException
+            ? new UpldrClientException("File not found", file.toString(), ErrorCategory.CLIENT_ERROR, e)
+            : new UpldrClientException("Failed to read file", e.getMessage(), ErrorCategory.CLIENT_ERROR, e);
+    }
+
+    private static String sha256(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw readFailure(file, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Waits for running uploads to finish and closes the connections.
+     */
+    @Override
+    public void close() {
+        uploads.close();
+        httpClient.close();
+    }
+}
@@ -0,0 +1,78 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Configuration of {@link UpldrClient}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpldrClientConfig {
+
+    /**
+     * Base URI of the service (required), e.g. http://localhost:8080.
+     */
+    private URI baseUri;
+
+    /**
+     * Basic Auth user name.
+     */
+    private String username;
+
+    /**
+     * Basic Auth password.
+     */
+    @ToString.Exclude
+    private String password;
+
+    /**
+     * Uploads sent at the same time, further uploads wait for a free slot.
+     */
+    @Builder.Default
+    private int maxConcurrentUploads = 4;
+
+    /**
+     * Attempts per upload, including the first one.
+     */
+    @Builder.Default
+    private int maxAttempts = 3;
+
+    /**
+     * Wait before the first retry when the server sends no Retry-After, doubled for each further retry.
+     */
+    @Builder.Default
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Longest wait between attempts; when the server asks to wait longer, the upload fails instead.
+     */
+    @Builder.Default
+    private Duration maxBackoff = Duration.ofMinutes(1);
+
+    /**
+     * Timeout for opening a connection.
+     */
+    @Builder.Default
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Time to wait for each upload's response (optional), also sent as the Request-Timeout header
+     * so the server stops uploads nobody waits for. Without it the server's defaults apply.
+     */
+    private Duration requestTimeout;
+
+    /**
+     * Content hashes of files uploaded before (optional). When set, files are hashed before upload
+     * and those already uploaded are skipped.
+     */
+    private KnownFiles knownFiles;
+}
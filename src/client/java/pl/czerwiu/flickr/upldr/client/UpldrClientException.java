@@ -0,0 +1,56 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import lombok.Getter;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploaderException;
+
+/**
+ * Exception thrown when an upload through {@link UpldrClient} fails, after retries if a retry could help.
+ * Carries the HTTP status and the server's error response; the category tells whether it's worth
+ * trying again later (retryable, quota) or not (duplicate, client-error, permanent).
+ */
+@Getter
+public class UpldrClientException extends FlickrUploaderException {
+
+    /**
+     * HTTP status of the response, 0 if no response was received.
+     */
+    private final int status;
+
+    /**
+     * Error response of the server, null if there was none.
+     */
+    private final ErrorResponse error;
+
+    /**
+     * Error response received from the server, created without a stack trace.
+     */
+    public UpldrClientException(int status, ErrorResponse error) {
+        super(error != null && error.getMessage() != null ? error.getMessage() : "Upload failed with HTTP " + status,
+            error != null ? error.getDetails() : null, null, category(status), false);
+        this.status = status;
+        this.error = error;
+    }
+
+    /**
+     * Failure without a response (file not readable, connection failed).
+     */
+    public UpldrClientException(String message, String details, ErrorCategory category, Throwable cause) {
+        super(message, details, cause, category, true);
+        this.status = 0;
+        this.error = null;
+    }
+
+    /**
+     * Category of an error status, following the service's error responses.
+     */
+    static ErrorCategory category(int status) {
+        return switch (status) {
+            case 409 -> ErrorCategory.DUPLICATE;
+            case 429, 503 -> ErrorCategory.QUOTA;
+            case 500, 504 -> ErrorCategory.RETRYABLE;
+            default -> status >= 400 && status < 500 ? ErrorCategory.CLIENT_ERROR : ErrorCategory.PERMANENT;
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package pl.czerwiu.flickr.upldr.bandwidth;
+
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint for reading and changing upload bandwidth limits at runtime
+ * ({@code GET/POST /actuator/bandwidth}). Parameters left out keep their current value.
+ */
+@Component
+@Endpoint(id = "bandwidth")
+@RequiredArgsConstructor
+public class BandwidthEndpoint {
+
+    private final BandwidthShaper bandwidthShaper;
+
+    @ReadOperation
+    public BandwidthShaper.Limits limits() {
+        return bandwidthShaper.getLimits();
+    }
+
+    @WriteOperation
+    public BandwidthShaper.Limits update(@Nullable Long globalBytesPerSecond,
+                                         @Nullable Long perUserBytesPerSecond,
+                                         @Nullable Long perAlbumBytesPerSecond,
+                                         @Nullable Double interactiveShare,
+                                         @Nullable Long videoBytesPerSecond) {
+        BandwidthShaper.Limits current = bandwidthShaper.getLimits();
+        BandwidthShaper.Limits updated = new BandwidthShaper.Limits(
+            globalBytesPerSecond != null ? globalBytesPerSecond : current.globalBytesPerSecond(),
+            perUserBytesPerSecond != null ? perUserBytesPerSecond : current.perUserBytesPerSecond(),
+            perAlbumBytesPerSecond != null ? perAlbumBytesPerSecond : current.perAlbumBytesPerSecond(),
+            interactiveShare != null ? interactiveShare : current.interactiveShare(),
+            videoBytesPerSecond != null ? videoBytesPerSecond : current.videoBytesPerSecond());
+        try {
+            bandwidthShaper.setLimits(updated);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return updated;
+    }
+}
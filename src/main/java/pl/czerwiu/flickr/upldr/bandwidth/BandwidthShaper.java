@@ -0,0 +1,256 @@
+package pl.czerwiu.flickr.upldr.bandwidth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.BandwidthProperties;
+import pl.czerwiu.flickr.upldr.dto.UploadPriority;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shapes upload streams sent to Flickr with token buckets: a global one, optional
+ * per-user and per-album ones, and a bulk one that keeps bulk uploads to their share
+ * of the global limit while interactive uploads are running. Without interactive
+ * uploads bulk uploads use the whole global limit. Videos have a pool of their own
+ * instead of the global and bulk buckets, so a long video doesn't slow photos down.
+ */
+@Slf4j
+@Component
+public class BandwidthShaper {
+
+    /**
+     * Largest read between two bucket reservations.
+     */
+    private static final int MAX_CHUNK = 64 * 1024;
+
+    private final MeterRegistry meterRegistry;
+
+    private volatile Limits limits;
+
+    private final TokenBucket global = new TokenBucket(() -> limits.globalBytesPerSecond());
+    private final TokenBucket bulk = new TokenBucket(() -> limits.bulkBytesPerSecond());
+    private final TokenBucket videoPool = new TokenBucket(() -> limits.videoBytesPerSecond());
+    private final Map<String, SharedBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<String, SharedBucket> albumBuckets = new ConcurrentHashMap<>();
+    private final AtomicInteger activeInteractive = new AtomicInteger();
+
+    public BandwidthShaper(BandwidthProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.limits = new Limits(
+            properties.getGlobalLimit().toBytes(),
+            properties.getPerUserLimit().toBytes(),
+            properties.getPerAlbumLimit().toBytes(),
+            properties.getInteractiveShare(),
+            properties.getVideoLimit().toBytes());
+        validate(limits);
+    }
+
+    /**
+     * Wraps upload stream so reads from it follow the bandwidth limits.
+     *
+     * @param in      upload stream
+     * @param request upload request (user, album and priority select the buckets)
+     * @param video   whether the stream is a video, charged to the video pool
+     * @return shaped stream, closing it releases the per-user and per-album buckets
+     */
+    public ShapedInputStream shape(InputStream in, UploadRequest request, boolean video) {
+        return new ShapedInputStream(in, request, video);
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Replaces the limits, running uploads follow new limits from their next read.
+     *
+     * @throws IllegalArgumentException if a limit is negative or share is outside 0-1
+     */
+    public void setLimits(Limits limits) {
+        validate(limits);
+        this.limits = limits;
+        log.info("Bandwidth limits changed: global={}B/s, perUser={}B/s, perAlbum={}B/s, interactiveShare={}, video={}B/s",
+            limits.globalBytesPerSecond(), limits.perUserBytesPerSecond(),
+            limits.perAlbumBytesPerSecond(), limits.interactiveShare(), limits.videoBytesPerSecond());
+    }
+
+    private static void validate(Limits limits) {
+        if (limits.globalBytesPerSecond() < 0 || limits.perUserBytesPerSecond() < 0
+                || limits.perAlbumBytesPerSecond() < 0 || limits.videoBytesPerSecond() < 0) {
+            throw new IllegalArgumentException("Bandwidth limits must not be negative");
+        }
+        if (limits.interactiveShare() < 0 || limits.interactiveShare() > 1) {
+            throw new IllegalArgumentException("Interactive share must be between 0 and 1");
+        }
+    }
+
+    private SharedBucket acquireBucket(Map<String, SharedBucket> buckets, String key, boolean perUser) {
+        return buckets.compute(key, (k, bucket) -> {
+            SharedBucket shared = bucket != null ? bucket
+                : new SharedBucket(new TokenBucket(perUser
+                    ? () -> limits.perUserBytesPerSecond()
+                    : () -> limits.perAlbumBytesPerSecond()));
+            shared.streams++;
+            return shared;
+        });
+    }
+
+    private static void releaseBucket(Map<String, SharedBucket> buckets, String key) {
+        buckets.computeIfPresent(key, (k, bucket) -> --bucket.streams == 0 ? null : bucket);
+    }
+
+    /**
+     * Bandwidth limits in bytes per second, 0 means unlimited.
+     *
+     * @param globalBytesPerSecond   all uploads together
+     * @param perUserBytesPerSecond  uploads of a single user
+     * @param perAlbumBytesPerSecond uploads to a single album
+     * @param interactiveShare       share of the global limit guaranteed to interactive uploads
+     * @param videoBytesPerSecond    all video uploads together
+     */
+    public record Limits(long globalBytesPerSecond, long perUserBytesPerSecond,
+                         long perAlbumBytesPerSecond, double interactiveShare, long videoBytesPerSecond) {
+
+        long bulkBytesPerSecond() {
+            // Bulk limit only makes sense below the global limit; 1 B/s for a zero share
+            return globalBytesPerSecond == 0 ? 0 : Math.max(1, (long) (globalBytesPerSecond * (1 - interactiveShare)));
+        }
+    }
+
+    /**
+     * Bucket shared by all streams of a user or album, removed with the last stream.
+     */
+    private static final class SharedBucket {
+
+        private final TokenBucket bucket;
+        private int streams;
+
+        private SharedBucket(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    /**
+     * Upload stream paced by the bandwidth limits.
+     */
+    public final class ShapedInputStream extends FilterInputStream {
+
+        private final boolean interactive;
+        private final boolean video;
+        private final String userKey;
+        private final String albumKey;
+        private final SharedBucket userBucket;
+        private final SharedBucket albumBucket;
+        private final Counter bytes;
+        private final Timer throttled;
+        private volatile long throttledNanos;
+        private boolean closed;
+
+        private ShapedInputStream(InputStream in, UploadRequest request, boolean video) {
+            super(in);
+            // Videos never hold back bulk photos
+            this.interactive = !video && request.getPriority() != UploadPriority.BULK;
+            this.video = video;
+            this.userKey = request.getUser();
+            this.albumKey = request.getAlbum() != null ? request.getAlbum().trim().toLowerCase(Locale.ROOT) : null;
+            this.userBucket = userKey != null ? acquireBucket(userBuckets, userKey, true) : null;
+            this.albumBucket = albumKey != null ? acquireBucket(albumBuckets, albumKey, false) : null;
+
+            String lane = video ? "video" : interactive ? "interactive" : "bulk";
+            this.bytes = meterRegistry.counter("upload.bandwidth.bytes", "lane", lane);
+            this.throttled = meterRegistry.timer("upload.bandwidth.throttled", "lane", lane);
+            if (interactive) {
+                activeInteractive.incrementAndGet();
+            }
+        }
+
+        /**
+         * @return total time reads were held back by the limits, so callers timing the upload
+         *         can tell it apart from the time spent sending
+         */
+        public long throttledNanos() {
+            return throttledNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                pace(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, Math.min(len, MAX_CHUNK));
+            if (n > 0) {
+                pace(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return super.skip(Math.min(n, MAX_CHUNK));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                if (interactive) {
+                    activeInteractive.decrementAndGet();
+                }
+                if (userBucket != null) {
+                    releaseBucket(userBuckets, userKey);
+                }
+                if (albumBucket != null) {
+                    releaseBucket(albumBuckets, albumKey);
+                }
+            }
+            super.close();
+        }
+
+        /**
+         * Charges the read bytes to all applicable buckets and waits for the slowest one.
+         */
+        private void pace(int n) throws InterruptedIOException {
+            bytes.increment(n);
+            long waitNanos = video ? videoPool.reserve(n) : global.reserve(n);
+            if (!video && !interactive && activeInteractive.get() > 0) {
+                waitNanos = Math.max(waitNanos, bulk.reserve(n));
+            }
+            if (userBucket != null) {
+                waitNanos = Math.max(waitNanos, userBucket.bucket.reserve(n));
+            }
+            if (albumBucket != null) {
+                waitNanos = Math.max(waitNanos, albumBucket.bucket.reserve(n));
+            }
+            if (waitNanos == 0) {
+                return;
+            }
+
+            throttled.record(waitNanos, TimeUnit.NANOSECONDS);
+            throttledNanos += waitNanos;
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for upload bandwidth");
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package pl.czerwiu.flickr.upldr.bandwidth;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket of bytes refilled at a (changeable) rate, with a burst of one second.
+ * Reservations may overdraw the bucket; the caller then waits until the debt is paid off,
+ * which keeps waiting callers in reservation order.
+ */
+final class TokenBucket {
+
+    private final LongSupplier bytesPerSecond;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    TokenBucket(LongSupplier bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Takes bytes from the bucket.
+     *
+     * @return nanoseconds the caller has to wait before sending them (0 if unlimited)
+     */
+    synchronized long reserve(long bytes) {
+        long rate = bytesPerSecond.getAsLong();
+        long now = System.nanoTime();
+        if (rate <= 0) {
+            tokens = 0;
+            lastRefillNanos = now;
+            return 0;
+        }
+
+        double refill = (double) (now - lastRefillNanos) * rate / TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(rate, tokens + refill);
+        lastRefillNanos = now;
+        tokens -= bytes;
+        return tokens >= 0 ? 0 : (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / rate);
+    }
+}
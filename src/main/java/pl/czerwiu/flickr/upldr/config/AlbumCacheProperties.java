@@ -0,0 +1,47 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the album read cache behind GET /albums.
+ * Maps properties from application.yml with prefix "upldr.album-cache".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.album-cache")
+public class AlbumCacheProperties {
+
+    /**
+     * How often the album list is reloaded from Flickr
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    /**
+     * Delay of the album list reload after an album was created, so albums created meanwhile share one reload
+     */
+    private Duration refreshDelay = Duration.ofSeconds(5);
+
+    /**
+     * How long album contents are served before they are reloaded even if the album looks unchanged
+     */
+    private Duration contentsMaxAge = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of albums whose contents are cached (least recently used are evicted)
+     */
+    private int maxCachedAlbums = 100;
+
+    /**
+     * Default number of items per page
+     */
+    private int pageSize = 100;
+
+    /**
+     * Largest allowed page
+     */
+    private int maxPageSize = 5000;
+}
@@ -0,0 +1,38 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for Flickr asynchronous uploads.
+ * Maps properties from application.yml with prefix "upldr.async-upload".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.async-upload")
+public class AsyncUploadProperties {
+
+    /**
+     * Upload with Flickr's async flag and resolve tickets in the background
+     * instead of waiting for Flickr to process every image
+     */
+    private boolean enabled = false;
+
+    /**
+     * Delay between photos.upload.checkTickets calls
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of tickets checked in a single call
+     */
+    private int batchSize = 100;
+
+    /**
+     * Time after which an unresolved ticket is reported as failed
+     */
+    private Duration timeout = Duration.ofMinutes(10);
+}
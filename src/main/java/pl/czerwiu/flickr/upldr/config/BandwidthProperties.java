@@ -0,0 +1,43 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for bandwidth shaping of uploads sent to Flickr.
+ * Maps properties from application.yml with prefix "upldr.bandwidth".
+ * Limits are per second, 0 means unlimited. They can be changed at runtime
+ * through the bandwidth actuator endpoint.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.bandwidth")
+public class BandwidthProperties {
+
+    /**
+     * Upload bandwidth of all uploads together
+     */
+    private DataSize globalLimit = DataSize.ofBytes(0);
+
+    /**
+     * Upload bandwidth of a single Basic Auth user
+     */
+    private DataSize perUserLimit = DataSize.ofBytes(0);
+
+    /**
+     * Upload bandwidth of uploads to a single album
+     */
+    private DataSize perAlbumLimit = DataSize.ofBytes(0);
+
+    /**
+     * Share of the global limit guaranteed to interactive uploads while bulk uploads run (0-1)
+     */
+    private double interactiveShare = 0.5;
+
+    /**
+     * Upload bandwidth of all video uploads together, separate from the global limit of photos
+     */
+    private DataSize videoLimit = DataSize.ofBytes(0);
+}
@@ -0,0 +1,37 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for upload deadlines.
+ * Maps properties from application.yml with prefix "upldr.deadline".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.deadline")
+public class DeadlineProperties {
+
+    /**
+     * Deadline of photo uploads sent without a Request-Timeout header, 0 = none
+     */
+    private Duration uploadTimeout = Duration.ofMinutes(15);
+
+    /**
+     * Deadline of video uploads sent without a Request-Timeout header (covers Flickr's processing), 0 = none
+     */
+    private Duration videoUploadTimeout = Duration.ofHours(2);
+
+    /**
+     * Deadline of uploads from URLs sent without a Request-Timeout header, 0 = none
+     */
+    private Duration urlUploadTimeout = Duration.ofMinutes(15);
+
+    /**
+     * Longest deadline a client may ask for
+     */
+    private Duration maxTimeout = Duration.ofHours(6);
+}
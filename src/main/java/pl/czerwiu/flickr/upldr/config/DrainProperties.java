@@ -0,0 +1,34 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for draining uploads on shutdown.
+ * Maps properties from application.yml with prefix "upldr.drain".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.drain")
+public class DrainProperties {
+
+    /**
+     * Time between reporting readiness DOWN and refusing new uploads,
+     * so load balancers stop routing to the instance first
+     */
+    private Duration readinessDelay = Duration.ofSeconds(5);
+
+    /**
+     * How long uploads in progress may take to finish
+     */
+    private Duration gracePeriod = Duration.ofSeconds(60);
+
+    /**
+     * Directory of the journal of uploads to be completed by the next instance
+     * (should be persistent and shared by all replicas)
+     */
+    private String journalDir = "drain-journal";
+}
@@ -0,0 +1,64 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for adaptive concurrency limits of outbound Flickr calls.
+ * Maps properties from application.yml with prefix "upldr.flickr-concurrency".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.flickr-concurrency")
+public class FlickrConcurrencyProperties {
+
+    private Limit upload = new Limit(4, 1, 32, Duration.ofMinutes(5));
+    private Limit metadata = new Limit(8, 2, 64, Duration.ofSeconds(30));
+    private Limit video = new Limit(2, 1, 8, Duration.ofMinutes(30));
+
+    @Data
+    public static class Limit {
+        /**
+         * Concurrency limit at startup
+         */
+        private int initialLimit;
+
+        /**
+         * Lowest limit the adaptive algorithm may reach
+         */
+        private int minLimit;
+
+        /**
+         * Highest limit the adaptive algorithm may reach
+         */
+        private int maxLimit;
+
+        /**
+         * How long a call waits for a free slot before it is rejected
+         */
+        private Duration maxWait;
+
+        /**
+         * Ratio of current to baseline latency tolerated before the limit is reduced
+         */
+        private double rttTolerance = 2.0;
+
+        /**
+         * Upper bound of the Retry-After of rejected calls, which is estimated from the waiting calls
+         */
+        private Duration maxRetryAfter = Duration.ofMinutes(2);
+
+        public Limit() {
+        }
+
+        public Limit(int initialLimit, int minLimit, int maxLimit, Duration maxWait) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.maxWait = maxWait;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.flickr4java.flickr.Flickr;
 import com.flickr4java.flickr.REST;
 import com.flickr4java.flickr.auth.Auth;
 import com.flickr4java.flickr.auth.Permission;
+import com.flickr4java.flickr.uploader.Uploader;
 import com.flickr4java.flickr.util.AuthStore;
 import com.flickr4java.flickr.util.FileAuthStore;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,7 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import pl.czerwiu.flickr.upldr.flickr.StreamingUploader;
 
 import java.io.File;
 
@@ -35,12 +37,19 @@ public class FlickrConfig {
     public Flickr flickrClient() {
         log.info("Initializing Flickr client");
 
-        // Create Flickr instance with REST transport
+        // Create Flickr instance with REST transport; uploads are streamed (flickr4java's uploader
+        // reads the whole file into memory before sending it)
+        Uploader uploader = new StreamingUploader(flickrProperties, StreamingUploader.UPLOAD_URL);
         Flickr flickr = new Flickr(
             flickrProperties.getApi().getKey(),
             flickrProperties.getApi().getSecret(),
             new REST()
-        );
+        ) {
+            @Override
+            public Uploader getUploader() {
+                return uploader;
+            }
+        };
 
         // Set up OAuth authentication
         Auth auth = new Auth();
@@ -0,0 +1,47 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the Flickr health indicator.
+ * Maps properties from application.yml with prefix "upldr.flickr-health".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.flickr-health")
+public class FlickrHealthProperties {
+
+    /**
+     * Delay between background flickr.test.login probes
+     */
+    private Duration probeInterval = Duration.ofSeconds(10);
+
+    /**
+     * Consecutive failed probes before Flickr is reported DOWN
+     */
+    private int failureThreshold = 2;
+
+    /**
+     * Age after which the last probe result is no longer trusted (probe hanging)
+     */
+    private Duration staleAfter = Duration.ofMinutes(1);
+
+    /**
+     * Time window of upload results the error rate is computed over
+     */
+    private Duration errorWindow = Duration.ofMinutes(1);
+
+    /**
+     * Share of failed Flickr uploads in the window that takes the instance out of service
+     */
+    private double errorRateThreshold = 0.5;
+
+    /**
+     * Uploads in the window needed before the error rate is considered
+     */
+    private int minUploads = 10;
+}
@@ -0,0 +1,27 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for idempotent upload requests (Idempotency-Key header).
+ * Maps properties from application.yml with prefix "upldr.idempotency".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a completed upload response is returned for a repeated key
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Maximum number of remembered keys (oldest completed are evicted first, running uploads are kept)
+     */
+    private int maxEntries = 10_000;
+}
@@ -0,0 +1,40 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for bulk import from the local file system.
+ * Maps properties from application.yml with prefix "upldr.import".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.import")
+public class ImportProperties {
+
+    /**
+     * Directory that import sources are resolved against; nothing outside it can be imported
+     */
+    private String baseDir = "/data/import";
+
+    /**
+     * Directory holding import checkpoints (files already uploaded per source)
+     */
+    private String checkpointDir = "import-checkpoints";
+
+    /**
+     * Default number of files of one import uploaded concurrently
+     */
+    private int parallelism = 4;
+
+    /**
+     * Upper bound of the parallelism of one import, also for parallelism given in the request
+     */
+    private int maxParallelism = 32;
+
+    /**
+     * Number of finished imports kept for status queries
+     */
+    private int history = 100;
+}
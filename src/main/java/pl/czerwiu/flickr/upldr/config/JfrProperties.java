@@ -0,0 +1,39 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for JDK Flight Recorder recordings.
+ * Maps properties from application.yml with prefix "upldr.jfr".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.jfr")
+public class JfrProperties {
+
+    /**
+     * Keep a low-overhead recording running at all times, so the recent past
+     * can be downloaded when an incident is noticed
+     */
+    private boolean continuous = true;
+
+    /**
+     * How much history the continuous recording keeps
+     */
+    private Duration maxAge = Duration.ofHours(1);
+
+    /**
+     * Disk space the continuous recording may use
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    /**
+     * Longest recording that can be started through the endpoint
+     */
+    private Duration maxDuration = Duration.ofMinutes(30);
+}
@@ -0,0 +1,32 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for bulk photo metadata updates.
+ * Maps properties from application.yml with prefix "upldr.photo-update".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.photo-update")
+public class PhotoUpdateProperties {
+
+    /**
+     * Maximum number of changes in a bulk update request
+     */
+    private int maxBatchSize = 10000;
+
+    /**
+     * Number of photos of one bulk update changed concurrently
+     */
+    private int parallelism = 4;
+
+    /**
+     * How long the response of a bulk update may stream results
+     */
+    private Duration timeout = Duration.ofHours(1);
+}
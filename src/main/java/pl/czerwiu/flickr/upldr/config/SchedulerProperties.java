@@ -0,0 +1,26 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the upload scheduler.
+ * Maps properties from application.yml with prefix "upldr.scheduler".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.scheduler")
+public class SchedulerProperties {
+
+    /**
+     * Number of worker threads running uploads
+     */
+    private int workers = 8;
+
+    /**
+     * Maximum number of interactive uploads started in a row while bulk uploads are waiting
+     * (prevents starvation of the bulk lane)
+     */
+    private int interactiveBurst = 4;
+}
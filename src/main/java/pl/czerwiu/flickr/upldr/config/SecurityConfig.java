@@ -14,10 +14,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
 /**
  * Security configuration for HTTP Basic Authentication.
  * Uses SHA-256 password hashing for credential validation.
@@ -32,7 +28,7 @@ public class SecurityConfig {
 
     /**
      * Configures HTTP security with Basic Auth.
-     * - /actuator/health is public (no auth required)
+     * - /actuator/health and its probes (liveness, readiness) are public (no auth required)
      * - /swagger-ui.html and /v3/api-docs are public
      * - All other endpoints require authentication
      */
@@ -40,7 +36,7 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/liveness", "/actuator/health/readiness").permitAll()
                 .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .anyRequest().authenticated()
             )
@@ -73,39 +69,6 @@ public class SecurityConfig {
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new PasswordEncoder() {
-            @Override
-            public String encode(CharSequence rawPassword) {
-                return sha256Hash(rawPassword.toString());
-            }
-
-            @Override
-            public boolean matches(CharSequence rawPassword, String encodedPassword) {
-                String hashedPassword = sha256Hash(rawPassword.toString());
-                return hashedPassword.equals(encodedPassword);
-            }
-
-            private String sha256Hash(String password) {
-                try {
-                    MessageDigest digest = MessageDigest.getInstance("SHA-256");
-                    byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-                    return bytesToHex(hash);
-                } catch (NoSuchAlgorithmException e) {
-                    throw new RuntimeException("SHA-256 algorithm not available", e);
-                }
-            }
-
-            private String bytesToHex(byte[] bytes) {
-                StringBuilder hexString = new StringBuilder();
-                for (byte b : bytes) {
-                    String hex = Integer.toHexString(0xff & b);
-                    if (hex.length() == 1) {
-                        hexString.append('0');
-                    }
-                    hexString.append(hex);
-                }
-                return hexString.toString();
-            }
-        };
+        return new Sha256PasswordEncoder();
     }
 }
@@ -0,0 +1,37 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import pl.czerwiu.flickr.upldr.state.InMemorySharedStateStore;
+import pl.czerwiu.flickr.upldr.state.RedisSharedStateStore;
+import pl.czerwiu.flickr.upldr.state.SharedStateStore;
+
+/**
+ * Configuration of the shared state backend.
+ * Selected with upldr.state.backend (memory by default, redis for multiple replicas).
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class SharedStateConfig {
+
+    private final SharedStateProperties sharedStateProperties;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "upldr.state", name = "backend", havingValue = "memory", matchIfMissing = true)
+    public SharedStateStore inMemorySharedStateStore() {
+        log.info("Using in-memory shared state (single instance)");
+        return new InMemorySharedStateStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "upldr.state", name = "backend", havingValue = "redis")
+    public SharedStateStore redisSharedStateStore(StringRedisTemplate redisTemplate) {
+        log.info("Using Redis shared state with key prefix: {}", sharedStateProperties.getKeyPrefix());
+        return new RedisSharedStateStore(redisTemplate, sharedStateProperties.getKeyPrefix());
+    }
+}
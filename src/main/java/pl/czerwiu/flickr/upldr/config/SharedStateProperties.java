@@ -0,0 +1,53 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for state shared between service replicas
+ * (album catalog, album creation leases, dedup hashes).
+ * Maps properties from application.yml with prefix "upldr.state".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.state")
+public class SharedStateProperties {
+
+    /**
+     * Backend holding shared state: MEMORY (single instance) or REDIS (multiple replicas)
+     */
+    private Backend backend = Backend.MEMORY;
+
+    /**
+     * Prefix of all keys written to the backend
+     */
+    private String keyPrefix = "flickr-upldr:";
+
+    /**
+     * How long a resolved album ID is cached before it is looked up on Flickr again
+     */
+    private Duration albumTtl = Duration.ofHours(24);
+
+    /**
+     * Lifetime of an album creation lease (released earlier when creation completes)
+     */
+    private Duration leaseTtl = Duration.ofSeconds(30);
+
+    /**
+     * Maximum time to wait for another instance holding the album creation lease
+     */
+    private Duration leaseWait = Duration.ofSeconds(60);
+
+    /**
+     * How long content hashes of uploaded photos are remembered for duplicate detection
+     */
+    private Duration dedupTtl = Duration.ofDays(30);
+
+    public enum Backend {
+        MEMORY,
+        REDIS
+    }
+}
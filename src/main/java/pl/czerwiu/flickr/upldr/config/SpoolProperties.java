@@ -0,0 +1,60 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for spooling uploaded files to disk.
+ * Maps properties from application.yml with prefix "upldr.spool".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.spool")
+public class SpoolProperties {
+
+    /**
+     * Directories uploaded files are spooled to, ideally on different disks
+     */
+    private List<String> directories = new ArrayList<>(List.of("/tmp/upldr-spool"));
+
+    /**
+     * Total space all spooled files may take, 0 = limited by free disk space only
+     */
+    private DataSize quota = DataSize.ofGigabytes(4);
+
+    /**
+     * Free space left untouched on every spool disk
+     */
+    private DataSize minFreeSpace = DataSize.ofGigabytes(1);
+
+    /**
+     * How long a request waits for spool space before it's rejected with 503
+     */
+    private Duration reserveWait = Duration.ofSeconds(10);
+
+    /**
+     * Largest accepted file
+     */
+    private DataSize maxFileSize = DataSize.ofMegabytes(200);
+
+    /**
+     * Largest accepted multipart request
+     */
+    private DataSize maxRequestSize = DataSize.ofMegabytes(210);
+
+    /**
+     * Files up to this size are kept in memory instead of being written to disk
+     */
+    private DataSize memoryThreshold = DataSize.ofMegabytes(2);
+
+    /**
+     * Reject files that don't start with the signature of an image or video format Flickr accepts
+     */
+    private boolean contentSniffing = true;
+}
@@ -0,0 +1,53 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressTracker;
+import pl.czerwiu.flickr.upldr.spool.SpoolStorage;
+import pl.czerwiu.flickr.upldr.spool.SpoolingMultipartResolver;
+import pl.czerwiu.flickr.upldr.tracing.ObservedMultipartResolver;
+import pl.czerwiu.flickr.upldr.video.VideoFiles;
+
+/**
+ * Configuration for distributed tracing of the upload workflow.
+ * Spans are exported via OTLP when management.opentelemetry.tracing.export.otlp.endpoint is set,
+ * and/or written to the application log when upldr.tracing.logging-exporter is enabled.
+ */
+@Slf4j
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Multipart resolver spooling uploaded files to managed storage, with multipart parsing traced.
+     * Servlet container multipart support is disabled (spring.servlet.multipart.enabled=false),
+     * so the container never reads the body on its own.
+     */
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public MultipartResolver multipartResolver(SpoolStorage spoolStorage,
+                                               SpoolProperties spoolProperties,
+                                               VideoProperties videoProperties,
+                                               VideoFiles videoFiles,
+                                               UploadProgressTracker uploadProgressTracker,
+                                               ObservationRegistry observationRegistry) {
+        return new ObservedMultipartResolver(
+            new SpoolingMultipartResolver(spoolStorage, spoolProperties, videoProperties, videoFiles, uploadProgressTracker),
+            observationRegistry);
+    }
+
+    /**
+     * Span exporter writing finished spans to the log (useful without a collector).
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "upldr.tracing", name = "logging-exporter", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        log.info("Logging span exporter enabled");
+        return LoggingSpanExporter.create();
+    }
+}
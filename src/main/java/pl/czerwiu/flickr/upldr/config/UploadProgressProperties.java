@@ -0,0 +1,47 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for upload progress reporting.
+ * Maps properties from application.yml with prefix "upldr.progress".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.progress")
+public class UploadProgressProperties {
+
+    /**
+     * How often progress is sampled and changes are sent to event streams
+     */
+    private Duration sampleInterval = Duration.ofMillis(500);
+
+    /**
+     * Keep-alive comment sent to event streams that had no event for this long
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * How long progress of a finished upload (or of an upload that never arrived) stays available
+     */
+    private Duration retention = Duration.ofMinutes(5);
+
+    /**
+     * Uploads still running after this long are no longer tracked
+     */
+    private Duration maxAge = Duration.ofHours(1);
+
+    /**
+     * Maximum number of tracked uploads; further uploads run without progress
+     */
+    private int maxUploads = 10000;
+
+    /**
+     * Timeout of a progress event stream
+     */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,71 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for uploads fetched from source URLs.
+ * Maps properties from application.yml with prefix "upldr.url-ingest".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.url-ingest")
+public class UrlIngestProperties {
+
+    /**
+     * Hosts photos may be fetched from: exact names, *.domain for its subdomains or * for any host;
+     * empty disables uploads from URLs
+     */
+    private List<String> allowedHosts = new ArrayList<>();
+
+    /**
+     * Allow hosts resolving to loopback, private, link-local or other internal addresses
+     */
+    private boolean allowInternalAddresses = false;
+
+    /**
+     * Redirects followed per URL, every location is checked like the URL itself
+     */
+    private int maxRedirects = 3;
+
+    /**
+     * Largest accepted photo
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(200);
+
+    /**
+     * Timeout for connecting to the source server
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Timeout for the response and for every read of its body
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of source URLs fetched concurrently
+     */
+    private int maxConcurrentFetches = 8;
+
+    /**
+     * How long a request waits for a free fetch slot before it is rejected
+     */
+    private Duration fetchWait = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of URLs in a batch request
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * Number of URLs of one batch fetched and uploaded concurrently
+     */
+    private int batchParallelism = 4;
+}
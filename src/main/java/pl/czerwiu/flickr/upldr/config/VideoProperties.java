@@ -0,0 +1,46 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for video uploads.
+ * Maps properties from application.yml with prefix "upldr.video".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.video")
+public class VideoProperties {
+
+    /**
+     * File extensions treated as video (besides video/* content types)
+     */
+    private List<String> extensions = new ArrayList<>(List.of(
+        "mp4", "mov", "m4v", "avi", "mpg", "mpeg", "3gp", "wmv", "m2ts", "ogv"));
+
+    /**
+     * Largest accepted video
+     */
+    private DataSize maxFileSize = DataSize.ofGigabytes(2);
+
+    /**
+     * Largest accepted multipart request carrying a video
+     */
+    private DataSize maxRequestSize = DataSize.ofMegabytes(2058);
+
+    /**
+     * Number of videos sent to Flickr concurrently, on workers separate from photo uploads
+     */
+    private int workers = 2;
+
+    /**
+     * Time Flickr may take to accept an uploaded video before it's reported as failed
+     */
+    private Duration processingTimeout = Duration.ofHours(1);
+}
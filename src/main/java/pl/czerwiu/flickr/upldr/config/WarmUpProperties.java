@@ -0,0 +1,52 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the warm-up run before the instance becomes ready.
+ * Maps properties from application.yml with prefix "upldr.warm-up".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.warm-up")
+public class WarmUpProperties {
+
+    /**
+     * Warm up before reporting readiness
+     */
+    private boolean enabled = true;
+
+    /**
+     * Flickr endpoints connections are opened to in advance
+     */
+    private List<String> preconnectUrls = new ArrayList<>(List.of(
+        "https://api.flickr.com/services/rest/",
+        "https://up.flickr.com/services/upload/"));
+
+    /**
+     * Timeout for connecting to and reading from the preconnected endpoints
+     */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Uploads run through the upload path against the in-process Flickr stub
+     */
+    private int iterations = 300;
+
+    /**
+     * Size of the synthetic photo uploaded to the stub
+     */
+    private DataSize fileSize = DataSize.ofKilobytes(256);
+
+    /**
+     * Longest warm-up; remaining iterations are skipped when it's reached
+     */
+    private Duration timeout = Duration.ofSeconds(60);
+}
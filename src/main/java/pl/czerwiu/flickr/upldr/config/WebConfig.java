@@ -0,0 +1,20 @@
+package pl.czerwiu.flickr.upldr.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadlineInterceptor;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressInterceptor;
+
+/**
+ * Spring MVC configuration.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new UploadProgressInterceptor()).addPathPatterns("/upload");
+        registry.addInterceptor(new UploadDeadlineInterceptor()).addPathPatterns("/upload", "/upload/from-url/**");
+    }
+}
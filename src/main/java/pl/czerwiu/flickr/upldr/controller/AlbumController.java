@@ -0,0 +1,158 @@
+package pl.czerwiu.flickr.upldr.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.service.AlbumCacheService;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * REST controller for reading the user's albums and their contents.
+ * Served from {@link AlbumCacheService}; unchanged pages are answered with 304 Not Modified.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/albums")
+@RequiredArgsConstructor
+@Tag(name = "Albums", description = "Cached read access to albums and their contents")
+public class AlbumController {
+
+    private final AlbumCacheService albumCacheService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Lists the user's albums.
+     *
+     * @param page       page number, starting at 1
+     * @param perPage    albums per page
+     * @param webRequest request, checked for If-None-Match
+     * @return page of albums, or 304 if the client's copy is current
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "List albums",
+        description = "Lists the user's albums from the server's cache, refreshed from Flickr every minute. " +
+                     "Responses carry a strong ETag; send it in If-None-Match to get 304 while nothing changed.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page of albums"),
+        @ApiResponse(responseCode = "304", description = "Page not modified since the given ETag"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - invalid page or page size",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public ResponseEntity<StreamingResponseBody> listAlbums(
+            @Parameter(description = "Page number, starting at 1") @RequestParam(defaultValue = "1") int page,
+            @Parameter(description = "Albums per page (default 100)") @RequestParam(required = false) Integer perPage,
+            WebRequest webRequest) {
+        return respond(albumCacheService.albums(page, perPage), "albums", null, webRequest);
+    }
+
+    /**
+     * Lists photos and videos in an album.
+     *
+     * @param id         album ID (photoset ID)
+     * @param page       page number, starting at 1
+     * @param perPage    photos per page
+     * @param webRequest request, checked for If-None-Match
+     * @return page of album photos, or 304 if the client's copy is current
+     */
+    @GetMapping(value = "/{id}/photos", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "List photos in album",
+        description = "Lists photos and videos in an album from the server's cache. Contents are loaded on first " +
+                     "request and reloaded when the album changes. Large pages are streamed. " +
+                     "Responses carry a strong ETag; send it in If-None-Match to get 304 while nothing changed.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page of album photos"),
+        @ApiResponse(responseCode = "304", description = "Page not modified since the given ETag"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - invalid page or page size",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Album not found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public ResponseEntity<StreamingResponseBody> listAlbumPhotos(
+            @Parameter(description = "Album ID") @PathVariable String id,
+            @Parameter(description = "Page number, starting at 1") @RequestParam(defaultValue = "1") int page,
+            @Parameter(description = "Photos per page (default 100)") @RequestParam(required = false) Integer perPage,
+            WebRequest webRequest) {
+        return respond(albumCacheService.photos(id, page, perPage), "photos", id, webRequest);
+    }
+
+    /**
+     * Answers 304 when the page is unchanged, otherwise streams it item by item,
+     * so large pages are never serialized as a whole.
+     */
+    private ResponseEntity<StreamingResponseBody> respond(AlbumCacheService.Page<?> page, String itemsName,
+                                                          String albumId, WebRequest webRequest) {
+        // The same list version and paging always produce the same bytes, so the ETag is strong
+        String etag = "\"" + page.version() + "-" + page.page() + "-" + page.perPage() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            log.debug("Album page not modified: albumId={}, page={}", albumId, page.page());
+            return null;
+        }
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                json.writeStartObject();
+                if (albumId != null) {
+                    json.writeStringProperty("albumId", albumId);
+                }
+                json.writeNumberProperty("page", page.page());
+                json.writeNumberProperty("perPage", page.perPage());
+                json.writeNumberProperty("pages", page.pages());
+                json.writeNumberProperty("total", page.total());
+                json.writeArrayPropertyStart(itemsName);
+                for (Object item : page.items()) {
+                    json.writePOJO(item);
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+}
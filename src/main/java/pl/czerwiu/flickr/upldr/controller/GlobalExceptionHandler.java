@@ -1,6 +1,9 @@
 package pl.czerwiu.flickr.upldr.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -10,19 +13,30 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
 import pl.czerwiu.flickr.upldr.exception.DuplicatePhotoException;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrRejectedException;
 import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.exception.NotFoundException;
 import pl.czerwiu.flickr.upldr.exception.RetryExhaustedException;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+import pl.czerwiu.flickr.upldr.exception.SourceFetchException;
+import pl.czerwiu.flickr.upldr.exception.UnsupportedFileTypeException;
+import pl.czerwiu.flickr.upldr.exception.UploadCancelledException;
 
 import java.time.LocalDateTime;
 
 /**
  * Global exception handler for all REST controllers.
- * Provides centralized error handling and standardized error responses.
+ * Provides centralized error handling and standardized error responses,
+ * counted in api.errors by {@link ErrorCategory}, exception class and status.
  */
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     /**
      * Handles DuplicatePhotoException (duplicate photo detected by Flickr).
      */
@@ -41,11 +55,47 @@ public class GlobalExceptionHandler {
             .path(extractPath(request))
             .build();
 
+        count(ex.getCategory(), ex, HttpStatus.CONFLICT);
+
         return ResponseEntity
             .status(HttpStatus.CONFLICT)
             .body(error);
     }
 
+    /**
+     * Handles FlickrRejectedException (Flickr refused the upload: invalid file, upload limit or other error).
+     */
+    @ExceptionHandler(FlickrRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleFlickrRejected(
+            FlickrRejectedException ex, WebRequest request) {
+
+        HttpStatus status = switch (ex.getCategory()) {
+            case CLIENT_ERROR -> HttpStatus.BAD_REQUEST;
+            case QUOTA -> HttpStatus.TOO_MANY_REQUESTS;
+            default -> HttpStatus.BAD_GATEWAY;
+        };
+        if (ex.getCategory() == ErrorCategory.PERMANENT) {
+            log.error("Flickr rejected the request: {}", ex.getDetails(), ex);
+        } else {
+            log.warn("Flickr rejected the request: category={}, error={}", ex.getCategory().tag(), ex.getDetails());
+        }
+
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(status.value())
+            .error(status.getReasonPhrase())
+            .message(ex.getMessage())
+            .details(ex.getDetails())
+            .path(extractPath(request))
+            .build();
+
+        count(ex.getCategory(), ex, status);
+
+        return ResponseEntity
+            .status(status)
+            .body(error);
+    }
+
     /**
      * Handles FlickrUploadException (photo upload failures).
      */
@@ -53,7 +103,13 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleFlickrUploadException(
             FlickrUploadException ex, WebRequest request) {
 
-        log.error("Flickr upload error: {}", ex.getMessage(), ex);
+        if (ex.getCategory() == ErrorCategory.PERMANENT) {
+            log.error("Flickr upload error: {}", ex.getMessage(), ex);
+        } else {
+            // Transient Flickr errors and limits, retried already; no stack trace for failures clients retry
+            log.warn("Flickr upload error: category={}, error={}, details={}",
+                ex.getCategory().tag(), ex.getMessage(), ex.getDetails());
+        }
 
         ErrorResponse error = ErrorResponse.builder()
             .timestamp(LocalDateTime.now())
@@ -64,11 +120,114 @@ public class GlobalExceptionHandler {
             .path(extractPath(request))
             .build();
 
+        count(ex.getCategory(), ex, HttpStatus.INTERNAL_SERVER_ERROR);
+
         return ResponseEntity
             .status(HttpStatus.INTERNAL_SERVER_ERROR)
             .body(error);
     }
 
+    /**
+     * Handles ServiceBusyException (capacity limit reached, e.g. Flickr calls or URL fetches).
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusy(
+            ServiceBusyException ex, WebRequest request) {
+
+        log.warn("Request rejected, service busy: {}", ex.getDetails());
+
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+            .message(ex.getMessage())
+            .details(ex.getDetails())
+            .path(extractPath(request))
+            .build();
+
+        count(ex.getCategory(), ex, HttpStatus.SERVICE_UNAVAILABLE);
+
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, ex.retryAfterHeader())
+            .body(error);
+    }
+
+    /**
+     * Handles SourceFetchException (photo can't be fetched from its source URL).
+     */
+    @ExceptionHandler(SourceFetchException.class)
+    public ResponseEntity<ErrorResponse> handleSourceFetch(
+            SourceFetchException ex, WebRequest request) {
+
+        log.warn("Source fetch failed: {}", ex.getDetails());
+
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.BAD_GATEWAY.value())
+            .error(HttpStatus.BAD_GATEWAY.getReasonPhrase())
+            .message(ex.getMessage())
+            .details(ex.getDetails())
+            .path(extractPath(request))
+            .build();
+
+        count(ex.getCategory(), ex, HttpStatus.BAD_GATEWAY);
+
+        return ResponseEntity
+            .status(HttpStatus.BAD_GATEWAY)
+            .body(error);
+    }
+
+    /**
+     * Handles UnsupportedFileTypeException (file is not an image or video Flickr accepts).
+     */
+    @ExceptionHandler(UnsupportedFileTypeException.class)
+    public ResponseEntity<ErrorResponse> handleUnsupportedFileType(
+            UnsupportedFileTypeException ex, WebRequest request) {
+
+        log.warn("Unsupported file rejected: {}", ex.getDetails());
+
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value())
+            .error(HttpStatus.UNSUPPORTED_MEDIA_TYPE.getReasonPhrase())
+            .message(ex.getMessage())
+            .details(ex.getDetails())
+            .path(extractPath(request))
+            .build();
+
+        count(ex.getCategory(), ex, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+
+        return ResponseEntity
+            .status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+            .body(error);
+    }
+
+    /**
+     * Handles UploadCancelledException (request deadline passed, client disconnected or instance shut down).
+     */
+    @ExceptionHandler(UploadCancelledException.class)
+    public ResponseEntity<ErrorResponse> handleUploadCancelled(
+            UploadCancelledException ex, WebRequest request) {
+
+        log.warn("Upload cancelled: reason={}, stage={}", ex.getReason(), ex.getStage());
+
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.GATEWAY_TIMEOUT.value())
+            .error(HttpStatus.GATEWAY_TIMEOUT.getReasonPhrase())
+            .message(ex.getMessage())
+            .details(ex.getDetails())
+            .path(extractPath(request))
+            .build();
+
+        count(ex.getCategory(), ex, HttpStatus.GATEWAY_TIMEOUT);
+
+        return ResponseEntity
+            .status(HttpStatus.GATEWAY_TIMEOUT)
+            .body(error);
+    }
+
     /**
      * Handles RetryExhaustedException (all retry attempts failed).
      */
@@ -87,11 +246,37 @@ public class GlobalExceptionHandler {
             .path(extractPath(request))
             .build();
 
+        count(ex.getCategory(), ex, HttpStatus.INTERNAL_SERVER_ERROR);
+
         return ResponseEntity
             .status(HttpStatus.INTERNAL_SERVER_ERROR)
             .body(error);
     }
 
+    /**
+     * Handles NotFoundException (unknown resource ID).
+     */
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(
+            NotFoundException ex, WebRequest request) {
+
+        log.warn("Resource not found: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.NOT_FOUND.value())
+            .error(HttpStatus.NOT_FOUND.getReasonPhrase())
+            .message(ex.getMessage())
+            .path(extractPath(request))
+            .build();
+
+        count(ex.getCategory(), ex, HttpStatus.NOT_FOUND);
+
+        return ResponseEntity
+            .status(HttpStatus.NOT_FOUND)
+            .body(error);
+    }
+
     /**
      * Handles MissingServletRequestParameterException (missing required parameters).
      */
@@ -112,6 +297,8 @@ public class GlobalExceptionHandler {
             .path(extractPath(request))
             .build();
 
+        count(ErrorCategory.CLIENT_ERROR, ex, HttpStatus.BAD_REQUEST);
+
         return ResponseEntity
             .status(HttpStatus.BAD_REQUEST)
             .body(error);
@@ -134,6 +321,8 @@ public class GlobalExceptionHandler {
             .path(extractPath(request))
             .build();
 
+        count(ErrorCategory.CLIENT_ERROR, ex, HttpStatus.BAD_REQUEST);
+
         return ResponseEntity
             .status(HttpStatus.BAD_REQUEST)
             .body(error);
@@ -152,11 +341,15 @@ public class GlobalExceptionHandler {
             .timestamp(LocalDateTime.now())
             .status(HttpStatus.BAD_REQUEST.value())
             .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
-            .message("File size exceeds maximum allowed size (200MB)")
+            .message(ex.getMaxUploadSize() > 0
+                ? "File size exceeds maximum allowed size (" + ex.getMaxUploadSize() / (1024 * 1024) + "MB)"
+                : "File size exceeds maximum allowed size")
             .details(ex.getMessage())
             .path(extractPath(request))
             .build();
 
+        count(ErrorCategory.CLIENT_ERROR, ex, HttpStatus.BAD_REQUEST);
+
         return ResponseEntity
             .status(HttpStatus.BAD_REQUEST)
             .body(error);
@@ -179,11 +372,23 @@ public class GlobalExceptionHandler {
             .path(extractPath(request))
             .build();
 
+        count(ErrorCategory.PERMANENT, ex, HttpStatus.INTERNAL_SERVER_ERROR);
+
         return ResponseEntity
             .status(HttpStatus.INTERNAL_SERVER_ERROR)
             .body(error);
     }
 
+    /**
+     * Counts the error response by category and exception class.
+     */
+    private void count(ErrorCategory category, Exception ex, HttpStatus status) {
+        meterRegistry.counter("api.errors",
+            "category", category.tag(),
+            "exception", ex.getClass().getSimpleName(),
+            "status", String.valueOf(status.value())).increment();
+    }
+
     /**
      * Extracts request path from WebRequest.
      */
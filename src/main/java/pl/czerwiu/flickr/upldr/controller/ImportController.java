@@ -0,0 +1,117 @@
+package pl.czerwiu.flickr.upldr.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.dto.ImportRequest;
+import pl.czerwiu.flickr.upldr.dto.ImportStatus;
+import pl.czerwiu.flickr.upldr.importer.ImportService;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * REST controller for bulk imports from the server's local file system.
+ * Imports run in the background; progress is polled via GET /imports/{id}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/imports")
+@RequiredArgsConstructor
+@Tag(name = "Import", description = "Bulk import of local directories and manifests")
+public class ImportController {
+
+    private final ImportService importService;
+
+    /**
+     * Starts import of a directory tree or CSV/JSON manifest.
+     * Re-running an import of the same source resumes it, skipping files already uploaded.
+     *
+     * @param request import source and options
+     * @return initial import status
+     */
+    @PostMapping
+    @Operation(
+        summary = "Start bulk import",
+        description = "Imports a directory (folders become albums) or a CSV/JSON manifest " +
+                     "located under the import base directory. Runs in the background.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Import started",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ImportStatus.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - source missing, unsupported or outside of base directory",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public ResponseEntity<ImportStatus> startImport(@RequestBody ImportRequest request, Principal principal) {
+        log.debug("Import endpoint called: source={}", request.getSource());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.start(request, principal.getName()));
+    }
+
+    /**
+     * Lists running and recently finished imports.
+     */
+    @GetMapping
+    @Operation(summary = "List imports", security = @SecurityRequirement(name = "basicAuth"))
+    public List<ImportStatus> listImports() {
+        return importService.list();
+    }
+
+    /**
+     * Returns import progress (files and bytes done, files/s, MB/s).
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get import progress", security = @SecurityRequirement(name = "basicAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import status"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Import not found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public ImportStatus getImport(@Parameter(description = "Import ID") @PathVariable String id) {
+        return importService.status(id);
+    }
+
+    /**
+     * Cancels import; uploads already in progress complete normally.
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancel import", security = @SecurityRequirement(name = "basicAuth"))
+    public ImportStatus cancelImport(@Parameter(description = "Import ID") @PathVariable String id) {
+        return importService.cancel(id);
+    }
+}
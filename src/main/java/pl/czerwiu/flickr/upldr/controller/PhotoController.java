@@ -0,0 +1,103 @@
+package pl.czerwiu.flickr.upldr.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import pl.czerwiu.flickr.upldr.config.PhotoUpdateProperties;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.dto.PhotoUpdateRequest;
+import pl.czerwiu.flickr.upldr.dto.PhotoUpdateResult;
+import pl.czerwiu.flickr.upldr.service.PhotoMetadataService;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * REST controller for changes of already uploaded photos.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Photos", description = "Operations on uploaded photos")
+public class PhotoController {
+
+    private final PhotoMetadataService photoMetadataService;
+    private final PhotoUpdateProperties properties;
+
+    /**
+     * Changes titles, descriptions and tags of many photos.
+     *
+     * @param changes photo IDs and their new metadata
+     * @return stream of per-photo results (newline-delimited JSON), in completion order
+     */
+    @PatchMapping(
+        value = "/photos/bulk",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @Operation(
+        summary = "Update metadata of many photos",
+        description = "Changes title, description and tags of the listed photos; fields left out are not changed " +
+                     "and tags replace the current ones. Changes to the same photo are merged into one update. " +
+                     "Photos are updated a few at a time and a result line is streamed as each one is done.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Update started, one result line per photo follows",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                schema = @Schema(implementation = PhotoUpdateResult.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - empty or too large list, missing photo ID or nothing to change",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public ResponseBodyEmitter updatePhotos(@RequestBody List<PhotoUpdateRequest> changes) {
+        log.debug("Bulk photo update endpoint called: changes={}", changes.size());
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(properties.getTimeout().toMillis());
+        photoMetadataService.update(changes, result -> send(emitter, result))
+            .whenComplete((done, error) -> {
+                if (error != null) {
+                    emitter.completeWithError(error);
+                } else {
+                    emitter.complete();
+                }
+            });
+        return emitter;
+    }
+
+    /**
+     * Writes a result line. Results come from several threads, so each line is written
+     * under the emitter's lock. A client that went away doesn't stop the update.
+     */
+    private static void send(ResponseBodyEmitter emitter, PhotoUpdateResult result) {
+        synchronized (emitter) {
+            try {
+                emitter.send(result, MediaType.APPLICATION_JSON);
+                emitter.send("\n", MediaType.TEXT_PLAIN);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Failed to send photo update result: photoId={}, error={}", result.getPhotoId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,25 +1,43 @@
 package pl.czerwiu.flickr.upldr.controller;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadlines;
 import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.dto.UploadPriority;
 import pl.czerwiu.flickr.upldr.dto.UploadRequest;
 import pl.czerwiu.flickr.upldr.dto.UploadResponse;
-import pl.czerwiu.flickr.upldr.service.UploadService;
+import pl.czerwiu.flickr.upldr.progress.UploadProgress;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressTracker;
+import pl.czerwiu.flickr.upldr.service.IdempotencyService;
+import pl.czerwiu.flickr.upldr.service.UploadScheduler;
+import pl.czerwiu.flickr.upldr.spool.SpooledMultipartFile;
+import pl.czerwiu.flickr.upldr.tracing.UploadObservations;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for photo upload operations.
@@ -31,27 +49,46 @@ import pl.czerwiu.flickr.upldr.service.UploadService;
 @Tag(name = "Upload", description = "Photo upload operations")
 public class UploadController {
 
-    private final UploadService uploadService;
+    private final UploadScheduler uploadScheduler;
+    private final IdempotencyService idempotencyService;
+    private final UploadDeadlines uploadDeadlines;
+    private final ObservationRegistry observationRegistry;
 
     /**
      * Upload photo to Flickr with metadata and album assignment.
      * If album doesn't exist, it will be created automatically.
+     * Album names (required, max 255 chars each) come from the repeated album field, the photo is added to all of them.
      *
-     * @param file        image file to upload (required, max 200MB)
-     * @param album       album name (required, max 255 chars)
+     * @param file        image or video file to upload (required, max 200MB for images, 2GB for videos)
      * @param title       photo title (optional, max 255 chars)
      * @param description photo description (optional, max 2000 chars)
      * @param tags        comma-separated tags (optional, max 500 chars)
-     * @return upload response with photo details
+     * @param dedupCheck  duplicate check mode (optional)
+     * @param priority    scheduling lane (optional, INTERACTIVE by default)
+     * @param ordered     preserve submission order within the album
+     * @param idempotencyKey client key identifying retries of the same upload (optional)
+     * @param uploadId    client ID to report the upload's progress under (optional)
+     * @param requestTimeout time the client waits for the response (optional, seconds or duration)
+     * @return upload response with photo details, completed asynchronously
      */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(
         summary = "Upload photo to Flickr",
-        description = "Uploads a photo to Flickr and adds it to specified album. " +
+        description = "Uploads a photo to Flickr and adds it to the specified albums. " +
                      "Creates album if it doesn't exist. " +
-                     "Supports automatic retry on transient failures.",
+                     "Videos are sent by separate workers and return once Flickr has finished processing them. " +
+                     "Supports automatic retry on transient failures. " +
+                     "Requests repeated with the same Idempotency-Key return the first upload's result.",
         security = @SecurityRequirement(name = "basicAuth")
     )
+    // Album fields are read from the request itself: a single value bound to a list would be split on commas
+    @Parameter(
+        name = "album",
+        in = ParameterIn.QUERY,
+        description = "Album name (created if doesn't exist); repeat the field to add the photo to several albums",
+        required = true,
+        array = @ArraySchema(schema = @Schema(type = "string", example = "Summer Vacation 2024"))
+    )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
@@ -69,6 +106,14 @@ public class UploadController {
                 schema = @Schema(implementation = ErrorResponse.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "415",
+            description = "Unsupported media type - file is not an image or video format accepted by Flickr",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
         @ApiResponse(
             responseCode = "409",
             description = "Conflict - duplicate photo detected (only when dedupCheck is enabled)",
@@ -85,6 +130,14 @@ public class UploadController {
                 schema = @Schema(implementation = ErrorResponse.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Flickr upload limit of the account reached",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error - upload failed after retries",
@@ -92,22 +145,31 @@ public class UploadController {
                 mediaType = "application/json",
                 schema = @Schema(implementation = ErrorResponse.class)
             )
+        ),
+        @ApiResponse(
+            responseCode = "502",
+            description = "Flickr rejected the upload (e.g. invalid credentials)",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "Request-Timeout passed before the upload finished, the upload was stopped",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
         )
     })
-    public ResponseEntity<UploadResponse> uploadPhoto(
+    public CompletableFuture<ResponseEntity<UploadResponse>> uploadPhoto(
             @Parameter(
-                description = "Image file to upload (JPG, PNG, GIF, WEBP, etc.)",
+                description = "Image (JPG, PNG, GIF, WEBP, etc., up to 200MB) or video (MP4, MOV, AVI, etc., up to 2GB) to upload",
                 required = true
             )
             @RequestParam("file") MultipartFile file,
 
-            @Parameter(
-                description = "Album name (created if doesn't exist)",
-                required = true,
-                example = "Summer Vacation 2024"
-            )
-            @RequestParam("album") String album,
-
             @Parameter(
                 description = "Photo title",
                 example = "Beach Sunset"
@@ -130,32 +192,148 @@ public class UploadController {
                 description = "Duplicate check mode: 1 = check all photos, 2 = check recent uploads only",
                 example = "1"
             )
-            @RequestParam(value = "dedupCheck", required = false) Integer dedupCheck
+            @RequestParam(value = "dedupCheck", required = false) Integer dedupCheck,
+
+            @Parameter(
+                description = "Scheduling lane: INTERACTIVE (default) or BULK",
+                example = "INTERACTIVE"
+            )
+            @RequestParam(value = "priority", required = false) UploadPriority priority,
+
+            @Parameter(
+                description = "Preserve submission order of uploads within the album",
+                example = "false"
+            )
+            @RequestParam(value = "ordered", defaultValue = "false") boolean ordered,
+
+            @Parameter(
+                description = "Client-generated key; retries with the same key don't upload the file again",
+                example = "3f2b8c1e-6a4d-4c1a-9a57-0c1d2e3f4a5b"
+            )
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+
+            @Parameter(
+                description = "Client-generated ID to follow the upload's progress at /uploads/{uploadId}/progress",
+                example = "8d0c2f7a-1b3e-4f5a-9c6d-7e8f9a0b1c2d"
+            )
+            @RequestHeader(value = UploadProgressTracker.HEADER, required = false) String uploadId,
+
+            @Parameter(
+                description = "Time the client waits for the response, in seconds or as a duration; " +
+                             "the upload is stopped once it passes (default 15m, 2h for videos)",
+                example = "120"
+            )
+            @RequestHeader(value = UploadDeadline.HEADER, required = false) String requestTimeout,
+
+            Principal principal,
+            HttpServletRequest httpRequest
     ) {
-        log.debug("Upload endpoint called: filename={}, album={}",
-            file.getOriginalFilename(), album);
+        String[] albumValues = httpRequest.getParameterValues("album");
+        List<String> albums = albumValues != null ? List.of(albumValues) : List.of();
+        log.debug("Upload endpoint called: filename={}, albums={}",
+            file.getOriginalFilename(), albums);
 
         // Validate required parameters
+        UploadProgress progress = (UploadProgress) httpRequest.getAttribute(UploadProgress.ATTRIBUTE);
+        if (uploadId != null && progress == null) {
+            throw new IllegalArgumentException("Upload-Id is invalid or used by another upload in progress");
+        }
+
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be empty");
         }
 
-        if (album == null || album.trim().isEmpty()) {
+        String firstAlbum = albums.isEmpty() ? null : albums.getFirst();
+        if (firstAlbum == null || firstAlbum.trim().isEmpty()) {
             throw new IllegalArgumentException("Album name is required");
         }
 
+        // Uploads with an idempotency key keep running without their client, a retry picks up the result
+        UploadDeadline deadline = uploadDeadlines.forUpload(requestTimeout, file, httpRequest, idempotencyKey == null);
+
         // Build upload request
         UploadRequest request = UploadRequest.builder()
-            .album(album.trim())
+            .album(firstAlbum.trim())
+            .additionalAlbums(albums.subList(1, albums.size()))
             .title(title != null ? title.trim() : null)
             .description(description != null ? description.trim() : null)
             .tags(tags != null ? tags.trim() : null)
             .dedupCheck(dedupCheck)
+            .priority(priority)
+            .ordered(ordered)
+            .user(principal != null ? principal.getName() : null)
+            .uploadId(progress != null ? uploadId : null)
+            .deadline(deadline)
             .build();
+        if (request.albums().size() > UploadRequest.MAX_ALBUMS) {
+            throw new IllegalArgumentException("At most " + UploadRequest.MAX_ALBUMS + " albums per photo are allowed");
+        }
+
+        // Delegate to scheduler; the container thread is released while the upload runs
+        Observation observation = Observation.createNotStarted(UploadObservations.UPLOAD_REQUEST, observationRegistry)
+            .highCardinalityKeyValue(UploadObservations.KEY_BYTES, String.valueOf(file.getSize()))
+            .highCardinalityKeyValue(UploadObservations.KEY_ALBUM, request.getAlbum())
+            .start();
+
+        if (progress != null) {
+            progress.queued(file.getSize());
+        }
 
-        // Delegate to service
-        UploadResponse response = uploadService.upload(file, request);
+        // The upload may still be queued when the request ends: a detached one after its client disconnected,
+        // any of them after the container timed out the request. It keeps the spool file until it's done.
+        SpooledMultipartFile spooled = file instanceof SpooledMultipartFile spooledFile ? spooledFile : null;
+        if (spooled != null) {
+            spooled.retain();
+        }
+
+        try (Observation.Scope scope = observation.openScope()) {
+            CompletableFuture<UploadResponse> upload;
+            boolean replayed = false;
+            if (idempotencyKey == null) {
+                upload = uploadScheduler.submit(file, request);
+            } else {
+                IdempotencyService.Result result = idempotencyService.execute(
+                    idempotencyKey, fingerprint(file, request), () -> uploadScheduler.submit(file, request));
+                upload = result.response();
+                replayed = result.replayed();
+            }
 
-        return ResponseEntity.ok(response);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (idempotencyKey != null) {
+                ok.header("Idempotent-Replayed", String.valueOf(replayed));
+            }
+            return upload
+                .whenComplete((response, error) -> {
+                    // Free the spool space now rather than when the async request ends
+                    if (spooled != null) {
+                        spooled.release();
+                    }
+                    if (error != null) {
+                        observation.error(error);
+                    }
+                    observation.stop();
+                    if (progress != null) {
+                        progress.finish(response, error);
+                    }
+                })
+                .thenApply(ok::body);
+        } catch (RuntimeException e) {
+            if (spooled != null) {
+                spooled.release();
+            }
+            observation.error(e);
+            observation.stop();
+            if (progress != null) {
+                progress.finish(null, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Identifies the upload behind an idempotency key, so a key reused for another file is rejected.
+     */
+    private static String fingerprint(MultipartFile file, UploadRequest request) {
+        return file.getOriginalFilename() + "|" + file.getSize() + "|" + String.join("|", request.albums());
     }
 }
@@ -0,0 +1,90 @@
+package pl.czerwiu.flickr.upldr.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.dto.UploadProgressStatus;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressStreams;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressTracker;
+
+import java.security.Principal;
+
+/**
+ * REST controller for progress of uploads sent with an Upload-Id header.
+ */
+@RestController
+@RequestMapping("/uploads")
+@RequiredArgsConstructor
+@Tag(name = "Upload", description = "Photo upload operations")
+public class UploadProgressController {
+
+    private final UploadProgressTracker uploadProgressTracker;
+    private final UploadProgressStreams uploadProgressStreams;
+
+    @GetMapping(value = "/{uploadId}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream upload progress",
+        description = "Server-Sent Events with the progress of the upload sent with this Upload-Id header: " +
+                     "bytes received and sent to Flickr, stage and finally the upload response or error. " +
+                     "A 'progress' event is sent when the progress changed (at most twice a second); " +
+                     "the stream ends after the DONE or FAILED event. Can be opened before the upload is sent.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream of progress"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - invalid upload ID",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public SseEmitter streamProgress(@Parameter(description = "Upload ID") @PathVariable String uploadId,
+                                     Principal principal) {
+        return uploadProgressStreams.subscribe(uploadProgressTracker.watch(uploadId, principal.getName()));
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(
+        summary = "Get upload progress",
+        description = "Current progress of the upload sent with this Upload-Id header, for clients that poll.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Upload progress",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = UploadProgressStatus.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - invalid upload ID",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public UploadProgressStatus getProgress(@Parameter(description = "Upload ID") @PathVariable String uploadId,
+                                            Principal principal) {
+        return uploadProgressTracker.watch(uploadId, principal.getName()).status();
+    }
+}
@@ -0,0 +1,157 @@
+package pl.czerwiu.flickr.upldr.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadlines;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.dto.UrlUploadRequest;
+import pl.czerwiu.flickr.upldr.dto.UrlUploadResult;
+import pl.czerwiu.flickr.upldr.importer.UrlIngestService;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST controller for uploads fetched by the server from source URLs,
+ * so clients don't have to download photos only to post them again.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Upload", description = "Photo upload operations")
+public class UrlUploadController {
+
+    private final UrlIngestService urlIngestService;
+    private final UploadDeadlines uploadDeadlines;
+
+    /**
+     * Fetches photo from URL and uploads it to Flickr.
+     *
+     * @param request        URL, album and photo metadata
+     * @param requestTimeout time the client waits for the response (optional, seconds or duration)
+     * @return upload response with photo details, completed asynchronously
+     */
+    @PostMapping(value = "/upload/from-url", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Upload photo from URL",
+        description = "Fetches a photo from an http(s) URL and uploads it to Flickr like POST /upload. " +
+                     "The content is streamed to Flickr, spooled on the way so retries don't fetch it again.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Photo uploaded successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = UploadResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - invalid or not allowed URL (host not allowed or internal address), " +
+                          "missing album, empty or too large file",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "415",
+            description = "Source declares a content type that is not an image or video",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "502",
+            description = "Source server unreachable or responded with an error",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many URL uploads in progress",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "Request-Timeout passed before the upload finished, the upload was stopped",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public CompletableFuture<ResponseEntity<UploadResponse>> uploadFromUrl(
+            @RequestBody UrlUploadRequest request,
+            @Parameter(description = "Time the client waits for the response, in seconds or as a duration (default 15m)")
+            @RequestHeader(value = UploadDeadline.HEADER, required = false) String requestTimeout,
+            Principal principal, HttpServletRequest httpRequest) {
+        log.debug("URL upload endpoint called: url={}, album={}", request.getUrl(), request.getAlbum());
+        UploadDeadline deadline = uploadDeadlines.forUrlUpload(requestTimeout, httpRequest);
+        return urlIngestService.upload(request, principal.getName(), deadline).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Fetches photos from a list of URLs and uploads them to Flickr.
+     *
+     * @param requests       URLs, albums and photo metadata
+     * @param requestTimeout time the client waits for the response (optional, seconds or duration)
+     * @return one result per URL, in request order, completed asynchronously
+     */
+    @PostMapping(value = "/upload/from-url/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Upload photos from URLs",
+        description = "Fetches and uploads a list of URLs in the bulk lane, a few at a time. " +
+                     "Responds when all are done, with a result per URL.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Batch processed, see per-URL results"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - empty or too large batch",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public CompletableFuture<List<UrlUploadResult>> uploadBatchFromUrls(
+            @RequestBody List<UrlUploadRequest> requests,
+            @Parameter(description = "Time the client waits for the response, in seconds or as a duration (default 15m)")
+            @RequestHeader(value = UploadDeadline.HEADER, required = false) String requestTimeout,
+            Principal principal, HttpServletRequest httpRequest) {
+        log.debug("URL batch upload endpoint called: urls={}", requests.size());
+        UploadDeadline deadline = uploadDeadlines.forUrlUpload(requestTimeout, httpRequest);
+        return urlIngestService.uploadBatch(requests, principal.getName(), deadline);
+    }
+}
@@ -0,0 +1,186 @@
+package pl.czerwiu.flickr.upldr.deadline;
+
+import pl.czerwiu.flickr.upldr.exception.UploadCancelledException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+
+/**
+ * Time budget of an upload, carried with its {@link pl.czerwiu.flickr.upldr.dto.UploadRequest}.
+ * Upload stages check it before outbound work and cap their waits by the remaining time;
+ * once it has passed, or the client has disconnected, they fail with {@link UploadCancelledException}
+ * instead of uploading and adding photos for a response nobody reads.
+ */
+public final class UploadDeadline {
+
+    /**
+     * Request header with the client's timeout, in seconds or as a duration (30, 30s, PT30S).
+     */
+    public static final String HEADER = "Request-Timeout";
+
+    /**
+     * Request attribute holding the deadline of the request's upload.
+     */
+    public static final String ATTRIBUTE = UploadDeadline.class.getName();
+
+    /**
+     * Request attribute set when the upload should finish even if its client disconnects.
+     */
+    public static final String DETACHED = UploadDeadline.class.getName() + ".detached";
+
+    /**
+     * Request attribute with the {@link System#nanoTime()} the request started to arrive at.
+     */
+    public static final String STARTED_AT = UploadDeadline.class.getName() + ".startedAt";
+
+    public static final String REASON_DEADLINE = "deadline";
+    public static final String REASON_DISCONNECTED = "disconnected";
+    public static final String REASON_SHUTDOWN = "shutdown";
+
+    private static final UploadDeadline NONE = new UploadDeadline(0, null);
+
+    private final long deadlineNanos;
+    private final Duration timeout;
+    private volatile String cancelReason;
+
+    private UploadDeadline(long deadlineNanos, Duration timeout) {
+        this.deadlineNanos = deadlineNanos;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return deadline of uploads without a client (imports, recovery, warm-up), never passes or cancels
+     */
+    public static UploadDeadline none() {
+        return NONE;
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} the budget is counted from
+     * @param timeout    time budget, null, zero or negative for none (the upload can still be cancelled)
+     */
+    public static UploadDeadline after(long startNanos, Duration timeout) {
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            return new UploadDeadline(0, null);
+        }
+        return new UploadDeadline(startNanos + timeout.toNanos(), timeout);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return nanoseconds left, {@link Long#MAX_VALUE} without a deadline, 0 once cancelled
+     */
+    public long remainingNanos() {
+        if (cancelReason != null) {
+            return 0;
+        }
+        return timeout == null ? Long.MAX_VALUE : Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * @return the shorter of the wait and the time left
+     */
+    public Duration cap(Duration wait) {
+        long remaining = remainingNanos();
+        return remaining < wait.toNanos() ? Duration.ofNanos(remaining) : wait;
+    }
+
+    /**
+     * Cancels the upload, running stages stop at their next check.
+     *
+     * @param reason {@link #REASON_DISCONNECTED}, {@link #REASON_DEADLINE} or {@link #REASON_SHUTDOWN}
+     */
+    public void cancel(String reason) {
+        if (this != NONE && cancelReason == null) {
+            cancelReason = reason;
+        }
+    }
+
+    /**
+     * @return why the upload should stop, or null while it may continue
+     */
+    public String reason() {
+        String reason = cancelReason;
+        if (reason != null) {
+            return reason;
+        }
+        return timeout != null && System.nanoTime() - deadlineNanos >= 0 ? REASON_DEADLINE : null;
+    }
+
+    public boolean isOver() {
+        return reason() != null;
+    }
+
+    /**
+     * @param stage upload stage about to start
+     * @throws UploadCancelledException if the deadline passed or the client disconnected
+     */
+    public void check(String stage) {
+        if (isOver()) {
+            throw cancelled(stage, null);
+        }
+    }
+
+    /**
+     * Tells a failure caused by cancellation (e.g. an aborted stream or a wait cut short)
+     * from a genuine one.
+     *
+     * @return {@link UploadCancelledException} if the upload is over, otherwise the error itself
+     */
+    public Throwable cancellation(Throwable error, String stage) {
+        if (error instanceof UploadCancelledException || !isOver()) {
+            return error;
+        }
+        return cancelled(stage, error);
+    }
+
+    /**
+     * Wraps a stream so reading stops once the upload is over.
+     */
+    public InputStream guard(InputStream in) {
+        return this == NONE ? in : new GuardedInputStream(in);
+    }
+
+    private UploadCancelledException cancelled(String stage, Throwable cause) {
+        String reason = reason();
+        String details = switch (reason) {
+            case REASON_DISCONNECTED -> "Client disconnected before the upload finished (stage " + stage + ")";
+            case REASON_SHUTDOWN -> "Instance shut down before the upload finished (stage " + stage + ")";
+            default -> "Request deadline" + (timeout != null ? " of " + timeout : "")
+                + " passed before the upload finished (stage " + stage + ")";
+        };
+        return new UploadCancelledException("Upload cancelled", details, reason, stage, cause);
+    }
+
+    private final class GuardedInputStream extends FilterInputStream {
+
+        private GuardedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureOpen();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            return super.read(b, off, len);
+        }
+
+        private void ensureOpen() throws InterruptedIOException {
+            String reason = reason();
+            if (reason != null) {
+                throw new InterruptedIOException("Upload cancelled: " + reason);
+            }
+        }
+    }
+}
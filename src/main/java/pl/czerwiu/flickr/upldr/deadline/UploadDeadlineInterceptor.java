@@ -0,0 +1,68 @@
+package pl.czerwiu.flickr.upldr.deadline;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ties the async request of an upload to its deadline: the request times out a little after
+ * the deadline (instead of at spring.mvc.async.request-timeout), and the upload is cancelled
+ * when its client disconnects (the container reports the closed connection as an async error)
+ * or the request times out, so it stops at its next stage instead of finishing for a response
+ * nobody reads.
+ */
+@Slf4j
+public class UploadDeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * Time the upload has after its deadline to answer with its own 504 before the container times out.
+     */
+    private static final long TIMEOUT_GRACE_MILLIS = 5_000;
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (!(request.getAttribute(UploadDeadline.ATTRIBUTE) instanceof UploadDeadline deadline)
+                || !request.isAsyncStarted()) {
+            return;
+        }
+        boolean detached = request.getAttribute(UploadDeadline.DETACHED) != null;
+        try {
+            AsyncContext asyncContext = request.getAsyncContext();
+            if (deadline.getTimeout() != null) {
+                asyncContext.setTimeout(TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos()) + TIMEOUT_GRACE_MILLIS);
+            }
+            asyncContext.addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    deadline.cancel(UploadDeadline.REASON_DEADLINE);
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    if (detached) {
+                        return;
+                    }
+                    log.debug("Client disconnected, cancelling upload: uri={}", request.getRequestURI());
+                    deadline.cancel(UploadDeadline.REASON_DISCONNECTED);
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } catch (IllegalStateException e) {
+            // Upload already completed and the async request was dispatched
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package pl.czerwiu.flickr.upldr.deadline;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import pl.czerwiu.flickr.upldr.config.DeadlineProperties;
+import pl.czerwiu.flickr.upldr.video.VideoFiles;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Creates deadlines of upload requests from the Request-Timeout header or the endpoint's default.
+ * Deadlines count from when the request started to arrive, so time spent receiving the body is included.
+ */
+@Component
+public class UploadDeadlines {
+
+    private final DeadlineProperties properties;
+    private final VideoFiles videoFiles;
+
+    public UploadDeadlines(DeadlineProperties properties, VideoFiles videoFiles) {
+        this.properties = properties;
+        this.videoFiles = videoFiles;
+    }
+
+    /**
+     * Deadline of a file upload, the default depends on whether the file is a video.
+     *
+     * @param requestTimeout  Request-Timeout header value, may be null
+     * @param file            uploaded file
+     * @param httpRequest     request, the deadline is stored on it for {@link UploadDeadlineInterceptor}
+     * @param cancelOnDisconnect false to let the upload finish without its client (e.g. when a retry can pick it up)
+     */
+    public UploadDeadline forUpload(String requestTimeout, MultipartFile file, HttpServletRequest httpRequest,
+                                    boolean cancelOnDisconnect) {
+        Duration defaultTimeout = videoFiles.isVideo(file)
+            ? properties.getVideoUploadTimeout()
+            : properties.getUploadTimeout();
+        return start(requestTimeout, defaultTimeout, httpRequest, cancelOnDisconnect);
+    }
+
+    /**
+     * Deadline of an upload from URLs.
+     */
+    public UploadDeadline forUrlUpload(String requestTimeout, HttpServletRequest httpRequest) {
+        return start(requestTimeout, properties.getUrlUploadTimeout(), httpRequest, true);
+    }
+
+    private UploadDeadline start(String requestTimeout, Duration defaultTimeout, HttpServletRequest httpRequest,
+                                 boolean cancelOnDisconnect) {
+        Duration timeout = requestTimeout != null ? parse(requestTimeout) : defaultTimeout;
+        long startNanos = httpRequest.getAttribute(UploadDeadline.STARTED_AT) instanceof Long startedAt
+            ? startedAt
+            : System.nanoTime();
+        UploadDeadline deadline = UploadDeadline.after(startNanos, timeout);
+        httpRequest.setAttribute(UploadDeadline.ATTRIBUTE, deadline);
+        if (!cancelOnDisconnect) {
+            httpRequest.setAttribute(UploadDeadline.DETACHED, Boolean.TRUE);
+        }
+        return deadline;
+    }
+
+    private Duration parse(String requestTimeout) {
+        Duration timeout;
+        try {
+            // Plain numbers are seconds
+            timeout = DurationStyle.detectAndParse(requestTimeout.trim(), ChronoUnit.SECONDS);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(UploadDeadline.HEADER + " must be a duration, e.g. 30 or 30s");
+        }
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException(UploadDeadline.HEADER + " must be positive");
+        }
+        return timeout.compareTo(properties.getMaxTimeout()) > 0 ? properties.getMaxTimeout() : timeout;
+    }
+}
@@ -0,0 +1,221 @@
+package pl.czerwiu.flickr.upldr.drain;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.DrainProperties;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+import pl.czerwiu.flickr.upldr.importer.ImportService;
+import pl.czerwiu.flickr.upldr.service.UploadScheduler;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drains uploads before the application stops: readiness goes DOWN, new uploads are
+ * refused after a short delay, running imports stop submitting files and uploads in
+ * progress get a grace period to finish. Uploads whose photo is already on Flickr but
+ * didn't finish in time are stopped and written to the pending upload journal, their clients
+ * get a PENDING response and the next instance adds the photos to their albums. Uploads
+ * still sending the photo are stopped and answered with a 503, their clients retry.
+ * Runs on shutdown before the web server stops, or earlier through the drain endpoint
+ * (e.g. from a pre-stop hook).
+ */
+@Slf4j
+@Component
+public class DrainCoordinator implements SmartLifecycle {
+
+    public enum State {
+        RUNNING,
+        DRAINING,
+        DRAINED
+    }
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(250);
+
+    private final InFlightUploads inFlightUploads;
+    private final UploadScheduler uploadScheduler;
+    private final ImportService importService;
+    private final PendingUploadJournal journal;
+    private final DrainProperties drainProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<CompletableFuture<Void>> drain = new AtomicReference<>();
+    private final AtomicInteger checkpointed = new AtomicInteger();
+    private final AtomicInteger abandoned = new AtomicInteger();
+    private volatile State state = State.RUNNING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile boolean running;
+
+    public DrainCoordinator(InFlightUploads inFlightUploads,
+                            UploadScheduler uploadScheduler,
+                            ImportService importService,
+                            PendingUploadJournal journal,
+                            DrainProperties drainProperties,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry) {
+        this.inFlightUploads = inFlightUploads;
+        this.uploadScheduler = uploadScheduler;
+        this.importService = importService;
+        this.journal = journal;
+        this.drainProperties = drainProperties;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts draining (once) in the background.
+     *
+     * @return future completed when draining is finished
+     */
+    public CompletableFuture<Void> drain() {
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        if (drain.compareAndSet(null, started)) {
+            Thread.ofVirtual().name("drain").start(() -> {
+                try {
+                    doDrain();
+                    started.complete(null);
+                } catch (Throwable e) {
+                    log.error("Drain failed: {}", e.getMessage(), e);
+                    started.completeExceptionally(e);
+                }
+            });
+        }
+        return drain.get();
+    }
+
+    public DrainStatus status() {
+        return new DrainStatus(state, startedAt, finishedAt, inFlightUploads.count(),
+            uploadScheduler.queuedCount(), checkpointed.get(), abandoned.get());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            drain().join();
+        } catch (RuntimeException e) {
+            log.warn("Shutting down without complete drain: {}", e.getMessage());
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Highest phase, so draining finishes before the web server shuts down.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE;
+    }
+
+    private void doDrain() throws InterruptedException {
+        startedAt = Instant.now();
+        state = State.DRAINING;
+        log.info("Draining started: inFlight={}, queued={}", inFlightUploads.count(), uploadScheduler.queuedCount());
+
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        Thread.sleep(drainProperties.getReadinessDelay());
+
+        inFlightUploads.startDraining();
+        importService.cancelAll();
+
+        long deadline = System.nanoTime() + drainProperties.getGracePeriod().toNanos();
+        while ((inFlightUploads.count() > 0 || uploadScheduler.queuedCount() > 0) && System.nanoTime() - deadline < 0) {
+            Thread.sleep(POLL_INTERVAL);
+        }
+
+        int rejected = uploadScheduler.rejectQueued(new ServiceBusyException(
+            "Service is shutting down, please retry", "Upload was not started before shutdown"));
+        for (InFlightUpload upload : inFlightUploads.snapshot()) {
+            if (upload.isRecoverable()) {
+                handOver(upload);
+            } else {
+                abandon(upload);
+            }
+        }
+
+        finishedAt = Instant.now();
+        state = State.DRAINED;
+        log.info("Draining finished: duration={}ms, rejected={}, checkpointed={}, abandoned={}",
+            Duration.between(startedAt, finishedAt).toMillis(), rejected, checkpointed.get(), abandoned.get());
+    }
+
+    /**
+     * Stops the upload, journals it for the next instance and answers its client with a PENDING response.
+     * The album step running when the upload is stopped may still finish; recovery adding the photo
+     * again is harmless, Flickr's "already in set" counts as added.
+     */
+    private void handOver(InFlightUpload upload) {
+        // Stop the worker first, so its album steps don't race the next instance's
+        upload.getRequest().getDeadline().cancel(UploadDeadline.REASON_SHUTDOWN);
+        try {
+            List<String> albums = upload.getRequest().albums();
+            journal.append(new PendingUpload(upload.getPhotoId(), upload.getTicketId(),
+                albums.getFirst(), albums.subList(1, albums.size()), 0));
+        } catch (IOException e) {
+            abandoned.incrementAndGet();
+            log.error("Failed to checkpoint upload: photoId={}, ticketId={}",
+                upload.getPhotoId(), upload.getTicketId(), e);
+            return;
+        }
+
+        checkpointed.incrementAndGet();
+        meterRegistry.counter("upload.drain.checkpointed").increment();
+        inFlightUploads.remove(upload);
+        upload.getResponse().complete(UploadResponse.builder()
+            .photoId(upload.getPhotoId())
+            .album(upload.getRequest().getAlbum())
+            .uploadedAt(Instant.now())
+            .status("PENDING")
+            .build());
+    }
+
+    /**
+     * Stops an upload still sending the photo and answers its client with a 503, so it retries
+     * on another instance.
+     */
+    private void abandon(InFlightUpload upload) {
+        upload.getRequest().getDeadline().cancel(UploadDeadline.REASON_SHUTDOWN);
+        abandoned.incrementAndGet();
+        meterRegistry.counter("upload.drain.abandoned").increment();
+        inFlightUploads.remove(upload);
+        upload.getResponse().completeExceptionally(new ServiceBusyException(
+            "Service is shutting down, please retry", "Upload was still sending the photo at shutdown"));
+        log.warn("Upload still sending at shutdown: album={}", upload.getRequest().getAlbum());
+    }
+
+    /**
+     * Drain progress returned by the drain endpoint.
+     *
+     * @param inFlightUploads uploads started and not finished
+     * @param queuedUploads   uploads waiting for a worker
+     * @param checkpointed    uploads handed over to the next instance
+     * @param abandoned       uploads still sending bytes at the end of the grace period
+     */
+    public record DrainStatus(State state, Instant startedAt, Instant finishedAt, int inFlightUploads,
+                              int queuedUploads, int checkpointed, int abandoned) {
+    }
+}
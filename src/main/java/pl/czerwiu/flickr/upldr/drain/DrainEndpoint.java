@@ -0,0 +1,30 @@
+package pl.czerwiu.flickr.upldr.drain;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint showing drain progress ({@code GET /actuator/drain}) and starting
+ * a drain ahead of shutdown ({@code POST /actuator/drain}, e.g. from a pre-stop hook).
+ */
+@Component
+@Endpoint(id = "drain")
+@RequiredArgsConstructor
+public class DrainEndpoint {
+
+    private final DrainCoordinator drainCoordinator;
+
+    @ReadOperation
+    public DrainCoordinator.DrainStatus status() {
+        return drainCoordinator.status();
+    }
+
+    @WriteOperation
+    public DrainCoordinator.DrainStatus drain() {
+        drainCoordinator.drain();
+        return drainCoordinator.status();
+    }
+}
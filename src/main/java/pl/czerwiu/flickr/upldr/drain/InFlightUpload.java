@@ -0,0 +1,87 @@
+package pl.czerwiu.flickr.upldr.drain;
+
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Upload in progress with the last step it reached.
+ */
+public class InFlightUpload {
+
+    public enum Stage {
+        /**
+         * Photo bytes are being sent to Flickr
+         */
+        SENDING,
+        /**
+         * Flickr received the photo and processes it (async upload ticket)
+         */
+        PROCESSING,
+        /**
+         * Photo is on Flickr, album steps are running
+         */
+        ALBUM
+    }
+
+    private final UploadRequest request;
+    private final CompletableFuture<UploadResponse> response = new CompletableFuture<>();
+    private volatile Stage stage = Stage.SENDING;
+    private volatile String ticketId;
+    private volatile String photoId;
+
+    InFlightUpload(UploadRequest request) {
+        this.request = request;
+    }
+
+    /**
+     * Records that Flickr accepted the photo for async processing.
+     *
+     * @return the ticket ID
+     */
+    public String ticketSent(String ticketId) {
+        this.ticketId = ticketId;
+        this.stage = Stage.PROCESSING;
+        return ticketId;
+    }
+
+    /**
+     * Records that the photo is on Flickr.
+     */
+    public void photoUploaded(String photoId) {
+        this.photoId = photoId;
+        this.stage = Stage.ALBUM;
+    }
+
+    /**
+     * Future of the upload's response, completed when the upload finishes
+     * or is handed over to the next instance.
+     */
+    public CompletableFuture<UploadResponse> getResponse() {
+        return response;
+    }
+
+    public UploadRequest getRequest() {
+        return request;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    public String getPhotoId() {
+        return photoId;
+    }
+
+    /**
+     * Whether the photo reached Flickr, so the remaining steps can be completed without the file.
+     */
+    public boolean isRecoverable() {
+        return stage != Stage.SENDING;
+    }
+}
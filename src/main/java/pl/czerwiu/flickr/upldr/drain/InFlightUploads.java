@@ -0,0 +1,93 @@
+package pl.czerwiu.flickr.upldr.drain;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of uploads in progress and the drain flag that stops new uploads from being accepted.
+ */
+@Component
+public class InFlightUploads {
+
+    private final Set<InFlightUpload> uploads = ConcurrentHashMap.newKeySet();
+    private volatile boolean draining;
+
+    public InFlightUploads(MeterRegistry meterRegistry) {
+        Gauge.builder("upload.inflight", uploads, Set::size)
+            .description("Uploads between start and response")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Registers an upload that is starting. Uploads without a client (imports) get a deadline
+     * of their own, so draining can stop them too.
+     *
+     * @param request upload request
+     * @return registered upload
+     */
+    public InFlightUpload register(UploadRequest request) {
+        if (request.getDeadline() == UploadDeadline.none()) {
+            request.setDeadline(UploadDeadline.after(System.nanoTime(), null));
+        }
+        InFlightUpload upload = new InFlightUpload(request);
+        uploads.add(upload);
+        return upload;
+    }
+
+    /**
+     * Completes the upload's response with the result and removes it from the registry.
+     */
+    public void complete(InFlightUpload upload, CompletableFuture<UploadResponse> result) {
+        result.whenComplete((response, error) -> {
+            uploads.remove(upload);
+            if (error != null) {
+                upload.getResponse().completeExceptionally(error);
+            } else {
+                upload.getResponse().complete(response);
+            }
+        });
+    }
+
+    /**
+     * Removes an upload handed over to the next instance.
+     */
+    void remove(InFlightUpload upload) {
+        uploads.remove(upload);
+    }
+
+    public List<InFlightUpload> snapshot() {
+        return List.copyOf(uploads);
+    }
+
+    public int count() {
+        return uploads.size();
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    void startDraining() {
+        draining = true;
+    }
+
+    /**
+     * @throws ServiceBusyException if the instance is draining
+     */
+    public void checkAccepting() {
+        if (draining) {
+            throw new ServiceBusyException("Service is shutting down, please retry",
+                "Uploads are not accepted while the instance drains");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package pl.czerwiu.flickr.upldr.drain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upload whose photo is on Flickr but whose album steps were not completed before shutdown.
+ *
+ * @param photoId          Flickr photo ID (null while the async upload ticket is unresolved)
+ * @param ticketId         async upload ticket ID (null for synchronous uploads)
+ * @param album            album name
+ * @param additionalAlbums further album names (null in journals written before multi-album uploads)
+ * @param attempts         recovery attempts made so far
+ */
+public record PendingUpload(String photoId, String ticketId, String album, List<String> additionalAlbums, int attempts) {
+
+    /**
+     * @return album followed by the additional albums
+     */
+    List<String> albums() {
+        List<String> albums = new ArrayList<>();
+        albums.add(album);
+        if (additionalAlbums != null) {
+            albums.addAll(additionalAlbums);
+        }
+        return albums;
+    }
+
+    /**
+     * @param resolvedPhotoId photo ID if resolved during this attempt
+     * @param remainingAlbums albums the photo still has to be added to
+     */
+    PendingUpload retry(String resolvedPhotoId, List<String> remainingAlbums) {
+        return new PendingUpload(resolvedPhotoId != null ? resolvedPhotoId : photoId, ticketId,
+            remainingAlbums.getFirst(), remainingAlbums.subList(1, remainingAlbums.size()), attempts + 1);
+    }
+}
@@ -0,0 +1,89 @@
+package pl.czerwiu.flickr.upldr.drain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.DrainProperties;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Journal of uploads to be completed by the next instance, one JSON object per line.
+ * Every instance appends to its own file; on startup an instance claims all journal
+ * files with an atomic rename, so each entry is recovered by one instance only.
+ */
+@Slf4j
+@Component
+public class PendingUploadJournal {
+
+    private static final String PREFIX = "pending-";
+    private static final String SUFFIX = ".jsonl";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public PendingUploadJournal(ObjectMapper objectMapper, DrainProperties drainProperties) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(drainProperties.getJournalDir()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Appends entry to this instance's journal file (flushed immediately).
+     */
+    public synchronized void append(PendingUpload upload) throws IOException {
+        Files.createDirectories(directory);
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(PREFIX + instanceId + SUFFIX),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(objectMapper.writeValueAsString(upload));
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Takes over all journal files and returns their entries. Claimed files are deleted.
+     */
+    public List<PendingUpload> claimAll() throws IOException {
+        List<PendingUpload> uploads = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return uploads;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+
+        for (Path file : files) {
+            Path claimed = directory.resolve(file.getFileName() + ".claimed-" + instanceId);
+            try {
+                Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                continue;  // claimed by another instance
+            } catch (AtomicMoveNotSupportedException e) {
+                log.warn("Journal directory doesn't support atomic moves, skipping: {}", file);
+                continue;
+            }
+
+            for (String line : Files.readAllLines(claimed, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    uploads.add(objectMapper.readValue(line, PendingUpload.class));
+                }
+            }
+            Files.delete(claimed);
+        }
+        return uploads;
+    }
+}
@@ -0,0 +1,103 @@
+package pl.czerwiu.flickr.upldr.drain;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.service.AlbumService;
+import pl.czerwiu.flickr.upldr.service.TicketPoller;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Completes album steps of uploads handed over by a previous instance during its shutdown.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingUploadRecovery {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final PendingUploadJournal journal;
+    private final AlbumService albumService;
+    private final TicketPoller ticketPoller;
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingUploads() {
+        Thread.ofVirtual().name("pending-upload-recovery").start(this::recover);
+    }
+
+    private void recover() {
+        List<PendingUpload> uploads;
+        try {
+            uploads = journal.claimAll();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to read pending upload journal: {}", e.getMessage(), e);
+            return;
+        }
+        if (uploads.isEmpty()) {
+            return;
+        }
+
+        log.info("Completing uploads handed over by previous instance: count={}", uploads.size());
+        uploads.forEach(this::recover);
+    }
+
+    private void recover(PendingUpload upload) {
+        String photoId = upload.photoId();
+        List<String> remainingAlbums = new ArrayList<>();
+        RuntimeException failure = null;
+        try {
+            if (photoId == null) {
+                photoId = ticketPoller.await(upload.ticketId()).join();
+            }
+        } catch (RuntimeException e) {
+            remainingAlbums.addAll(upload.albums());
+            failure = e;
+        }
+
+        if (failure == null) {
+            for (String album : upload.albums()) {
+                try {
+                    String albumId = albumService.addPhotoToNamedAlbum(photoId, album,
+                        albumService.ensureAlbum(album, photoId), UploadDeadline.none()).albumId();
+                    log.atInfo()
+                        .setMessage("Pending upload completed")
+                        .addKeyValue("photoId", photoId)
+                        .addKeyValue("albumId", albumId)
+                        .log();
+                } catch (RuntimeException e) {
+                    remainingAlbums.add(album);
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure == null) {
+            meterRegistry.counter("upload.drain.recovered", "result", "completed").increment();
+            return;
+        }
+
+        // Only albums the photo wasn't added to are retried
+        if (upload.attempts() + 1 >= MAX_ATTEMPTS) {
+            meterRegistry.counter("upload.drain.recovered", "result", "failed").increment();
+            log.error("Giving up pending upload: photoId={}, ticketId={}, albums={}, error={}",
+                photoId, upload.ticketId(), remainingAlbums, failure.getMessage(), failure);
+            return;
+        }
+        log.warn("Pending upload not completed, will retry after restart: photoId={}, albums={}, error={}",
+            photoId, remainingAlbums, failure.getMessage());
+        try {
+            journal.append(upload.retry(photoId, remainingAlbums));
+        } catch (IOException ex) {
+            log.error("Failed to keep pending upload: photoId={}, albums={}", photoId, remainingAlbums, ex);
+        }
+    }
+}
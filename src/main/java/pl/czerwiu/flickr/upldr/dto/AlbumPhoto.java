@@ -0,0 +1,38 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Photo or video in an album, as listed by GET /albums/{id}/photos.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumPhoto {
+
+    /**
+     * Flickr photo ID.
+     */
+    private String id;
+
+    /**
+     * Photo title.
+     */
+    private String title;
+
+    /**
+     * Media type: "photo" or "video".
+     */
+    private String media;
+
+    /**
+     * When the photo was uploaded to Flickr.
+     */
+    private Instant uploadedAt;
+}
@@ -0,0 +1,36 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of adding an uploaded photo to one of its albums.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumResult {
+
+    /**
+     * Album name.
+     */
+    private String album;
+
+    /**
+     * Flickr album ID (photoset ID), null if the album couldn't be resolved.
+     */
+    private String albumId;
+
+    /**
+     * Whether the photo was added to the album.
+     */
+    private boolean success;
+
+    /**
+     * Error message (on failure).
+     */
+    private String error;
+}
@@ -0,0 +1,48 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Album (photoset) as listed by GET /albums.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumSummary {
+
+    /**
+     * Album ID (photoset ID).
+     */
+    private String id;
+
+    /**
+     * Album title.
+     */
+    private String title;
+
+    /**
+     * Album description.
+     */
+    private String description;
+
+    /**
+     * Number of photos in the album.
+     */
+    private int photos;
+
+    /**
+     * Number of videos in the album.
+     */
+    private int videos;
+
+    /**
+     * Last change of the album on Flickr.
+     */
+    private Instant updatedAt;
+}
@@ -0,0 +1,43 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for bulk import of local files.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRequest {
+
+    /**
+     * Directory or manifest (.csv or .json) to import, relative to the import base directory (required).
+     * Directories are walked recursively, each folder becomes an album.
+     */
+    private String source;
+
+    /**
+     * Comma-separated tags added to every imported photo (optional).
+     */
+    private String tags;
+
+    /**
+     * Duplicate photo check mode (optional), see UploadRequest.
+     */
+    private Integer dedupCheck;
+
+    /**
+     * Number of files uploaded concurrently (optional, defaults to upldr.import.parallelism,
+     * limited to 1..upldr.import.max-parallelism).
+     */
+    private Integer parallelism;
+
+    /**
+     * Preserve file order within each album (optional, defaults to false).
+     */
+    private boolean ordered;
+}
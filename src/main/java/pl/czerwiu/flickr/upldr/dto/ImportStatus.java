@@ -0,0 +1,83 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response DTO describing progress of a bulk import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportStatus {
+
+    /**
+     * Import ID.
+     */
+    private String id;
+
+    /**
+     * Imported directory or manifest.
+     */
+    private String source;
+
+    /**
+     * Import state: RUNNING, COMPLETED, FAILED or CANCELLED.
+     */
+    private String state;
+
+    /**
+     * Number of files found in the source.
+     */
+    private long filesTotal;
+
+    /**
+     * Number of files uploaded by this run.
+     */
+    private long filesUploaded;
+
+    /**
+     * Number of files skipped because a previous run already uploaded them.
+     */
+    private long filesSkipped;
+
+    /**
+     * Number of files that failed to upload (retried when the import is resumed).
+     */
+    private long filesFailed;
+
+    /**
+     * Bytes uploaded by this run.
+     */
+    private long bytesUploaded;
+
+    /**
+     * Upload rate in files per second.
+     */
+    private double filesPerSecond;
+
+    /**
+     * Upload rate in megabytes (MiB) per second.
+     */
+    private double megabytesPerSecond;
+
+    /**
+     * Import start time.
+     */
+    private Instant startedAt;
+
+    /**
+     * Import end time (null while running).
+     */
+    private Instant finishedAt;
+
+    /**
+     * Last error message (optional).
+     */
+    private String lastError;
+}
@@ -0,0 +1,37 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Metadata change of a single photo in a bulk update.
+ * Fields left null are not changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoUpdateRequest {
+
+    /**
+     * Flickr photo ID (required).
+     */
+    private String photoId;
+
+    /**
+     * New photo title.
+     */
+    private String title;
+
+    /**
+     * New photo description.
+     */
+    private String description;
+
+    /**
+     * New comma-separated tags, replacing all current tags (empty string removes them).
+     */
+    private String tags;
+}
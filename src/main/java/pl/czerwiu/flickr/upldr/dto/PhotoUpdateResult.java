@@ -0,0 +1,36 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of the changes to a single photo in a bulk update.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoUpdateResult {
+
+    /**
+     * Flickr photo ID.
+     */
+    private String photoId;
+
+    /**
+     * Number of requested changes merged into this update.
+     */
+    private int changes;
+
+    /**
+     * Whether all changes were applied.
+     */
+    private boolean success;
+
+    /**
+     * Error message (on failure).
+     */
+    private String error;
+}
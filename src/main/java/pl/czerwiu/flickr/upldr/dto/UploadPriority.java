@@ -0,0 +1,17 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+/**
+ * Scheduling lane of an upload request.
+ */
+public enum UploadPriority {
+
+    /**
+     * Single uploads a user is waiting for, scheduled ahead of bulk work.
+     */
+    INTERACTIVE,
+
+    /**
+     * Backfills and imports, using capacity left over by interactive uploads.
+     */
+    BULK
+}
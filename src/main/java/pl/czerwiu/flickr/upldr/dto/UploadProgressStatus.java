@@ -0,0 +1,66 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of an upload, reported by GET /uploads/{uploadId} and its event stream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadProgressStatus {
+
+    /**
+     * Client-supplied upload ID.
+     */
+    private String uploadId;
+
+    /**
+     * Current stage.
+     */
+    private UploadStage stage;
+
+    /**
+     * Size of the request body, -1 if not known (chunked request).
+     */
+    private long requestBytes;
+
+    /**
+     * Bytes of the request body received so far.
+     */
+    private long bytesReceived;
+
+    /**
+     * Size of the uploaded file, -1 until the body is received.
+     */
+    private long fileBytes;
+
+    /**
+     * Bytes sent to Flickr in the current attempt.
+     */
+    private long bytesSent;
+
+    /**
+     * Flickr upload ticket ID (async uploads).
+     */
+    private String ticketId;
+
+    /**
+     * Flickr photo ID, once known.
+     */
+    private String photoId;
+
+    /**
+     * Upload response (when DONE).
+     */
+    private UploadResponse response;
+
+    /**
+     * Error message (when FAILED).
+     */
+    private String error;
+}
@@ -4,6 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Request DTO for photo upload.
@@ -15,12 +22,23 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class UploadRequest {
 
+    /**
+     * Maximum number of albums a photo can be added to in one upload.
+     */
+    public static final int MAX_ALBUMS = 20;
+
     /**
      * Album name (required).
      * If album doesn't exist, it will be created.
      */
     private String album;
 
+    /**
+     * Further albums to add the photo to (optional), created if they don't exist.
+     * The photo is uploaded once and added to all albums in parallel.
+     */
+    private List<String> additionalAlbums;
+
     /**
      * Photo title (optional).
      */
@@ -42,4 +60,50 @@ public class UploadRequest {
      * 1 = check all user's photos, 2 = check recent uploads only, null = no check.
      */
     private Integer dedupCheck;
+
+    /**
+     * Scheduling lane (optional, defaults to INTERACTIVE).
+     */
+    private UploadPriority priority;
+
+    /**
+     * Preserve submission order within the album (optional, defaults to false).
+     * Ordered uploads to the same album run one at a time, in FIFO order.
+     */
+    private boolean ordered;
+
+    /**
+     * Authenticated user submitting the upload (set by the server, used for per-user bandwidth limits).
+     */
+    private String user;
+
+    /**
+     * Client-supplied ID the upload's progress is reported under (optional, from the Upload-Id header).
+     */
+    private String uploadId;
+
+    /**
+     * Time budget of the upload (set by the server from the Request-Timeout header or the endpoint's default).
+     */
+    @Builder.Default
+    private UploadDeadline deadline = UploadDeadline.none();
+
+    /**
+     * Album followed by the additional albums, trimmed, without blank names
+     * and case-insensitive duplicates (album names are case-insensitive).
+     */
+    public List<String> albums() {
+        Map<String, String> albums = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>();
+        names.add(album);
+        if (additionalAlbums != null) {
+            names.addAll(additionalAlbums);
+        }
+        for (String name : names) {
+            if (name != null && !name.trim().isEmpty()) {
+                albums.putIfAbsent(name.trim().toLowerCase(Locale.ROOT), name.trim());
+            }
+        }
+        return List.copyOf(albums.values());
+    }
 }
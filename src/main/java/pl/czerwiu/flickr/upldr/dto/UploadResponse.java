@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Response DTO for successful photo upload.
@@ -23,22 +24,29 @@ public class UploadResponse {
     private String photoId;
 
     /**
-     * Album name where photo was uploaded.
+     * Album name where photo was uploaded (the first album when there are several).
      */
     private String album;
 
     /**
-     * Flickr album ID (photoset ID).
+     * Flickr album ID (photoset ID) of the first album.
      */
     private String albumId;
 
+    /**
+     * Result per album, in request order (when the photo was added to its albums).
+     */
+    private List<AlbumResult> albums;
+
     /**
      * Upload timestamp (ISO 8601 format).
      */
     private Instant uploadedAt;
 
     /**
-     * Upload status (always "SUCCESS" for this response).
+     * Upload status: "SUCCESS", "PARTIAL" if the photo couldn't be added to some of its albums (see albums),
+     * or "PENDING" if the instance shut down before the photo was added to its albums
+     * (the next instance adds it; photoId is null until Flickr processed an async upload).
      */
     private String status;
 
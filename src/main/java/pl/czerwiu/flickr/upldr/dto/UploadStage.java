@@ -0,0 +1,56 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+/**
+ * Stage of an upload, as reported by the upload progress endpoints.
+ */
+public enum UploadStage {
+
+    /**
+     * Progress was requested before the upload arrived.
+     */
+    WAITING,
+
+    /**
+     * The server is receiving the request body.
+     */
+    RECEIVING,
+
+    /**
+     * Received, waiting for an upload slot.
+     */
+    QUEUED,
+
+    /**
+     * Photo bytes are being sent to Flickr.
+     */
+    UPLOADING,
+
+    /**
+     * Flickr received the bytes and is processing the photo (async uploads).
+     */
+    PROCESSING,
+
+    /**
+     * Looking up or creating the album.
+     */
+    RESOLVING_ALBUM,
+
+    /**
+     * Adding the photo to the album.
+     */
+    ADDING_TO_ALBUM,
+
+    /**
+     * Finished, the response is available.
+     */
+    DONE,
+
+    /**
+     * Finished with an error.
+     */
+    FAILED;
+
+    public boolean isFinal() {
+        return this == DONE || this == FAILED;
+    }
+}
@@ -0,0 +1,63 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for uploading a photo fetched by the server from a URL.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UrlUploadRequest {
+
+    /**
+     * HTTP(S) URL of the photo (required).
+     */
+    private String url;
+
+    /**
+     * Album name (required), created if it doesn't exist.
+     */
+    private String album;
+
+    /**
+     * Further albums to add the photo to (optional).
+     */
+    private List<String> additionalAlbums;
+
+    /**
+     * Photo title (optional).
+     */
+    private String title;
+
+    /**
+     * Photo description (optional).
+     */
+    private String description;
+
+    /**
+     * Comma-separated tags (optional).
+     */
+    private String tags;
+
+    /**
+     * Duplicate photo check mode (optional), see UploadRequest.
+     */
+    private Integer dedupCheck;
+
+    /**
+     * Scheduling lane (optional, INTERACTIVE for single uploads, BULK for batches).
+     */
+    private UploadPriority priority;
+
+    /**
+     * Preserve submission order within the album (optional, defaults to false).
+     */
+    private boolean ordered;
+}
@@ -0,0 +1,36 @@
+package pl.czerwiu.flickr.upldr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a single URL in a batch upload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UrlUploadResult {
+
+    /**
+     * Source URL.
+     */
+    private String url;
+
+    /**
+     * Whether the photo was uploaded and added to its album.
+     */
+    private boolean success;
+
+    /**
+     * Upload details (on success).
+     */
+    private UploadResponse upload;
+
+    /**
+     * Error message (on failure).
+     */
+    private String error;
+}
@@ -2,18 +2,19 @@ package pl.czerwiu.flickr.upldr.exception;
 
 /**
  * Exception thrown when Flickr detects a duplicate photo upload (error code 9).
+ * Expected outcome of dedup checks, created without a stack trace.
  */
 public class DuplicatePhotoException extends FlickrUploaderException {
 
     public DuplicatePhotoException(String message) {
-        super(message);
+        this(message, null, null);
     }
 
     public DuplicatePhotoException(String message, String details) {
-        super(message, details);
+        this(message, details, null);
     }
 
     public DuplicatePhotoException(String message, String details, Throwable cause) {
-        super(message, details, cause);
+        super(message, details, cause, ErrorCategory.DUPLICATE, false);
     }
 }
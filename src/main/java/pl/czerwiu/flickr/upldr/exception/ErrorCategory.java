@@ -0,0 +1,59 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+/**
+ * Kind of failure, telling whether a retry can help and who has to act.
+ * Tags the api.errors metric and decides how Flickr errors are retried and reported.
+ */
+public enum ErrorCategory {
+
+    /**
+     * Transient failure (Flickr unavailable, network error), the same request may succeed later.
+     */
+    RETRYABLE("retryable"),
+
+    /**
+     * Failure a retry won't fix (rejected credentials, unexpected Flickr error).
+     */
+    PERMANENT("permanent"),
+
+    /**
+     * Photo was already uploaded.
+     */
+    DUPLICATE("duplicate"),
+
+    /**
+     * Invalid request or file.
+     */
+    CLIENT_ERROR("client-error"),
+
+    /**
+     * Capacity or upload limit reached, the client has to slow down or wait.
+     */
+    QUOTA("quota"),
+
+    /**
+     * Upload stopped before it finished: its deadline passed, its client disconnected or the instance shut down.
+     */
+    CANCELLED("cancelled");
+
+    private final String tag;
+
+    ErrorCategory(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * @return true for outcomes of normal operation (duplicates, client errors, limits, cancellations),
+     * false for faults
+     */
+    public boolean isExpected() {
+        return this == DUPLICATE || this == CLIENT_ERROR || this == QUOTA || this == CANCELLED;
+    }
+
+    /**
+     * @return value of the category metric tag
+     */
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,72 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+import java.util.Set;
+
+/**
+ * Maps Flickr API error codes to {@link ErrorCategory}.
+ * Codes 1-99 mean different things for each API method, so only the upload codes are mapped
+ * for uploads; codes from 100 on (and 95-99, auth) are the same for all methods.
+ */
+public final class FlickrErrorCodes {
+
+    /**
+     * Upload error: the photo is a duplicate of one already uploaded.
+     */
+    public static final String DUPLICATE_PHOTO = "9";
+
+    /**
+     * photosets.addPhoto error: the photoset doesn't exist (e.g. it was deleted on Flickr).
+     */
+    public static final String PHOTOSET_NOT_FOUND = "1";
+
+    /**
+     * photosets.addPhoto error: the photo is already in the photoset.
+     */
+    public static final String PHOTO_ALREADY_IN_SET = "3";
+
+    // No photo specified, filesize was zero, filetype was not recognised, filesize too large
+    private static final Set<String> UPLOAD_CLIENT_ERRORS = Set.of("2", "4", "5", "8");
+    // User exceeded upload limit, maximum number of photos reached
+    private static final Set<String> UPLOAD_QUOTA = Set.of("6", "10");
+    // General upload failure
+    private static final Set<String> UPLOAD_RETRYABLE = Set.of("3");
+    // Service currently unavailable, write operation failed
+    private static final Set<String> RETRYABLE = Set.of("105", "106");
+
+    private FlickrErrorCodes() {
+    }
+
+    /**
+     * @param code error code of a failed upload, null or empty when Flickr couldn't be reached
+     * @return category of the failure
+     */
+    public static ErrorCategory categorizeUpload(String code) {
+        if (code == null || code.isEmpty()) {
+            return ErrorCategory.RETRYABLE;
+        }
+        if (DUPLICATE_PHOTO.equals(code)) {
+            return ErrorCategory.DUPLICATE;
+        }
+        if (UPLOAD_CLIENT_ERRORS.contains(code)) {
+            return ErrorCategory.CLIENT_ERROR;
+        }
+        if (UPLOAD_QUOTA.contains(code)) {
+            return ErrorCategory.QUOTA;
+        }
+        if (UPLOAD_RETRYABLE.contains(code)) {
+            return ErrorCategory.RETRYABLE;
+        }
+        return categorize(code);
+    }
+
+    /**
+     * @param code error code of a failed API call, null or empty when Flickr couldn't be reached
+     * @return category of the failure, {@link ErrorCategory#PERMANENT} for method-specific codes
+     */
+    public static ErrorCategory categorize(String code) {
+        if (code == null || code.isEmpty() || RETRYABLE.contains(code)) {
+            return ErrorCategory.RETRYABLE;
+        }
+        return ErrorCategory.PERMANENT;
+    }
+}
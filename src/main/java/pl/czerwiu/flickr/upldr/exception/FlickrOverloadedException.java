@@ -0,0 +1,17 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a Flickr call can't get a free slot within the concurrency limit in time.
+ */
+public class FlickrOverloadedException extends ServiceBusyException {
+
+    public FlickrOverloadedException(String message, String details) {
+        super(message, details);
+    }
+
+    public FlickrOverloadedException(String message, String details, Duration retryAfter) {
+        super(message, details, retryAfter);
+    }
+}
@@ -0,0 +1,24 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when Flickr refuses a call for a reason a retry won't fix:
+ * an invalid file ({@link ErrorCategory#CLIENT_ERROR}), a reached upload limit
+ * ({@link ErrorCategory#QUOTA}) or any other error ({@link ErrorCategory#PERMANENT}).
+ * Only permanent errors, which point at a problem on this side, keep their stack trace.
+ */
+@Getter
+public class FlickrRejectedException extends FlickrUploadException {
+
+    /**
+     * Flickr API error code.
+     */
+    private final String errorCode;
+
+    public FlickrRejectedException(String message, String details, Throwable cause,
+                                   ErrorCategory category, String errorCode) {
+        super(message, details, cause, category, category == ErrorCategory.PERMANENT);
+        this.errorCode = errorCode;
+    }
+}
@@ -16,4 +16,13 @@ public class FlickrUploadException extends FlickrUploaderException {
     public FlickrUploadException(String message, String details, Throwable cause) {
         super(message, details, cause);
     }
+
+    public FlickrUploadException(String message, String details, Throwable cause, ErrorCategory category) {
+        super(message, details, cause, category, true);
+    }
+
+    protected FlickrUploadException(String message, String details, Throwable cause,
+                                    ErrorCategory category, boolean stackTrace) {
+        super(message, details, cause, category, stackTrace);
+    }
 }
@@ -5,29 +5,43 @@ import lombok.Getter;
 /**
  * Base exception for all application-specific exceptions.
  * All custom exceptions should extend this class.
+ * <p>
+ * Exceptions for expected outcomes (duplicates, rejected requests, capacity limits) are created
+ * without a stack trace: filling it in is most of the cost of throwing, and it's never logged for them.
  */
 @Getter
 public class FlickrUploaderException extends RuntimeException {
 
     private final String details;
 
+    /**
+     * Kind of failure, for retries, responses and metrics.
+     */
+    private final ErrorCategory category;
+
     public FlickrUploaderException(String message) {
-        super(message);
-        this.details = null;
+        this(message, null, null, ErrorCategory.PERMANENT, true);
     }
 
     public FlickrUploaderException(String message, String details) {
-        super(message);
-        this.details = details;
+        this(message, details, null, ErrorCategory.PERMANENT, true);
     }
 
     public FlickrUploaderException(String message, Throwable cause) {
-        super(message, cause);
-        this.details = null;
+        this(message, null, cause, ErrorCategory.PERMANENT, true);
     }
 
     public FlickrUploaderException(String message, String details, Throwable cause) {
-        super(message, cause);
+        this(message, details, cause, ErrorCategory.PERMANENT, true);
+    }
+
+    /**
+     * @param stackTrace false for expected outcomes, which don't need a stack trace
+     */
+    protected FlickrUploaderException(String message, String details, Throwable cause,
+                                      ErrorCategory category, boolean stackTrace) {
+        super(message, cause, true, stackTrace);
         this.details = details;
+        this.category = category;
     }
 }
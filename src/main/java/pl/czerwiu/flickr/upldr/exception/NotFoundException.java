@@ -0,0 +1,12 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+/**
+ * Exception thrown when a requested resource does not exist.
+ * Expected outcome of client requests, created without a stack trace.
+ */
+public class NotFoundException extends FlickrUploaderException {
+
+    public NotFoundException(String message) {
+        super(message, null, null, ErrorCategory.CLIENT_ERROR, false);
+    }
+}
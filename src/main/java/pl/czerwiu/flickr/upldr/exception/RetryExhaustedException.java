@@ -6,6 +6,6 @@ package pl.czerwiu.flickr.upldr.exception;
 public class RetryExhaustedException extends FlickrUploaderException {
 
     public RetryExhaustedException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, null, cause, ErrorCategory.RETRYABLE, true);
     }
 }
@@ -0,0 +1,39 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request can't be served because a capacity limit is reached.
+ * The client should retry later. Created without a stack trace, rejections come in bursts.
+ */
+@Getter
+public class ServiceBusyException extends FlickrUploaderException {
+
+    /**
+     * Retry-After of rejections without an estimate of when capacity frees up.
+     */
+    public static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(30);
+
+    /**
+     * How long the client should wait before retrying (Retry-After).
+     */
+    private final Duration retryAfter;
+
+    public ServiceBusyException(String message, String details) {
+        this(message, details, DEFAULT_RETRY_AFTER);
+    }
+
+    public ServiceBusyException(String message, String details, Duration retryAfter) {
+        super(message, details, null, ErrorCategory.QUOTA, false);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return Retry-After header value, whole seconds rounded up
+     */
+    public String retryAfterHeader() {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+}
@@ -0,0 +1,15 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+/**
+ * Exception thrown when a photo can't be fetched from its source URL.
+ */
+public class SourceFetchException extends FlickrUploaderException {
+
+    public SourceFetchException(String message, String details) {
+        super(message, details);
+    }
+
+    public SourceFetchException(String message, String details, Throwable cause) {
+        super(message, details, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+/**
+ * Exception thrown when an uploaded file is not an image or video format Flickr accepts.
+ * Expected outcome of content checks, created without a stack trace.
+ */
+public class UnsupportedFileTypeException extends FlickrUploaderException {
+
+    public UnsupportedFileTypeException(String message, String details) {
+        super(message, details, null, ErrorCategory.CLIENT_ERROR, false);
+    }
+}
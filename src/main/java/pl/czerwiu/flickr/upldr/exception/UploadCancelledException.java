@@ -0,0 +1,27 @@
+package pl.czerwiu.flickr.upldr.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when an upload is abandoned because its deadline passed or its client disconnected.
+ * Created without a stack trace, the cause (if any) tells where the upload was interrupted.
+ */
+@Getter
+public class UploadCancelledException extends FlickrUploaderException {
+
+    /**
+     * Why the upload was cancelled ("deadline" or "disconnected").
+     */
+    private final String reason;
+
+    /**
+     * Upload stage that was cancelled.
+     */
+    private final String stage;
+
+    public UploadCancelledException(String message, String details, String reason, String stage, Throwable cause) {
+        super(message, details, cause, ErrorCategory.CANCELLED, false);
+        this.reason = reason;
+        this.stage = stage;
+    }
+}
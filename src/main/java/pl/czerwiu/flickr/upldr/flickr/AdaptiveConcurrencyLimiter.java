@@ -0,0 +1,271 @@
+package pl.czerwiu.flickr.upldr.flickr;
+
+import com.flickr4java.flickr.FlickrException;
+import lombok.extern.slf4j.Slf4j;
+import pl.czerwiu.flickr.upldr.config.FlickrConcurrencyProperties;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.exception.FlickrOverloadedException;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+import pl.czerwiu.flickr.upldr.exception.UploadCancelledException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits concurrent Flickr calls with a limit that follows observed latency.
+ * The limit grows while latency stays close to its long-term baseline and shrinks
+ * proportionally when latency rises (gradient), and multiplicatively on transport
+ * failures, so a slow Flickr gets fewer concurrent calls instead of a longer queue.
+ * Calls over the limit wait for a free slot up to the configured time. Rejected calls are told
+ * when to retry from how long the calls waiting ahead of them would take to drain.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Number of samples the baseline latency is averaged over.
+     */
+    private static final int LONG_WINDOW = 10_000;
+
+    /**
+     * Number of samples the current latency is averaged over.
+     */
+    private static final int SHORT_WINDOW = 10;
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final String name;
+    private final FlickrConcurrencyProperties.Limit settings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private final LongAdder rejected = new LongAdder();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double callNanos;
+    private double longRtt;
+    private double shortRtt;
+
+    public AdaptiveConcurrencyLimiter(String name, FlickrConcurrencyProperties.Limit settings) {
+        this.name = name;
+        this.settings = settings;
+        this.limit = settings.getInitialLimit();
+    }
+
+    /**
+     * Runs call within the limit.
+     *
+     * @param units size of the call's work (e.g. MB uploaded), latency is compared per unit
+     * @param call  Flickr call
+     * @return call result
+     * @throws FlickrException          when thrown by the call
+     * @throws FlickrOverloadedException if no slot was freed within the configured wait
+     */
+    public <T> T execute(long units, FlickrCall<T> call) throws FlickrException {
+        return execute(units, UploadDeadline.none(), call);
+    }
+
+    /**
+     * Runs call within the limit, waiting for a slot no longer than the upload's deadline allows.
+     *
+     * @param units    size of the call's work (e.g. MB uploaded), latency is compared per unit
+     * @param deadline deadline of the upload the call belongs to
+     * @param call     Flickr call
+     * @return call result
+     * @throws FlickrException           when thrown by the call
+     * @throws FlickrOverloadedException if no slot was freed within the configured wait
+     * @throws UploadCancelledException  if the upload is over before or while waiting for a slot
+     */
+    public <T> T execute(long units, UploadDeadline deadline, FlickrCall<T> call) throws FlickrException {
+        return execute(() -> units, deadline, () -> 0, call);
+    }
+
+    /**
+     * Runs call within the limit like {@link #execute(long, UploadDeadline, FlickrCall)}, leaving time
+     * the call spends paused on our side (e.g. bandwidth shaping) out of its latency sample, so
+     * throttling doesn't look like a slow Flickr and shrink the limit.
+     *
+     * @param units       size of the call's work, read once the call finished (e.g. MB of a streamed body)
+     * @param pausedNanos total paused time so far, read before and after the call
+     */
+    public <T> T execute(LongSupplier units, UploadDeadline deadline, LongSupplier pausedNanos, FlickrCall<T> call)
+            throws FlickrException {
+        deadline.check(name);
+        acquire(deadline);
+        long start = System.nanoTime();
+        long pausedBefore = pausedNanos.getAsLong();
+        try {
+            T result = call.call();
+            release(System.nanoTime() - start, pausedNanos.getAsLong() - pausedBefore, units.getAsLong(), false);
+            return result;
+        } catch (FlickrException e) {
+            // Flickr answered, so the response time is still a valid sample
+            release(System.nanoTime() - start, pausedNanos.getAsLong() - pausedBefore, units.getAsLong(), false);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            release(0, 0, units.getAsLong(), true);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs call of a single unit within the limit.
+     */
+    public <T> T execute(FlickrCall<T> call) throws FlickrException {
+        return execute(1, call);
+    }
+
+    /**
+     * Runs call of a single unit within the limit and the upload's deadline.
+     */
+    public <T> T execute(UploadDeadline deadline, FlickrCall<T> call) throws FlickrException {
+        return execute(1, deadline, call);
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private void acquire(UploadDeadline deadline) {
+        lock.lock();
+        try {
+            long remaining = deadline.cap(settings.getMaxWait()).toNanos();
+            if (inFlight >= currentLimit()) {
+                waiting++;
+                try {
+                    while (inFlight >= currentLimit()) {
+                        if (remaining <= 0) {
+                            // Wait was cut short by the deadline, or the client disconnected meanwhile
+                            deadline.check(name);
+                            rejected.increment();
+                            throw new FlickrOverloadedException(
+                                "Flickr is overloaded, please retry later",
+                                "No free " + name + " slot within " + settings.getMaxWait()
+                                    + " (limit " + currentLimit() + ")",
+                                retryAfter());
+                        }
+                        remaining = slotFreed.awaitNanos(remaining);
+                    }
+                } finally {
+                    waiting--;
+                }
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FlickrUploadException("Interrupted while waiting for Flickr " + name + " slot", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Estimates when a slot will be free for a rejected call: the calls waiting (including it)
+     * get slots in batches of the current limit, each batch taking about the recent call duration.
+     * Must be called holding the lock.
+     */
+    private Duration retryAfter() {
+        Duration maxRetryAfter = settings.getMaxRetryAfter();
+        if (callNanos == 0) {
+            return ServiceBusyException.DEFAULT_RETRY_AFTER.compareTo(maxRetryAfter) < 0
+                ? ServiceBusyException.DEFAULT_RETRY_AFTER : maxRetryAfter;
+        }
+        int limit = currentLimit();
+        long batches = (waiting + limit - 1) / limit;
+        Duration estimate = Duration.ofNanos((long) (callNanos * batches));
+        return estimate.compareTo(MIN_RETRY_AFTER) < 0 ? MIN_RETRY_AFTER
+            : estimate.compareTo(maxRetryAfter) > 0 ? maxRetryAfter : estimate;
+    }
+
+    /**
+     * @param elapsedNanos time the call held its slot
+     * @param pausedNanos  part of it the call was paused on our side, not waiting for Flickr
+     */
+    private void release(long elapsedNanos, long pausedNanos, long units, boolean dropped) {
+        lock.lock();
+        try {
+            int previousLimit = currentLimit();
+            int used = inFlight--;
+            if (dropped) {
+                limit = Math.max(settings.getMinLimit(), limit * BACKOFF_RATIO);
+            } else {
+                // Slot occupancy (for Retry-After) includes pauses, Flickr's latency doesn't
+                callNanos = callNanos == 0 ? elapsedNanos : callNanos + (elapsedNanos - callNanos) / SHORT_WINDOW;
+                long rttNanos = Math.max(0, elapsedNanos - pausedNanos);
+                update((double) rttNanos / Math.max(1, units), used);
+            }
+
+            int newLimit = currentLimit();
+            if (newLimit != previousLimit && log.isDebugEnabled()) {
+                log.debug("Flickr {} concurrency limit changed: {} -> {}, rtt={}ms, baselineRtt={}ms",
+                    name, previousLimit, newLimit,
+                    TimeUnit.NANOSECONDS.toMillis((long) shortRtt), TimeUnit.NANOSECONDS.toMillis((long) longRtt));
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(double rtt, int used) {
+        if (longRtt == 0) {
+            longRtt = rtt;
+            shortRtt = rtt;
+        } else {
+            shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+            // Baseline follows improvements at once but rises only slowly, so queueing
+            // delay caused by a too high limit doesn't become the new normal
+            longRtt = shortRtt < longRtt ? shortRtt : longRtt + (shortRtt - longRtt) / LONG_WINDOW;
+        }
+
+        // Calls are not limited by the limit, so latency says nothing about raising it
+        if (used < limit / 2) {
+            return;
+        }
+
+        // Additive increase (about +1 per limit's worth of calls) while latency is within tolerance,
+        // otherwise a decrease proportional to how far latency is over it
+        double gradient = Math.clamp(settings.getRttTolerance() * longRtt / shortRtt, 0.5, 1.0);
+        double target = gradient < 1.0 ? limit * (1 - SMOOTHING * (1 - gradient)) : limit + 1 / limit;
+        limit = Math.clamp(target, settings.getMinLimit(), settings.getMaxLimit());
+    }
+
+    private int currentLimit() {
+        return Math.max(settings.getMinLimit(), (int) limit);
+    }
+
+    /**
+     * Flickr API call.
+     */
+    @FunctionalInterface
+    public interface FlickrCall<T> {
+        T call() throws FlickrException;
+    }
+}
@@ -0,0 +1,65 @@
+package pl.czerwiu.flickr.upldr.flickr;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.FlickrConcurrencyProperties;
+
+/**
+ * Adaptive concurrency limits of outbound Flickr calls, kept separately for
+ * photo uploads, video uploads and metadata calls (photosets, ticket checks), so slow
+ * uploads don't take capacity from the short album calls and long videos don't hold
+ * up photos.
+ */
+@Component
+public class FlickrConcurrencyLimits {
+
+    private final AdaptiveConcurrencyLimiter upload;
+    private final AdaptiveConcurrencyLimiter metadata;
+    private final AdaptiveConcurrencyLimiter video;
+
+    public FlickrConcurrencyLimits(FlickrConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        this.upload = register("upload", new AdaptiveConcurrencyLimiter("upload", properties.getUpload()), meterRegistry);
+        this.metadata = register("metadata", new AdaptiveConcurrencyLimiter("metadata", properties.getMetadata()), meterRegistry);
+        this.video = register("video", new AdaptiveConcurrencyLimiter("video", properties.getVideo()), meterRegistry);
+    }
+
+    /**
+     * Limiter for photo uploads, latency is measured per MB.
+     */
+    public AdaptiveConcurrencyLimiter upload() {
+        return upload;
+    }
+
+    /**
+     * Limiter for album and other metadata calls.
+     */
+    public AdaptiveConcurrencyLimiter metadata() {
+        return metadata;
+    }
+
+    /**
+     * Limiter for video uploads, latency is measured per MB.
+     */
+    public AdaptiveConcurrencyLimiter video() {
+        return video;
+    }
+
+    private static AdaptiveConcurrencyLimiter register(String traffic, AdaptiveConcurrencyLimiter limiter,
+                                                       MeterRegistry meterRegistry) {
+        Gauge.builder("flickr.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive limit of concurrent Flickr calls")
+            .tag("traffic", traffic)
+            .register(meterRegistry);
+        Gauge.builder("flickr.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("Flickr calls in progress")
+            .tag("traffic", traffic)
+            .register(meterRegistry);
+        FunctionCounter.builder("flickr.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+            .description("Flickr calls rejected after waiting for a free slot")
+            .tag("traffic", traffic)
+            .register(meterRegistry);
+        return limiter;
+    }
+}
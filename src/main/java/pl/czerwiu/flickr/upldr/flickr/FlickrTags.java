@@ -0,0 +1,32 @@
+package pl.czerwiu.flickr.upldr.flickr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsing of tag strings accepted by the API: tags are comma-separated,
+ * surrounding whitespace is trimmed and empty tags are skipped.
+ */
+public final class FlickrTags {
+
+    private FlickrTags() {
+    }
+
+    /**
+     * @param tags comma-separated tags, may be null
+     * @return parsed tags, empty for null or blank input
+     */
+    public static List<String> parse(String tags) {
+        List<String> parsed = new ArrayList<>();
+        if (tags == null) {
+            return parsed;
+        }
+        for (String tag : tags.split(",")) {
+            String trimmed = tag.trim();
+            if (!trimmed.isEmpty()) {
+                parsed.add(trimmed);
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,67 @@
+package pl.czerwiu.flickr.upldr.flickr;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+
+/**
+ * Response of Flickr's upload endpoint, which answers in XML whatever format is requested:
+ * {@code <rsp stat="ok"><photoid>..</photoid></rsp>} (or {@code <ticketid>} for async uploads),
+ * or {@code <rsp stat="fail"><err code=".." msg=".."/></rsp>}.
+ *
+ * @param id           photo ID, or ticket ID of an async upload; null if the upload failed
+ * @param errorCode    Flickr error code of a failed upload
+ * @param errorMessage Flickr error message of a failed upload
+ */
+public record FlickrUploadResponse(String id, String errorCode, String errorMessage) {
+
+    public boolean isOk() {
+        return id != null;
+    }
+
+    /**
+     * @param response response body
+     * @return parsed response
+     * @throws IllegalArgumentException if the body is not a valid upload response
+     */
+    public static FlickrUploadResponse parse(String response) {
+        Element rsp;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(response)));
+            rsp = document.getDocumentElement();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid Flickr upload response: " + e.getMessage(), e);
+        }
+
+        if ("ok".equals(rsp.getAttribute("stat"))) {
+            String id = text(rsp, "photoid");
+            if (id == null) {
+                id = text(rsp, "ticketid");
+            }
+            if (id == null) {
+                throw new IllegalArgumentException("Invalid Flickr upload response: missing photoid");
+            }
+            return new FlickrUploadResponse(id, null, null);
+        }
+
+        NodeList errors = rsp.getElementsByTagName("err");
+        if (errors.getLength() == 0) {
+            return new FlickrUploadResponse(null, "", response);
+        }
+        Element error = (Element) errors.item(0);
+        return new FlickrUploadResponse(null, error.getAttribute("code"), error.getAttribute("msg"));
+    }
+
+    private static String text(Element rsp, String tag) {
+        NodeList elements = rsp.getElementsByTagName(tag);
+        return elements.getLength() > 0 ? elements.item(0).getTextContent().trim() : null;
+    }
+}
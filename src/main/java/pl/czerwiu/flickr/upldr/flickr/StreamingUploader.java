@@ -0,0 +1,155 @@
+package pl.czerwiu.flickr.upldr.flickr;
+
+import com.flickr4java.flickr.FlickrException;
+import com.flickr4java.flickr.uploader.UploadMetaData;
+import com.flickr4java.flickr.uploader.Uploader;
+import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Uploader sending the photo to Flickr's upload endpoint as a chunked multipart request signed
+ * with OAuth, instead of flickr4java's, which reads the whole stream into a byte array first:
+ * that needs the file's size in heap per upload and can't hold a file over 2GB, and the upload
+ * streams (bandwidth shaping, progress, deadline guard) would count copying into memory.
+ * Here the photo is read on the calling thread only as fast as the connection takes it.
+ * <p>
+ * Failures are reported like flickr4java's: an error response as FlickrException with Flickr's
+ * code, a failed connection or unexpected response as FlickrException without one.
+ */
+public class StreamingUploader extends Uploader {
+
+    /**
+     * Flickr's upload endpoint.
+     */
+    public static final String UPLOAD_URL = "https://up.flickr.com/services/upload/";
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    // Flickr answers once it has received and checked the file
+    private static final Duration READ_TIMEOUT = Duration.ofMinutes(5);
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final String CRLF = "\r\n";
+
+    private final String uploadUrl;
+    private final FlickrOAuthSigner signer;
+
+    public StreamingUploader(FlickrProperties flickrProperties, String uploadUrl) {
+        super(flickrProperties.getApi().getKey(), flickrProperties.getApi().getSecret());
+        this.uploadUrl = uploadUrl;
+        this.signer = new FlickrOAuthSigner(flickrProperties);
+    }
+
+    @Override
+    public String upload(byte[] data, UploadMetaData metaData) throws FlickrException {
+        return upload(new ByteArrayInputStream(data), metaData);
+    }
+
+    @Override
+    public String upload(File file, UploadMetaData metaData) throws FlickrException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return upload(in, metaData);
+        } catch (IOException e) {
+            throw new FlickrException(e);
+        }
+    }
+
+    /**
+     * Streams the photo to Flickr.
+     *
+     * @param in       photo content, read to the end
+     * @param metaData upload parameters, file name and content type
+     * @return photo ID, or ticket ID for async uploads
+     */
+    @Override
+    public String upload(InputStream in, UploadMetaData metaData) throws FlickrException {
+        // Only the form fields are signed, not the photo
+        Map<String, String> parameters = new TreeMap<>(metaData.getUploadParameters());
+        String boundary = "upldr-" + UUID.randomUUID();
+
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) URI.create(uploadUrl).toURL().openConnection();
+            connection.setConnectTimeout((int) CONNECT_TIMEOUT.toMillis());
+            connection.setReadTimeout((int) READ_TIMEOUT.toMillis());
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            // Without a length the body goes out in chunks as it's written, nothing is buffered
+            connection.setChunkedStreamingMode(CHUNK_SIZE);
+            connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+            connection.setRequestProperty("Authorization", signer.authorization("POST", uploadUrl, parameters));
+
+            try (OutputStream out = connection.getOutputStream()) {
+                StringBuilder fields = new StringBuilder();
+                parameters.forEach((name, value) -> fields
+                    .append("--").append(boundary).append(CRLF)
+                    .append("Content-Disposition: form-data; name=\"").append(name).append('"').append(CRLF)
+                    .append(CRLF)
+                    .append(value).append(CRLF));
+                fields.append("--").append(boundary).append(CRLF)
+                    .append("Content-Disposition: form-data; name=\"photo\"; filename=\"")
+                    .append(filename(metaData.getFilename())).append('"').append(CRLF)
+                    .append("Content-Type: ")
+                    .append(metaData.getFilemimetype() != null ? metaData.getFilemimetype() : "application/octet-stream")
+                    .append(CRLF)
+                    .append(CRLF);
+                out.write(fields.toString().getBytes(StandardCharsets.UTF_8));
+                in.transferTo(out);
+                out.write((CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.UTF_8));
+            }
+
+            int status = connection.getResponseCode();
+            String body = readBody(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            if (status != HttpURLConnection.HTTP_OK) {
+                connection.disconnect();
+                throw new FlickrException(null, "Upload endpoint responded with HTTP " + status);
+            }
+
+            FlickrUploadResponse response;
+            try {
+                response = FlickrUploadResponse.parse(body);
+            } catch (IllegalArgumentException e) {
+                throw new FlickrException(null, e.getMessage());
+            }
+            if (!response.isOk()) {
+                throw new FlickrException(response.errorCode(), response.errorMessage());
+            }
+            return response.id();
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            throw new FlickrException(e);
+        }
+    }
+
+    private static String readBody(InputStream body) throws IOException {
+        if (body == null) {
+            return "";
+        }
+        try (body) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * File name for the part header, without characters that would end it.
+     */
+    private static String filename(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "photo";
+        }
+        return filename.replaceAll("[\"\\r\\n]", "_");
+    }
+}
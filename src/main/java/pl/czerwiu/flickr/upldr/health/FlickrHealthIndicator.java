@@ -0,0 +1,132 @@
+package pl.czerwiu.flickr.upldr.health;
+
+import com.flickr4java.flickr.Flickr;
+import com.flickr4java.flickr.RequestContext;
+import com.flickr4java.flickr.people.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.FlickrHealthProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health of the Flickr connection, included in the readiness group.
+ * Credentials and connectivity are checked with flickr.test.login from a background thread;
+ * health checks only read the cached result, so they cost no API quota. Flickr is DOWN after
+ * consecutive failed probes, and the instance is OUT_OF_SERVICE while most recent uploads fail
+ * even though the probe succeeds.
+ */
+@Slf4j
+@Component
+public class FlickrHealthIndicator implements HealthIndicator {
+
+    private final Flickr flickrClient;
+    private final FlickrHealthProperties properties;
+    private final UploadErrorRate uploadErrorRate;
+    private final MeterRegistry meterRegistry;
+    private final Timer probeTimer;
+
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("flickr-health-probe").daemon().factory());
+
+    private volatile ProbeResult lastProbe;
+    private volatile int consecutiveFailures;
+
+    public FlickrHealthIndicator(Flickr flickrClient,
+                                 FlickrHealthProperties properties,
+                                 UploadErrorRate uploadErrorRate,
+                                 MeterRegistry meterRegistry) {
+        this.flickrClient = flickrClient;
+        this.properties = properties;
+        this.uploadErrorRate = uploadErrorRate;
+        this.meterRegistry = meterRegistry;
+        this.probeTimer = Timer.builder("flickr.health.probe")
+            .description("Duration of Flickr connectivity probes")
+            .register(meterRegistry);
+
+        prober.scheduleWithFixedDelay(this::probe, 0, properties.getProbeInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Health health() {
+        ProbeResult probe = lastProbe;
+        if (probe == null) {
+            return Health.unknown().withDetail("reason", "No probe completed yet").build();
+        }
+
+        UploadErrorRate.Snapshot uploads = uploadErrorRate.snapshot();
+        Health.Builder health = probeStatus(probe, uploads)
+            .withDetail("lastProbe", probe.checkedAt().toString())
+            .withDetail("latencyMs", probe.latency().toMillis())
+            .withDetail("consecutiveFailures", consecutiveFailures)
+            .withDetail("uploads", uploads.calls())
+            .withDetail("failedUploads", uploads.failures())
+            .withDetail("uploadErrorRate", uploads.rate());
+        if (probe.user() != null) {
+            health.withDetail("user", probe.user());
+        }
+        if (probe.error() != null) {
+            health.withDetail("error", probe.error());
+        }
+        return health.build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prober.shutdownNow();
+    }
+
+    private Health.Builder probeStatus(ProbeResult probe, UploadErrorRate.Snapshot uploads) {
+        Duration age = Duration.between(probe.checkedAt(), Instant.now());
+        if (age.compareTo(properties.getStaleAfter()) > 0) {
+            return Health.down().withDetail("reason", "Last probe is " + age.toSeconds() + "s old");
+        }
+        if (consecutiveFailures >= properties.getFailureThreshold()) {
+            return Health.down();
+        }
+        if (uploads.calls() >= properties.getMinUploads() && uploads.rate() >= properties.getErrorRateThreshold()) {
+            return Health.status(Status.OUT_OF_SERVICE).withDetail("reason", "Upload error rate too high");
+        }
+        return Health.up();
+    }
+
+    private void probe() {
+        long start = System.nanoTime();
+        try {
+            RequestContext.getRequestContext().setAuth(flickrClient.getAuth());
+            User user = flickrClient.getTestInterface().login();
+            Duration latency = Duration.ofNanos(System.nanoTime() - start);
+
+            if (consecutiveFailures > 0) {
+                log.info("Flickr connectivity restored after {} failed probes", consecutiveFailures);
+            }
+            consecutiveFailures = 0;
+            lastProbe = new ProbeResult(Instant.now(), latency, user != null ? user.getUsername() : null, null);
+            meterRegistry.counter("flickr.health.probes", "result", "ok").increment();
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled probing
+            consecutiveFailures++;
+            lastProbe = new ProbeResult(Instant.now(), Duration.ofNanos(System.nanoTime() - start), null, e.getMessage());
+            meterRegistry.counter("flickr.health.probes", "result", "failed").increment();
+            log.warn("Flickr health probe failed: consecutiveFailures={}, error={}", consecutiveFailures, e.getMessage());
+        } finally {
+            probeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Outcome of the latest probe.
+     */
+    private record ProbeResult(Instant checkedAt, Duration latency, String user, String error) {
+    }
+}
@@ -0,0 +1,99 @@
+package pl.czerwiu.flickr.upldr.health;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.FlickrHealthProperties;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrRejectedException;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploaderException;
+
+/**
+ * Share of Flickr upload attempts that failed recently, over a sliding window of time buckets.
+ * Failures caused by the request or by this instance (duplicates, unreadable files or sources,
+ * local overload) don't say anything about Flickr and aren't counted.
+ */
+@Component
+public class UploadErrorRate {
+
+    private static final int BUCKETS = 12;
+
+    private final long bucketNanos;
+    private final long[] bucketIndex = new long[BUCKETS];
+    private final long[] calls = new long[BUCKETS];
+    private final long[] failures = new long[BUCKETS];
+
+    public UploadErrorRate(FlickrHealthProperties properties, MeterRegistry meterRegistry) {
+        this.bucketNanos = Math.max(1, properties.getErrorWindow().toNanos() / BUCKETS);
+
+        Gauge.builder("flickr.upload.error.rate", this, rate -> rate.snapshot().rate())
+            .description("Share of failed Flickr upload attempts in the error window")
+            .register(meterRegistry);
+    }
+
+    public void recordSuccess() {
+        record(false);
+    }
+
+    /**
+     * Records a failed upload attempt, unless the failure isn't Flickr's.
+     */
+    public void recordFailure(Throwable error) {
+        if (error instanceof FlickrUploaderException e && !isFlickrFault(e)) {
+            return;
+        }
+        record(true);
+    }
+
+    /**
+     * Flickr's faults are transient Flickr errors and errors Flickr gives for any call (e.g. rejected
+     * credentials). Duplicates, invalid files, upload limits and failures of this instance are not.
+     */
+    private static boolean isFlickrFault(FlickrUploaderException error) {
+        if (error instanceof FlickrRejectedException) {
+            return error.getCategory() == ErrorCategory.PERMANENT;
+        }
+        return error instanceof FlickrUploadException && error.getCategory() == ErrorCategory.RETRYABLE;
+    }
+
+    /**
+     * @return upload attempts and failures in the window
+     */
+    public synchronized Snapshot snapshot() {
+        long current = Math.floorDiv(System.nanoTime(), bucketNanos);
+        long totalCalls = 0;
+        long totalFailures = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (current - bucketIndex[i] < BUCKETS) {
+                totalCalls += calls[i];
+                totalFailures += failures[i];
+            }
+        }
+        return new Snapshot(totalCalls, totalFailures);
+    }
+
+    private synchronized void record(boolean failed) {
+        long index = Math.floorDiv(System.nanoTime(), bucketNanos);
+        int slot = (int) Math.floorMod(index, (long) BUCKETS);
+        if (bucketIndex[slot] != index) {
+            bucketIndex[slot] = index;
+            calls[slot] = 0;
+            failures[slot] = 0;
+        }
+        calls[slot]++;
+        if (failed) {
+            failures[slot]++;
+        }
+    }
+
+    /**
+     * Upload attempts and failures in the window.
+     */
+    public record Snapshot(long calls, long failures) {
+
+        public double rate() {
+            return calls == 0 ? 0.0 : (double) failures / calls;
+        }
+    }
+}
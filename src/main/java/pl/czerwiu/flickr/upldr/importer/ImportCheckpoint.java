@@ -0,0 +1,50 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only record of files already uploaded from an import source.
+ * One key per line, flushed after every upload, so an interrupted import
+ * resumes with the first file that was not uploaded.
+ */
+class ImportCheckpoint implements Closeable {
+
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+    private final BufferedWriter writer;
+
+    ImportCheckpoint(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file)) {
+            try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+                lines.filter(line -> !line.isEmpty()).forEach(completed::add);
+            }
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    boolean isCompleted(String key) {
+        return completed.contains(key);
+    }
+
+    synchronized void markCompleted(String key) throws IOException {
+        if (completed.add(key)) {
+            writer.write(key);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,16 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import java.nio.file.Path;
+
+/**
+ * Single file to import with its target album and metadata.
+ *
+ * @param path        absolute path of the file
+ * @param key         path relative to the import source, used as checkpoint key
+ * @param album       album name
+ * @param title       photo title (optional)
+ * @param description photo description (optional)
+ * @param tags        comma-separated tags (optional)
+ */
+record ImportItem(Path path, String key, String album, String title, String description, String tags) {
+}
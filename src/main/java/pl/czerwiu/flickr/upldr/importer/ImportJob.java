@@ -0,0 +1,113 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import pl.czerwiu.flickr.upldr.dto.ImportStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running or finished import with its progress counters.
+ */
+class ImportJob {
+
+    enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    private final String id;
+    private final String source;
+    private final long filesTotal;
+    private final String user;
+    private final Instant startedAt = Instant.now();
+    private final long startedNanos = System.nanoTime();
+
+    private final LongAdder filesUploaded = new LongAdder();
+    private final LongAdder filesSkipped = new LongAdder();
+    private final LongAdder filesFailed = new LongAdder();
+    private final LongAdder bytesUploaded = new LongAdder();
+
+    private volatile State state = State.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile Instant finishedAt;
+    private volatile long finishedNanos;
+    private volatile String lastError;
+
+    ImportJob(String id, String source, long filesTotal, String user) {
+        this.id = id;
+        this.source = source;
+        this.filesTotal = filesTotal;
+        this.user = user;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getUser() {
+        return user;
+    }
+
+    boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void uploaded(long bytes) {
+        filesUploaded.increment();
+        bytesUploaded.add(bytes);
+    }
+
+    void skipped() {
+        filesSkipped.increment();
+    }
+
+    void failed(String error) {
+        filesFailed.increment();
+        lastError = error;
+    }
+
+    void finish(State finalState, String error) {
+        if (error != null) {
+            lastError = error;
+        }
+        finishedNanos = System.nanoTime();
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    ImportStatus toStatus() {
+        long endNanos = isFinished() ? finishedNanos : System.nanoTime();
+        double seconds = Math.max(Duration.ofNanos(endNanos - startedNanos).toMillis(), 1) / 1000.0;
+        long bytes = bytesUploaded.sum();
+        long uploaded = filesUploaded.sum();
+
+        return ImportStatus.builder()
+            .id(id)
+            .source(source)
+            .state(state.name())
+            .filesTotal(filesTotal)
+            .filesUploaded(uploaded)
+            .filesSkipped(filesSkipped.sum())
+            .filesFailed(filesFailed.sum())
+            .bytesUploaded(bytes)
+            .filesPerSecond(uploaded / seconds)
+            .megabytesPerSecond(bytes / BYTES_PER_MEGABYTE / seconds)
+            .startedAt(startedAt)
+            .finishedAt(finishedAt)
+            .lastError(lastError)
+            .build();
+    }
+}
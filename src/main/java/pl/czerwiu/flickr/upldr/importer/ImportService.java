@@ -0,0 +1,270 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.czerwiu.flickr.upldr.config.ImportProperties;
+import pl.czerwiu.flickr.upldr.dto.ImportRequest;
+import pl.czerwiu.flickr.upldr.dto.ImportStatus;
+import pl.czerwiu.flickr.upldr.dto.UploadPriority;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.exception.NotFoundException;
+import pl.czerwiu.flickr.upldr.service.UploadScheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Imports files from the local file system straight into the upload workflow,
+ * bypassing HTTP, authentication and multipart parsing.
+ * Files go through the bulk lane of UploadScheduler with per-import parallelism,
+ * and completed files are checkpointed so a restarted import skips them.
+ */
+@Slf4j
+@Service
+public class ImportService {
+
+    private final UploadScheduler uploadScheduler;
+    private final ImportSourceReader importSourceReader;
+    private final ImportProperties importProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService runner = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("import-", 1).factory());
+
+    public ImportService(UploadScheduler uploadScheduler,
+                         ImportSourceReader importSourceReader,
+                         ImportProperties importProperties,
+                         MeterRegistry meterRegistry) {
+        this.uploadScheduler = uploadScheduler;
+        this.importSourceReader = importSourceReader;
+        this.importProperties = importProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts import of a directory or manifest in the background.
+     *
+     * @param request import request
+     * @param user    authenticated user starting the import
+     * @return initial import status
+     * @throws IllegalArgumentException if source is missing, invalid or outside of base directory
+     */
+    public ImportStatus start(ImportRequest request, String user) {
+        if (request.getSource() == null || request.getSource().isBlank()) {
+            throw new IllegalArgumentException("Import source is required");
+        }
+
+        Path baseDir = Path.of(importProperties.getBaseDir()).toAbsolutePath().normalize();
+        Path source;
+        List<ImportItem> items;
+        try {
+            source = importSourceReader.resolve(baseDir, request.getSource().trim());
+            items = importSourceReader.read(baseDir, source);
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalArgumentException("Cannot read import source: " + e.getMessage(), e);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), request.getSource().trim(), items.size(), user);
+        jobs.put(job.getId(), job);
+        evictFinishedJobs();
+
+        log.info("Import started: id={}, source={}, files={}", job.getId(), request.getSource(), items.size());
+        runner.execute(() -> run(job, request, source, items));
+
+        return job.toStatus();
+    }
+
+    /**
+     * @return status of the import
+     * @throws NotFoundException if import is unknown
+     */
+    public ImportStatus status(String id) {
+        return getJob(id).toStatus();
+    }
+
+    /**
+     * @return statuses of running and recently finished imports
+     */
+    public List<ImportStatus> list() {
+        return jobs.values().stream()
+            .map(ImportJob::toStatus)
+            .sorted(Comparator.comparing(ImportStatus::getStartedAt).reversed())
+            .toList();
+    }
+
+    /**
+     * Stops submitting further files; uploads already in progress complete normally.
+     */
+    public ImportStatus cancel(String id) {
+        ImportJob job = getJob(id);
+        job.requestCancel();
+        log.info("Import cancel requested: id={}", id);
+        return job.toStatus();
+    }
+
+    /**
+     * Cancels all running imports, see {@link #cancel(String)}.
+     */
+    public void cancelAll() {
+        jobs.values().stream()
+            .filter(job -> !job.isFinished())
+            .forEach(job -> {
+                job.requestCancel();
+                log.info("Import cancel requested: id={}", job.getId());
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancelAll();
+        runner.shutdown();
+    }
+
+    private void run(ImportJob job, ImportRequest request, Path source, List<ImportItem> items) {
+        int parallelism = Math.clamp(
+            request.getParallelism() != null ? request.getParallelism() : importProperties.getParallelism(),
+            1, Math.max(1, importProperties.getMaxParallelism()));
+        Semaphore permits = new Semaphore(parallelism);
+
+        try (ImportCheckpoint checkpoint = new ImportCheckpoint(checkpointFile(source))) {
+            for (ImportItem item : items) {
+                if (job.isCancelRequested()) {
+                    break;
+                }
+                if (checkpoint.isCompleted(item.key())) {
+                    job.skipped();
+                    meterRegistry.counter("import.files", "result", "skipped").increment();
+                    continue;
+                }
+
+                permits.acquire();
+                submit(job, request, item, checkpoint, permits);
+            }
+
+            // Wait for uploads still in progress before closing the checkpoint
+            permits.acquire(parallelism);
+
+            ImportJob.State state = job.isCancelRequested() ? ImportJob.State.CANCELLED : ImportJob.State.COMPLETED;
+            job.finish(state, null);
+            log.info("Import finished: id={}, state={}, status={}", job.getId(), state, job.toStatus());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ImportJob.State.CANCELLED, "Import interrupted");
+            log.warn("Import interrupted: id={}", job.getId());
+
+        } catch (IOException | RuntimeException e) {
+            job.finish(ImportJob.State.FAILED, e.getMessage());
+            log.error("Import failed: id={}, error={}", job.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void submit(ImportJob job, ImportRequest request, ImportItem item,
+                        ImportCheckpoint checkpoint, Semaphore permits) {
+        PathMultipartFile file;
+        try {
+            file = new PathMultipartFile(item.path());
+        } catch (IOException e) {
+            failed(job, item, e);
+            permits.release();
+            return;
+        }
+
+        UploadRequest uploadRequest = UploadRequest.builder()
+            .album(item.album())
+            .title(item.title())
+            .description(item.description())
+            .tags(joinTags(item.tags(), request.getTags()))
+            .dedupCheck(request.getDedupCheck())
+            .priority(UploadPriority.BULK)
+            .ordered(request.isOrdered())
+            .user(job.getUser())
+            .build();
+
+        uploadScheduler.submit(file, uploadRequest).whenComplete((response, error) -> {
+            try {
+                if (error == null) {
+                    checkpoint.markCompleted(item.key());
+                    job.uploaded(file.getSize());
+                    meterRegistry.counter("import.files", "result", "uploaded").increment();
+                } else {
+                    failed(job, item, error instanceof CompletionException ? error.getCause() : error);
+                }
+            } catch (IOException e) {
+                failed(job, item, e);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private void failed(ImportJob job, ImportItem item, Throwable error) {
+        job.failed(item.key() + ": " + error.getMessage());
+        meterRegistry.counter("import.files", "result", "failed").increment();
+        log.warn("Import file failed: id={}, file={}, error={}", job.getId(), item.key(), error.getMessage());
+    }
+
+    private ImportJob getJob(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new NotFoundException("Import not found: " + id);
+        }
+        return job;
+    }
+
+    /**
+     * Drops oldest finished imports beyond the configured history size.
+     */
+    private void evictFinishedJobs() {
+        List<ImportJob> finished = jobs.values().stream()
+            .filter(ImportJob::isFinished)
+            .sorted(Comparator.comparing(job -> job.toStatus().getStartedAt()))
+            .toList();
+        for (int i = 0; i < finished.size() - importProperties.getHistory(); i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    /**
+     * Checkpoint file is keyed by source path, so re-running an import of the same source resumes it.
+     */
+    private Path checkpointFile(Path source) {
+        return Path.of(importProperties.getCheckpointDir()).resolve(sha256(source.toString()) + ".done");
+    }
+
+    private static String joinTags(String itemTags, String requestTags) {
+        if (itemTags == null || itemTags.isBlank()) {
+            return requestTags;
+        }
+        if (requestTags == null || requestTags.isBlank()) {
+            return itemTags;
+        }
+        return itemTags + "," + requestTags;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
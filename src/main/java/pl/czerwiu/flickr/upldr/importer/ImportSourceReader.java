@@ -0,0 +1,229 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Lists files of an import source: a directory tree (each folder becomes an album)
+ * or a CSV/JSON manifest with path, album, title, description and tags columns.
+ * All paths must stay within the import base directory.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportSourceReader {
+
+    private static final Set<String> SUPPORTED_EXTENSIONS = Set.of(
+        "jpg", "jpeg", "png", "gif", "webp", "heic", "heif", "tif", "tiff", "bmp",
+        "mp4", "mov", "m4v", "avi", "mpg", "mpeg", "3gp", "wmv"
+    );
+
+    private static final String ALBUM_SEPARATOR = " / ";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Resolves source against base directory.
+     *
+     * @throws IllegalArgumentException if source does not exist or is outside of base directory
+     */
+    public Path resolve(Path baseDir, String source) throws IOException {
+        return resolveWithin(baseDir, baseDir.resolve(source));
+    }
+
+    /**
+     * Lists files to import from a directory or manifest, in a stable order.
+     */
+    public List<ImportItem> read(Path baseDir, Path source) throws IOException {
+        if (Files.isDirectory(source)) {
+            return readDirectory(source);
+        }
+        String fileName = source.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".csv")) {
+            return readCsvManifest(baseDir, source);
+        }
+        if (fileName.endsWith(".json")) {
+            return readJsonManifest(baseDir, source);
+        }
+        throw new IllegalArgumentException("Import source must be a directory or a .csv/.json manifest");
+    }
+
+    private List<ImportItem> readDirectory(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                .filter(Files::isRegularFile)
+                .filter(ImportSourceReader::isSupported)
+                .sorted()
+                .map(file -> new ImportItem(
+                    file,
+                    root.relativize(file).toString(),
+                    albumFor(root, file),
+                    baseName(file),
+                    null,
+                    null))
+                .toList();
+        }
+    }
+
+    private List<ImportItem> readCsvManifest(Path baseDir, Path manifest) throws IOException {
+        List<ImportItem> items = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return items;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = parseCsvLine(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("path")) {
+                throw new IllegalArgumentException("CSV manifest must have a 'path' column");
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> values = parseCsvLine(line);
+                items.add(manifestItem(baseDir, manifest, new ManifestEntry(
+                    column(values, columns, "path"),
+                    column(values, columns, "album"),
+                    column(values, columns, "title"),
+                    column(values, columns, "description"),
+                    column(values, columns, "tags"))));
+            }
+        }
+        return items;
+    }
+
+    private List<ImportItem> readJsonManifest(Path baseDir, Path manifest) throws IOException {
+        List<ManifestEntry> entries;
+        try (InputStream inputStream = Files.newInputStream(manifest)) {
+            entries = objectMapper.readValue(inputStream, new TypeReference<List<ManifestEntry>>() { });
+        }
+        List<ImportItem> items = new ArrayList<>(entries.size());
+        for (ManifestEntry entry : entries) {
+            items.add(manifestItem(baseDir, manifest, entry));
+        }
+        return items;
+    }
+
+    private ImportItem manifestItem(Path baseDir, Path manifest, ManifestEntry entry) throws IOException {
+        if (entry.path() == null || entry.path().isBlank()) {
+            throw new IllegalArgumentException("Manifest entry without path");
+        }
+        // Manifest paths are relative to the manifest location
+        Path file = resolveWithin(baseDir, manifest.getParent().resolve(entry.path().trim()));
+        String album = entry.album() != null && !entry.album().isBlank()
+            ? entry.album().trim()
+            : file.getParent().getFileName().toString();
+        return new ImportItem(
+            file,
+            entry.path().trim(),
+            album,
+            entry.title() != null ? entry.title() : baseName(file),
+            entry.description(),
+            entry.tags());
+    }
+
+    private static Path resolveWithin(Path baseDir, Path path) throws IOException {
+        Path normalized = path.normalize();
+        if (!normalized.startsWith(baseDir) || !Files.exists(normalized)) {
+            throw new IllegalArgumentException("Import source not found: " + baseDir.relativize(normalized));
+        }
+        // Reject symbolic links pointing outside of base directory
+        if (!normalized.toRealPath().startsWith(baseDir.toRealPath())) {
+            throw new IllegalArgumentException("Import source not found: " + baseDir.relativize(normalized));
+        }
+        return normalized;
+    }
+
+    private static String albumFor(Path root, Path file) {
+        Path folder = root.relativize(file.getParent());
+        if (folder.toString().isEmpty()) {
+            return root.getFileName().toString();
+        }
+        List<String> segments = new ArrayList<>();
+        folder.forEach(segment -> segments.add(segment.toString()));
+        return String.join(ALBUM_SEPARATOR, segments);
+    }
+
+    private static boolean isSupported(Path file) {
+        return SUPPORTED_EXTENSIONS.contains(extension(file));
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot <= 0 ? name : name.substring(0, dot);
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Parses single CSV line (RFC 4180 quoting, no line breaks inside fields).
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Manifest entry as written in CSV and JSON manifests.
+     */
+    record ManifestEntry(String path, String album, String title, String description, String tags) {
+    }
+}
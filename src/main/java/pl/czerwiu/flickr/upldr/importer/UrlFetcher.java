@@ -0,0 +1,329 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.UrlIngestProperties;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+import pl.czerwiu.flickr.upldr.exception.SourceFetchException;
+import pl.czerwiu.flickr.upldr.exception.UnsupportedFileTypeException;
+import pl.czerwiu.flickr.upldr.spool.SpoolReservation;
+import pl.czerwiu.flickr.upldr.spool.SpoolStorage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches photos from source URLs as streams, spooling the body as it's read so retries
+ * and the duplicate check replay it instead of fetching the URL again.
+ * Only http(s) URLs of allowed hosts are fetched (none unless configured), hosts resolving to
+ * internal addresses are refused unless allowed, redirects are followed a few times with the
+ * same checks for every location, and the number of concurrent fetches is capped.
+ */
+@Slf4j
+@Component
+public class UrlFetcher {
+
+    private static final Set<Integer> REDIRECTS = Set.of(
+        HttpURLConnection.HTTP_MOVED_PERM, HttpURLConnection.HTTP_MOVED_TEMP, HttpURLConnection.HTTP_SEE_OTHER,
+        307, 308);
+
+    // Declared types of sources that don't know better, the upload's content checks decide then
+    private static final Set<String> GENERIC_CONTENT_TYPES = Set.of("application/octet-stream", "binary/octet-stream");
+
+    private final UrlIngestProperties properties;
+    private final SpoolStorage spoolStorage;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore fetchSlots;
+
+    public UrlFetcher(UrlIngestProperties properties, SpoolStorage spoolStorage, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.spoolStorage = spoolStorage;
+        this.meterRegistry = meterRegistry;
+        this.fetchSlots = new Semaphore(properties.getMaxConcurrentFetches());
+
+        Gauge.builder("upload.url.fetches.active", fetchSlots,
+                slots -> properties.getMaxConcurrentFetches() - slots.availablePermits())
+            .description("Source URLs being fetched")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts fetching the URL. Response status, type and size are checked before returning;
+     * the body is read when the upload runs. The returned file holds a fetch slot and its
+     * spool space until closed.
+     *
+     * @param url source URL
+     * @return file streaming the URL's content
+     * @throws IllegalArgumentException      if URL is invalid or not allowed, or the file is empty or too large
+     * @throws UnsupportedFileTypeException  if the source declares a type that is not an image or video
+     * @throws SourceFetchException          if the source can't be reached or responds with an error
+     * @throws ServiceBusyException          if no fetch slot or spool space is freed in time
+     */
+    public UrlMultipartFile fetch(String url) {
+        URI uri = validate(parse(url));
+        acquireSlot();
+        Response response = null;
+        try {
+            response = open(uri);
+            SpoolReservation spool = spoolStorage.reserve(Math.max(0, response.contentLength()));
+            UrlMultipartFile file = new UrlMultipartFile(response.uri(), response.contentType(),
+                response.contentLength(), response.body(), spool, fetchSlots::release);
+            meterRegistry.counter("upload.url.fetches", "result", "ok").increment();
+            return file;
+        } catch (IOException | RuntimeException e) {
+            if (response != null) {
+                closeQuietly(response.body());
+            }
+            fetchSlots.release();
+            meterRegistry.counter("upload.url.fetches", "result", "failed").increment();
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new SourceFetchException("Failed to fetch photo from URL", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends a GET request for the URL, follows redirects and checks the response.
+     */
+    Response open(URI uri) throws IOException {
+        URI location = uri;
+        for (int redirects = 0; ; redirects++) {
+            checkAddress(location);
+            HttpURLConnection connection = (HttpURLConnection) location.toURL().openConnection();
+            connection.setConnectTimeout((int) properties.getConnectTimeout().toMillis());
+            connection.setReadTimeout((int) properties.getReadTimeout().toMillis());
+            // Followed by hand, every location has to pass the same checks
+            connection.setInstanceFollowRedirects(false);
+
+            try {
+                int status = connection.getResponseCode();
+                if (REDIRECTS.contains(status)) {
+                    URI next = redirectLocation(location, connection.getHeaderField("Location"));
+                    connection.disconnect();
+                    if (redirects >= properties.getMaxRedirects()) {
+                        throw new SourceFetchException("Failed to fetch photo from URL",
+                            "Too many redirects (over " + properties.getMaxRedirects() + "): " + uri);
+                    }
+                    log.debug("Following redirect: from={}, to={}", location, next);
+                    location = validate(next);
+                    continue;
+                }
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new SourceFetchException("Failed to fetch photo from URL",
+                        "Source responded with HTTP " + status + ": " + location);
+                }
+
+                String contentType = connection.getContentType();
+                checkContentType(contentType, location);
+
+                long maxSize = properties.getMaxSize().toBytes();
+                long contentLength = connection.getContentLengthLong();
+                if (contentLength > maxSize) {
+                    throw new IllegalArgumentException(
+                        "File size exceeds maximum allowed size (" + properties.getMaxSize().toMegabytes() + "MB)");
+                }
+                if (contentLength == 0) {
+                    throw new IllegalArgumentException("File cannot be empty");
+                }
+
+                log.debug("Fetching photo from URL: url={}, size={}", location, contentLength);
+                return new Response(location, contentType, contentLength,
+                    new SizeLimitedInputStream(connection.getInputStream(), maxSize));
+            } catch (IOException | RuntimeException e) {
+                connection.disconnect();
+                throw e;
+            }
+        }
+    }
+
+    private static URI parse(String url) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("URL is required");
+        }
+        try {
+            return new URI(url.trim());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid URL: " + url);
+        }
+    }
+
+    private static URI redirectLocation(URI from, String location) {
+        if (location == null || location.isBlank()) {
+            throw new SourceFetchException("Failed to fetch photo from URL", "Redirect without a location: " + from);
+        }
+        try {
+            return from.resolve(new URI(location.trim()));
+        } catch (URISyntaxException e) {
+            throw new SourceFetchException("Failed to fetch photo from URL", "Invalid redirect location: " + location);
+        }
+    }
+
+    /**
+     * Checks scheme and host of the URL or of a redirect location.
+     */
+    private URI validate(URI uri) {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+            throw new IllegalArgumentException("Only http and https URLs are supported: " + uri);
+        }
+        if (properties.getAllowedHosts().isEmpty()) {
+            throw new IllegalArgumentException("Uploads from URLs are disabled, no allowed hosts are configured");
+        }
+        if (properties.getAllowedHosts().stream().noneMatch(pattern -> hostMatches(pattern, uri.getHost()))) {
+            throw new IllegalArgumentException("Fetching from host " + uri.getHost() + " is not allowed");
+        }
+        return uri;
+    }
+
+    /**
+     * Matches a host against an allowed host: the exact name, {@code *.domain} for its subdomains
+     * or {@code *} for any host.
+     */
+    private static boolean hostMatches(String pattern, String host) {
+        String allowed = pattern.trim().toLowerCase(Locale.ROOT);
+        String candidate = host.toLowerCase(Locale.ROOT);
+        if (allowed.equals("*")) {
+            return true;
+        }
+        if (allowed.startsWith("*.")) {
+            return candidate.endsWith(allowed.substring(1));
+        }
+        return candidate.equals(allowed);
+    }
+
+    /**
+     * Refuses hosts resolving to loopback, private, link-local (e.g. cloud metadata at 169.254.169.254)
+     * or other internal addresses, so the server can't be used to reach its own network.
+     * The connection resolves the host again, but from the JVM's DNS cache filled here.
+     */
+    private void checkAddress(URI uri) {
+        if (properties.isAllowInternalAddresses()) {
+            return;
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(uri.getHost());
+        } catch (UnknownHostException e) {
+            throw new SourceFetchException("Failed to fetch photo from URL", "Unknown host: " + uri.getHost(), e);
+        }
+        for (InetAddress address : addresses) {
+            if (isInternal(address)) {
+                throw new IllegalArgumentException(
+                    "Fetching from host " + uri.getHost() + " is not allowed, it resolves to an internal address");
+            }
+        }
+    }
+
+    static boolean isInternal(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int first = bytes[0] & 0xFF;
+            int second = bytes[1] & 0xFF;
+            // "This network" 0.0.0.0/8, carrier-grade NAT 100.64.0.0/10, benchmarking 198.18.0.0/15, reserved 240.0.0.0/4
+            return first == 0 || first == 100 && second >= 64 && second < 128
+                || first == 198 && (second == 18 || second == 19) || first >= 240;
+        }
+        if (address instanceof Inet6Address) {
+            // Unique local fc00::/7 (isSiteLocalAddress only knows the deprecated fec0::/10)
+            return (bytes[0] & 0xFE) == 0xFC;
+        }
+        return false;
+    }
+
+    private static void checkContentType(String contentType, URI uri) {
+        if (contentType == null || contentType.isBlank()) {
+            return;
+        }
+        String mimeType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (!mimeType.startsWith("image/") && !mimeType.startsWith("video/") && !GENERIC_CONTENT_TYPES.contains(mimeType)) {
+            throw new UnsupportedFileTypeException("Unsupported file type",
+                "Source " + uri + " is " + mimeType + ", not an image or video");
+        }
+    }
+
+    private void acquireSlot() {
+        try {
+            if (!fetchSlots.tryAcquire(properties.getFetchWait().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ServiceBusyException("Too many URL uploads in progress, please retry later",
+                    "No free fetch slot within " + properties.getFetchWait());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for a fetch slot", e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.debug("Failed to close source response: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Checked response of a source URL.
+     *
+     * @param uri location the body was fetched from, after redirects
+     */
+    record Response(URI uri, String contentType, long contentLength, InputStream body) {
+    }
+
+    /**
+     * Fails reading a body larger than the limit (responses without Content-Length).
+     */
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+
+        private final long maxSize;
+        private long read;
+
+        private SizeLimitedInputStream(InputStream in, long maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > maxSize) {
+                throw new IOException("Source file exceeds maximum allowed size of " + maxSize + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.czerwiu.flickr.upldr.config.UrlIngestProperties;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.dto.UploadPriority;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.dto.UrlUploadRequest;
+import pl.czerwiu.flickr.upldr.dto.UrlUploadResult;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploaderException;
+import pl.czerwiu.flickr.upldr.service.UploadScheduler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Uploads photos fetched by the server from source URLs.
+ * Fetched content is streamed straight into the regular upload workflow.
+ */
+@Slf4j
+@Service
+public class UrlIngestService {
+
+    private final UrlFetcher urlFetcher;
+    private final UploadScheduler uploadScheduler;
+    private final UrlIngestProperties properties;
+
+    private final ExecutorService batchRunner = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("url-batch-", 1).factory());
+
+    public UrlIngestService(UrlFetcher urlFetcher,
+                            UploadScheduler uploadScheduler,
+                            UrlIngestProperties properties) {
+        this.urlFetcher = urlFetcher;
+        this.uploadScheduler = uploadScheduler;
+        this.properties = properties;
+    }
+
+    /**
+     * Fetches the URL and uploads its content.
+     *
+     * @param request  URL and photo metadata
+     * @param user     authenticated user
+     * @param deadline deadline of the request
+     * @return future completed with the upload response
+     * @throws IllegalArgumentException if the request or URL is invalid
+     * @throws pl.czerwiu.flickr.upldr.exception.SourceFetchException if the source can't be fetched
+     */
+    public CompletableFuture<UploadResponse> upload(UrlUploadRequest request, String user, UploadDeadline deadline) {
+        UploadRequest uploadRequest = toUploadRequest(request, user, UploadPriority.INTERACTIVE, deadline);
+        return submit(urlFetcher.fetch(request.getUrl()), uploadRequest);
+    }
+
+    /**
+     * Fetches and uploads a list of URLs, a few at a time. Failures are reported
+     * per URL and don't stop the rest of the batch.
+     *
+     * @param requests URLs and photo metadata
+     * @param user     authenticated user
+     * @param deadline deadline of the whole batch, URLs not uploaded by then fail as cancelled
+     * @return future completed with one result per URL, in request order
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    public CompletableFuture<List<UrlUploadResult>> uploadBatch(List<UrlUploadRequest> requests, String user,
+                                                              UploadDeadline deadline) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one URL is required");
+        }
+        if (requests.size() > properties.getMaxBatchSize()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxBatchSize() + " URLs per batch are allowed");
+        }
+
+        List<CompletableFuture<UrlUploadResult>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+
+        batchRunner.execute(() -> {
+            Semaphore permits = new Semaphore(Math.max(1, properties.getBatchParallelism()));
+            for (int i = 0; i < requests.size(); i++) {
+                UrlUploadRequest request = requests.get(i);
+                CompletableFuture<UrlUploadResult> result = results.get(i);
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.complete(failed(request, e));
+                    continue;
+                }
+
+                CompletableFuture<UploadResponse> upload;
+                try {
+                    // Don't start fetching what can no longer be uploaded in time
+                    deadline.check("fetch");
+                    UploadRequest uploadRequest = toUploadRequest(request, user, UploadPriority.BULK, deadline);
+                    upload = submit(urlFetcher.fetch(request.getUrl()), uploadRequest);
+                } catch (RuntimeException e) {
+                    upload = CompletableFuture.failedFuture(e);
+                }
+                upload.whenComplete((response, error) -> {
+                    permits.release();
+                    result.complete(error == null
+                        ? UrlUploadResult.builder().url(request.getUrl()).success(true).upload(response).build()
+                        : failed(request, error));
+                });
+            }
+        });
+
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+            .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchRunner.shutdown();
+    }
+
+    private CompletableFuture<UploadResponse> submit(UrlMultipartFile file, UploadRequest request) {
+        CompletableFuture<UploadResponse> upload;
+        try {
+            upload = uploadScheduler.submit(file, request);
+        } catch (RuntimeException e) {
+            closeQuietly(file);
+            throw e;
+        }
+        return upload.whenComplete((response, error) -> closeQuietly(file));
+    }
+
+    private UploadRequest toUploadRequest(UrlUploadRequest request, String user, UploadPriority defaultPriority,
+                                          UploadDeadline deadline) {
+        if (request.getAlbum() == null || request.getAlbum().trim().isEmpty()) {
+            throw new IllegalArgumentException("Album name is required");
+        }
+
+        UploadRequest uploadRequest = UploadRequest.builder()
+            .album(request.getAlbum().trim())
+            .additionalAlbums(request.getAdditionalAlbums())
+            .title(request.getTitle() != null ? request.getTitle().trim() : null)
+            .description(request.getDescription() != null ? request.getDescription().trim() : null)
+            .tags(request.getTags() != null ? request.getTags().trim() : null)
+            .dedupCheck(request.getDedupCheck())
+            .priority(request.getPriority() != null ? request.getPriority() : defaultPriority)
+            .ordered(request.isOrdered())
+            .user(user)
+            .deadline(deadline)
+            .build();
+        if (uploadRequest.albums().size() > UploadRequest.MAX_ALBUMS) {
+            throw new IllegalArgumentException("At most " + UploadRequest.MAX_ALBUMS + " albums per photo are allowed");
+        }
+        return uploadRequest;
+    }
+
+    private static UrlUploadResult failed(UrlUploadRequest request, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause instanceof FlickrUploaderException e && e.getDetails() != null
+            ? cause.getMessage() + ": " + e.getDetails()
+            : cause.getMessage();
+        log.warn("URL upload failed: url={}, error={}", request.getUrl(), message);
+        return UrlUploadResult.builder()
+            .url(request.getUrl())
+            .success(false)
+            .error(message)
+            .build();
+    }
+
+    private static void closeQuietly(UrlMultipartFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            log.debug("Failed to close URL fetch: url={}, error={}", file.getUri(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import org.springframework.web.multipart.MultipartFile;
+import pl.czerwiu.flickr.upldr.spool.SpoolReservation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MultipartFile streaming its content from a source URL, so fetched photos go through
+ * the regular upload workflow without waiting for the download. The URL is fetched once:
+ * the body is spooled as it's read, and every later getInputStream() call (retries,
+ * after the duplicate check) replays the spooled bytes before reading on from the source.
+ * Without Content-Length, the size is the number of bytes read so far, so it's the whole
+ * body once the upload has sent it.
+ */
+public class UrlMultipartFile implements MultipartFile, Closeable {
+
+    private final URI uri;
+    private final String contentType;
+    private final long size;
+    private final InputStream source;
+    private final SpoolReservation spool;
+    private final Runnable onClose;
+
+    // Guarded by this; streams are read one after another, never concurrently
+    private SpoolReservation.SpoolFileOutputStream spoolFile;
+    private long spooled;
+    private boolean sourceDone;
+    private boolean closed;
+
+    UrlMultipartFile(URI uri, String contentType, long size, InputStream source,
+                     SpoolReservation spool, Runnable onClose) {
+        this.uri = uri;
+        this.contentType = contentType;
+        this.size = size;
+        this.source = source;
+        this.spool = spool;
+        this.onClose = onClose;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        String path = uri.getPath();
+        String name = path != null ? path.substring(path.lastIndexOf('/') + 1) : "";
+        return name.isEmpty() ? "photo" : name;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public synchronized long getSize() {
+        return size >= 0 ? size : spooled;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        try (InputStream in = getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (closed) {
+            throw new IOException("Fetch of " + uri + " already finished");
+        }
+        if (spoolFile == null) {
+            spoolFile = spool.createFile();
+        }
+        return new ReplayInputStream();
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        transferTo(dest.toPath());
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        try (InputStream in = getInputStream(); OutputStream out = Files.newOutputStream(dest)) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * Closes the source response, deletes the spooled body and frees the fetch slot.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (source) {
+            if (spoolFile != null) {
+                spoolFile.close();
+            }
+        } finally {
+            spool.close();
+            onClose.run();
+        }
+    }
+
+    /**
+     * Stream of the whole body: bytes already spooled are read from the spool file,
+     * the rest from the source, spooling them for the next stream.
+     */
+    private final class ReplayInputStream extends InputStream {
+
+        private FileChannel replay;
+        private long position;
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            synchronized (UrlMultipartFile.this) {
+                if (closed) {
+                    throw new IOException("Fetch of " + uri + " already finished");
+                }
+                int n;
+                if (position < spooled) {
+                    if (replay == null) {
+                        replay = FileChannel.open(spoolFile.getFile(), StandardOpenOption.READ);
+                    }
+                    n = replay.read(ByteBuffer.wrap(b, off, (int) Math.min(len, spooled - position)), position);
+                } else if (sourceDone) {
+                    return -1;
+                } else {
+                    n = source.read(b, off, len);
+                    if (n < 0) {
+                        sourceDone = true;
+                        return -1;
+                    }
+                    spoolFile.write(b, off, n);
+                    spooled += n;
+                }
+                position += n;
+                return n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (replay != null) {
+                replay.close();
+            }
+        }
+    }
+}
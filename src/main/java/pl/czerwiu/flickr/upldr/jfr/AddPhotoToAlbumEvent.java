@@ -0,0 +1,28 @@
+package pl.czerwiu.flickr.upldr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for adding an uploaded photo to its album.
+ */
+@Name("pl.czerwiu.flickr.upldr.AddPhotoToAlbum")
+@Label("Add Photo To Album")
+@Category({"Flickr Uploader"})
+@Description("Flickr photosets.addPhoto call")
+@StackTrace(false)
+public class AddPhotoToAlbumEvent extends Event {
+
+    @Label("Photo ID")
+    public String photoId;
+
+    @Label("Album ID")
+    public String albumId;
+
+    @Label("Success")
+    public boolean success;
+}
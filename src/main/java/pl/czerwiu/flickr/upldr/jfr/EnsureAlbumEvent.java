@@ -0,0 +1,32 @@
+package pl.czerwiu.flickr.upldr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for resolving (or creating) the album of an upload.
+ */
+@Name("pl.czerwiu.flickr.upldr.EnsureAlbum")
+@Label("Ensure Album")
+@Category({"Flickr Uploader"})
+@Description("Album lookup or creation")
+@StackTrace(false)
+public class EnsureAlbumEvent extends Event {
+
+    @Label("Album")
+    public String album;
+
+    @Label("Album ID")
+    public String albumId;
+
+    @Label("Cache Hit")
+    @Description("Album resolved from the shared catalog without calling Flickr")
+    public boolean cacheHit;
+
+    @Label("Created")
+    public boolean created;
+}
@@ -0,0 +1,36 @@
+package pl.czerwiu.flickr.upldr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a single attempt of sending photo bytes to Flickr.
+ */
+@Name("pl.czerwiu.flickr.upldr.FlickrUpload")
+@Label("Flickr Upload")
+@Category({"Flickr Uploader"})
+@Description("Single attempt of sending a photo to Flickr")
+@StackTrace(false)
+public class FlickrUploadEvent extends Event {
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Async")
+    public boolean async;
+
+    @Label("Photo or Ticket ID")
+    public String resultId;
+
+    @Label("Success")
+    public boolean success;
+}
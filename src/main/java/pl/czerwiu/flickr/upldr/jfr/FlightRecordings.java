@@ -0,0 +1,167 @@
+package pl.czerwiu.flickr.upldr.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.JfrProperties;
+import pl.czerwiu.flickr.upldr.exception.NotFoundException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Manages JDK Flight Recorder recordings: an optional continuous recording started
+ * with the application and on-demand recordings started through the jfr endpoint.
+ */
+@Slf4j
+@Component
+public class FlightRecordings {
+
+    static final String CONTINUOUS = "continuous";
+
+    private final JfrProperties properties;
+    private final Recording continuous;
+
+    public FlightRecordings(JfrProperties properties) {
+        this.properties = properties;
+        this.continuous = properties.isContinuous() && FlightRecorder.isAvailable() ? startContinuous() : null;
+    }
+
+    /**
+     * @return all recordings of this JVM (also those started by other tools)
+     */
+    public List<RecordingInfo> list() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+            .map(RecordingInfo::of)
+            .toList();
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param name     recording name
+     * @param duration recording length, the recording stops by itself afterwards
+     * @param settings JFR configuration, "default" (low overhead) or "profile" (more detail)
+     * @return started recording
+     * @throws IllegalArgumentException if JFR is unavailable, settings are unknown or duration too long
+     */
+    public RecordingInfo start(String name, Duration duration, String settings) {
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalArgumentException("Flight Recorder is not available in this JVM");
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(properties.getMaxDuration()) > 0) {
+            throw new IllegalArgumentException("Duration must be between 1s and " + properties.getMaxDuration());
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+        }
+
+        Recording recording = new Recording(configuration);
+        recording.setName(name);
+        recording.setDuration(duration);
+        recording.setToDisk(true);
+        recording.start();
+        log.info("JFR recording started: id={}, name={}, duration={}, settings={}",
+            recording.getId(), name, duration, settings);
+        return RecordingInfo.of(recording);
+    }
+
+    /**
+     * Stops a recording, its data stays available for download until it is closed.
+     *
+     * @throws NotFoundException if recording is unknown
+     */
+    public RecordingInfo stop(long id) {
+        Recording recording = find(id);
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("JFR recording stopped: id={}, name={}", id, recording.getName());
+        }
+        return RecordingInfo.of(recording);
+    }
+
+    /**
+     * Closes a recording and discards its data.
+     *
+     * @throws NotFoundException if recording is unknown
+     */
+    public void close(long id) {
+        Recording recording = find(id);
+        recording.close();
+        log.info("JFR recording closed: id={}, name={}", id, recording.getName());
+    }
+
+    /**
+     * Writes data recorded so far into a temporary .jfr file (running recordings keep running).
+     *
+     * @return file owned by the caller, who must delete it
+     * @throws NotFoundException if recording is unknown
+     */
+    public Path dump(long id) {
+        Recording recording = find(id);
+        try {
+            Path file = Files.createTempFile("recording-" + id + "-", ".jfr");
+            recording.dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to dump JFR recording " + id, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+
+    private Recording find(long id) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+            .filter(recording -> recording.getId() == id)
+            .findFirst()
+            .orElseThrow(() -> new NotFoundException("JFR recording not found: " + id));
+    }
+
+    private Recording startContinuous() {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName(CONTINUOUS);
+            recording.setMaxAge(properties.getMaxAge());
+            recording.setMaxSize(properties.getMaxSize().toBytes());
+            recording.setToDisk(true);
+            recording.start();
+            log.info("Continuous JFR recording started: maxAge={}, maxSize={}",
+                properties.getMaxAge(), properties.getMaxSize());
+            return recording;
+        } catch (IOException | ParseException | RuntimeException e) {
+            log.warn("Failed to start continuous JFR recording: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Recording summary returned by the jfr endpoint.
+     */
+    public record RecordingInfo(long id, String name, RecordingState state, Instant startTime,
+                                Duration duration, long size) {
+
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(recording.getId(), recording.getName(), recording.getState(),
+                recording.getStartTime(), recording.getDuration(), recording.getSize());
+        }
+    }
+}
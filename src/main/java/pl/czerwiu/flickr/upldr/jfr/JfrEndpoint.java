@@ -0,0 +1,122 @@
+package pl.czerwiu.flickr.upldr.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.exception.NotFoundException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Actuator endpoint for JDK Flight Recorder recordings, so a profile can be captured
+ * during an incident without restarting the application:
+ * <ul>
+ *   <li>{@code GET /actuator/jfr} - list recordings</li>
+ *   <li>{@code POST /actuator/jfr} - start a recording ({@code name}, {@code durationSeconds}, {@code settings})</li>
+ *   <li>{@code POST /actuator/jfr/{id}} - stop a recording</li>
+ *   <li>{@code GET /actuator/jfr/{id}} - download recorded data as a .jfr file</li>
+ *   <li>{@code DELETE /actuator/jfr/{id}} - close a recording and discard its data</li>
+ * </ul>
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private final FlightRecordings flightRecordings;
+
+    @ReadOperation
+    public List<FlightRecordings.RecordingInfo> recordings() {
+        return flightRecordings.list();
+    }
+
+    @WriteOperation
+    public FlightRecordings.RecordingInfo start(@Nullable String name,
+                                                @Nullable Long durationSeconds,
+                                                @Nullable String settings) {
+        try {
+            return flightRecordings.start(
+                name != null ? name : "on-demand",
+                Duration.ofSeconds(durationSeconds != null ? durationSeconds : 60),
+                settings != null ? settings : "profile");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<FlightRecordings.RecordingInfo> stop(@Selector long id) {
+        try {
+            return new WebEndpointResponse<>(flightRecordings.stop(id));
+        } catch (NotFoundException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        try {
+            return new WebEndpointResponse<>(new TemporaryFileResource(flightRecordings.dump(id)));
+        } catch (NotFoundException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> close(@Selector long id) {
+        try {
+            flightRecordings.close(id);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+        } catch (NotFoundException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Dumped recording, deleted once it has been sent.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private final Path file;
+
+        private TemporaryFileResource(Path file) {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public boolean isFile() {
+            // Make converters stream the content through getInputStream()
+            return false;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package pl.czerwiu.flickr.upldr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for parsing a multipart request (including spooling parts to disk).
+ */
+@Name("pl.czerwiu.flickr.upldr.MultipartParse")
+@Label("Multipart Parse")
+@Category({"Flickr Uploader"})
+@Description("Parsing of a multipart upload request")
+@StackTrace(false)
+public class MultipartParseEvent extends Event {
+
+    @Label("Request Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,33 @@
+package pl.czerwiu.flickr.upldr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering a whole upload, from receiving the file to adding it to its album.
+ */
+@Name("pl.czerwiu.flickr.upldr.Upload")
+@Label("Upload")
+@Category({"Flickr Uploader"})
+@Description("Complete upload workflow")
+@StackTrace(false)
+public class UploadEvent extends Event {
+
+    @Label("Album")
+    public String album;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Photo ID")
+    public String photoId;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,62 @@
+package pl.czerwiu.flickr.upldr.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Exposes queue depth and drop counts of async log appenders as Micrometer metrics.
+ * Metrics: logging.async.queue.size, logging.async.queue.remaining, logging.async.dropped
+ * (all tagged with the appender name).
+ */
+@Slf4j
+@Component
+public class AsyncAppenderMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (!(factory instanceof LoggerContext context)) {
+            log.debug("Logback not active, async appender metrics disabled");
+            return;
+        }
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        Iterator<Appender<ILoggingEvent>> appenders = root.iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof DropCountingAsyncAppender appender) {
+                bind(registry, appender);
+            }
+        }
+    }
+
+    private void bind(MeterRegistry registry, DropCountingAsyncAppender appender) {
+        String name = appender.getName();
+
+        Gauge.builder("logging.async.queue.size", appender, DropCountingAsyncAppender::getNumberOfElementsInQueue)
+            .description("Log events waiting in the async appender queue")
+            .tag("appender", name)
+            .register(registry);
+
+        Gauge.builder("logging.async.queue.remaining", appender, DropCountingAsyncAppender::getRemainingCapacity)
+            .description("Remaining capacity of the async appender queue")
+            .tag("appender", name)
+            .register(registry);
+
+        FunctionCounter.builder("logging.async.dropped", appender, DropCountingAsyncAppender::getDroppedCount)
+            .description("Log events dropped by the async appender")
+            .tag("appender", name)
+            .register(registry);
+    }
+}
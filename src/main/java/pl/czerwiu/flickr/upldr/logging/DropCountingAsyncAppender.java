@@ -0,0 +1,33 @@
+package pl.czerwiu.flickr.upldr.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback async appender that counts events it drops.
+ * Events are dropped when the queue is below the discarding threshold
+ * (TRACE/DEBUG/INFO only) or when the queue is full and neverBlock is set.
+ */
+public class DropCountingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if ((isQueueBelowDiscardingThreshold() && isDiscardable(event))
+                || (isNeverBlock() && getRemainingCapacity() == 0)) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    /**
+     * @return number of events dropped since the appender was created
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,169 @@
+package pl.czerwiu.flickr.upldr.progress;
+
+import pl.czerwiu.flickr.upldr.dto.UploadProgressStatus;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.dto.UploadStage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Progress of a single upload. Updated by the threads doing the work without locking;
+ * readers take a {@link #status()} snapshot, so nothing is emitted per buffer.
+ * Each byte counter has a single writer at a time (the thread receiving the body,
+ * then the thread sending the current Flickr attempt), so plain volatile fields suffice.
+ */
+public class UploadProgress {
+
+    /**
+     * Request attribute the multipart resolver stores the tracked upload in.
+     */
+    public static final String ATTRIBUTE = UploadProgress.class.getName();
+
+    private final String uploadId;
+    private final String user;
+    private final long retentionNanos;
+
+    private volatile UploadStage stage;
+    private volatile long requestBytes = -1;
+    private volatile long bytesReceived;
+    private volatile long fileBytes = -1;
+    private volatile long bytesSent;
+    private volatile String ticketId;
+    private volatile String photoId;
+    private volatile UploadResponse response;
+    private volatile String error;
+    private volatile long expiresAtNanos;
+
+    UploadProgress(String uploadId, String user, UploadStage stage, long expiresAtNanos, long retentionNanos) {
+        this.uploadId = uploadId;
+        this.user = user;
+        this.stage = stage;
+        this.expiresAtNanos = expiresAtNanos;
+        this.retentionNanos = retentionNanos;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    String getUser() {
+        return user;
+    }
+
+    public UploadStage getStage() {
+        return stage;
+    }
+
+    public UploadProgressStatus status() {
+        return UploadProgressStatus.builder()
+            .uploadId(uploadId)
+            .stage(stage)
+            .requestBytes(requestBytes)
+            .bytesReceived(bytesReceived)
+            .fileBytes(fileBytes)
+            .bytesSent(bytesSent)
+            .ticketId(ticketId)
+            .photoId(photoId)
+            .response(response)
+            .error(error)
+            .build();
+    }
+
+    /**
+     * Counts request body bytes read from the stream.
+     */
+    public InputStream countReceived(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesReceived++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    bytesReceived += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Starts a Flickr upload attempt and counts the bytes the Flickr client reads from the stream.
+     */
+    public InputStream countSent(InputStream in) {
+        bytesSent = 0;
+        stage = UploadStage.UPLOADING;
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesSent++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    bytesSent += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    void receiving(long requestBytes, long expiresAtNanos) {
+        this.requestBytes = requestBytes;
+        this.stage = UploadStage.RECEIVING;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public void queued(long fileBytes) {
+        this.fileBytes = fileBytes;
+        this.stage = UploadStage.QUEUED;
+    }
+
+    public void ticketSent(String ticketId) {
+        this.ticketId = ticketId;
+        this.stage = UploadStage.PROCESSING;
+    }
+
+    public void photoUploaded(String photoId) {
+        this.photoId = photoId;
+    }
+
+    public void stage(UploadStage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Records the outcome; progress stays available for the retention period.
+     */
+    public void finish(UploadResponse response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            this.error = cause.getMessage();
+            this.stage = UploadStage.FAILED;
+        } else {
+            this.response = response;
+            this.stage = UploadStage.DONE;
+        }
+        this.expiresAtNanos = System.nanoTime() + retentionNanos;
+    }
+
+    boolean isExpired(long nowNanos) {
+        return nowNanos - expiresAtNanos > 0;
+    }
+}
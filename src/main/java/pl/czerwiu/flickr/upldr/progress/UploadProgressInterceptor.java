@@ -0,0 +1,22 @@
+package pl.czerwiu.flickr.upldr.progress;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import pl.czerwiu.flickr.upldr.dto.UploadStage;
+
+/**
+ * Fails the progress of uploads rejected after their body was received (missing or invalid
+ * parameters), so watchers don't wait for an upload that never starts. Uploads that were
+ * accepted are finished by the controller when they complete.
+ */
+public class UploadProgressInterceptor implements HandlerInterceptor {
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(UploadProgress.ATTRIBUTE) instanceof UploadProgress progress
+                && progress.getStage() == UploadStage.RECEIVING) {
+            progress.finish(null, new IllegalStateException("Upload rejected with status " + response.getStatus()));
+        }
+    }
+}
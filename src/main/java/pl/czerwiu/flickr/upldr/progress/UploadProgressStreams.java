@@ -0,0 +1,111 @@
+package pl.czerwiu.flickr.upldr.progress;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.czerwiu.flickr.upldr.config.UploadProgressProperties;
+import pl.czerwiu.flickr.upldr.dto.UploadProgressStatus;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-Sent Event streams of upload progress. A single thread samples the watched uploads
+ * at a fixed interval and sends a "progress" event only when the status changed, so the cost
+ * doesn't depend on how fast bytes move. Streams end after the final status.
+ */
+@Slf4j
+@Component
+public class UploadProgressStreams {
+
+    private final UploadProgressTracker tracker;
+    private final UploadProgressProperties properties;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("upload-progress-sampler").daemon().factory());
+
+    public UploadProgressStreams(UploadProgressTracker tracker, UploadProgressProperties properties) {
+        this.tracker = tracker;
+        this.properties = properties;
+
+        long interval = properties.getSampleInterval().toMillis();
+        sampler.scheduleWithFixedDelay(this::sample, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens an event stream of the upload's progress.
+     */
+    public SseEmitter subscribe(UploadProgress progress) {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        Subscription subscription = new Subscription(progress, emitter);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    private void sample() {
+        try {
+            tracker.purgeExpired();
+            long now = System.nanoTime();
+            for (Subscription subscription : subscriptions) {
+                subscription.sample(now);
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled sampling
+            log.warn("Failed to sample upload progress: error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * Event stream of one upload, with the last status sent to it.
+     */
+    private final class Subscription {
+
+        private final UploadProgress progress;
+        private final SseEmitter emitter;
+        private UploadProgressStatus lastSent;
+        private long lastSentNanos = System.nanoTime();
+
+        private Subscription(UploadProgress progress, SseEmitter emitter) {
+            this.progress = progress;
+            this.emitter = emitter;
+        }
+
+        private void sample(long now) {
+            UploadProgressStatus status = progress.status();
+            try {
+                if (!status.equals(lastSent)) {
+                    emitter.send(SseEmitter.event().name("progress").data(status, MediaType.APPLICATION_JSON));
+                    lastSent = status;
+                    lastSentNanos = now;
+                    if (status.getStage().isFinal()) {
+                        subscriptions.remove(this);
+                        emitter.complete();
+                    }
+                } else if (now - lastSentNanos > properties.getHeartbeatInterval().toNanos()) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                    lastSentNanos = now;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                log.debug("Upload progress stream closed: uploadId={}, error={}", progress.getUploadId(), e.getMessage());
+                subscriptions.remove(this);
+            }
+        }
+    }
+}
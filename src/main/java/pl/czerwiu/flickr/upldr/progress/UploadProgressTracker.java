@@ -0,0 +1,122 @@
+package pl.czerwiu.flickr.upldr.progress;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.UploadProgressProperties;
+import pl.czerwiu.flickr.upldr.dto.UploadStage;
+import pl.czerwiu.flickr.upldr.exception.NotFoundException;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Uploads whose progress is reported, keyed by the client-supplied upload ID.
+ * Progress is visible only to the user who sent the upload. Services report to a detached
+ * instance for uploads sent without an ID, so they don't need to check.
+ */
+@Slf4j
+@Component
+public class UploadProgressTracker {
+
+    /**
+     * Request header carrying the upload ID.
+     */
+    public static final String HEADER = "Upload-Id";
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+
+    private final UploadProgressProperties properties;
+    private final Map<String, UploadProgress> uploads = new ConcurrentHashMap<>();
+
+    public UploadProgressTracker(UploadProgressProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Starts tracking an upload whose body is about to be received.
+     *
+     * @param uploadId     client-supplied upload ID, may be null
+     * @param user         authenticated user
+     * @param requestBytes size of the request body, -1 if unknown
+     * @return tracked progress, null if the ID is missing, invalid or used by an upload in progress
+     */
+    public UploadProgress start(String uploadId, String user, long requestBytes) {
+        if (!isValid(uploadId)) {
+            return null;
+        }
+        long expiresAt = System.nanoTime() + properties.getMaxAge().toNanos();
+        UploadProgress[] started = new UploadProgress[1];
+        uploads.compute(uploadId, (id, existing) -> {
+            if (existing != null && !Objects.equals(existing.getUser(), user)) {
+                return existing;
+            }
+            if (existing != null && existing.getStage() == UploadStage.WAITING) {
+                // Someone is already watching this ID
+                existing.receiving(requestBytes, expiresAt);
+                started[0] = existing;
+                return existing;
+            }
+            if (existing != null && !existing.getStage().isFinal()) {
+                return existing;
+            }
+            if (existing == null && uploads.size() >= properties.getMaxUploads()) {
+                return null;
+            }
+            started[0] = create(id, user, UploadStage.RECEIVING);
+            started[0].receiving(requestBytes, expiresAt);
+            return started[0];
+        });
+
+        if (started[0] == null) {
+            log.debug("Upload not tracked: uploadId={}", uploadId);
+        }
+        return started[0];
+    }
+
+    /**
+     * Returns an upload's progress for reporting. An ID not seen yet is reserved in the
+     * WAITING stage, so clients can subscribe before they send the upload.
+     *
+     * @throws IllegalArgumentException if the ID is invalid
+     * @throws NotFoundException        if the ID belongs to another user or too many uploads are tracked
+     */
+    public UploadProgress watch(String uploadId, String user) {
+        if (!isValid(uploadId)) {
+            throw new IllegalArgumentException("Upload ID must be 1-128 letters, digits, '.', '_' or '-'");
+        }
+        UploadProgress progress = uploads.computeIfAbsent(uploadId, id -> uploads.size() < properties.getMaxUploads()
+            ? create(id, user, UploadStage.WAITING) : null);
+        if (progress == null || !Objects.equals(progress.getUser(), user)) {
+            throw new NotFoundException("Upload not found: " + uploadId);
+        }
+        return progress;
+    }
+
+    /**
+     * Returns the progress services report to; a detached instance when the upload isn't tracked.
+     */
+    public UploadProgress get(String uploadId) {
+        UploadProgress progress = uploadId != null ? uploads.get(uploadId) : null;
+        return progress != null ? progress : create(uploadId, null, UploadStage.QUEUED);
+    }
+
+    /**
+     * Forgets finished uploads past their retention and uploads running longer than the maximum age.
+     */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        uploads.values().removeIf(progress -> progress.isExpired(now));
+    }
+
+    private UploadProgress create(String uploadId, String user, UploadStage stage) {
+        long lifetime = (stage == UploadStage.WAITING ? properties.getRetention() : properties.getMaxAge()).toNanos();
+        return new UploadProgress(uploadId, user, stage, System.nanoTime() + lifetime,
+            properties.getRetention().toNanos());
+    }
+
+    private static boolean isValid(String uploadId) {
+        return uploadId != null && UPLOAD_ID.matcher(uploadId).matches();
+    }
+}
@@ -0,0 +1,419 @@
+package pl.czerwiu.flickr.upldr.service;
+
+import com.flickr4java.flickr.Flickr;
+import com.flickr4java.flickr.FlickrException;
+import com.flickr4java.flickr.RequestContext;
+import com.flickr4java.flickr.photos.Photo;
+import com.flickr4java.flickr.photos.PhotoList;
+import com.flickr4java.flickr.photosets.Photoset;
+import com.flickr4java.flickr.photosets.Photosets;
+import com.flickr4java.flickr.photosets.PhotosetsInterface;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.czerwiu.flickr.upldr.config.AlbumCacheProperties;
+import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+import pl.czerwiu.flickr.upldr.dto.AlbumPhoto;
+import pl.czerwiu.flickr.upldr.dto.AlbumSummary;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.exception.NotFoundException;
+import pl.czerwiu.flickr.upldr.flickr.FlickrConcurrencyLimits;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Server-side cache of the user's albums and album contents for the read API.
+ * The album list is reloaded in the background; contents of an album are loaded on first
+ * request and reloaded only when the album list shows the album changed (or after a maximum
+ * age, as title changes don't mark the album as updated). Every cached list carries a version
+ * hash of its content, which the read API uses for ETags.
+ * The cache only serves the read API; resolving album names to IDs for uploads belongs to
+ * {@link AlbumService} and its shared catalog, which is never filled from this cache.
+ */
+@Slf4j
+@Service
+public class AlbumCacheService {
+
+    private static final int FLICKR_PAGE_SIZE = 500;
+    private static final Set<String> PHOTO_EXTRAS = Set.of("date_upload", "media");
+
+    private final Flickr flickrClient;
+    private final FlickrProperties flickrProperties;
+    private final FlickrConcurrencyLimits flickrConcurrencyLimits;
+    private final AlbumCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("album-cache-refresh").daemon().factory());
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+    private final Object listingLock = new Object();
+    private final Map<String, AlbumContents> contents;
+    private final Map<String, CompletableFuture<AlbumContents>> contentLoads = new ConcurrentHashMap<>();
+
+    private final AtomicReference<AlbumListing> listing = new AtomicReference<>();
+
+    public AlbumCacheService(Flickr flickrClient,
+                             FlickrProperties flickrProperties,
+                             FlickrConcurrencyLimits flickrConcurrencyLimits,
+                             AlbumCacheProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.flickrClient = flickrClient;
+        this.flickrProperties = flickrProperties;
+        this.flickrConcurrencyLimits = flickrConcurrencyLimits;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.contents = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AlbumContents> eldest) {
+                return size() > properties.getMaxCachedAlbums();
+            }
+        });
+
+        Gauge.builder("album.cache.albums", contents, Map::size)
+            .description("Albums whose contents are cached")
+            .register(meterRegistry);
+
+        long interval = properties.getRefreshInterval().toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns a page of the user's albums, in Flickr's order.
+     *
+     * @param page    page number, starting at 1
+     * @param perPage albums per page, null for the default
+     * @throws IllegalArgumentException if paging is invalid
+     * @throws FlickrUploadException    if albums have never been loaded and can't be loaded now
+     */
+    public Page<AlbumSummary> albums(int page, Integer perPage) {
+        AlbumListing current = listing();
+        return page(current.version(), current.albums(), page, perPage);
+    }
+
+    /**
+     * Returns a page of photos and videos in an album, in album order.
+     *
+     * @param albumId album ID (photoset ID)
+     * @param page    page number, starting at 1
+     * @param perPage photos per page, null for the default
+     * @throws NotFoundException        if the album is not in the album list
+     * @throws IllegalArgumentException if paging is invalid
+     * @throws FlickrUploadException    if album contents can't be loaded
+     */
+    public Page<AlbumPhoto> photos(String albumId, int page, Integer perPage) {
+        AlbumSummary album = listing().byId().get(albumId);
+        if (album == null) {
+            throw new NotFoundException("Album not found: " + albumId);
+        }
+        AlbumContents albumContents = contents(album);
+        return page(albumContents.version(), albumContents.photos(), page, perPage);
+    }
+
+    /**
+     * Updates the cache after a photo was added to an album, without calling Flickr: the album's
+     * contents are dropped and its photo or video count in the album list goes up, unless Flickr
+     * reported the photo already in the album. An album not in the list yet (just created) is
+     * picked up by a list reload after the refresh delay, shared by all albums created meanwhile.
+     *
+     * @param albumId album ID (photoset ID)
+     * @param video   whether a video was added
+     * @param added   false if the photo was already in the album, so its count stays
+     */
+    public void photoAdded(String albumId, boolean video, boolean added) {
+        contents.remove(albumId);
+        AlbumListing updated = listing.updateAndGet(current -> current != null && added
+            ? current.photoAdded(albumId, video)
+            : current);
+        if (updated != null && !updated.byId().containsKey(albumId) && refreshRequested.compareAndSet(false, true)) {
+            refresher.schedule(this::refreshQuietly, properties.getRefreshDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private AlbumListing listing() {
+        AlbumListing current = listing.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (listingLock) {
+            current = listing.get();
+            return current != null ? current : refresh();
+        }
+    }
+
+    private void refreshQuietly() {
+        refreshRequested.set(false);
+        try {
+            synchronized (listingLock) {
+                refresh();
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled refresh, the old list is served meanwhile
+            log.warn("Failed to refresh album cache: error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads the album list and drops cached contents of albums that changed or no longer exist.
+     * Must be called while holding the listing lock.
+     */
+    private AlbumListing refresh() {
+        long start = System.nanoTime();
+        List<AlbumSummary> albums = new ArrayList<>();
+        try {
+            RequestContext.getRequestContext().setAuth(flickrClient.getAuth());
+            PhotosetsInterface photosetsInterface = flickrClient.getPhotosetsInterface();
+            String userNsid = flickrProperties.getUser().getNsid();
+            int pages = 1;
+            for (int page = 1; page <= pages; page++) {
+                int current = page;
+                Photosets photosets = flickrConcurrencyLimits.metadata().execute(
+                    () -> photosetsInterface.getList(userNsid, FLICKR_PAGE_SIZE, current, null));
+                for (Photoset photoset : photosets.getPhotosets()) {
+                    albums.add(AlbumSummary.builder()
+                        .id(photoset.getId())
+                        .title(photoset.getTitle())
+                        .description(photoset.getDescription())
+                        .photos(photoset.getPhotoCount())
+                        .videos(photoset.getVideoCount())
+                        .updatedAt(epochSeconds(photoset.getDateUpdate()))
+                        .build());
+                }
+                pages = photosets.getPages();
+            }
+        } catch (FlickrException e) {
+            meterRegistry.counter("album.cache.refresh", "result", "failed").increment();
+            throw new FlickrUploadException("Failed to load albums", e.getMessage(), e);
+        }
+
+        AlbumListing previous = listing.get();
+        AlbumListing refreshed = AlbumListing.of(albums);
+        if (previous != null && previous.version().equals(refreshed.version())) {
+            refreshed = previous;
+        }
+        listing.set(refreshed);
+
+        Map<String, AlbumSummary> byId = refreshed.byId();
+        int dropped = 0;
+        synchronized (contents) {
+            var cached = contents.entrySet().iterator();
+            while (cached.hasNext()) {
+                Map.Entry<String, AlbumContents> entry = cached.next();
+                AlbumSummary album = byId.get(entry.getKey());
+                if (album == null || !entry.getValue().loadedFrom(album)) {
+                    cached.remove();
+                    dropped++;
+                }
+            }
+        }
+
+        meterRegistry.counter("album.cache.refresh", "result", "success").increment();
+        log.debug("Album cache refreshed: albums={}, changed={}, droppedContents={}, durationMs={}",
+            albums.size(), refreshed != previous, dropped, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return refreshed;
+    }
+
+    private AlbumContents contents(AlbumSummary album) {
+        AlbumContents cached = contents.get(album.getId());
+        if (cached != null && cached.loadedFrom(album)
+                && cached.loadedAt().plus(properties.getContentsMaxAge()).isAfter(Instant.now())) {
+            meterRegistry.counter("album.cache.contents", "result", "hit").increment();
+            return cached;
+        }
+
+        // Single-flight: concurrent requests for the same album share one load
+        CompletableFuture<AlbumContents> load = new CompletableFuture<>();
+        CompletableFuture<AlbumContents> running = contentLoads.putIfAbsent(album.getId(), load);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        meterRegistry.counter("album.cache.contents", "result", "miss").increment();
+        try {
+            AlbumContents loaded = loadContents(album);
+            contents.put(album.getId(), loaded);
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            contentLoads.remove(album.getId(), load);
+        }
+    }
+
+    private AlbumContents loadContents(AlbumSummary album) {
+        long start = System.nanoTime();
+        List<AlbumPhoto> photos = new ArrayList<>(album.getPhotos() + album.getVideos());
+        try {
+            RequestContext.getRequestContext().setAuth(flickrClient.getAuth());
+            PhotosetsInterface photosetsInterface = flickrClient.getPhotosetsInterface();
+            int pages = 1;
+            for (int page = 1; page <= pages; page++) {
+                int current = page;
+                PhotoList<Photo> photoList = flickrConcurrencyLimits.metadata().execute(
+                    () -> photosetsInterface.getPhotos(album.getId(), PHOTO_EXTRAS, 0, FLICKR_PAGE_SIZE, current));
+                for (Photo photo : photoList) {
+                    photos.add(AlbumPhoto.builder()
+                        .id(photo.getId())
+                        .title(photo.getTitle())
+                        .media(photo.getMedia())
+                        .uploadedAt(photo.getDatePosted() != null ? photo.getDatePosted().toInstant() : null)
+                        .build());
+                }
+                pages = photoList.getPages();
+            }
+        } catch (FlickrException e) {
+            log.warn("Failed to load album contents: albumId={}, error={}", album.getId(), e.getMessage());
+            throw new FlickrUploadException("Failed to load album contents: " + album.getId(), e.getMessage(), e);
+        }
+
+        log.atInfo()
+            .setMessage("Album contents loaded")
+            .addKeyValue("albumId", album.getId())
+            .addKeyValue("photos", photos.size())
+            .addKeyValue("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+            .log();
+        return new AlbumContents(version(photos, photo -> photo.getId() + '\u0000' + photo.getTitle()
+            + '\u0000' + photo.getMedia() + '\u0000' + photo.getUploadedAt()),
+            List.copyOf(photos), album.getUpdatedAt(), album.getPhotos(), album.getVideos(), Instant.now());
+    }
+
+    private <T> Page<T> page(String version, List<T> items, int page, Integer perPage) {
+        int size = perPage != null ? perPage : properties.getPageSize();
+        if (page < 1) {
+            throw new IllegalArgumentException("Page must be 1 or greater");
+        }
+        if (size < 1 || size > properties.getMaxPageSize()) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + properties.getMaxPageSize());
+        }
+        int from = (int) Math.min((long) (page - 1) * size, items.size());
+        int to = Math.min(from + size, items.size());
+        return new Page<>(version, page, size, items.size(), items.subList(from, to));
+    }
+
+    /**
+     * Hashes the items' content; equal lists have equal versions.
+     */
+    private static <T> String version(List<T> items, Function<T, String> content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (T item : items) {
+                digest.update(content.apply(item).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    private static Instant epochSeconds(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochSecond(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Page of a cached list.
+     *
+     * @param version version of the whole list, changes whenever its content changes
+     * @param items   items of the page, a view of the cached list
+     */
+    public record Page<T>(String version, int page, int perPage, int total, List<T> items) {
+
+        public int pages() {
+            return Math.ceilDiv(total, perPage);
+        }
+    }
+
+    /**
+     * Album list as last loaded from Flickr.
+     */
+    private record AlbumListing(String version, List<AlbumSummary> albums, Map<String, AlbumSummary> byId) {
+
+        private static AlbumListing of(List<AlbumSummary> albums) {
+            String version = AlbumCacheService.version(albums, album -> album.getId() + '\u0000' + album.getTitle()
+                + '\u0000' + album.getDescription() + '\u0000' + album.getPhotos() + '\u0000' + album.getVideos()
+                + '\u0000' + album.getUpdatedAt());
+            return new AlbumListing(version, List.copyOf(albums), index(albums));
+        }
+
+        /**
+         * @return the listing with the album's count raised and its update time set to now,
+         * or this listing if the album isn't in it
+         */
+        private AlbumListing photoAdded(String albumId, boolean video) {
+            AlbumSummary album = byId.get(albumId);
+            if (album == null) {
+                return this;
+            }
+            List<AlbumSummary> updated = new ArrayList<>(albums);
+            updated.set(albums.indexOf(album), AlbumSummary.builder()
+                .id(album.getId())
+                .title(album.getTitle())
+                .description(album.getDescription())
+                .photos(album.getPhotos() + (video ? 0 : 1))
+                .videos(album.getVideos() + (video ? 1 : 0))
+                // Flickr reports update times in whole seconds
+                .updatedAt(Instant.now().truncatedTo(ChronoUnit.SECONDS))
+                .build());
+            return of(updated);
+        }
+
+        private static Map<String, AlbumSummary> index(List<AlbumSummary> albums) {
+            Map<String, AlbumSummary> byId = new LinkedHashMap<>();
+            albums.forEach(album -> byId.put(album.getId(), album));
+            return Collections.unmodifiableMap(byId);
+        }
+    }
+
+    /**
+     * Contents of an album, with the album state they were loaded at.
+     */
+    private record AlbumContents(String version, List<AlbumPhoto> photos, Instant albumUpdatedAt,
+                                 int albumPhotos, int albumVideos, Instant loadedAt) {
+
+        private boolean loadedFrom(AlbumSummary album) {
+            return Objects.equals(albumUpdatedAt, album.getUpdatedAt())
+                && albumPhotos == album.getPhotos()
+                && albumVideos == album.getVideos();
+        }
+    }
+}
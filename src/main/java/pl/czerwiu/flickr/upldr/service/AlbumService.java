@@ -5,27 +5,55 @@ import com.flickr4java.flickr.FlickrException;
 import com.flickr4java.flickr.photosets.Photoset;
 import com.flickr4java.flickr.photosets.Photosets;
 import com.flickr4java.flickr.photosets.PhotosetsInterface;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+import pl.czerwiu.flickr.upldr.config.SharedStateProperties;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrErrorCodes;
 import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.exception.UploadCancelledException;
+import pl.czerwiu.flickr.upldr.flickr.FlickrConcurrencyLimits;
+import pl.czerwiu.flickr.upldr.jfr.AddPhotoToAlbumEvent;
+import pl.czerwiu.flickr.upldr.jfr.EnsureAlbumEvent;
+import pl.czerwiu.flickr.upldr.state.SharedStateStore;
+import pl.czerwiu.flickr.upldr.tracing.UploadObservations;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Service for managing Flickr albums (photosets).
  * Handles album creation and photo addition to albums.
+ * Resolved album IDs are kept in the shared catalog and album creation is
+ * serialized with a lease, so concurrent requests and replicas never create duplicate albums.
+ * This service owns album name lookup; {@link AlbumCacheService} only caches albums for the read API.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AlbumService {
 
+    private static final Duration LEASE_POLL_INTERVAL = Duration.ofMillis(100);
+
     private final Flickr flickrClient;
     private final FlickrProperties flickrProperties;
+    private final ObservationRegistry observationRegistry;
+    private final SharedStateStore sharedStateStore;
+    private final SharedStateProperties sharedStateProperties;
+    private final FlickrConcurrencyLimits flickrConcurrencyLimits;
 
     /**
      * Ensures album exists, creates it if necessary.
-     * Searches for album by name (case-insensitive), creates if not found.
+     * Resolves album from the shared catalog first, then searches Flickr
+     * by name (case-insensitive) and creates album if not found.
      *
      * @param albumName name of the album
      * @param primaryPhotoId photo ID to use as primary photo if creating new album
@@ -33,35 +61,147 @@ public class AlbumService {
      * @throws FlickrUploadException if album operations fail
      */
     public String ensureAlbum(String albumName, String primaryPhotoId) throws FlickrUploadException {
+        return ensureAlbum(albumName, primaryPhotoId, UploadDeadline.none());
+    }
+
+    /**
+     * Ensures album exists like {@link #ensureAlbum(String, String)}, within the upload's deadline:
+     * Flickr calls and waits for the album creation lease stop once it's over.
+     *
+     * @param albumName      name of the album
+     * @param primaryPhotoId photo ID to use as primary photo if creating new album
+     * @param deadline       deadline of the upload
+     * @return album ID (photoset ID)
+     * @throws FlickrUploadException    if album operations fail
+     * @throws UploadCancelledException if the upload is over before the album is resolved
+     */
+    public String ensureAlbum(String albumName, String primaryPhotoId, UploadDeadline deadline)
+            throws FlickrUploadException {
+        EnsureAlbumEvent event = new EnsureAlbumEvent();
+        event.begin();
+        try {
+            String albumId = Observation.createNotStarted(UploadObservations.ALBUM_ENSURE, observationRegistry)
+                .highCardinalityKeyValue(UploadObservations.KEY_ALBUM, albumName)
+                .observe(() -> doEnsureAlbum(albumName, primaryPhotoId, deadline, event));
+            event.albumId = albumId;
+            return albumId;
+        } finally {
+            event.album = albumName;
+            event.commit();
+        }
+    }
+
+    private String doEnsureAlbum(String albumName, String primaryPhotoId, UploadDeadline deadline,
+                                 EnsureAlbumEvent event) {
         log.debug("Ensuring album exists: {}", albumName);
 
+        String albumKey = albumKey(albumName);
+        Optional<String> cachedAlbumId = sharedStateStore.getAlbumId(albumKey);
+        if (cachedAlbumId.isPresent()) {
+            event.cacheHit = true;
+            log.debug("Album resolved from catalog: album={}, albumId={}", albumName, cachedAlbumId.get());
+            return cachedAlbumId.get();
+        }
+
+        // Single-flight: only the lease holder (across threads and replicas) looks up or creates the album
+        String leaseName = "album:" + albumKey;
+        long waitDeadline = System.nanoTime() + sharedStateProperties.getLeaseWait().toNanos();
+        while (true) {
+            Optional<String> token = sharedStateStore.tryAcquireLease(leaseName, sharedStateProperties.getLeaseTtl());
+            if (token.isPresent()) {
+                try {
+                    // Album may have been resolved by the previous lease holder
+                    return sharedStateStore.getAlbumId(albumKey)
+                        .orElseGet(() -> findOrCreateAlbum(albumName, albumKey, primaryPhotoId, deadline, event));
+                } finally {
+                    sharedStateStore.releaseLease(leaseName, token.get());
+                }
+            }
+
+            awaitLease(albumName, waitDeadline, deadline);
+            Optional<String> resolvedAlbumId = sharedStateStore.getAlbumId(albumKey);
+            if (resolvedAlbumId.isPresent()) {
+                log.debug("Album resolved by another request: album={}, albumId={}", albumName, resolvedAlbumId.get());
+                return resolvedAlbumId.get();
+            }
+        }
+    }
+
+    /**
+     * Loads all user's albums into the shared catalog, so first uploads to existing
+     * albums don't have to look them up on Flickr.
+     *
+     * @return number of albums loaded
+     * @throws FlickrUploadException if albums can't be listed
+     */
+    public int preloadCatalog() throws FlickrUploadException {
+        try {
+            Photosets photosets = flickrConcurrencyLimits.metadata().execute(
+                () -> flickrClient.getPhotosetsInterface().getList(flickrProperties.getUser().getNsid()));
+            Map<String, String> catalog = new LinkedHashMap<>();
+            for (Photoset photoset : photosets.getPhotosets()) {
+                catalog.putIfAbsent(albumKey(photoset.getTitle()), photoset.getId());
+            }
+            sharedStateStore.putAlbumIdsIfAbsent(catalog, sharedStateProperties.getAlbumTtl());
+            return photosets.getPhotosets().size();
+        } catch (FlickrException e) {
+            throw new FlickrUploadException("Failed to load albums", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Looks album up on Flickr and creates it if missing.
+     * Must be called while holding the album creation lease.
+     */
+    private String findOrCreateAlbum(String albumName, String albumKey, String primaryPhotoId, UploadDeadline deadline,
+                                     EnsureAlbumEvent event) {
+        Duration albumTtl = sharedStateProperties.getAlbumTtl();
+
         try {
             PhotosetsInterface photosetsInterface = flickrClient.getPhotosetsInterface();
             String userNsid = flickrProperties.getUser().getNsid();
 
             // Get all user's photosets
-            Photosets photosets = photosetsInterface.getList(userNsid);
+            Photosets photosets = flickrConcurrencyLimits.metadata().execute(deadline,
+                () -> photosetsInterface.getList(userNsid));
 
-            // Search for existing album (case-insensitive)
+            // Search for existing album (case-insensitive), refreshing the catalog on the way
+            String albumId = null;
+            Map<String, String> catalog = new LinkedHashMap<>();
             for (Photoset photoset : photosets.getPhotosets()) {
-                if (photoset.getTitle().equalsIgnoreCase(albumName)) {
-                    log.info("Album found: albumId={}, title={}",
-                        photoset.getId(), photoset.getTitle());
-                    return photoset.getId();
+                catalog.putIfAbsent(albumKey(photoset.getTitle()), photoset.getId());
+                if (albumId == null && photoset.getTitle().equalsIgnoreCase(albumName)) {
+                    log.atInfo()
+                        .setMessage("Album found")
+                        .addKeyValue("albumId", photoset.getId())
+                        .addKeyValue("album", photoset.getTitle())
+                        .log();
+                    albumId = photoset.getId();
                 }
             }
+            sharedStateStore.putAlbumIdsIfAbsent(catalog, albumTtl);
+
+            if (albumId != null) {
+                sharedStateStore.putAlbumId(albumKey, albumId, albumTtl);
+                return albumId;
+            }
 
             // Album not found, create new one
             log.info("Album not found, creating new album: {}", albumName);
-            Photoset newPhotoset = photosetsInterface.create(
+            Photoset newPhotoset = flickrConcurrencyLimits.metadata().execute(deadline, () -> photosetsInterface.create(
                 albumName,
                 "Created by flickr-upldr",
                 primaryPhotoId
-            );
+            ));
 
-            log.info("Album created successfully: albumId={}, title={}",
-                newPhotoset.getId(), newPhotoset.getTitle());
+            log.atInfo()
+                .setMessage("Album created successfully")
+                .addKeyValue("albumId", newPhotoset.getId())
+                .addKeyValue("album", newPhotoset.getTitle())
+                .log();
 
+            sharedStateStore.putAlbumId(albumKey, newPhotoset.getId(), albumTtl);
+            event.created = true;
             return newPhotoset.getId();
 
         } catch (FlickrException e) {
@@ -70,11 +210,38 @@ public class AlbumService {
             throw new FlickrUploadException(
                 "Failed to ensure album exists: " + albumName,
                 e.getMessage(),
-                e
+                e,
+                FlickrErrorCodes.categorize(e.getErrorCode())
             );
         }
     }
 
+    /**
+     * Waits before re-checking an album being created by the lease holder.
+     */
+    private void awaitLease(String albumName, long waitDeadline, UploadDeadline deadline) {
+        deadline.check("album");
+        if (System.nanoTime() - waitDeadline > 0) {
+            throw new FlickrUploadException(
+                "Timed out waiting for album creation: " + albumName,
+                "Album is being created by another request"
+            );
+        }
+        try {
+            Thread.sleep(deadline.cap(LEASE_POLL_INTERVAL));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FlickrUploadException("Interrupted while waiting for album creation: " + albumName, e);
+        }
+    }
+
+    /**
+     * Normalizes album name into catalog key (album names are case-insensitive).
+     */
+    private static String albumKey(String albumName) {
+        return albumName.trim().toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Adds photo to existing album.
      *
@@ -83,23 +250,120 @@ public class AlbumService {
      * @throws FlickrUploadException if adding photo fails
      */
     public void addPhotoToAlbum(String photoId, String albumId) throws FlickrUploadException {
+        addPhotoToAlbum(photoId, albumId, UploadDeadline.none());
+    }
+
+    /**
+     * Adds photo to existing album unless the upload's deadline has passed.
+     *
+     * @param photoId  photo ID to add
+     * @param albumId  album ID (photoset ID) to add photo to
+     * @param deadline deadline of the upload
+     * @return false if the photo was already in the album
+     * @throws FlickrUploadException    if adding photo fails
+     * @throws UploadCancelledException if the upload is over before the photo is added
+     */
+    public boolean addPhotoToAlbum(String photoId, String albumId, UploadDeadline deadline) throws FlickrUploadException {
+        AddPhotoToAlbumEvent event = new AddPhotoToAlbumEvent();
+        event.begin();
+        try {
+            boolean added = Observation.createNotStarted(UploadObservations.ALBUM_ADD_PHOTO, observationRegistry)
+                .highCardinalityKeyValue(UploadObservations.KEY_PHOTO_ID, photoId)
+                .highCardinalityKeyValue(UploadObservations.KEY_ALBUM_ID, albumId)
+                .observe(() -> doAddPhotoToAlbum(photoId, albumId, deadline));
+            event.success = true;
+            return added;
+        } finally {
+            event.photoId = photoId;
+            event.albumId = albumId;
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds photo to the album resolved by {@link #ensureAlbum(String, String, UploadDeadline)}.
+     * If the cataloged album no longer exists on Flickr (e.g. the user deleted it), it's evicted from
+     * the catalog and the photo is added to the album resolved again by name, created if needed,
+     * instead of failing every upload to that name until the catalog entry expires.
+     *
+     * @param photoId   photo ID to add
+     * @param albumName name of the album
+     * @param albumId   album ID the name was resolved to
+     * @param deadline  deadline of the upload
+     * @return album the photo was added to
+     * @throws FlickrUploadException    if adding photo fails
+     * @throws UploadCancelledException if the upload is over before the photo is added
+     */
+    public AlbumAddition addPhotoToNamedAlbum(String photoId, String albumName, String albumId,
+                                              UploadDeadline deadline) throws FlickrUploadException {
+        try {
+            return new AlbumAddition(albumId, addPhotoToAlbum(photoId, albumId, deadline));
+        } catch (FlickrUploadException e) {
+            if (!(e.getCause() instanceof FlickrException cause)
+                    || !FlickrErrorCodes.PHOTOSET_NOT_FOUND.equals(cause.getErrorCode())) {
+                throw e;
+            }
+            log.atWarn()
+                .setMessage("Cataloged album no longer exists, resolving it again")
+                .addKeyValue("album", albumName)
+                .addKeyValue("albumId", albumId)
+                .log();
+            sharedStateStore.removeAlbumId(albumKey(albumName), albumId);
+            String resolvedAlbumId = ensureAlbum(albumName, photoId, deadline);
+            if (resolvedAlbumId.equals(albumId)) {
+                // Still listed by Flickr, so it's not a stale catalog entry
+                throw e;
+            }
+            return new AlbumAddition(resolvedAlbumId, addPhotoToAlbum(photoId, resolvedAlbumId, deadline));
+        }
+    }
+
+    /**
+     * @return false if the photo was already in the album
+     */
+    private boolean doAddPhotoToAlbum(String photoId, String albumId, UploadDeadline deadline) {
         log.debug("Adding photo to album: photoId={}, albumId={}", photoId, albumId);
 
         try {
             PhotosetsInterface photosetsInterface = flickrClient.getPhotosetsInterface();
-            photosetsInterface.addPhoto(albumId, photoId);
+            flickrConcurrencyLimits.metadata().execute(deadline, () -> {
+                photosetsInterface.addPhoto(albumId, photoId);
+                return null;
+            });
 
-            log.info("Photo added to album successfully: photoId={}, albumId={}",
-                photoId, albumId);
+            log.atInfo()
+                .setMessage("Photo added to album successfully")
+                .addKeyValue("photoId", photoId)
+                .addKeyValue("albumId", albumId)
+                .log();
+            return true;
 
         } catch (FlickrException e) {
+            if (FlickrErrorCodes.PHOTO_ALREADY_IN_SET.equals(e.getErrorCode())) {
+                // A new album gets the photo as its primary photo, which already adds it
+                log.debug("Photo already in album: photoId={}, albumId={}", photoId, albumId);
+                return false;
+            }
+            if (FlickrErrorCodes.PHOTOSET_NOT_FOUND.equals(e.getErrorCode())) {
+                throw new FlickrUploadException("Album not found", e.getMessage(), e, ErrorCategory.PERMANENT);
+            }
             log.error("Failed to add photo to album: photoId={}, albumId={}, error={}",
                 photoId, albumId, e.getMessage(), e);
             throw new FlickrUploadException(
                 "Failed to add photo to album",
                 e.getMessage(),
-                e
+                e,
+                FlickrErrorCodes.categorize(e.getErrorCode())
             );
         }
     }
+
+    /**
+     * Album a photo was added to.
+     *
+     * @param albumId ID of the album
+     * @param added   false if the photo was already in it, e.g. as the primary photo of an album just created
+     */
+    public record AlbumAddition(String albumId, boolean added) {
+    }
 }
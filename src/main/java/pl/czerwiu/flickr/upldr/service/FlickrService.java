@@ -6,25 +6,48 @@ import com.flickr4java.flickr.RequestContext;
 import com.flickr4java.flickr.auth.Auth;
 import com.flickr4java.flickr.uploader.UploadMetaData;
 import com.flickr4java.flickr.util.AuthStore;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import pl.czerwiu.flickr.upldr.bandwidth.BandwidthShaper;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
 import pl.czerwiu.flickr.upldr.exception.DuplicatePhotoException;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrErrorCodes;
+import pl.czerwiu.flickr.upldr.flickr.AdaptiveConcurrencyLimiter;
 import pl.czerwiu.flickr.upldr.flickr.DedupUploadMetaData;
+import pl.czerwiu.flickr.upldr.flickr.FlickrConcurrencyLimits;
+import pl.czerwiu.flickr.upldr.flickr.FlickrTags;
+import pl.czerwiu.flickr.upldr.health.UploadErrorRate;
+import pl.czerwiu.flickr.upldr.jfr.FlickrUploadEvent;
+import pl.czerwiu.flickr.upldr.progress.UploadProgress;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import pl.czerwiu.flickr.upldr.config.FlickrConfig;
 import pl.czerwiu.flickr.upldr.config.FlickrProperties;
 import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.exception.FlickrOverloadedException;
+import pl.czerwiu.flickr.upldr.exception.FlickrRejectedException;
 import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
 import pl.czerwiu.flickr.upldr.exception.RetryExhaustedException;
+import pl.czerwiu.flickr.upldr.exception.SourceFetchException;
+import pl.czerwiu.flickr.upldr.exception.UploadCancelledException;
+import pl.czerwiu.flickr.upldr.tracing.UploadObservations;
+import pl.czerwiu.flickr.upldr.video.VideoFiles;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.SocketTimeoutException;
-import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 /**
  * Service for Flickr API integration.
@@ -41,6 +64,18 @@ public class FlickrService {
 
     private final AuthStore authStore;
 
+    private final ObservationRegistry observationRegistry;
+
+    private final FlickrConcurrencyLimits flickrConcurrencyLimits;
+
+    private final BandwidthShaper bandwidthShaper;
+
+    private final UploadErrorRate uploadErrorRate;
+
+    private final UploadProgressTracker uploadProgressTracker;
+
+    private final VideoFiles videoFiles;
+
     /**
      * Uploads photo to Flickr with automatic retry on failures.
      * Retries 3 times with exponential backoff (1s, 2s, 4s).
@@ -52,13 +87,88 @@ public class FlickrService {
      */
     @Retryable(
         retryFor = {FlickrException.class, SocketTimeoutException.class},
+        noRetryFor = {DuplicatePhotoException.class, FlickrRejectedException.class, UploadCancelledException.class},
+        notRecoverable = {DuplicatePhotoException.class, FlickrRejectedException.class,
+            FlickrOverloadedException.class, SourceFetchException.class, UploadCancelledException.class},
         maxAttempts = 1,
         backoff = @Backoff(delay = 1000, multiplier = 2)
         // Delays: 1000ms (1s), 2000ms (2s), 4000ms (4s)
     )
     public String uploadPhoto(MultipartFile file, UploadRequest request) throws FlickrUploadException {
-        log.debug("Uploading photo to Flickr: filename={}, size={}",
-            file.getOriginalFilename(), file.getSize());
+        return observeAttempt(file, request, UploadObservations.KEY_PHOTO_ID, false,
+            () -> doUploadPhoto(file, request, false));
+    }
+
+    /**
+     * Uploads photo to Flickr in async mode: Flickr returns as soon as the bytes are received
+     * and processes the image in the background. Retries like {@link #uploadPhoto}.
+     *
+     * @param file    multipart file to upload
+     * @param request upload request with metadata
+     * @return Flickr upload ticket ID, resolved to a photo ID by {@link TicketPoller}
+     * @throws FlickrUploadException if upload fails after retries
+     */
+    @Retryable(
+        retryFor = {FlickrException.class, SocketTimeoutException.class},
+        noRetryFor = {DuplicatePhotoException.class, FlickrRejectedException.class, UploadCancelledException.class},
+        notRecoverable = {DuplicatePhotoException.class, FlickrRejectedException.class,
+            FlickrOverloadedException.class, SourceFetchException.class, UploadCancelledException.class},
+        maxAttempts = 1,
+        backoff = @Backoff(delay = 1000, multiplier = 2)
+    )
+    public String uploadPhotoAsync(MultipartFile file, UploadRequest request) throws FlickrUploadException {
+        return observeAttempt(file, request, UploadObservations.KEY_TICKET_ID, true,
+            () -> doUploadPhoto(file, request, true));
+    }
+
+    /**
+     * Records one observation and JFR event per attempt, the enclosing flickr.upload observation covers all attempts.
+     * Attempt outcomes also feed the upload error rate of the Flickr health indicator, except
+     * cancellations (failures caused by the upload's deadline or a disconnected client).
+     */
+    private String observeAttempt(MultipartFile file, UploadRequest request, String resultKey, boolean async,
+                                  Supplier<String> upload) {
+        int attempt = currentAttempt();
+        Observation observation = Observation.createNotStarted(
+                UploadObservations.FLICKR_UPLOAD_ATTEMPT, observationRegistry)
+            .lowCardinalityKeyValue(UploadObservations.KEY_ATTEMPT, String.valueOf(attempt));
+
+        FlickrUploadEvent event = new FlickrUploadEvent();
+        event.begin();
+        try {
+            String result = observation.observe(() -> {
+                try {
+                    String id = upload.get();
+                    observation.highCardinalityKeyValue(resultKey, id);
+                    return id;
+                } finally {
+                    // Known once sent: streamed sources of unknown length are measured as they're read
+                    observation.highCardinalityKeyValue(UploadObservations.KEY_BYTES, String.valueOf(file.getSize()));
+                }
+            });
+            event.resultId = result;
+            event.success = true;
+            uploadErrorRate.recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (request.getDeadline().cancellation(e, "upload") instanceof UploadCancelledException cancelled) {
+                throw cancelled;
+            }
+            uploadErrorRate.recordFailure(e);
+            throw e;
+        } finally {
+            event.bytes = file.getSize();
+            event.attempt = attempt;
+            event.async = async;
+            event.commit();
+        }
+    }
+
+    private String doUploadPhoto(MultipartFile file, UploadRequest request, boolean async) {
+        if (log.isDebugEnabled()) {
+            log.debug("Uploading photo to Flickr: filename={}, size={}, async={}",
+                file.getOriginalFilename(), file.getSize(), async);
+        }
 
         RequestContext.getRequestContext().setAuth(flickrClient.getAuth());
 
@@ -72,9 +182,14 @@ public class FlickrService {
 //        }
 
 
-        try {
-            InputStream inputStream = file.getInputStream();
-
+        // Videos are sent within their own bandwidth pool and Flickr concurrency limit
+        boolean video = videoFiles.isVideo(file);
+        UploadProgress progress = uploadProgressTracker.get(request.getUploadId());
+        // Reads stop once the deadline passes or the client disconnects, which aborts the Flickr upload
+        UploadDeadline deadline = request.getDeadline();
+        try (BandwidthShaper.ShapedInputStream shaped =
+                 bandwidthShaper.shape(deadline.guard(file.getInputStream()), request, video);
+             InputStream inputStream = progress.countSent(shaped)) {
             // Prepare upload metadata (with optional dedup check)
             UploadMetaData metadata;
             if (request.getDedupCheck() != null) {
@@ -84,29 +199,59 @@ public class FlickrService {
             }
             metadata.setTitle(request.getTitle());
             metadata.setDescription(request.getDescription());
+            metadata.setAsync(async);
+            metadata.setFilename(file.getOriginalFilename());
+            metadata.setFilemimetype(file.getContentType());
 
             // Parse tags (comma-separated)
-            if (request.getTags() != null && !request.getTags().isEmpty()) {
-                String[] tagsArray = request.getTags().split(",");
-                metadata.setTags(Arrays.asList(tagsArray));
+            List<String> tags = FlickrTags.parse(request.getTags());
+            if (!tags.isEmpty()) {
+                metadata.setTags(tags);
             }
 
-            // Upload to Flickr
-            String photoId = flickrClient.getUploader().upload(inputStream, metadata);
+            // Upload to Flickr (returns ticket ID instead of photo ID in async mode)
+            // Read after the call, when a streamed source of unknown length has been sent
+            LongSupplier megabytes = () -> Math.ceilDiv(file.getSize(), 1024 * 1024);
+            AdaptiveConcurrencyLimiter limiter = video ? flickrConcurrencyLimits.video() : flickrConcurrencyLimits.upload();
+            // Time held back by bandwidth shaping is not Flickr latency
+            String result = limiter.execute(megabytes, deadline, shaped::throttledNanos,
+                () -> flickrClient.getUploader().upload(inputStream, metadata));
+
+            if (async) {
+                progress.ticketSent(result);
+            } else {
+                progress.photoUploaded(result);
+            }
 
-            log.info("Photo uploaded successfully to Flickr: photoId={}, filename={}",
-                photoId, file.getOriginalFilename());
+            log.atInfo()
+                .setMessage(async ? "Photo sent to Flickr" : "Photo uploaded to Flickr")
+                .addKeyValue(async ? "ticketId" : "photoId", result)
+                .addKeyValue("filename", file.getOriginalFilename())
+                .addKeyValue("video", video)
+                .log();
 
-            return photoId;
+            return result;
 
         } catch (FlickrException e) {
-            if ("9".equals(e.getErrorCode())) {
-                log.warn("Duplicate photo detected: {}", e.getMessage());
-                throw new DuplicatePhotoException(
-                    "Duplicate photo detected", e.getErrorMessage(), e);
+            ErrorCategory category = FlickrErrorCodes.categorizeUpload(e.getErrorCode());
+            switch (category) {
+                case DUPLICATE -> {
+                    // Expected outcomes are logged once, where the upload completes
+                    log.debug("Duplicate photo detected: {}", e.getMessage());
+                    throw new DuplicatePhotoException("Duplicate photo detected", e.getErrorMessage(), e);
+                }
+                case RETRYABLE -> {
+                    log.warn("Flickr API error during upload: {}", e.getMessage());
+                    // Will trigger retry, the cause is a FlickrException
+                    throw new FlickrUploadException("Flickr API error during upload", e.getMessage(), e, category);
+                }
+                default -> {
+                    log.debug("Flickr rejected the upload: code={}, category={}, error={}",
+                        e.getErrorCode(), category.tag(), e.getErrorMessage());
+                    throw new FlickrRejectedException("Flickr rejected the upload",
+                        e.getErrorCode() + ": " + e.getErrorMessage(), e, category, e.getErrorCode());
+                }
             }
-            log.warn("Flickr API error during upload: {}", e.getMessage());
-            throw new RuntimeException(e);  // Will trigger retry
         } catch (IOException e) {
             log.error("IO error reading file: {}", e.getMessage());
             throw new FlickrUploadException("Failed to read file", e.getMessage(), e);
@@ -136,6 +281,14 @@ public class FlickrService {
             "Failed to upload photo " + request.getTitle() + " after 3 retries: " + e.getMessage(), e);
     }
 
+    /**
+     * Returns 1-based number of the current retry attempt (1 when called outside retry).
+     */
+    private int currentAttempt() {
+        RetryContext context = RetrySynchronizationManager.getContext();
+        return context != null ? context.getRetryCount() + 1 : 1;
+    }
+
     /**
      * Builds Flickr photo URL from photo ID.
      *
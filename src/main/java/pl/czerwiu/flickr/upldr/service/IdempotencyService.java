@@ -0,0 +1,169 @@
+package pl.czerwiu.flickr.upldr.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.czerwiu.flickr.upldr.config.IdempotencyProperties;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates client retries of /upload carrying the same Idempotency-Key.
+ * Completed responses are cached in a bounded, TTL-evicting store (expired in completion
+ * order from a queue, so eviction doesn't scan the cache); a repeat that
+ * arrives while the first upload is still running attaches to its result. Only completed
+ * entries are evicted, so a repeat never starts a second upload of a file still being sent.
+ * Failed uploads and PENDING responses of a draining instance are not cached, so the client
+ * can retry them with the same key.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    /**
+     * Maximum accepted key length.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * Status of responses given to clients of uploads handed over to the next instance.
+     */
+    private static final String PENDING = "PENDING";
+
+    private final IdempotencyProperties idempotencyProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // Completed entries in completion order, which is also their expiry order (same TTL for all)
+    private final Queue<Completed> completions = new ArrayDeque<>();
+
+    /**
+     * Runs upload once per key.
+     *
+     * @param key         idempotency key supplied by the client
+     * @param fingerprint request fingerprint; a key may not be reused for a different request
+     * @param upload      starts the upload (called only if the key is unknown)
+     * @return upload result and whether it was served from a previous request
+     * @throws IllegalArgumentException if key is invalid or was used for a different request
+     */
+    public Result execute(String key, String fingerprint, Supplier<CompletableFuture<UploadResponse>> upload) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters long");
+        }
+
+        Entry entry;
+        synchronized (entries) {
+            evictExpired();
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    throw new IllegalArgumentException("Idempotency-Key was already used for a different upload");
+                }
+                boolean inFlight = !existing.result.isDone();
+                meterRegistry.counter("upload.idempotency", "result", inFlight ? "in-flight" : "hit").increment();
+                log.info("Repeated upload request served from {}: idempotencyKey={}",
+                    inFlight ? "in-flight upload" : "cache", key);
+                return new Result(existing.result, true);
+            }
+
+            entry = new Entry(fingerprint, new CompletableFuture<>());
+            entries.put(key, entry);
+            evictOverflow();
+        }
+
+        meterRegistry.counter("upload.idempotency", "result", "miss").increment();
+        CompletableFuture<UploadResponse> started;
+        try {
+            started = upload.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((response, error) -> {
+            if (error != null) {
+                forget(key, entry);
+                entry.result.completeExceptionally(error);
+            } else if (PENDING.equals(response.getStatus())) {
+                // Not the final result: the next instance finishes the upload, a retry must not get it replayed
+                forget(key, entry);
+                entry.result.complete(response);
+            } else {
+                completed(key, entry);
+                entry.result.complete(response);
+            }
+        });
+        return new Result(entry.result, false);
+    }
+
+    private void forget(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private void completed(String key, Entry entry) {
+        synchronized (entries) {
+            entry.completedNanos = System.nanoTime();
+            completions.add(new Completed(key, entry));
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Removes the oldest completed entries while there are more entries than allowed.
+     * Uploads still running are kept even above the limit, their number is bounded by the scheduler's queues.
+     * Must be called holding the entries lock.
+     */
+    private void evictOverflow() {
+        while (entries.size() > idempotencyProperties.getMaxEntries() && !completions.isEmpty()) {
+            Completed eldest = completions.remove();
+            entries.remove(eldest.key(), eldest.entry());
+        }
+    }
+
+    /**
+     * Removes completed entries older than TTL from the head of the completion queue.
+     * Must be called holding the entries lock.
+     */
+    private void evictExpired() {
+        long ttlNanos = idempotencyProperties.getTtl().toNanos();
+        long now = System.nanoTime();
+        Completed eldest;
+        while ((eldest = completions.peek()) != null && now - eldest.entry().completedNanos > ttlNanos) {
+            completions.remove();
+            entries.remove(eldest.key(), eldest.entry());
+        }
+    }
+
+    /**
+     * Upload result for an idempotency key.
+     *
+     * @param response future upload response
+     * @param replayed true if the response belongs to an earlier request with the same key
+     */
+    public record Result(CompletableFuture<UploadResponse> response, boolean replayed) {
+    }
+
+    private record Completed(String key, Entry entry) {
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<UploadResponse> result;
+        private long completedNanos;
+
+        private Entry(String fingerprint, CompletableFuture<UploadResponse> result) {
+            this.fingerprint = fingerprint;
+            this.result = result;
+        }
+    }
+}
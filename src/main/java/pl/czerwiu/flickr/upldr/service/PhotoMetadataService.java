@@ -0,0 +1,203 @@
+package pl.czerwiu.flickr.upldr.service;
+
+import com.flickr4java.flickr.Flickr;
+import com.flickr4java.flickr.FlickrException;
+import com.flickr4java.flickr.RequestContext;
+import com.flickr4java.flickr.photos.Photo;
+import com.flickr4java.flickr.photos.PhotosInterface;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.czerwiu.flickr.upldr.config.PhotoUpdateProperties;
+import pl.czerwiu.flickr.upldr.dto.PhotoUpdateRequest;
+import pl.czerwiu.flickr.upldr.dto.PhotoUpdateResult;
+import pl.czerwiu.flickr.upldr.flickr.AdaptiveConcurrencyLimiter;
+import pl.czerwiu.flickr.upldr.flickr.FlickrConcurrencyLimits;
+import pl.czerwiu.flickr.upldr.flickr.FlickrTags;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bulk changes of photo titles, descriptions and tags.
+ * Changes to the same photo are merged, so every photo is updated once, and photos are
+ * updated a few at a time through the metadata concurrency limit shared with album calls.
+ */
+@Slf4j
+@Service
+public class PhotoMetadataService {
+
+    private final Flickr flickrClient;
+    private final FlickrConcurrencyLimits flickrConcurrencyLimits;
+    private final PhotoUpdateProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService updateRunner = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("photo-update-", 1).factory());
+
+    public PhotoMetadataService(Flickr flickrClient,
+                                FlickrConcurrencyLimits flickrConcurrencyLimits,
+                                PhotoUpdateProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.flickrClient = flickrClient;
+        this.flickrConcurrencyLimits = flickrConcurrencyLimits;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applies a list of metadata changes. Failures are reported per photo and don't stop
+     * the rest of the update.
+     *
+     * @param changes  photo metadata changes, later changes to the same field win
+     * @param listener receives one result per photo as soon as it's updated,
+     *                 called concurrently from the update threads
+     * @return future completed when all photos are updated
+     * @throws IllegalArgumentException if the list is empty or too large, or a change is invalid
+     */
+    public CompletableFuture<Void> update(List<PhotoUpdateRequest> changes, Consumer<PhotoUpdateResult> listener) {
+        Map<String, PhotoChange> photos = merge(changes);
+        log.atInfo()
+            .setMessage("Bulk photo update started")
+            .addKeyValue("changes", changes.size())
+            .addKeyValue("photos", photos.size())
+            .log();
+
+        Semaphore permits = new Semaphore(Math.max(1, properties.getParallelism()));
+        CompletableFuture<?>[] updates = photos.values().stream()
+            .map(change -> CompletableFuture.runAsync(() -> {
+                permits.acquireUninterruptibly();
+                PhotoUpdateResult result;
+                try {
+                    result = apply(change);
+                } finally {
+                    permits.release();
+                }
+                listener.accept(result);
+            }, updateRunner))
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(updates);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updateRunner.shutdown();
+    }
+
+    /**
+     * Groups the changes by photo in request order; a field set by several changes
+     * takes the value of the last one.
+     */
+    private Map<String, PhotoChange> merge(List<PhotoUpdateRequest> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("At least one change is required");
+        }
+        if (changes.size() > properties.getMaxBatchSize()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxBatchSize() + " changes per request are allowed");
+        }
+
+        Map<String, PhotoChange> photos = new LinkedHashMap<>();
+        for (int i = 0; i < changes.size(); i++) {
+            PhotoUpdateRequest request = changes.get(i);
+            if (request == null || request.getPhotoId() == null || request.getPhotoId().trim().isEmpty()) {
+                throw new IllegalArgumentException("Photo ID is required (change " + i + ")");
+            }
+            if (request.getTitle() == null && request.getDescription() == null && request.getTags() == null) {
+                throw new IllegalArgumentException("Nothing to change for photo " + request.getPhotoId().trim()
+                    + " (change " + i + ")");
+            }
+            photos.computeIfAbsent(request.getPhotoId().trim(), PhotoChange::new).add(request);
+        }
+        return photos;
+    }
+
+    private PhotoUpdateResult apply(PhotoChange change) {
+        long start = System.nanoTime();
+        try {
+            RequestContext.getRequestContext().setAuth(flickrClient.getAuth());
+            PhotosInterface photosInterface = flickrClient.getPhotosInterface();
+            AdaptiveConcurrencyLimiter limiter = flickrConcurrencyLimits.metadata();
+
+            if (change.title != null || change.description != null) {
+                // Flickr sets title and description together, the one not changed is kept
+                String title = change.title;
+                String description = change.description;
+                if (title == null || description == null) {
+                    Photo current = limiter.execute(() -> photosInterface.getInfo(change.photoId, null));
+                    title = title != null ? title : current.getTitle();
+                    description = description != null ? description : current.getDescription();
+                }
+                String newTitle = title;
+                String newDescription = description != null ? description : "";
+                limiter.execute(() -> {
+                    photosInterface.setMeta(change.photoId, newTitle, newDescription);
+                    return null;
+                });
+            }
+            if (change.tags != null) {
+                String[] tags = FlickrTags.parse(change.tags).toArray(String[]::new);
+                limiter.execute(() -> {
+                    photosInterface.setTags(change.photoId, tags);
+                    return null;
+                });
+            }
+
+            log.debug("Photo metadata updated: photoId={}, changes={}, durationMs={}",
+                change.photoId, change.changes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            meterRegistry.counter("photo.update", "result", "success").increment();
+            return PhotoUpdateResult.builder()
+                .photoId(change.photoId)
+                .changes(change.changes)
+                .success(true)
+                .build();
+
+        } catch (FlickrException | RuntimeException e) {
+            log.warn("Photo metadata update failed: photoId={}, error={}", change.photoId, e.getMessage());
+            meterRegistry.counter("photo.update", "result", "failed").increment();
+            return PhotoUpdateResult.builder()
+                .photoId(change.photoId)
+                .changes(change.changes)
+                .success(false)
+                .error(e.getMessage())
+                .build();
+        }
+    }
+
+    /**
+     * Pending changes of one photo, merged from the request.
+     */
+    private static final class PhotoChange {
+
+        private final String photoId;
+        private String title;
+        private String description;
+        private String tags;
+        private int changes;
+
+        private PhotoChange(String photoId) {
+            this.photoId = photoId;
+        }
+
+        private PhotoChange add(PhotoUpdateRequest request) {
+            if (request.getTitle() != null) {
+                title = request.getTitle();
+            }
+            if (request.getDescription() != null) {
+                description = request.getDescription();
+            }
+            if (request.getTags() != null) {
+                tags = request.getTags();
+            }
+            changes++;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package pl.czerwiu.flickr.upldr.service;
+
+import com.flickr4java.flickr.Flickr;
+import com.flickr4java.flickr.FlickrException;
+import com.flickr4java.flickr.RequestContext;
+import com.flickr4java.flickr.photos.upload.Ticket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.czerwiu.flickr.upldr.config.AsyncUploadProperties;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.flickr.FlickrConcurrencyLimits;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves Flickr async upload tickets to photo IDs.
+ * Pending tickets are checked in batches with photos.upload.checkTickets from a single
+ * background thread; futures are completed on virtual threads so follow-up work
+ * (album steps) never blocks the poller.
+ */
+@Slf4j
+@Service
+public class TicketPoller {
+
+    private final Flickr flickrClient;
+    private final AsyncUploadProperties asyncUploadProperties;
+    private final MeterRegistry meterRegistry;
+    private final FlickrConcurrencyLimits flickrConcurrencyLimits;
+
+    private final Map<String, PendingTicket> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("ticket-poller").daemon().factory());
+    private final ExecutorService completions = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("ticket-completion-", 1).factory());
+
+    public TicketPoller(Flickr flickrClient,
+                        AsyncUploadProperties asyncUploadProperties,
+                        MeterRegistry meterRegistry,
+                        FlickrConcurrencyLimits flickrConcurrencyLimits) {
+        this.flickrClient = flickrClient;
+        this.asyncUploadProperties = asyncUploadProperties;
+        this.meterRegistry = meterRegistry;
+        this.flickrConcurrencyLimits = flickrConcurrencyLimits;
+
+        Gauge.builder("flickr.tickets.pending", pending, Map::size)
+            .description("Async upload tickets waiting for Flickr processing")
+            .register(meterRegistry);
+
+        long interval = asyncUploadProperties.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::pollPending, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers ticket for polling.
+     *
+     * @param ticketId ticket ID returned by an async upload
+     * @return future completed with the photo ID, or failed if Flickr rejects the upload
+     */
+    public CompletableFuture<String> await(String ticketId) {
+        return await(ticketId, asyncUploadProperties.getTimeout());
+    }
+
+    /**
+     * Registers ticket for polling with its own processing timeout (videos are transcoded
+     * by Flickr and take much longer than photos).
+     *
+     * @param ticketId ticket ID returned by an async upload
+     * @param timeout  how long Flickr may take to process the upload
+     * @return future completed with the photo ID, or failed if Flickr rejects the upload
+     */
+    public CompletableFuture<String> await(String ticketId, Duration timeout) {
+        PendingTicket ticket = new PendingTicket(System.nanoTime() + timeout.toNanos(), timeout);
+        pending.put(ticketId, ticket);
+        log.debug("Waiting for upload ticket: ticketId={}", ticketId);
+        return ticket.result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        completions.shutdown();
+    }
+
+    private void pollPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            expireTimedOut();
+
+            RequestContext.getRequestContext().setAuth(flickrClient.getAuth());
+            List<String> ticketIds = new ArrayList<>(pending.keySet());
+            int batchSize = Math.max(1, asyncUploadProperties.getBatchSize());
+            for (int from = 0; from < ticketIds.size(); from += batchSize) {
+                List<String> batch = ticketIds.subList(from, Math.min(from + batchSize, ticketIds.size()));
+                checkBatch(batch);
+            }
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the scheduled polling
+            log.error("Ticket polling failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void checkBatch(List<String> ticketIds) {
+        List<Ticket> tickets;
+        try {
+            tickets = flickrConcurrencyLimits.metadata().execute(
+                () -> flickrClient.getUploadInterface().checkTickets(new HashSet<>(ticketIds)));
+            meterRegistry.counter("flickr.tickets.checks").increment();
+        } catch (FlickrException e) {
+            // Transient failure, tickets stay pending and are checked again on the next poll
+            log.warn("Failed to check upload tickets: count={}, error={}", ticketIds.size(), e.getMessage());
+            return;
+        }
+
+        for (Ticket ticket : tickets) {
+            if (ticket.hasCompleted()) {
+                resolve(ticket.getTicketId(), ticket.getPhotoId());
+            } else if (ticket.hasFailed() || ticket.isInvalid()) {
+                reject(ticket.getTicketId(), new FlickrUploadException(
+                    "Flickr failed to process uploaded photo",
+                    (ticket.isInvalid() ? "Invalid" : "Failed") + " upload ticket: " + ticket.getTicketId()));
+            }
+        }
+    }
+
+    private void expireTimedOut() {
+        long now = System.nanoTime();
+        pending.forEach((ticketId, ticket) -> {
+            if (now - ticket.deadlineNanos > 0) {
+                reject(ticketId, new FlickrUploadException(
+                    "Flickr did not process uploaded photo in time",
+                    "Upload ticket " + ticketId + " still pending after " + ticket.timeout()));
+            }
+        });
+    }
+
+    private void resolve(String ticketId, String photoId) {
+        PendingTicket ticket = pending.remove(ticketId);
+        if (ticket != null) {
+            log.debug("Upload ticket completed: ticketId={}, photoId={}", ticketId, photoId);
+            meterRegistry.counter("flickr.tickets.resolved", "result", "completed").increment();
+            ticket.result.completeAsync(() -> photoId, completions);
+        }
+    }
+
+    private void reject(String ticketId, FlickrUploadException error) {
+        PendingTicket ticket = pending.remove(ticketId);
+        if (ticket != null) {
+            log.warn("Upload ticket failed: ticketId={}, error={}", ticketId, error.getDetails());
+            meterRegistry.counter("flickr.tickets.resolved", "result", "failed").increment();
+            completions.execute(() -> ticket.result.completeExceptionally(error));
+        }
+    }
+
+    private record PendingTicket(long deadlineNanos, Duration timeout, CompletableFuture<String> result) {
+
+        PendingTicket(long deadlineNanos, Duration timeout) {
+            this(deadlineNanos, timeout, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package pl.czerwiu.flickr.upldr.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import pl.czerwiu.flickr.upldr.config.SchedulerProperties;
+import pl.czerwiu.flickr.upldr.config.VideoProperties;
+import pl.czerwiu.flickr.upldr.drain.InFlightUploads;
+import pl.czerwiu.flickr.upldr.dto.UploadPriority;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.video.VideoFiles;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules uploads on a work-stealing pool of worker threads.
+ * Interactive uploads are started ahead of bulk uploads (with a starvation guard),
+ * uploads to different albums run in parallel and ordered uploads to the same
+ * album run one at a time in submission order. Videos wait in a lane of their own and are
+ * sent by separate video workers, so a multi-GB video never occupies a photo worker.
+ */
+@Slf4j
+@Service
+public class UploadScheduler {
+
+    private static final String VIDEO_LANE = "video";
+
+    private final UploadService uploadService;
+    private final SchedulerProperties schedulerProperties;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final InFlightUploads inFlightUploads;
+    private final VideoFiles videoFiles;
+
+    private final ForkJoinPool workers;
+    private final ExecutorService videoWorkers;
+    private final Map<UploadPriority, Queue<ScheduledUpload>> lanes = new EnumMap<>(UploadPriority.class);
+    private final Queue<ScheduledUpload> videoLane = new ConcurrentLinkedQueue<>();
+    private final Map<String, Queue<ScheduledUpload>> orderedAlbums = new ConcurrentHashMap<>();
+    private final AtomicInteger interactiveStreak = new AtomicInteger();
+    private final AtomicInteger workerCount = new AtomicInteger();
+
+    public UploadScheduler(UploadService uploadService,
+                           SchedulerProperties schedulerProperties,
+                           MeterRegistry meterRegistry,
+                           ObservationRegistry observationRegistry,
+                           InFlightUploads inFlightUploads,
+                           VideoFiles videoFiles,
+                           VideoProperties videoProperties) {
+        this.uploadService = uploadService;
+        this.schedulerProperties = schedulerProperties;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.inFlightUploads = inFlightUploads;
+        this.videoFiles = videoFiles;
+
+        // asyncMode = FIFO scheduling of tasks that are never joined
+        this.workers = new ForkJoinPool(
+            schedulerProperties.getWorkers(),
+            this::newWorkerThread,
+            null,
+            true
+        );
+        this.videoWorkers = Executors.newFixedThreadPool(
+            videoProperties.getWorkers(), Thread.ofPlatform().name("video-worker-", 1).factory());
+
+        for (UploadPriority priority : UploadPriority.values()) {
+            Queue<ScheduledUpload> lane = new ConcurrentLinkedQueue<>();
+            lanes.put(priority, lane);
+            Gauge.builder("upload.scheduler.queue.size", lane, Queue::size)
+                .description("Uploads waiting for a worker")
+                .tag("lane", lane(priority))
+                .register(meterRegistry);
+        }
+        Gauge.builder("upload.scheduler.queue.size", videoLane, Queue::size)
+            .description("Uploads waiting for a worker")
+            .tag("lane", VIDEO_LANE)
+            .register(meterRegistry);
+        Gauge.builder("upload.scheduler.active", workers, ForkJoinPool::getActiveThreadCount)
+            .description("Workers currently running an upload")
+            .register(meterRegistry);
+        Gauge.builder("upload.scheduler.ordered.albums", orderedAlbums, Map::size)
+            .description("Albums with ordered uploads in progress")
+            .register(meterRegistry);
+
+        log.info("Upload scheduler started: workers={}, videoWorkers={}, interactiveBurst={}",
+            schedulerProperties.getWorkers(), videoProperties.getWorkers(), schedulerProperties.getInteractiveBurst());
+    }
+
+    /**
+     * Schedules upload of the file.
+     * The file must stay readable until the returned future completes.
+     *
+     * @param file    multipart file to upload
+     * @param request upload request with metadata, priority and ordering flag
+     * @return future completed with the upload response or the upload failure
+     * @throws pl.czerwiu.flickr.upldr.exception.ServiceBusyException if the instance is draining
+     */
+    public CompletableFuture<UploadResponse> submit(MultipartFile file, UploadRequest request) {
+        inFlightUploads.checkAccepting();
+        UploadPriority priority = request.getPriority() != null ? request.getPriority() : UploadPriority.INTERACTIVE;
+        ScheduledUpload upload = new ScheduledUpload(
+            file, request, priority, videoFiles.isVideo(file), observationRegistry.getCurrentObservation());
+
+        if (!request.isOrdered()) {
+            enqueue(upload);
+            return upload.result;
+        }
+
+        // Only the head of an album's ordered queue is runnable, the rest wait for it
+        orderedAlbums.compute(albumKey(request.getAlbum()), (key, waiting) -> {
+            if (waiting == null) {
+                enqueue(upload);
+                return new ArrayDeque<>();
+            }
+            waiting.add(upload);
+            return waiting;
+        });
+        return upload.result;
+    }
+
+    /**
+     * @return uploads waiting for a worker, including ordered uploads waiting for their predecessor
+     */
+    public int queuedCount() {
+        int queued = videoLane.size();
+        for (Queue<ScheduledUpload> lane : lanes.values()) {
+            queued += lane.size();
+        }
+        for (Queue<ScheduledUpload> waiting : orderedAlbums.values()) {
+            queued += waiting.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Fails all uploads that have not started yet.
+     *
+     * @param error failure reported to the callers
+     * @return number of rejected uploads
+     */
+    public int rejectQueued(Throwable error) {
+        AtomicInteger rejected = new AtomicInteger();
+        List<Queue<ScheduledUpload>> allLanes = new ArrayList<>(lanes.values());
+        allLanes.add(videoLane);
+        for (Queue<ScheduledUpload> lane : allLanes) {
+            for (ScheduledUpload upload = lane.poll(); upload != null; upload = lane.poll()) {
+                upload.result.completeExceptionally(error);
+                rejected.incrementAndGet();
+            }
+        }
+        orderedAlbums.replaceAll((album, waiting) -> {
+            for (ScheduledUpload upload = waiting.poll(); upload != null; upload = waiting.poll()) {
+                upload.result.completeExceptionally(error);
+                rejected.incrementAndGet();
+            }
+            return waiting;
+        });
+        return rejected.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Shutting down upload scheduler");
+        workers.shutdown();
+        videoWorkers.shutdown();
+    }
+
+    private void enqueue(ScheduledUpload upload) {
+        upload.enqueuedNanos = System.nanoTime();
+        if (upload.video) {
+            // Videos are taken first come, first served; priority only matters among photos
+            videoLane.offer(upload);
+            videoWorkers.execute(this::dispatchVideo);
+            return;
+        }
+        lanes.get(upload.priority).offer(upload);
+        // One dispatch per queued upload; the worker picks the best upload when it runs
+        workers.execute(this::dispatch);
+    }
+
+    private void dispatch() {
+        ScheduledUpload upload = nextUpload();
+        if (upload != null) {
+            run(upload);
+        }
+    }
+
+    private void dispatchVideo() {
+        ScheduledUpload upload = videoLane.poll();
+        if (upload != null) {
+            run(upload);
+        }
+    }
+
+    /**
+     * Picks next upload: interactive first, but a waiting bulk upload is taken
+     * after interactiveBurst interactive uploads in a row.
+     */
+    private ScheduledUpload nextUpload() {
+        Queue<ScheduledUpload> interactive = lanes.get(UploadPriority.INTERACTIVE);
+        Queue<ScheduledUpload> bulk = lanes.get(UploadPriority.BULK);
+
+        if (interactiveStreak.get() >= schedulerProperties.getInteractiveBurst()) {
+            ScheduledUpload upload = bulk.poll();
+            if (upload != null) {
+                interactiveStreak.set(0);
+                return upload;
+            }
+        }
+
+        ScheduledUpload upload = interactive.poll();
+        if (upload != null) {
+            interactiveStreak.incrementAndGet();
+            return upload;
+        }
+
+        interactiveStreak.set(0);
+        return bulk.poll();
+    }
+
+    private void run(ScheduledUpload scheduled) {
+        String lane = scheduled.video ? VIDEO_LANE : lane(scheduled.priority);
+        Timer.builder("upload.scheduler.queue.wait")
+            .description("Time uploads spent waiting for a worker")
+            .tag("lane", lane)
+            .register(meterRegistry)
+            .record(System.nanoTime() - scheduled.enqueuedNanos, TimeUnit.NANOSECONDS);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<UploadResponse> upload;
+        // Continue the submitting request's trace on the worker thread
+        try (Observation.Scope scope = scheduled.parentObservation != null ? scheduled.parentObservation.openScope() : null) {
+            upload = uploadService.uploadAsync(scheduled.file, scheduled.request);
+        } catch (Throwable e) {
+            upload = CompletableFuture.failedFuture(e);
+        }
+
+        // The worker is free once the bytes are sent; completion (and the next ordered upload) follows the result
+        upload.whenComplete((response, error) -> {
+            sample.stop(meterRegistry.timer("upload.scheduler.execution", "lane", lane));
+            if (error != null) {
+                scheduled.result.completeExceptionally(error);
+            } else {
+                scheduled.result.complete(response);
+            }
+            if (scheduled.request.isOrdered()) {
+                startNextOrdered(scheduled.request.getAlbum());
+            }
+        });
+    }
+
+    private void startNextOrdered(String album) {
+        orderedAlbums.computeIfPresent(albumKey(album), (key, waiting) -> {
+            ScheduledUpload next = waiting.poll();
+            if (next == null) {
+                return null;
+            }
+            enqueue(next);
+            return waiting;
+        });
+    }
+
+    private static String albumKey(String album) {
+        return album.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String lane(UploadPriority priority) {
+        return priority.name().toLowerCase(Locale.ROOT);
+    }
+
+    private ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("upload-worker-" + workerCount.incrementAndGet());
+        return thread;
+    }
+
+    /**
+     * Upload waiting in a lane, with the future handed back to the caller.
+     */
+    private static final class ScheduledUpload {
+
+        private final MultipartFile file;
+        private final UploadRequest request;
+        private final UploadPriority priority;
+        private final boolean video;
+        private final Observation parentObservation;
+        private final CompletableFuture<UploadResponse> result = new CompletableFuture<>();
+        private volatile long enqueuedNanos;
+
+        private ScheduledUpload(MultipartFile file, UploadRequest request,
+                                UploadPriority priority, boolean video, Observation parentObservation) {
+            this.file = file;
+            this.request = request;
+            this.priority = priority;
+            this.video = video;
+            this.parentObservation = parentObservation;
+        }
+    }
+}
@@ -2,15 +2,48 @@ package pl.czerwiu.flickr.upldr.service;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import pl.czerwiu.flickr.upldr.config.AsyncUploadProperties;
 import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+import pl.czerwiu.flickr.upldr.config.SharedStateProperties;
+import pl.czerwiu.flickr.upldr.config.VideoProperties;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.drain.InFlightUpload;
+import pl.czerwiu.flickr.upldr.drain.InFlightUploads;
+import pl.czerwiu.flickr.upldr.dto.AlbumResult;
 import pl.czerwiu.flickr.upldr.dto.UploadRequest;
 import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.dto.UploadStage;
+import pl.czerwiu.flickr.upldr.exception.DuplicatePhotoException;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploaderException;
+import pl.czerwiu.flickr.upldr.exception.UploadCancelledException;
+import pl.czerwiu.flickr.upldr.jfr.UploadEvent;
+import pl.czerwiu.flickr.upldr.progress.UploadProgress;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressTracker;
+import pl.czerwiu.flickr.upldr.state.ContentHash;
+import pl.czerwiu.flickr.upldr.state.SharedStateStore;
+import pl.czerwiu.flickr.upldr.tracing.UploadObservations;
+import pl.czerwiu.flickr.upldr.video.VideoFiles;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main service for orchestrating photo upload workflow.
@@ -23,8 +56,40 @@ public class UploadService {
 
     private final FlickrService flickrService;
     private final AlbumService albumService;
+    private final AlbumCacheService albumCacheService;
     private final FlickrProperties flickrProperties;
     private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final SharedStateStore sharedStateStore;
+    private final SharedStateProperties sharedStateProperties;
+    private final TicketPoller ticketPoller;
+    private final AsyncUploadProperties asyncUploadProperties;
+    private final InFlightUploads inFlightUploads;
+    private final UploadProgressTracker uploadProgressTracker;
+    private final VideoFiles videoFiles;
+    private final VideoProperties videoProperties;
+
+    private final ExecutorService albumFanOut = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("album-fan-out-", 1).factory());
+
+    /**
+     * Uploads photo to Flickr with album management and waits for the result.
+     *
+     * @param file    multipart file to upload
+     * @param request upload request with metadata and album name
+     * @return upload response with photo details
+     * @see #uploadAsync(MultipartFile, UploadRequest)
+     */
+    public UploadResponse upload(MultipartFile file, UploadRequest request) {
+        try {
+            return uploadAsync(file, request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
     /**
      * Uploads photo to Flickr with album management.
@@ -34,79 +99,331 @@ public class UploadService {
      * 3. Add photo to album
      * 4. Track metrics and log results
      *
-     * @param file    multipart file to upload
+     * Photo bytes are sent on the calling thread. With async uploads enabled, and always for
+     * videos (Flickr transcodes them after upload), the method returns once Flickr has received
+     * the bytes, and the album steps run when {@link TicketPoller} resolves the upload ticket.
+     * Stages stop once the request's deadline passes or its client disconnects; the upload then
+     * fails with {@link UploadCancelledException}, counted as upload.cancelled rather than a failure.
+     *
+     * @param file    multipart file to upload (must stay readable until the future completes)
      * @param request upload request with metadata and album name
-     * @return upload response with photo details
+     * @return future completed with upload response or failed with the upload exception
      */
-    public UploadResponse upload(MultipartFile file, UploadRequest request) {
+    public CompletableFuture<UploadResponse> uploadAsync(MultipartFile file, UploadRequest request) {
         // Start timer for metrics
         Timer.Sample sample = Timer.start(meterRegistry);
+        long startNanos = System.nanoTime();
+        UploadEvent event = new UploadEvent();
+        event.begin();
+        InFlightUpload inFlight = inFlightUploads.register(request);
 
-        log.info("Upload request received: filename={}, size={}, album={}, user={}",
-            file.getOriginalFilename(),
-            file.getSize(),
-            request.getAlbum(),
-            flickrProperties.getUser().getName());
+        if (log.isInfoEnabled()) {
+            log.atInfo()
+                .setMessage("Upload request received")
+                .addKeyValue("filename", file.getOriginalFilename())
+                .addKeyValue("bytes", file.getSize())
+                .addKeyValue("album", request.getAlbum())
+                .addKeyValue("user", flickrProperties.getUser().getName())
+                .log();
+        }
 
+        UploadDeadline deadline = request.getDeadline();
+        CompletableFuture<UploadResponse> result;
         try {
+            // Uploads whose client is gone are dropped before any Flickr call, e.g. after waiting in the queue
+            deadline.check("queued");
+
+            // Step 0: Reject content already uploaded through any replica (only when dedupCheck is requested)
+            String contentHash = request.getDedupCheck() != null ? contentHash(file) : null;
+            if (contentHash != null) {
+                Optional<String> existingPhotoId = sharedStateStore.getPhotoIdByHash(contentHash);
+                if (existingPhotoId.isPresent()) {
+                    throw new DuplicatePhotoException(
+                        "Duplicate photo detected",
+                        "Photo already uploaded with ID " + existingPhotoId.get());
+                }
+            }
+
             // Step 1: Upload photo to Flickr
             log.debug("Step 1: Uploading photo to Flickr");
-            String photoId = flickrService.uploadPhoto(file, request);
-
-            // Step 2: Ensure album exists (use photoId as primary if creating new)
-            log.debug("Step 2: Ensuring album exists: {}", request.getAlbum());
-            String albumId = albumService.ensureAlbum(request.getAlbum(), photoId);
-
-            // Step 3: Add photo to album
-            log.debug("Step 3: Adding photo to album");
-            albumService.addPhotoToAlbum(photoId, albumId);
-
-            // Build photo URL
-            String photoUrl = flickrService.buildPhotoUrl(
-                photoId,
-                flickrProperties.getUser().getNsid()
-            );
-
-            // Record success metrics
-            meterRegistry.counter("upload.success").increment();
-            meterRegistry.summary("upload.file.size").record(file.getSize());
-
-            // Build response
-            UploadResponse response = UploadResponse.builder()
-                .photoId(photoId)
-                .album(request.getAlbum())
-                .albumId(albumId)
-                .uploadedAt(Instant.now())
-                .status("SUCCESS")
-                .url(photoUrl)
-                .build();
+            Observation parentObservation = observationRegistry.getCurrentObservation();
+            result = uploadPhoto(file, request, inFlight)
+                .thenApply(photoId -> {
+                    inFlight.photoUploaded(photoId);
+                    uploadProgressTracker.get(request.getUploadId()).photoUploaded(photoId);
+                    // Album steps may run on a ticket completion thread, keep them in the request's trace
+                    try (Observation.Scope scope = parentObservation != null ? parentObservation.openScope() : null) {
+                        return completeUpload(file, request, photoId, contentHash, sample, startNanos);
+                    }
+                });
+
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
 
-            log.info("Photo uploaded successfully: photoId={}, album={}, albumId={}, duration={}ms, size={}, user={}",
-                photoId,
-                request.getAlbum(),
-                albumId,
-                sample.stop(meterRegistry.timer("upload.duration")),
-                file.getSize(),
-                flickrProperties.getUser().getName());
+        // Failures caused by the deadline (an aborted stream, a wait cut short) are reported as cancellations
+        result = result.exceptionallyCompose(error -> CompletableFuture.failedFuture(
+            deadline.cancellation(error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error, "upload")));
 
-            return response;
+        inFlightUploads.complete(inFlight, result.whenComplete((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+            if (cause instanceof UploadCancelledException cancelled) {
+                meterRegistry.counter("upload.cancelled",
+                    "reason", cancelled.getReason(), "stage", cancelled.getStage()).increment();
+                log.atWarn()
+                    .setMessage("Upload cancelled")
+                    .addKeyValue("filename", file.getOriginalFilename())
+                    .addKeyValue("album", request.getAlbum())
+                    .addKeyValue("reason", cancelled.getReason())
+                    .addKeyValue("stage", cancelled.getStage())
+                    .addKeyValue("durationMs", toMillis(System.nanoTime() - startNanos))
+                    .log();
+            } else if (error != null) {
+                FlickrUploaderException failure = cause instanceof FlickrUploaderException e ? e : null;
+                ErrorCategory category = failure != null ? failure.getCategory() : ErrorCategory.PERMANENT;
+                // Record failure metric
+                meterRegistry.counter("upload.failure", "category", category.tag()).increment();
 
-        } catch (Exception e) {
-            // Record failure metric
-            meterRegistry.counter("upload.failure").increment();
+                if (failure != null && category.isExpected()) {
+                    // Duplicates and rejections are outcomes, not faults: no stack trace, no error log
+                    log.atWarn()
+                        .setMessage("Upload rejected")
+                        .addKeyValue("filename", file.getOriginalFilename())
+                        .addKeyValue("album", request.getAlbum())
+                        .addKeyValue("category", category.tag())
+                        .addKeyValue("error", cause.getMessage())
+                        .addKeyValue("details", failure.getDetails())
+                        .log();
+                } else if (category == ErrorCategory.RETRYABLE) {
+                    // Transient Flickr failure the client retries, the stack trace adds nothing
+                    log.atWarn()
+                        .setMessage("Upload failed")
+                        .addKeyValue("filename", file.getOriginalFilename())
+                        .addKeyValue("album", request.getAlbum())
+                        .addKeyValue("category", category.tag())
+                        .addKeyValue("durationMs", toMillis(System.nanoTime() - startNanos))
+                        .addKeyValue("error", cause.getMessage())
+                        .log();
+                } else {
+                    log.atError()
+                        .setMessage("Upload failed")
+                        .addKeyValue("filename", file.getOriginalFilename())
+                        .addKeyValue("album", request.getAlbum())
+                        .addKeyValue("durationMs", toMillis(System.nanoTime() - startNanos))
+                        .addKeyValue("error", cause.getMessage())
+                        .setCause(cause)
+                        .log();
+                }
+            }
+
+            // Record total uploads
+            meterRegistry.counter("upload.total").increment();
+
+            event.album = request.getAlbum();
+            event.bytes = file.getSize();
+            event.photoId = response != null ? response.getPhotoId() : null;
+            event.success = error == null;
+            event.commit();
+        }));
+        // Completed earlier with a PENDING response if the instance shuts down after the photo reached Flickr
+        return inFlight.getResponse();
+    }
 
-            log.error("Upload failed: filename={}, album={}, error={}",
-                file.getOriginalFilename(),
-                request.getAlbum(),
-                e.getMessage(),
-                e);
+    /**
+     * Sends photo to Flickr, synchronously or via async upload ticket. Videos always go through
+     * a ticket, waited for up to the video processing timeout.
+     *
+     * @return future completed with Flickr photo ID
+     */
+    private CompletableFuture<String> uploadPhoto(MultipartFile file, UploadRequest request, InFlightUpload inFlight) {
+        Observation observation = Observation.createNotStarted(UploadObservations.FLICKR_UPLOAD, observationRegistry)
+            .highCardinalityKeyValue(UploadObservations.KEY_ALBUM, request.getAlbum())
+            .start();
 
-            // Re-throw exception to be handled by GlobalExceptionHandler
+        // Waits for Flickr's processing end with the request's deadline
+        UploadDeadline deadline = request.getDeadline();
+        CompletableFuture<String> photoId;
+        try (Observation.Scope scope = observation.openScope()) {
+            if (videoFiles.isVideo(file)) {
+                photoId = ticketPoller.await(inFlight.ticketSent(flickrService.uploadPhotoAsync(file, request)),
+                    deadline.cap(videoProperties.getProcessingTimeout()));
+            } else {
+                photoId = asyncUploadProperties.isEnabled()
+                    ? ticketPoller.await(inFlight.ticketSent(flickrService.uploadPhotoAsync(file, request)),
+                        deadline.cap(asyncUploadProperties.getTimeout()))
+                    : CompletableFuture.completedFuture(flickrService.uploadPhoto(file, request));
+            }
+        } catch (RuntimeException e) {
+            observation.highCardinalityKeyValue(UploadObservations.KEY_BYTES, String.valueOf(file.getSize()));
+            observation.error(e);
+            observation.stop();
             throw e;
+        }
 
-        } finally {
-            // Record total uploads and duration
-            meterRegistry.counter("upload.total").increment();
+        return photoId.whenComplete((id, error) -> {
+            // Known once sent: streamed sources of unknown length are measured as they're read
+            observation.highCardinalityKeyValue(UploadObservations.KEY_BYTES, String.valueOf(file.getSize()));
+            if (error != null) {
+                observation.error(error);
+            }
+            observation.stop();
+        });
+    }
+
+    /**
+     * Runs album steps once the photo is on Flickr and builds the response.
+     */
+    private UploadResponse completeUpload(MultipartFile file, UploadRequest request, String photoId,
+                                          String contentHash, Timer.Sample sample, long startNanos) {
+        long uploadedNanos = System.nanoTime();
+        request.getDeadline().check("album");
+
+        // Steps 2 and 3: Ensure albums exist (use photoId as primary if creating new) and add photo to them
+        List<String> albums = request.albums();
+        log.debug("Steps 2-3: Adding photo to albums: {}", albums);
+        List<AlbumOutcome> outcomes = addToAlbums(albums, photoId, videoFiles.isVideo(file),
+            uploadProgressTracker.get(request.getUploadId()), request.getDeadline());
+        long albumsNanos = System.nanoTime();
+        long failedAlbums = outcomes.stream().filter(outcome -> outcome.error() != null).count();
+        if (failedAlbums == outcomes.size()) {
+            // Photo is in none of its albums, fail like a single-album upload
+            throw outcomes.getFirst().error();
+        }
+        if (failedAlbums > 0) {
+            meterRegistry.counter("upload.album.failure").increment(failedAlbums);
+        }
+        // The response names the first album the photo actually landed in
+        AlbumOutcome first = outcomes.stream().filter(outcome -> outcome.error() == null).findFirst().orElseThrow();
+
+        // Remember the content only once the photo is in an album, so a failed upload can be retried
+        if (contentHash != null) {
+            sharedStateStore.putPhotoHash(contentHash, photoId, sharedStateProperties.getDedupTtl());
+        }
+
+        // Build photo URL
+        String photoUrl = flickrService.buildPhotoUrl(
+            photoId,
+            flickrProperties.getUser().getNsid()
+        );
+
+        // Record success metrics
+        meterRegistry.counter("upload.success").increment();
+        meterRegistry.summary("upload.file.size").record(file.getSize());
+        long durationNanos = sample.stop(meterRegistry.timer("upload.duration"));
+
+        // Build response
+        UploadResponse response = UploadResponse.builder()
+            .photoId(photoId)
+            .album(first.album())
+            .albumId(first.albumId())
+            .albums(outcomes.stream().map(AlbumOutcome::toResult).toList())
+            .uploadedAt(Instant.now())
+            .status(failedAlbums == 0 ? "SUCCESS" : "PARTIAL")
+            .url(photoUrl)
+            .build();
+
+        if (log.isInfoEnabled()) {
+            log.atInfo()
+                .setMessage("Photo uploaded successfully")
+                .addKeyValue("photoId", photoId)
+                .addKeyValue("album", first.album())
+                .addKeyValue("albumId", first.albumId())
+                .addKeyValue("albums", outcomes.size())
+                .addKeyValue("failedAlbums", failedAlbums)
+                .addKeyValue("bytes", file.getSize())
+                .addKeyValue("uploadMs", toMillis(uploadedNanos - startNanos))
+                .addKeyValue("ensureAlbumMs", toMillis(first.ensureNanos()))
+                .addKeyValue("addToAlbumMs", toMillis(first.addNanos()))
+                .addKeyValue("albumsMs", toMillis(albumsNanos - uploadedNanos))
+                .addKeyValue("durationMs", toMillis(durationNanos))
+                .addKeyValue("user", flickrProperties.getUser().getName())
+                .log();
+        }
+
+        return response;
+    }
+
+    /**
+     * Resolves the albums and adds the photo to them. The first album is handled on the calling
+     * thread and the others in parallel on virtual threads, so N albums take about as long as one.
+     * Failures are collected per album.
+     */
+    private List<AlbumOutcome> addToAlbums(List<String> albums, String photoId, boolean video,
+                                           UploadProgress progress, UploadDeadline deadline) {
+        Observation parentObservation = observationRegistry.getCurrentObservation();
+        List<CompletableFuture<AlbumOutcome>> others = albums.stream()
+            .skip(1)
+            .map(album -> CompletableFuture.supplyAsync(() -> {
+                try (Observation.Scope scope = parentObservation != null ? parentObservation.openScope() : null) {
+                    return addToAlbum(album, photoId, video, progress, deadline);
+                }
+            }, albumFanOut))
+            .toList();
+
+        List<AlbumOutcome> outcomes = new ArrayList<>(albums.size());
+        outcomes.add(addToAlbum(albums.getFirst(), photoId, video, progress, deadline));
+        others.forEach(outcome -> outcomes.add(outcome.join()));
+        return outcomes;
+    }
+
+    private AlbumOutcome addToAlbum(String album, String photoId, boolean video, UploadProgress progress,
+                                    UploadDeadline deadline) {
+        long startNanos = System.nanoTime();
+        String albumId = null;
+        try {
+            progress.stage(UploadStage.RESOLVING_ALBUM);
+            albumId = albumService.ensureAlbum(album, photoId, deadline);
+            long ensuredNanos = System.nanoTime();
+            progress.stage(UploadStage.ADDING_TO_ALBUM);
+            AlbumService.AlbumAddition addition = albumService.addPhotoToNamedAlbum(photoId, album, albumId, deadline);
+            albumId = addition.albumId();
+            albumCacheService.photoAdded(albumId, video, addition.added());
+            return new AlbumOutcome(album, albumId, ensuredNanos - startNanos, System.nanoTime() - ensuredNanos, null);
+        } catch (RuntimeException e) {
+            log.warn("Failed to add photo to album: photoId={}, album={}, error={}", photoId, album, e.getMessage());
+            return new AlbumOutcome(album, albumId, 0, 0, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        albumFanOut.shutdown();
+    }
+
+    /**
+     * Computes SHA-256 of the uploaded file content.
+     */
+    private String contentHash(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return ContentHash.sha256(inputStream);
+        } catch (IOException e) {
+            throw new FlickrUploadException("Failed to read file", e.getMessage(), e);
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Outcome of the album steps for one album.
+     */
+    private record AlbumOutcome(String album, String albumId, long ensureNanos, long addNanos, RuntimeException error) {
+
+        AlbumResult toResult() {
+            String message = error instanceof FlickrUploaderException e && e.getDetails() != null
+                ? error.getMessage() + ": " + e.getDetails()
+                : error != null ? error.getMessage() : null;
+            return AlbumResult.builder()
+                .album(album)
+                .albumId(albumId)
+                .success(error == null)
+                .error(message)
+                .build();
         }
     }
 }
@@ -0,0 +1,193 @@
+package pl.czerwiu.flickr.upldr.spool;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Image and video formats accepted by Flickr, recognized by the magic numbers at the start of the file.
+ */
+public enum FileSignature {
+
+    JPEG("image/jpeg", false),
+    PNG("image/png", false),
+    GIF("image/gif", false),
+    WEBP("image/webp", false),
+    TIFF("image/tiff", false),
+    HEIC("image/heic", false),
+    MP4("video/mp4", true),
+    QUICKTIME("video/quicktime", true),
+    THREE_GPP("video/3gpp", true),
+    AVI("video/x-msvideo", true),
+    MPEG("video/mpeg", true),
+    MPEG_TS("video/mp2t", true),
+    WMV("video/x-ms-wmv", true),
+    OGG("video/ogg", true);
+
+    /**
+     * Bytes needed to recognize every format (MPEG transport streams are checked at the second packet).
+     */
+    public static final int SNIFF_LENGTH = 200;
+
+    private static final Set<String> HEIF_BRANDS = Set.of("heic", "heix", "hevc", "hevx", "heim", "heis", "mif1", "msf1");
+    // Video brands of MP4 and its derivatives (M4V, Flash F4V, DASH, camera formats); other brands,
+    // e.g. audio-only M4A or AVIF images, aren't formats Flickr accepts
+    private static final Set<String> MP4_BRANDS = Set.of(
+        "isom", "iso2", "iso3", "iso4", "iso5", "iso6", "iso7", "iso8", "iso9",
+        "mp41", "mp42", "mp71", "avc1", "M4V ", "M4VH", "M4VP", "f4v ", "dash", "mmp4", "msnv", "MSNV", "XAVC", "NDAS");
+    // Top-level atoms QuickTime files without ftyp start with; only the movie data may run past the sniffed bytes
+    private static final Set<String> QUICKTIME_ATOMS = Set.of("moov", "mdat", "wide", "free", "skip", "pnot");
+    private static final int MAX_QUICKTIME_ATOMS = 8;
+    private static final int TS_PACKET = 188;
+    private static final int M2TS_PACKET = 192;
+
+    private final String mimeType;
+    private final boolean video;
+
+    FileSignature(String mimeType, boolean video) {
+        this.mimeType = mimeType;
+        this.video = video;
+    }
+
+    public String mimeType() {
+        return mimeType;
+    }
+
+    public boolean isVideo() {
+        return video;
+    }
+
+    /**
+     * Recognizes the format from the first bytes of a file.
+     *
+     * @param head first bytes of the file, {@link #SNIFF_LENGTH} or all of a shorter file
+     * @return detected format, or null if it's not one Flickr accepts
+     */
+    public static FileSignature detect(byte[] head) {
+        if (startsWith(head, 0xFF, 0xD8, 0xFF)) {
+            return JPEG;
+        }
+        if (startsWith(head, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return PNG;
+        }
+        if (ascii(head, 0, "GIF87a") || ascii(head, 0, "GIF89a")) {
+            return GIF;
+        }
+        if (ascii(head, 0, "II*\0") || ascii(head, 0, "MM\0*")) {
+            return TIFF;
+        }
+        if (ascii(head, 0, "RIFF")) {
+            return ascii(head, 8, "WEBP") ? WEBP : ascii(head, 8, "AVI ") ? AVI : null;
+        }
+        if (ascii(head, 4, "ftyp") && head.length >= 12) {
+            return isoBrand(new String(head, 8, 4, StandardCharsets.US_ASCII));
+        }
+        if (isClassicQuickTime(head)) {
+            // QuickTime files written before the ftyp atom was introduced
+            return QUICKTIME;
+        }
+        if (startsWith(head, 0x00, 0x00, 0x01, 0xBA) || startsWith(head, 0x00, 0x00, 0x01, 0xB3)) {
+            return MPEG;
+        }
+        if (isSyncByte(head, 0) && isSyncByte(head, TS_PACKET)) {
+            return MPEG_TS;
+        }
+        // M2TS (AVCHD) packets carry a 4-byte timestamp before the sync byte
+        if (isSyncByte(head, 4) && isSyncByte(head, 4 + M2TS_PACKET)) {
+            return MPEG_TS;
+        }
+        if (startsWith(head, 0x30, 0x26, 0xB2, 0x75, 0x8E, 0x66, 0xCF, 0x11)) {
+            return WMV;
+        }
+        if (ascii(head, 0, "OggS")) {
+            return OGG;
+        }
+        return null;
+    }
+
+    /**
+     * Tells ISO base media files (MP4, QuickTime, 3GP, HEIC) apart by their major brand.
+     *
+     * @return detected format, or null for brands of other formats
+     */
+    private static FileSignature isoBrand(String brand) {
+        if (HEIF_BRANDS.contains(brand)) {
+            return HEIC;
+        }
+        if (brand.equals("qt  ")) {
+            return QUICKTIME;
+        }
+        if (brand.startsWith("3g")) {
+            return THREE_GPP;
+        }
+        return MP4_BRANDS.contains(brand) ? MP4 : null;
+    }
+
+    /**
+     * Follows the top-level atoms from the start of the file: each has to be a QuickTime atom with a valid size,
+     * up to the movie atom or the movie data running past the sniffed bytes.
+     */
+    private static boolean isClassicQuickTime(byte[] head) {
+        int offset = 0;
+        for (int atoms = 0; atoms < MAX_QUICKTIME_ATOMS && head.length >= offset + 8; atoms++) {
+            String type = new String(head, offset + 4, 4, StandardCharsets.US_ASCII);
+            if (!QUICKTIME_ATOMS.contains(type)) {
+                return false;
+            }
+            long size = uint32(head, offset);
+            if (size == 1) {
+                // 64-bit size in a 16-byte header, used by the movie data of large files
+                if (head.length < offset + 16) {
+                    return type.equals("mdat");
+                }
+                size = uint32(head, offset + 8) << 32 | uint32(head, offset + 12);
+                if (size < 16) {
+                    return false;
+                }
+            } else if (size < 8) {
+                // Includes 0, "up to the end of the file", which only the movie data of unfinished files uses
+                return false;
+            }
+            if (type.equals("moov")) {
+                return true;
+            }
+            if (size > head.length - offset) {
+                return type.equals("mdat");
+            }
+            offset += (int) size;
+        }
+        return false;
+    }
+
+    private static long uint32(byte[] head, int offset) {
+        return (head[offset] & 0xFFL) << 24 | (head[offset + 1] & 0xFFL) << 16
+            | (head[offset + 2] & 0xFFL) << 8 | head[offset + 3] & 0xFFL;
+    }
+
+    private static boolean isSyncByte(byte[] head, int offset) {
+        return head.length > offset && head[offset] == 0x47;
+    }
+
+    private static boolean ascii(byte[] head, int offset, String expected) {
+        if (head.length < offset + expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (head[offset + i] != (byte) expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] head, int... expected) {
+        if (head.length < expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (head[i] != (byte) expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,139 @@
+package pl.czerwiu.flickr.upldr.spool;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Spool space reserved for one request, and the files written into it.
+ * Files can be deleted one by one as soon as they aren't needed;
+ * closing the reservation deletes the remaining files and returns all space.
+ * An upload that may outlive its request {@link #retain() retains} the reservation,
+ * which is then released once both have closed it.
+ */
+public class SpoolReservation implements Closeable {
+
+    private final SpoolStorage storage;
+    private final SpoolStorage.Shard shard;
+    private final Map<Path, Long> files = new LinkedHashMap<>();
+    private long reserved;
+    private long written;
+    private int holders = 1;
+    private boolean closed;
+
+    SpoolReservation(SpoolStorage storage, SpoolStorage.Shard shard, long reserved) {
+        this.storage = storage;
+        this.shard = shard;
+        this.reserved = reserved;
+    }
+
+    /**
+     * Creates a new spool file and opens it for writing. Writes are charged to the reservation,
+     * which grows if the request turns out larger than reserved.
+     */
+    public synchronized SpoolFileOutputStream createFile() throws IOException {
+        if (closed) {
+            throw new IOException("Spool reservation is closed");
+        }
+        Path file = storage.createFile(shard);
+        files.put(file, 0L);
+        return new SpoolFileOutputStream(file, Files.newOutputStream(file));
+    }
+
+    /**
+     * Returns reserved space that wasn't written, once the whole request is spooled.
+     */
+    public synchronized void trim() {
+        if (!closed && reserved > written) {
+            storage.release(shard, reserved - written, false);
+            reserved = written;
+        }
+    }
+
+    /**
+     * Deletes the file and returns its space.
+     */
+    public synchronized void delete(Path file) {
+        Long size = files.remove(file);
+        if (size == null) {
+            return;
+        }
+        storage.deleteFile(shard, file, size);
+        written -= size;
+        reserved -= size;
+        storage.release(shard, size, false);
+    }
+
+    /**
+     * Adds a holder, each holder closes the reservation once.
+     *
+     * @throws IllegalStateException if the reservation is already closed
+     */
+    public synchronized SpoolReservation retain() {
+        if (closed) {
+            throw new IllegalStateException("Spool reservation is closed");
+        }
+        holders++;
+        return this;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed || --holders > 0) {
+            return;
+        }
+        closed = true;
+        files.forEach((file, size) -> storage.deleteFile(shard, file, size));
+        files.clear();
+        storage.release(shard, reserved, true);
+        written = 0;
+        reserved = 0;
+    }
+
+    private synchronized void charge(Path file, int bytes) throws IOException {
+        if (closed || !files.containsKey(file)) {
+            throw new IOException("Spool file was deleted: " + file);
+        }
+        if (written + bytes > reserved) {
+            storage.extend(shard, written + bytes - reserved);
+            reserved = written + bytes;
+        }
+        written += bytes;
+        files.merge(file, (long) bytes, Long::sum);
+        shard.written(bytes);
+    }
+
+    /**
+     * Stream writing a spool file, charging written bytes to the reservation.
+     */
+    public final class SpoolFileOutputStream extends FilterOutputStream {
+
+        private final Path file;
+
+        private SpoolFileOutputStream(Path file, OutputStream out) {
+            super(out);
+            this.file = file;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            charge(file, 1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            charge(file, len);
+            out.write(b, off, len);
+        }
+    }
+}
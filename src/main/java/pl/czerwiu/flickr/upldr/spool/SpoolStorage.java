@@ -0,0 +1,334 @@
+package pl.czerwiu.flickr.upldr.spool;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.config.SpoolProperties;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Disk space for spooled upload files, spread over the configured directories.
+ * Space is reserved before a request body is read; a request that doesn't fit the quota
+ * or the free space of any directory waits briefly and is then rejected with 503.
+ * Every instance spools into its own locked subdirectory, so files left behind
+ * by a crashed instance are recognized and deleted at startup.
+ */
+@Slf4j
+@Component
+public class SpoolStorage {
+
+    private static final String INSTANCE_PREFIX = "instance-";
+    private static final String LOCK_FILE = ".lock";
+    private static final String FILE_PREFIX = "upload-";
+    private static final String FILE_SUFFIX = ".spool";
+    // Free disk space is re-checked while waiting, it also changes without releases of this instance
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final SpoolProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<Shard> shards = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition spaceReleased = lock.newCondition();
+    private final Counter rejected;
+    private final Timer waitTimer;
+    private volatile long reservedBytes;  // written under lock
+
+    public SpoolStorage(SpoolProperties properties, MeterRegistry meterRegistry) throws IOException {
+        if (properties.getDirectories().isEmpty()) {
+            throw new IllegalStateException("At least one spool directory is required (upldr.spool.directories)");
+        }
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        String instanceDir = INSTANCE_PREFIX + UUID.randomUUID();
+        for (String directory : properties.getDirectories()) {
+            Path root = Path.of(directory).toAbsolutePath().normalize();
+            Files.createDirectories(root);
+            reclaimOrphans(root);
+            Shard shard = new Shard(root, root.resolve(instanceDir));
+            shards.add(shard);
+
+            String tag = root.toString();
+            Gauge.builder("upload.spool.used", shard.written, AtomicLong::get)
+                .description("Bytes of spooled files on disk")
+                .baseUnit("bytes")
+                .tag("directory", tag)
+                .register(meterRegistry);
+            Gauge.builder("upload.spool.free", shard, Shard::usableSpace)
+                .description("Free space of the spool disk")
+                .baseUnit("bytes")
+                .tag("directory", tag)
+                .register(meterRegistry);
+            Gauge.builder("upload.spool.files", shard.files, AtomicInteger::get)
+                .description("Spooled files on disk")
+                .tag("directory", tag)
+                .register(meterRegistry);
+        }
+
+        Gauge.builder("upload.spool.reserved", this, storage -> storage.reservedBytes)
+            .description("Spool space reserved by requests")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("upload.spool.rejected")
+            .description("Requests rejected because no spool space was available")
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("upload.spool.wait")
+            .description("Time requests waited for spool space")
+            .register(meterRegistry);
+
+        log.info("Spool storage ready: directories={}, quota={}, minFreeSpace={}",
+            shards.stream().map(shard -> shard.root).toList(), properties.getQuota(), properties.getMinFreeSpace());
+    }
+
+    /**
+     * Reserves space for a request body on the directory with the fewest active requests
+     * (spreading disk I/O) among those with enough free space.
+     *
+     * @param bytes space to reserve
+     * @return reservation files of the request are written into
+     * @throws ServiceBusyException if no space is available within the configured wait
+     */
+    public SpoolReservation reserve(long bytes) {
+        long start = System.nanoTime();
+        long deadline = start + properties.getReserveWait().toNanos();
+        lock.lock();
+        try {
+            Shard shard;
+            while ((shard = pick(bytes)) == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new ServiceBusyException("Upload spool storage is full",
+                        "No spool space for " + bytes + " bytes within " + properties.getReserveWait());
+                }
+                spaceReleased.awaitNanos(Math.min(remaining, RECHECK_NANOS));
+            }
+            take(shard, bytes);
+            shard.reservations++;
+            return new SpoolReservation(this, shard, bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Upload spool storage is full", "Interrupted while waiting for spool space");
+        } finally {
+            lock.unlock();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Grows a reservation without waiting (request body larger than announced).
+     *
+     * @throws ServiceBusyException if the space isn't available
+     */
+    void extend(Shard shard, long bytes) {
+        lock.lock();
+        try {
+            if (!fitsQuota(bytes) || available(shard) < bytes) {
+                rejected.increment();
+                throw new ServiceBusyException("Upload spool storage is full",
+                    "No spool space left on " + shard.root);
+            }
+            take(shard, bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns reserved space, and ends the reservation if it's closed.
+     */
+    void release(Shard shard, long bytes, boolean closed) {
+        lock.lock();
+        try {
+            shard.reserved -= bytes;
+            reservedBytes -= bytes;
+            if (closed) {
+                shard.reservations--;
+            }
+            spaceReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Path createFile(Shard shard) throws IOException {
+        Path file = Files.createTempFile(shard.directory, FILE_PREFIX, FILE_SUFFIX);
+        shard.files.incrementAndGet();
+        return file;
+    }
+
+    void deleteFile(Shard shard, Path file, long size) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left for the orphan cleanup of the next start
+            log.warn("Failed to delete spool file: file={}, error={}", file, e.getMessage());
+        }
+        shard.files.decrementAndGet();
+        shard.written.addAndGet(-size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            try {
+                deleteContents(shard.directory);
+                shard.instanceLock.release();
+                shard.lockChannel.close();
+                Files.deleteIfExists(shard.directory.resolve(LOCK_FILE));
+                Files.deleteIfExists(shard.directory);
+            } catch (IOException e) {
+                log.warn("Failed to clean up spool directory: directory={}, error={}", shard.directory, e.getMessage());
+            }
+        }
+    }
+
+    private Shard pick(long bytes) {
+        if (!fitsQuota(bytes)) {
+            return null;
+        }
+
+        Shard best = null;
+        long bestAvailable = 0;
+        for (Shard shard : shards) {
+            long available = available(shard);
+            if (available < bytes) {
+                continue;
+            }
+            if (best == null || shard.reservations < best.reservations
+                    || shard.reservations == best.reservations && available > bestAvailable) {
+                best = shard;
+                bestAvailable = available;
+            }
+        }
+        return best;
+    }
+
+    private boolean fitsQuota(long bytes) {
+        long quota = properties.getQuota().toBytes();
+        return quota <= 0 || reservedBytes + bytes <= quota;
+    }
+
+    /**
+     * Free space of the directory's disk minus reserved space not written yet.
+     */
+    private long available(Shard shard) {
+        long pending = Math.max(0, shard.reserved - shard.written.get());
+        return shard.usableSpace() - pending - properties.getMinFreeSpace().toBytes();
+    }
+
+    private void take(Shard shard, long bytes) {
+        shard.reserved += bytes;
+        reservedBytes += bytes;
+    }
+
+    /**
+     * Deletes spool directories of instances that are no longer running (their lock is free).
+     */
+    private void reclaimOrphans(Path root) throws IOException {
+        List<Path> orphans = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, INSTANCE_PREFIX + "*")) {
+            for (Path dir : dirs) {
+                if (Files.isDirectory(dir)) {
+                    orphans.add(dir);
+                }
+            }
+        }
+
+        for (Path dir : orphans) {
+            long bytes;
+            try (FileChannel channel = FileChannel.open(dir.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock orphanLock = channel.tryLock()) {
+                if (orphanLock == null) {
+                    continue;  // owned by a running instance
+                }
+                bytes = deleteContents(dir);
+            } catch (OverlappingFileLockException e) {
+                continue;
+            }
+            Files.deleteIfExists(dir.resolve(LOCK_FILE));
+            Files.deleteIfExists(dir);
+
+            meterRegistry.counter("upload.spool.reclaimed").increment(bytes);
+            log.info("Reclaimed orphaned spool files: directory={}, bytes={}", dir, bytes);
+        }
+    }
+
+    /**
+     * Deletes spooled files of the directory.
+     *
+     * @return bytes freed
+     */
+    private static long deleteContents(Path dir) throws IOException {
+        long bytes = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                if (Files.deleteIfExists(file)) {
+                    bytes += size;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Spool directory of this instance on one of the configured disks.
+     */
+    static final class Shard {
+
+        private final Path root;
+        private final Path directory;
+        private final FileStore store;
+        private final FileChannel lockChannel;
+        private final FileLock instanceLock;
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicInteger files = new AtomicInteger();
+        private long reserved;      // guarded by lock
+        private int reservations;   // guarded by lock
+
+        private Shard(Path root, Path directory) throws IOException {
+            this.root = root;
+            this.directory = Files.createDirectories(directory);
+            this.store = Files.getFileStore(root);
+            this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.instanceLock = lockChannel.lock();
+        }
+
+        void written(long bytes) {
+            written.addAndGet(bytes);
+        }
+
+        private long usableSpace() {
+            try {
+                return store.getUsableSpace();
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+}
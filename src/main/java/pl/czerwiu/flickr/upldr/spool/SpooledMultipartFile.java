@@ -0,0 +1,126 @@
+package pl.czerwiu.flickr.upldr.spool;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Uploaded file spooled to managed storage, or kept in memory when it's small.
+ * The spool file can be deleted as soon as the upload is done, without waiting
+ * for the end of the request. An upload that may still be queued when its request
+ * ends (the client disconnected or timed out) retains the file until it's done.
+ */
+public class SpooledMultipartFile implements MultipartFile {
+
+    private final String name;
+    private final String originalFilename;
+    private final String contentType;
+    private final long size;
+    private final byte[] content;
+    private final Path file;
+    private final SpoolReservation reservation;
+
+    private SpooledMultipartFile(String name, String originalFilename, String contentType, long size,
+                                 byte[] content, Path file, SpoolReservation reservation) {
+        this.name = name;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.size = size;
+        this.content = content;
+        this.file = file;
+        this.reservation = reservation;
+    }
+
+    static SpooledMultipartFile inMemory(String name, String originalFilename, String contentType, byte[] content) {
+        return new SpooledMultipartFile(name, originalFilename, contentType, content.length, content, null, null);
+    }
+
+    static SpooledMultipartFile onDisk(String name, String originalFilename, String contentType, long size,
+                                       Path file, SpoolReservation reservation) {
+        return new SpooledMultipartFile(name, originalFilename, contentType, size, null, file, reservation);
+    }
+
+    /**
+     * Deletes the spool file and returns its space. The content can't be read afterwards.
+     */
+    public void delete() {
+        if (file != null) {
+            reservation.delete(file);
+        }
+    }
+
+    /**
+     * Keeps the spool file when the request ends, until {@link #release()} is called.
+     */
+    public void retain() {
+        if (file != null) {
+            reservation.retain();
+        }
+    }
+
+    /**
+     * Deletes the spool file and lets go of the reservation retained with {@link #retain()}.
+     */
+    public void release() {
+        if (file != null) {
+            reservation.delete(file);
+            reservation.close();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return content != null ? content.clone() : Files.readAllBytes(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return content != null ? new ByteArrayInputStream(content) : Files.newInputStream(file);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        transferTo(dest.toPath());
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        if (content != null) {
+            FileCopyUtils.copy(content, dest.toFile());
+        } else {
+            Files.copy(file, dest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
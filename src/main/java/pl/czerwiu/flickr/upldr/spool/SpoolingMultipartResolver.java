@@ -0,0 +1,275 @@
+package pl.czerwiu.flickr.upldr.spool;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.impl.SizeException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.DefaultMultipartHttpServletRequest;
+import pl.czerwiu.flickr.upldr.config.SpoolProperties;
+import pl.czerwiu.flickr.upldr.config.VideoProperties;
+import pl.czerwiu.flickr.upldr.deadline.UploadDeadline;
+import pl.czerwiu.flickr.upldr.exception.UnsupportedFileTypeException;
+import pl.czerwiu.flickr.upldr.progress.UploadProgress;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressTracker;
+import pl.czerwiu.flickr.upldr.video.VideoFiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Multipart resolver that spools uploaded files to {@link SpoolStorage} instead of the
+ * servlet container's single temp directory. Space for the whole body is reserved before
+ * it's read, and files are deleted when the request ends (or earlier, see
+ * {@link SpooledMultipartFile#delete()}), or once its upload is done if the upload
+ * retained them (see {@link SpooledMultipartFile#retain()}). Bodies are parsed with the streaming
+ * multipart parser bundled with embedded Tomcat. Bytes received are counted for
+ * uploads sent with an Upload-Id header. Videos get their own, larger size limits and
+ * always go to disk, whatever their size. Each file is checked as soon as its first bytes
+ * arrive: files that aren't an image or video format Flickr accepts, or that declare a size
+ * over the limit, fail the request before the rest of the body is read.
+ */
+public class SpoolingMultipartResolver implements MultipartResolver {
+
+    private static final int MAX_FIELD_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SpoolStorage spoolStorage;
+    private final SpoolProperties properties;
+    private final VideoProperties videoProperties;
+    private final VideoFiles videoFiles;
+    private final UploadProgressTracker uploadProgressTracker;
+
+    public SpoolingMultipartResolver(SpoolStorage spoolStorage, SpoolProperties properties,
+                                     VideoProperties videoProperties, VideoFiles videoFiles,
+                                     UploadProgressTracker uploadProgressTracker) {
+        this.spoolStorage = spoolStorage;
+        this.properties = properties;
+        this.videoProperties = videoProperties;
+        this.videoFiles = videoFiles;
+        this.uploadProgressTracker = uploadProgressTracker;
+    }
+
+    @Override
+    public boolean isMultipart(HttpServletRequest request) {
+        return StringUtils.startsWithIgnoreCase(request.getContentType(), "multipart/");
+    }
+
+    @Override
+    public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+        // Deadlines include the time the body takes to arrive
+        request.setAttribute(UploadDeadline.STARTED_AT, System.nanoTime());
+        // Which file is a video is known only while parsing, so the body is checked against the larger limit
+        long maxRequestSize = Math.max(properties.getMaxRequestSize().toBytes(),
+            videoProperties.getMaxRequestSize().toBytes());
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxRequestSize) {
+            throw new MaxUploadSizeExceededException(maxRequestSize);
+        }
+
+        UploadProgress progress = uploadProgressTracker.start(request.getHeader(UploadProgressTracker.HEADER),
+            request.getUserPrincipal() != null ? request.getUserPrincipal().getName() : null, contentLength);
+        if (progress != null) {
+            request.setAttribute(UploadProgress.ATTRIBUTE, progress);
+        }
+
+        try {
+            // Chunked bodies of unknown length reserve the largest photo request; the reservation grows for videos
+            SpoolReservation reservation = spoolStorage.reserve(
+                contentLength >= 0 ? contentLength : properties.getMaxRequestSize().toBytes());
+            try {
+                MultipartHttpServletRequest multipartRequest = parse(request, reservation, progress);
+                reservation.trim();
+                return multipartRequest;
+            } catch (RuntimeException e) {
+                reservation.close();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            if (progress != null) {
+                progress.finish(null, e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void cleanupMultipart(MultipartHttpServletRequest request) {
+        if (request instanceof SpooledMultipartRequest spooled && spooled.cleanedUp.compareAndSet(false, true)) {
+            spooled.reservation.close();
+        }
+    }
+
+    private MultipartHttpServletRequest parse(HttpServletRequest request, SpoolReservation reservation,
+                                              UploadProgress progress) {
+        Charset charset = request.getCharacterEncoding() != null
+            ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+        FileUpload upload = new FileUpload();
+        upload.setSizeMax(Math.max(properties.getMaxRequestSize().toBytes(),
+            videoProperties.getMaxRequestSize().toBytes()));
+        upload.setFileSizeMax(Math.max(properties.getMaxFileSize().toBytes(),
+            videoProperties.getMaxFileSize().toBytes()));
+        upload.setHeaderEncoding(charset.name());
+
+        MultiValueMap<String, MultipartFile> files = new LinkedMultiValueMap<>();
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        Map<String, String> contentTypes = new LinkedHashMap<>();
+        try {
+            FileItemIterator items = upload.getItemIterator(progress == null
+                ? new ServletRequestContext(request)
+                : new ServletRequestContext(request) {
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        return progress.countReceived(super.getInputStream());
+                    }
+                });
+            while (items.hasNext()) {
+                FileItemStream item = items.next();
+                try (InputStream in = item.openStream()) {
+                    if (item.isFormField()) {
+                        String value = readField(item.getFieldName(), in, charset);
+                        parameters.merge(item.getFieldName(), new String[]{value}, StringUtils::concatenateStringArrays);
+                        contentTypes.put(item.getFieldName(), item.getContentType());
+                    } else {
+                        files.add(item.getFieldName(), spool(item, in, reservation));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            SizeException sizeException = findSizeException(e);
+            if (sizeException != null) {
+                throw new MaxUploadSizeExceededException(sizeException.getPermittedSize(), e);
+            }
+            throw new MultipartException("Failed to parse multipart servlet request", e);
+        }
+        return new SpooledMultipartRequest(request, files, parameters, contentTypes, reservation);
+    }
+
+    /**
+     * Keeps small photos in memory, writes the rest to a spool file. Videos are always
+     * written to disk and are checked against the video size limit, photos against the photo one.
+     * With content sniffing the detected type replaces the declared one.
+     */
+    private MultipartFile spool(FileItemStream item, InputStream in, SpoolReservation reservation) throws IOException {
+        String contentType = item.getContentType();
+        if (properties.isContentSniffing()) {
+            byte[] signatureBytes = in.readNBytes(FileSignature.SNIFF_LENGTH);
+            // Empty files are rejected by the controllers with a clearer message
+            if (signatureBytes.length > 0) {
+                FileSignature signature = FileSignature.detect(signatureBytes);
+                if (signature == null) {
+                    throw new UnsupportedFileTypeException("Unsupported file type",
+                        "File '" + item.getName() + "' is not an image or video format accepted by Flickr");
+                }
+                contentType = signature.mimeType();
+            }
+            in = new SequenceInputStream(new ByteArrayInputStream(signatureBytes), in);
+        }
+
+        boolean video = videoFiles.isVideo(item.getName(), contentType);
+        long maxFileSize = video ? videoProperties.getMaxFileSize().toBytes() : properties.getMaxFileSize().toBytes();
+        long declaredSize = declaredSize(item);
+        if (declaredSize > maxFileSize) {
+            throw new MaxUploadSizeExceededException(maxFileSize);
+        }
+
+        byte[] head = new byte[0];
+        if (!video) {
+            int threshold = (int) Math.min(properties.getMemoryThreshold().toBytes(), Integer.MAX_VALUE - 8);
+            head = in.readNBytes(threshold);
+            if (head.length < threshold) {
+                return SpooledMultipartFile.inMemory(item.getFieldName(), item.getName(), contentType, head);
+            }
+        }
+
+        try (SpoolReservation.SpoolFileOutputStream out = reservation.createFile()) {
+            out.write(head);
+            long size = head.length + copy(in, out, maxFileSize - head.length, maxFileSize);
+            return SpooledMultipartFile.onDisk(item.getFieldName(), item.getName(), contentType,
+                size, out.getFile(), reservation);
+        }
+    }
+
+    /**
+     * Copies at most {@code limit} bytes, failing as soon as the file turns out to be larger.
+     */
+    private static long copy(InputStream in, OutputStream out, long limit, long maxFileSize) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long copied = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            copied += read;
+            if (copied > limit) {
+                throw new MaxUploadSizeExceededException(maxFileSize);
+            }
+            out.write(buffer, 0, read);
+        }
+        return copied;
+    }
+
+    /**
+     * @return size from the part's own Content-Length header, or -1 if it doesn't have one
+     */
+    private static long declaredSize(FileItemStream item) {
+        String contentLength = item.getHeaders() != null ? item.getHeaders().getHeader("Content-Length") : null;
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String readField(String name, InputStream in, Charset charset) throws IOException {
+        byte[] value = in.readNBytes(MAX_FIELD_SIZE + 1);
+        if (value.length > MAX_FIELD_SIZE) {
+            throw new IllegalArgumentException("Form field '" + name + "' is too large");
+        }
+        return new String(value, charset);
+    }
+
+    private static SizeException findSizeException(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SizeException sizeException) {
+                return sizeException;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parsed request holding the reservation its files are spooled into.
+     */
+    private static final class SpooledMultipartRequest extends DefaultMultipartHttpServletRequest {
+
+        private final SpoolReservation reservation;
+        // The request's hold on the reservation is given up once, however many dispatches end
+        private final AtomicBoolean cleanedUp = new AtomicBoolean();
+
+        private SpooledMultipartRequest(HttpServletRequest request, MultiValueMap<String, MultipartFile> files,
+                                        Map<String, String[]> parameters, Map<String, String> contentTypes,
+                                        SpoolReservation reservation) {
+            super(request, files, parameters, contentTypes);
+            this.reservation = reservation;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package pl.czerwiu.flickr.upldr.state;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared state kept in process memory.
+ * Default backend for a single instance; state is not visible to other replicas.
+ */
+public class InMemorySharedStateStore implements SharedStateStore {
+
+    private final Map<String, Entry> albums = new ConcurrentHashMap<>();
+    private final Map<String, Entry> leases = new ConcurrentHashMap<>();
+    private final Map<String, Entry> hashes = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<String> getAlbumId(String albumKey) {
+        return get(albums, albumKey);
+    }
+
+    @Override
+    public void putAlbumId(String albumKey, String albumId, Duration ttl) {
+        albums.put(albumKey, Entry.of(albumId, ttl));
+    }
+
+    @Override
+    public void putAlbumIdIfAbsent(String albumKey, String albumId, Duration ttl) {
+        albums.compute(albumKey, (key, existing) ->
+            existing != null && !existing.isExpired() ? existing : Entry.of(albumId, ttl));
+    }
+
+    @Override
+    public void putAlbumIdsIfAbsent(Map<String, String> albumIds, Duration ttl) {
+        albumIds.forEach((albumKey, albumId) -> putAlbumIdIfAbsent(albumKey, albumId, ttl));
+    }
+
+    @Override
+    public void removeAlbumId(String albumKey, String albumId) {
+        albums.computeIfPresent(albumKey, (key, existing) -> albumId.equals(existing.value()) ? null : existing);
+    }
+
+    @Override
+    public Optional<String> tryAcquireLease(String name, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        Entry lease = leases.compute(name, (key, existing) ->
+            existing != null && !existing.isExpired() ? existing : Entry.of(token, ttl));
+        return token.equals(lease.value()) ? Optional.of(token) : Optional.empty();
+    }
+
+    @Override
+    public void releaseLease(String name, String token) {
+        leases.computeIfPresent(name, (key, existing) -> token.equals(existing.value()) ? null : existing);
+    }
+
+    @Override
+    public Optional<String> getPhotoIdByHash(String contentHash) {
+        return get(hashes, contentHash);
+    }
+
+    @Override
+    public void putPhotoHash(String contentHash, String photoId, Duration ttl) {
+        hashes.put(contentHash, Entry.of(photoId, ttl));
+    }
+
+    private Optional<String> get(Map<String, Entry> map, String key) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired()) {
+            map.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    private record Entry(String value, long expiresAtNanos) {
+
+        static Entry of(String value, Duration ttl) {
+            return new Entry(value, System.nanoTime() + ttl.toNanos());
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package pl.czerwiu.flickr.upldr.state;
+
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Shared state kept in Redis (or any Redis-compatible server).
+ * Lets several replicas share the album catalog, serialize album creation
+ * and detect duplicates uploaded through another replica.
+ */
+public class RedisSharedStateStore implements SharedStateStore {
+
+    /**
+     * Deletes the key only if it still holds the given value, e.g. a lease still owned by the caller.
+     */
+    private static final RedisScript<Long> COMPARE_AND_DELETE = RedisScript.of(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+
+    public RedisSharedStateStore(StringRedisTemplate redisTemplate, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public Optional<String> getAlbumId(String albumKey) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(albumKey(albumKey)));
+    }
+
+    @Override
+    public void putAlbumId(String albumKey, String albumId, Duration ttl) {
+        redisTemplate.opsForValue().set(albumKey(albumKey), albumId, ttl);
+    }
+
+    @Override
+    public void putAlbumIdIfAbsent(String albumKey, String albumId, Duration ttl) {
+        redisTemplate.opsForValue().setIfAbsent(albumKey(albumKey), albumId, ttl);
+    }
+
+    @Override
+    public void putAlbumIdsIfAbsent(Map<String, String> albumIds, Duration ttl) {
+        if (albumIds.isEmpty()) {
+            return;
+        }
+        // One pipelined SET NX per album: a whole catalog refresh costs a single round-trip
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection strings = (StringRedisConnection) connection;
+            albumIds.forEach((albumKey, albumId) ->
+                strings.set(albumKey(albumKey), albumId, Expiration.from(ttl), SetOption.ifAbsent()));
+            return null;
+        });
+    }
+
+    @Override
+    public void removeAlbumId(String albumKey, String albumId) {
+        redisTemplate.execute(COMPARE_AND_DELETE, List.of(albumKey(albumKey)), albumId);
+    }
+
+    @Override
+    public Optional<String> tryAcquireLease(String name, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey(name), token, ttl);
+        return Boolean.TRUE.equals(acquired) ? Optional.of(token) : Optional.empty();
+    }
+
+    @Override
+    public void releaseLease(String name, String token) {
+        redisTemplate.execute(COMPARE_AND_DELETE, List.of(leaseKey(name)), token);
+    }
+
+    @Override
+    public Optional<String> getPhotoIdByHash(String contentHash) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(hashKey(contentHash)));
+    }
+
+    @Override
+    public void putPhotoHash(String contentHash, String photoId, Duration ttl) {
+        redisTemplate.opsForValue().set(hashKey(contentHash), photoId, ttl);
+    }
+
+    private String albumKey(String albumKey) {
+        return keyPrefix + "album:" + albumKey;
+    }
+
+    private String leaseKey(String name) {
+        return keyPrefix + "lease:" + name;
+    }
+
+    private String hashKey(String contentHash) {
+        return keyPrefix + "hash:" + contentHash;
+    }
+}
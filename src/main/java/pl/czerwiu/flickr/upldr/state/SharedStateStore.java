@@ -0,0 +1,66 @@
+package pl.czerwiu.flickr.upldr.state;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * State shared between all replicas of the service.
+ * Holds the album name to album ID catalog, album creation leases
+ * and content hashes of uploaded photos.
+ */
+public interface SharedStateStore {
+
+    /**
+     * @param albumKey normalized album name
+     * @return cached album ID (photoset ID) if known
+     */
+    Optional<String> getAlbumId(String albumKey);
+
+    /**
+     * Caches album ID for the given album, replacing any existing mapping.
+     */
+    void putAlbumId(String albumKey, String albumId, Duration ttl);
+
+    /**
+     * Caches album ID only if the album is not mapped yet.
+     */
+    void putAlbumIdIfAbsent(String albumKey, String albumId, Duration ttl);
+
+    /**
+     * Caches album IDs of all albums not mapped yet, in a single round-trip where the backend allows it.
+     *
+     * @param albumIds album IDs by normalized album name
+     */
+    void putAlbumIdsIfAbsent(Map<String, String> albumIds, Duration ttl);
+
+    /**
+     * Removes album mapping only if the album is still mapped to the given (stale) album ID.
+     */
+    void removeAlbumId(String albumKey, String albumId);
+
+    /**
+     * Tries to acquire an exclusive, expiring lease.
+     *
+     * @param name lease name
+     * @param ttl  lease lifetime, after which it expires even if not released
+     * @return owner token if acquired, empty if the lease is held by someone else
+     */
+    Optional<String> tryAcquireLease(String name, Duration ttl);
+
+    /**
+     * Releases lease if it is still owned by the given token.
+     */
+    void releaseLease(String name, String token);
+
+    /**
+     * @param contentHash hex encoded SHA-256 of photo content
+     * @return ID of a photo previously uploaded with the same content
+     */
+    Optional<String> getPhotoIdByHash(String contentHash);
+
+    /**
+     * Remembers photo ID for the given content hash.
+     */
+    void putPhotoHash(String contentHash, String photoId, Duration ttl);
+}
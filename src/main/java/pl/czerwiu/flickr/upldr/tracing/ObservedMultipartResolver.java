@@ -0,0 +1,49 @@
+package pl.czerwiu.flickr.upldr.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartResolver;
+import pl.czerwiu.flickr.upldr.jfr.MultipartParseEvent;
+
+/**
+ * Multipart resolver decorator that records multipart parsing as an observation and a JFR event.
+ * Parsing (and spooling parts to disk) happens before the controller method is called,
+ * so it would otherwise be invisible in upload traces.
+ */
+public class ObservedMultipartResolver implements MultipartResolver {
+
+    private final MultipartResolver delegate;
+    private final ObservationRegistry observationRegistry;
+
+    public ObservedMultipartResolver(MultipartResolver delegate, ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public boolean isMultipart(HttpServletRequest request) {
+        return delegate.isMultipart(request);
+    }
+
+    @Override
+    public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+        MultipartParseEvent event = new MultipartParseEvent();
+        event.begin();
+        try {
+            return Observation.createNotStarted(UploadObservations.MULTIPART_PARSE, observationRegistry)
+                .highCardinalityKeyValue(UploadObservations.KEY_BYTES, String.valueOf(request.getContentLengthLong()))
+                .observe(() -> delegate.resolveMultipart(request));
+        } finally {
+            event.bytes = request.getContentLengthLong();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void cleanupMultipart(MultipartHttpServletRequest request) {
+        delegate.cleanupMultipart(request);
+    }
+}
@@ -0,0 +1,36 @@
+package pl.czerwiu.flickr.upldr.tracing;
+
+/**
+ * Names and attribute keys of observations (spans) recorded along the upload workflow.
+ * Album names, photo IDs and byte counts are high-cardinality (span only, not metric tags).
+ */
+public final class UploadObservations {
+
+    /** Whole /upload request handled by UploadController. */
+    public static final String UPLOAD_REQUEST = "upload.request";
+
+    /** Multipart body parsing and spooling before the controller is invoked. */
+    public static final String MULTIPART_PARSE = "upload.multipart.parse";
+
+    /** Flickr upload including all retry attempts. */
+    public static final String FLICKR_UPLOAD = "flickr.upload";
+
+    /** Single Flickr upload attempt. */
+    public static final String FLICKR_UPLOAD_ATTEMPT = "flickr.upload.attempt";
+
+    /** Album lookup or creation. */
+    public static final String ALBUM_ENSURE = "flickr.album.ensure";
+
+    /** Adding photo to album. */
+    public static final String ALBUM_ADD_PHOTO = "flickr.album.add-photo";
+
+    public static final String KEY_ALBUM = "album";
+    public static final String KEY_ALBUM_ID = "album.id";
+    public static final String KEY_PHOTO_ID = "photo.id";
+    public static final String KEY_TICKET_ID = "ticket.id";
+    public static final String KEY_BYTES = "bytes";
+    public static final String KEY_ATTEMPT = "attempt";
+
+    private UploadObservations() {
+    }
+}
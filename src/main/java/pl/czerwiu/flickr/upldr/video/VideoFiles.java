@@ -0,0 +1,45 @@
+package pl.czerwiu.flickr.upldr.video;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import pl.czerwiu.flickr.upldr.config.VideoProperties;
+
+import java.util.Locale;
+
+/**
+ * Tells videos from photos by content type or file extension, so videos can take the
+ * video upload path (own size limits, workers, Flickr limit and bandwidth pool).
+ */
+@Component
+public class VideoFiles {
+
+    private final VideoProperties properties;
+
+    public VideoFiles(VideoProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isVideo(MultipartFile file) {
+        return isVideo(file.getOriginalFilename(), file.getContentType());
+    }
+
+    /**
+     * @param filename    original file name, may be null
+     * @param contentType declared content type, may be null
+     */
+    public boolean isVideo(String filename, String contentType) {
+        // A specific content type wins over the extension (it's the detected one for spooled uploads)
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        if (type.startsWith("video/")) {
+            return true;
+        }
+        if (type.startsWith("image/")) {
+            return false;
+        }
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return false;
+        }
+        String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return properties.getExtensions().stream().anyMatch(extension::equalsIgnoreCase);
+    }
+}
@@ -0,0 +1,100 @@
+package pl.czerwiu.flickr.upldr.warmup;
+
+import com.flickr4java.flickr.Flickr;
+import com.flickr4java.flickr.FlickrException;
+import com.flickr4java.flickr.photosets.Photoset;
+import com.flickr4java.flickr.photosets.Photosets;
+import com.flickr4java.flickr.photosets.PhotosetsInterface;
+import com.flickr4java.flickr.uploader.UploadMetaData;
+import com.flickr4java.flickr.uploader.Uploader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Flickr client, used to warm up the upload path.
+ * Uploads read the whole stream and return generated photo IDs, albums are kept in memory.
+ * Only the uploader and the photosets interface are replaced, at the API level: no request
+ * is built, signed or sent, so request signing and the transport aren't warmed up.
+ */
+class StubFlickr extends Flickr {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<String, Photoset> photosets = new ConcurrentHashMap<>();
+    private final Uploader uploader;
+    private final PhotosetsInterface photosetsInterface;
+
+    StubFlickr(Flickr flickrClient) {
+        super(flickrClient.getApiKey(), flickrClient.getSharedSecret(), flickrClient.getTransport());
+        setAuth(flickrClient.getAuth());
+        this.uploader = new StubUploader(flickrClient.getApiKey(), flickrClient.getSharedSecret());
+        this.photosetsInterface = new StubPhotosetsInterface(
+            flickrClient.getApiKey(), flickrClient.getSharedSecret(), flickrClient);
+    }
+
+    @Override
+    public Uploader getUploader() {
+        return uploader;
+    }
+
+    @Override
+    public PhotosetsInterface getPhotosetsInterface() {
+        return photosetsInterface;
+    }
+
+    private String nextId() {
+        return "warm-up-" + ids.incrementAndGet();
+    }
+
+    private final class StubUploader extends Uploader {
+
+        private StubUploader(String apiKey, String sharedSecret) {
+            super(apiKey, sharedSecret);
+        }
+
+        @Override
+        public String upload(InputStream in, UploadMetaData metaData) throws FlickrException {
+            try {
+                in.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new FlickrException(e);
+            }
+            return nextId();
+        }
+    }
+
+    private final class StubPhotosetsInterface extends PhotosetsInterface {
+
+        private StubPhotosetsInterface(String apiKey, String sharedSecret, Flickr flickrClient) {
+            super(apiKey, sharedSecret, flickrClient.getTransport());
+        }
+
+        @Override
+        public Photosets getList(String userId) {
+            Photosets list = new Photosets();
+            list.setPhotosets(new ArrayList<>(photosets.values()));
+            return list;
+        }
+
+        @Override
+        public Photoset create(String title, String description, String primaryPhotoId) {
+            Photoset photoset = new Photoset();
+            photoset.setId(nextId());
+            photoset.setTitle(title);
+            photosets.put(photoset.getId(), photoset);
+            return photoset;
+        }
+
+        @Override
+        public void addPhoto(String photosetId, String photoId) throws FlickrException {
+            if (!photosets.containsKey(photosetId)) {
+                throw new FlickrException("1", "Photoset not found");
+            }
+        }
+    }
+}
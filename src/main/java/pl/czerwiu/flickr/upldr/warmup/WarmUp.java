@@ -0,0 +1,242 @@
+package pl.czerwiu.flickr.upldr.warmup;
+
+import com.flickr4java.flickr.Flickr;
+import com.flickr4java.flickr.RequestContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pl.czerwiu.flickr.upldr.bandwidth.BandwidthShaper;
+import pl.czerwiu.flickr.upldr.config.AsyncUploadProperties;
+import pl.czerwiu.flickr.upldr.config.BandwidthProperties;
+import pl.czerwiu.flickr.upldr.config.WarmUpProperties;
+import pl.czerwiu.flickr.upldr.drain.InFlightUploads;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.flickr.FlickrConcurrencyLimits;
+import pl.czerwiu.flickr.upldr.health.UploadErrorRate;
+import pl.czerwiu.flickr.upldr.importer.PathMultipartFile;
+import pl.czerwiu.flickr.upldr.progress.UploadProgressTracker;
+import pl.czerwiu.flickr.upldr.service.AlbumCacheService;
+import pl.czerwiu.flickr.upldr.service.AlbumService;
+import pl.czerwiu.flickr.upldr.service.FlickrService;
+import pl.czerwiu.flickr.upldr.service.TicketPoller;
+import pl.czerwiu.flickr.upldr.service.UploadService;
+import pl.czerwiu.flickr.upldr.state.InMemorySharedStateStore;
+import pl.czerwiu.flickr.upldr.state.SharedStateStore;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Warms the instance up before it reports readiness (Spring Boot switches readiness to
+ * ACCEPTING_TRAFFIC only after ApplicationReadyEvent listeners have returned):
+ * opens connections to the Flickr endpoints, checks the credentials, loads the album catalog
+ * and runs uploads through the upload service against an in-process Flickr stub, so the JIT
+ * compiles it before the first real request. Failed stages are logged and skipped.
+ */
+@Slf4j
+@Component
+public class WarmUp {
+
+    private static final int WARM_UP_ALBUMS = 16;
+
+    private final WarmUpProperties properties;
+    private final Flickr flickrClient;
+    private final AlbumService albumService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ConfigurableApplicationContext applicationContext;
+
+    private volatile double firstIterationMillis;
+    private volatile double lastIterationsMillis;
+
+    public WarmUp(WarmUpProperties properties,
+                  Flickr flickrClient,
+                  AlbumService albumService,
+                  ObjectMapper objectMapper,
+                  MeterRegistry meterRegistry,
+                  ConfigurableApplicationContext applicationContext) {
+        this.properties = properties;
+        this.flickrClient = flickrClient;
+        this.albumService = albumService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.applicationContext = applicationContext;
+
+        Gauge.builder("upload.warmup.hotpath.first", this, warmUp -> warmUp.firstIterationMillis)
+            .description("Duration of the first warm-up upload through the upload path")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge.builder("upload.warmup.hotpath.last", this, warmUp -> warmUp.lastIterationsMillis)
+            .description("Average duration of the last 10% of warm-up uploads")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        log.info("Warming up before accepting traffic");
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeout().toNanos();
+
+        stage("preconnect", this::preconnect);
+        stage("auth", this::authenticate);
+        stage("catalog", this::preloadCatalog);
+        stage("hot-path", () -> exerciseUploadPath(deadline));
+
+        long duration = System.nanoTime() - start;
+        meterRegistry.timer("upload.warmup.total").record(duration, TimeUnit.NANOSECONDS);
+        log.atInfo()
+            .setMessage("Warm-up finished")
+            .addKeyValue("durationMs", TimeUnit.NANOSECONDS.toMillis(duration))
+            .addKeyValue("firstUploadMs", firstIterationMillis)
+            .addKeyValue("lastUploadsMs", lastIterationsMillis)
+            .log();
+    }
+
+    private void stage(String name, WarmUpStage stage) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "ok";
+        try {
+            stage.run();
+        } catch (Exception e) {
+            result = "failed";
+            log.warn("Warm-up stage failed: stage={}, error={}", name, e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("upload.warmup", "stage", name, "result", result));
+        }
+    }
+
+    /**
+     * Opens connections to the Flickr endpoints; they stay in the JDK keep-alive cache
+     * (and TLS sessions in the session cache) for the client's first calls.
+     */
+    private void preconnect() {
+        int timeout = (int) properties.getConnectTimeout().toMillis();
+        for (String url : properties.getPreconnectUrls()) {
+            long start = System.nanoTime();
+            try {
+                HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+                connection.setRequestMethod("HEAD");
+                connection.setConnectTimeout(timeout);
+                connection.setReadTimeout(timeout);
+                int status = connection.getResponseCode();
+                log.debug("Preconnected: url={}, status={}, durationMs={}",
+                    url, status, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                log.warn("Failed to preconnect: url={}, error={}", url, e.getMessage());
+            }
+        }
+    }
+
+    private void authenticate() throws Exception {
+        RequestContext.getRequestContext().setAuth(flickrClient.getAuth());
+        flickrClient.getTestInterface().login();
+    }
+
+    private void preloadCatalog() {
+        int albums = albumService.preloadCatalog();
+        log.info("Album catalog preloaded: albums={}", albums);
+    }
+
+    /**
+     * Runs uploads through {@link UploadService} (Flickr upload, album lookup and creation, adding
+     * to album) against the Flickr stub, and serializes their responses. The services come from
+     * a scratch context on top of the application's: they are wired like the application's own,
+     * with configuration from the parent, but their own stub, limiters, shared state and metrics,
+     * so warm-up doesn't touch the application's limits, catalog or metrics; the compiled code is shared.
+     * The application's beans are reached through the bean factory only, not as the parent context:
+     * events of a child context (refreshed, closed) reach its parent's listeners, and closing the scratch
+     * context would stop the application's meter registries.
+     */
+    private void exerciseUploadPath(long deadline) throws Exception {
+        try (AnnotationConfigApplicationContext scratch = new AnnotationConfigApplicationContext()) {
+            scratch.setEnvironment(applicationContext.getEnvironment());
+            scratch.getBeanFactory().setParentBeanFactory(applicationContext.getBeanFactory());
+            // Primary, so the scratch beans win over the application's beans of the same type
+            register(scratch, Flickr.class, () -> new StubFlickr(flickrClient));
+            register(scratch, MeterRegistry.class, SimpleMeterRegistry::new);
+            register(scratch, ObservationRegistry.class, () -> ObservationRegistry.NOOP);
+            register(scratch, SharedStateStore.class, InMemorySharedStateStore::new);
+            // Unlimited bandwidth, and synchronous uploads: the stub doesn't resolve tickets
+            register(scratch, BandwidthProperties.class, BandwidthProperties::new);
+            register(scratch, AsyncUploadProperties.class, AsyncUploadProperties::new);
+            for (Class<?> service : new Class<?>[] {FlickrConcurrencyLimits.class, BandwidthShaper.class,
+                    UploadErrorRate.class, UploadProgressTracker.class, InFlightUploads.class, TicketPoller.class,
+                    FlickrService.class, AlbumService.class, AlbumCacheService.class, UploadService.class}) {
+                scratch.registerBean(service, definition -> definition.setPrimary(true));
+            }
+            scratch.refresh();
+            UploadService uploadService = scratch.getBean(UploadService.class);
+
+            byte[] content = new byte[(int) properties.getFileSize().toBytes()];
+            new Random(0).nextBytes(content);
+            Path photo = Files.createTempFile("warm-up-", ".jpg");
+            try {
+                Files.write(photo, content);
+                PathMultipartFile file = new PathMultipartFile(photo);
+
+                long[] durations = new long[properties.getIterations()];
+                int completed = 0;
+                for (int i = 0; i < durations.length && System.nanoTime() - deadline < 0; i++) {
+                    long start = System.nanoTime();
+                    UploadRequest request = UploadRequest.builder()
+                        .album("Warm-up " + i % WARM_UP_ALBUMS)
+                        .title("Warm-up " + i)
+                        .tags("warm-up,jit")
+                        .user("warm-up")
+                        .build();
+                    objectMapper.writeValueAsString(uploadService.upload(file, request));
+
+                    durations[i] = System.nanoTime() - start;
+                    completed++;
+                }
+                recordEffect(durations, completed);
+            } finally {
+                Files.deleteIfExists(photo);
+            }
+        }
+    }
+
+    private static <T> void register(AnnotationConfigApplicationContext context, Class<T> type, Supplier<T> supplier) {
+        context.registerBean(type, supplier, definition -> definition.setPrimary(true));
+    }
+
+    /**
+     * Compares the first upload with the last 10% to show how much faster the compiled path is.
+     */
+    private void recordEffect(long[] durations, int completed) {
+        if (completed == 0) {
+            return;
+        }
+        int tail = Math.max(1, completed / 10);
+        long tailNanos = 0;
+        for (int i = completed - tail; i < completed; i++) {
+            tailNanos += durations[i];
+        }
+        firstIterationMillis = durations[0] / 1e6;
+        lastIterationsMillis = tailNanos / 1e6 / tail;
+    }
+
+    @FunctionalInterface
+    private interface WarmUpStage {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,176 @@
+package pl.czerwiu.flickr.upldr.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+import pl.czerwiu.flickr.upldr.config.SharedStateProperties;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.state.SharedStateStore;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import tools.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Album management of the reactive stack, with the same rules as AlbumService:
+ * album IDs are resolved from the shared catalog, and albums are looked up and created
+ * by the holder of the album lease only, so concurrent requests and replicas (of either stack)
+ * never create duplicate albums. Requests for the same album on this instance share one resolution.
+ * Shared state calls may block (Redis), so they run on the bounded elastic scheduler.
+ */
+@Slf4j
+@Service
+public class ReactiveAlbumService {
+
+    private static final Duration LEASE_POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final ReactiveFlickrClient flickrClient;
+    private final FlickrProperties flickrProperties;
+    private final SharedStateStore sharedStateStore;
+    private final SharedStateProperties sharedStateProperties;
+    private final Map<String, Mono<String>> resolutions = new ConcurrentHashMap<>();
+
+    public ReactiveAlbumService(ReactiveFlickrClient flickrClient,
+                                FlickrProperties flickrProperties,
+                                SharedStateStore sharedStateStore,
+                                SharedStateProperties sharedStateProperties) {
+        this.flickrClient = flickrClient;
+        this.flickrProperties = flickrProperties;
+        this.sharedStateStore = sharedStateStore;
+        this.sharedStateProperties = sharedStateProperties;
+    }
+
+    /**
+     * Ensures album exists, creates it if necessary.
+     *
+     * @param albumName name of the album
+     * @param primaryPhotoId photo ID to use as primary photo if creating new album
+     * @return album ID (photoset ID)
+     */
+    public Mono<String> ensureAlbum(String albumName, String primaryPhotoId) {
+        String albumKey = albumKey(albumName);
+        return lookup(() -> sharedStateStore.getAlbumId(albumKey))
+            .doOnNext(albumId -> log.debug("Album resolved from catalog: album={}, albumId={}", albumName, albumId))
+            .switchIfEmpty(Mono.defer(() -> resolutions.computeIfAbsent(albumKey, key -> {
+                long waitDeadline = System.nanoTime() + sharedStateProperties.getLeaseWait().toNanos();
+                return resolveUnderLease(albumName, key, primaryPhotoId, waitDeadline)
+                    .doFinally(signal -> resolutions.remove(key))
+                    .cache();
+            })));
+    }
+
+    /**
+     * Adds photo to existing album.
+     *
+     * @param photoId photo ID to add
+     * @param albumId album ID (photoset ID) to add photo to
+     */
+    public Mono<Void> addPhotoToAlbum(String photoId, String albumId) {
+        return flickrClient.call("flickr.photosets.addPhoto", Map.of("photoset_id", albumId, "photo_id", photoId))
+            .doOnNext(response -> log.atInfo()
+                .setMessage("Photo added to album successfully")
+                .addKeyValue("photoId", photoId)
+                .addKeyValue("albumId", albumId)
+                .log())
+            .onErrorMap(FlickrUploadException.class,
+                e -> new FlickrUploadException("Failed to add photo to album", e.getDetails(), e))
+            .then();
+    }
+
+    /**
+     * Single-flight across replicas: only the lease holder looks up or creates the album,
+     * others poll the catalog until it's resolved or the lease is free.
+     */
+    private Mono<String> resolveUnderLease(String albumName, String albumKey, String primaryPhotoId, long waitDeadline) {
+        String leaseName = "album:" + albumKey;
+        return lookup(() -> sharedStateStore.tryAcquireLease(leaseName, sharedStateProperties.getLeaseTtl()))
+            .flatMap(token -> lookup(() -> sharedStateStore.getAlbumId(albumKey))
+                // Album may have been resolved by the previous lease holder
+                .switchIfEmpty(Mono.defer(() -> findOrCreateAlbum(albumName, albumKey, primaryPhotoId)))
+                .doFinally(signal -> Schedulers.boundedElastic().schedule(
+                    () -> sharedStateStore.releaseLease(leaseName, token))))
+            .switchIfEmpty(Mono.defer(() -> {
+                if (System.nanoTime() - waitDeadline > 0) {
+                    return Mono.error(new FlickrUploadException(
+                        "Timed out waiting for album creation: " + albumName,
+                        "Album is being created by another request"));
+                }
+                return Mono.delay(LEASE_POLL_INTERVAL)
+                    .then(lookup(() -> sharedStateStore.getAlbumId(albumKey)))
+                    .switchIfEmpty(Mono.defer(() -> resolveUnderLease(albumName, albumKey, primaryPhotoId, waitDeadline)));
+            }));
+    }
+
+    /**
+     * Looks album up on Flickr and creates it if missing, refreshing the catalog on the way.
+     * Must be called while holding the album creation lease.
+     */
+    private Mono<String> findOrCreateAlbum(String albumName, String albumKey, String primaryPhotoId) {
+        Duration albumTtl = sharedStateProperties.getAlbumTtl();
+        return flickrClient.call("flickr.photosets.getList", Map.of("user_id", flickrProperties.getUser().getNsid()))
+            .flatMap(response -> {
+                Map<String, String> catalog = new LinkedHashMap<>();
+                String found = null;
+                for (JsonNode photoset : response.path("photosets").path("photoset")) {
+                    String id = photoset.path("id").asString();
+                    String title = photoset.path("title").path("_content").asString("");
+                    catalog.putIfAbsent(albumKey(title), id);
+                    if (found == null && title.equalsIgnoreCase(albumName)) {
+                        log.atInfo()
+                            .setMessage("Album found")
+                            .addKeyValue("albumId", id)
+                            .addKeyValue("album", title)
+                            .log();
+                        found = id;
+                    }
+                }
+
+                Mono<String> albumId = found != null ? Mono.just(found) : createAlbum(albumName, primaryPhotoId);
+                return update(() -> sharedStateStore.putAlbumIdsIfAbsent(catalog, albumTtl))
+                    .then(albumId);
+            })
+            .flatMap(albumId -> update(() -> sharedStateStore.putAlbumId(albumKey, albumId, albumTtl)).thenReturn(albumId))
+            .onErrorMap(FlickrUploadException.class,
+                e -> new FlickrUploadException("Failed to ensure album exists: " + albumName, e.getDetails(), e));
+    }
+
+    private Mono<String> createAlbum(String albumName, String primaryPhotoId) {
+        log.info("Album not found, creating new album: {}", albumName);
+        return flickrClient.call("flickr.photosets.create", Map.of(
+                "title", albumName,
+                "description", "Created by flickr-upldr",
+                "primary_photo_id", primaryPhotoId))
+            .map(response -> response.path("photoset").path("id").asString())
+            .doOnNext(albumId -> log.atInfo()
+                .setMessage("Album created successfully")
+                .addKeyValue("albumId", albumId)
+                .addKeyValue("album", albumName)
+                .log());
+    }
+
+    private static <T> Mono<T> lookup(Callable<Optional<T>> call) {
+        return Mono.fromCallable(call)
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(Mono::justOrEmpty);
+    }
+
+    private static Mono<Void> update(Runnable call) {
+        return Mono.fromRunnable(call)
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    /**
+     * Normalizes album name into catalog key (album names are case-insensitive).
+     */
+    private static String albumKey(String albumName) {
+        return albumName.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,183 @@
+package pl.czerwiu.flickr.upldr.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.exception.DuplicatePhotoException;
+import pl.czerwiu.flickr.upldr.exception.FlickrRejectedException;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exception handler of the reactive stack.
+ * Maps exceptions to the same statuses and ErrorResponse bodies as the servlet GlobalExceptionHandler.
+ */
+@Slf4j
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    /**
+     * Handles DuplicatePhotoException (duplicate photo detected by Flickr).
+     */
+    @ExceptionHandler(DuplicatePhotoException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicatePhotoException(
+            DuplicatePhotoException ex, ServerWebExchange exchange) {
+
+        log.warn("Duplicate photo detected: {}", ex.getMessage());
+
+        return ResponseEntity
+            .status(HttpStatus.CONFLICT)
+            .body(errorResponse(HttpStatus.CONFLICT, ex.getMessage(), ex.getDetails(), exchange));
+    }
+
+    /**
+     * Handles FlickrRejectedException (Flickr refused the upload: invalid file, upload limit or other error).
+     */
+    @ExceptionHandler(FlickrRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleFlickrRejected(
+            FlickrRejectedException ex, ServerWebExchange exchange) {
+
+        HttpStatus status = switch (ex.getCategory()) {
+            case CLIENT_ERROR -> HttpStatus.BAD_REQUEST;
+            case QUOTA -> HttpStatus.TOO_MANY_REQUESTS;
+            default -> HttpStatus.BAD_GATEWAY;
+        };
+        log.warn("Flickr rejected the request: category={}, error={}", ex.getCategory().tag(), ex.getDetails());
+
+        return ResponseEntity
+            .status(status)
+            .body(errorResponse(status, ex.getMessage(), ex.getDetails(), exchange));
+    }
+
+    /**
+     * Handles FlickrUploadException (photo upload and album failures).
+     */
+    @ExceptionHandler(FlickrUploadException.class)
+    public ResponseEntity<ErrorResponse> handleFlickrUploadException(
+            FlickrUploadException ex, ServerWebExchange exchange) {
+
+        log.error("Flickr upload error: {}", ex.getMessage(), ex);
+
+        return ResponseEntity
+            .status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(errorResponse(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to upload photo: " + ex.getMessage(), ex.getDetails(), exchange));
+    }
+
+    /**
+     * Handles ServiceBusyException (concurrent upload limit reached).
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusy(
+            ServiceBusyException ex, ServerWebExchange exchange) {
+
+        log.warn("Request rejected, service busy: {}", ex.getDetails());
+
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, ex.retryAfterHeader())
+            .body(errorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex.getDetails(), exchange));
+    }
+
+    /**
+     * Handles IllegalArgumentException (validation errors).
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(
+            IllegalArgumentException ex, ServerWebExchange exchange) {
+
+        log.warn("Validation error: {}", ex.getMessage());
+
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(errorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), null, exchange));
+    }
+
+    /**
+     * Handles MaxUploadSizeExceededException (file too large).
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ErrorResponse> handleMaxUploadSizeExceeded(
+            MaxUploadSizeExceededException ex, ServerWebExchange exchange) {
+
+        log.warn("File size exceeded: {}", ex.getMessage());
+
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(errorResponse(HttpStatus.BAD_REQUEST,
+                "File size exceeds maximum allowed size (200MB)", ex.getMessage(), exchange));
+    }
+
+    /**
+     * Handles ServerWebInputException (malformed multipart body or request parameters).
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleServerWebInput(
+            ServerWebInputException ex, ServerWebExchange exchange) {
+
+        log.warn("Invalid request: {}", ex.getReason());
+
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(errorResponse(HttpStatus.BAD_REQUEST, ex.getReason(), null, exchange));
+    }
+
+    /**
+     * Handles other ResponseStatusExceptions (unknown path, unsupported media type), keeping their status.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatus(
+            ResponseStatusException ex, ServerWebExchange exchange) {
+
+        log.warn("Request failed: status={}, reason={}", ex.getStatusCode().value(), ex.getReason());
+
+        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(ex.getStatusCode().value())
+            .error(status != null ? status.getReasonPhrase() : null)
+            .message(ex.getReason())
+            .path(exchange.getRequest().getPath().value())
+            .build();
+
+        return ResponseEntity
+            .status(ex.getStatusCode())
+            .body(error);
+    }
+
+    /**
+     * Handles all other unexpected exceptions.
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGenericException(
+            Exception ex, ServerWebExchange exchange) {
+
+        log.error("Unexpected error: {}", ex.getMessage(), ex);
+
+        return ResponseEntity
+            .status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred", null, exchange));
+    }
+
+    private static ErrorResponse errorResponse(HttpStatus status, String message, String details,
+                                               ServerWebExchange exchange) {
+        return ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(status.value())
+            .error(status.getReasonPhrase())
+            .message(message)
+            .details(details)
+            .path(exchange.getRequest().getPath().value())
+            .build();
+    }
+}
@@ -0,0 +1,213 @@
+package pl.czerwiu.flickr.upldr.reactive;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.exception.DuplicatePhotoException;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrErrorCodes;
+import pl.czerwiu.flickr.upldr.exception.FlickrRejectedException;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploaderException;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+import pl.czerwiu.flickr.upldr.flickr.FlickrOAuthSigner;
+import pl.czerwiu.flickr.upldr.flickr.FlickrTags;
+import pl.czerwiu.flickr.upldr.flickr.FlickrUploadResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import tools.jackson.databind.JsonNode;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking Flickr client of the reactive stack.
+ * Photos are streamed to the upload endpoint as they arrive from the client, without buffering them;
+ * the Flickr write is backpressured by the socket, so the request body is read no faster than Flickr accepts it.
+ * API calls use the JSON response format.
+ */
+@Slf4j
+@Component
+public class ReactiveFlickrClient {
+
+    private final WebClient webClient;
+    private final FlickrOAuthSigner signer;
+    private final FlickrProperties flickrProperties;
+    private final ReactiveUploadProperties properties;
+    private final AtomicInteger uploadsInFlight = new AtomicInteger();
+
+    public ReactiveFlickrClient(WebClient.Builder webClientBuilder,
+                                FlickrProperties flickrProperties,
+                                ReactiveUploadProperties properties) {
+        HttpClient httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis());
+        this.webClient = webClientBuilder
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+        this.signer = new FlickrOAuthSigner(flickrProperties);
+        this.flickrProperties = flickrProperties;
+        this.properties = properties;
+    }
+
+    /**
+     * Streams photo content to Flickr.
+     *
+     * @param content     photo content, consumed once
+     * @param filename    original filename
+     * @param contentType content type of the photo
+     * @param request     upload request with metadata
+     * @return Flickr photo ID
+     */
+    public Mono<String> upload(Flux<DataBuffer> content, String filename, MediaType contentType, UploadRequest request) {
+        return Mono.defer(() -> {
+            if (uploadsInFlight.incrementAndGet() > properties.getMaxConcurrentUploads()) {
+                uploadsInFlight.decrementAndGet();
+                return Mono.error(new ServiceBusyException("Too many concurrent uploads",
+                    "Limit of " + properties.getMaxConcurrentUploads() + " concurrent uploads reached"));
+            }
+
+            Map<String, String> parameters = uploadParameters(request);
+            MultipartBodyBuilder body = new MultipartBodyBuilder();
+            parameters.forEach(body::part);
+            body.asyncPart("photo", content, DataBuffer.class)
+                .filename(filename != null ? filename : "photo")
+                .contentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM);
+
+            return webClient.post()
+                .uri(properties.getUploadUrl())
+                .header(HttpHeaders.AUTHORIZATION, signer.authorization("POST", properties.getUploadUrl(), parameters))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(properties.getUploadTimeout())
+                .onErrorMap(e -> !(e instanceof FlickrUploaderException),
+                    e -> new FlickrUploadException("Failed to upload photo to Flickr", e.getMessage(), e))
+                .map(ReactiveFlickrClient::parseUploadResponse)
+                .doOnNext(photoId -> log.atInfo()
+                    .setMessage("Photo uploaded to Flickr")
+                    .addKeyValue("photoId", photoId)
+                    .addKeyValue("filename", filename)
+                    .log())
+                .doFinally(signal -> uploadsInFlight.decrementAndGet());
+        });
+    }
+
+    /**
+     * Calls a Flickr API method.
+     *
+     * @param method    API method, e.g. flickr.photosets.getList
+     * @param arguments method arguments
+     * @return JSON response (stat=ok)
+     */
+    public Mono<JsonNode> call(String method, Map<String, String> arguments) {
+        Map<String, String> parameters = new LinkedHashMap<>(arguments);
+        parameters.put("method", method);
+        parameters.put("format", "json");
+        parameters.put("nojsoncallback", "1");
+
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        parameters.forEach(form::add);
+
+        return Mono.defer(() -> webClient.post()
+                .uri(properties.getApiUrl())
+                .header(HttpHeaders.AUTHORIZATION, signer.authorization("POST", properties.getApiUrl(), parameters))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData(form))
+                .retrieve()
+                .bodyToMono(JsonNode.class))
+            .timeout(properties.getCallTimeout())
+            .onErrorMap(e -> !(e instanceof FlickrUploaderException),
+                e -> new FlickrUploadException("Flickr API call failed: " + method, e.getMessage(), e))
+            .map(response -> {
+                if (!"ok".equals(response.path("stat").asString(""))) {
+                    throw new FlickrUploadException("Flickr API call failed: " + method,
+                        response.path("code").asString("") + ": " + response.path("message").asString(""));
+                }
+                return response;
+            });
+    }
+
+    /**
+     * Builds Flickr photo URL from photo ID.
+     *
+     * @param photoId Flickr photo ID
+     * @return direct URL to photo on Flickr
+     */
+    public String buildPhotoUrl(String photoId) {
+        // Extract username from NSID (part before @)
+        String username = flickrProperties.getUser().getNsid().split("@")[0];
+        return String.format("https://www.flickr.com/photos/%s/%s/", username, photoId);
+    }
+
+    /**
+     * Upload parameters as sent by flickr4java: photos are private unless made public on Flickr.
+     */
+    private static Map<String, String> uploadParameters(UploadRequest request) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (request.getTitle() != null) {
+            parameters.put("title", request.getTitle());
+        }
+        if (request.getDescription() != null) {
+            parameters.put("description", request.getDescription());
+        }
+        List<String> tags = FlickrTags.parse(request.getTags());
+        if (!tags.isEmpty()) {
+            // Quoted so multi-word tags stay one tag
+            parameters.put("tags", tags.stream()
+                .map(tag -> "\"" + tag + "\"")
+                .collect(Collectors.joining(" ")));
+        }
+        if (request.getDedupCheck() != null) {
+            parameters.put("dedup_check", String.valueOf(request.getDedupCheck()));
+        }
+        parameters.put("is_public", "0");
+        parameters.put("is_family", "0");
+        parameters.put("is_friend", "0");
+        parameters.put("async", "0");
+        return parameters;
+    }
+
+    /**
+     * Parses the XML response of the upload endpoint.
+     */
+    static String parseUploadResponse(String response) {
+        FlickrUploadResponse rsp;
+        try {
+            rsp = FlickrUploadResponse.parse(response);
+        } catch (IllegalArgumentException e) {
+            throw new FlickrUploadException("Invalid Flickr upload response", e.getMessage(), e);
+        }
+        if (rsp.isOk()) {
+            return rsp.id();
+        }
+
+        String code = rsp.errorCode();
+        String message = rsp.errorMessage();
+        ErrorCategory category = FlickrErrorCodes.categorizeUpload(code);
+        if (category == ErrorCategory.DUPLICATE) {
+            log.warn("Duplicate photo detected: {}", message);
+            throw new DuplicatePhotoException("Duplicate photo detected", message);
+        }
+        log.warn("Flickr API error during upload: code={}, message={}", code, message);
+        if (category == ErrorCategory.RETRYABLE) {
+            throw new FlickrUploadException("Flickr API error during upload", code + ": " + message, null, category);
+        }
+        throw new FlickrRejectedException("Flickr rejected the upload", code + ": " + message, null, category, code);
+    }
+}
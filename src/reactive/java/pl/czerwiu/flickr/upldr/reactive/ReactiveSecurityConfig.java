@@ -0,0 +1,71 @@
+package pl.czerwiu.flickr.upldr.reactive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+import pl.czerwiu.flickr.upldr.config.Sha256PasswordEncoder;
+
+/**
+ * Security configuration of the reactive stack, same rules as the servlet SecurityConfig:
+ * HTTP Basic Authentication with SHA-256 password hashing.
+ */
+@Slf4j
+@Configuration
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+
+    private final FlickrProperties flickrProperties;
+
+    /**
+     * Configures HTTP security with Basic Auth.
+     * - /actuator/health and its probes (liveness, readiness) are public (no auth required)
+     * - /swagger-ui.html and /v3/api-docs are public
+     * - All other endpoints require authentication
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        http
+            .authorizeExchange(exchange -> exchange
+                .pathMatchers("/actuator/health", "/actuator/health/liveness", "/actuator/health/readiness").permitAll()
+                .pathMatchers("/swagger-ui.html", "/swagger-ui/**", "/webjars/**", "/v3/api-docs/**").permitAll()
+                .anyExchange().authenticated()
+            )
+            .httpBasic(basic -> {})
+            .csrf(ServerHttpSecurity.CsrfSpec::disable);  // Disable CSRF for stateless API
+
+        return http.build();
+    }
+
+    /**
+     * ReactiveUserDetailsService for Basic Auth.
+     * Loads user from FlickrProperties configuration.
+     */
+    @Bean
+    public ReactiveUserDetailsService userDetailsService() {
+        UserDetails user = User.builder()
+            .username(flickrProperties.getUser().getName())
+            .password(flickrProperties.getUser().getPswd())  // SHA-256 hash from config
+            .roles("USER")
+            .build();
+
+        log.info("Basic Auth configured for user: {}", flickrProperties.getUser().getName());
+
+        return new MapReactiveUserDetailsService(user);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new Sha256PasswordEncoder();
+    }
+}
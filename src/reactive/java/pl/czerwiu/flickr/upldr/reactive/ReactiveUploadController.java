@@ -0,0 +1,294 @@
+package pl.czerwiu.flickr.upldr.reactive;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import pl.czerwiu.flickr.upldr.dto.AlbumResult;
+import pl.czerwiu.flickr.upldr.dto.ErrorResponse;
+import pl.czerwiu.flickr.upldr.dto.UploadPriority;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploaderException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * REST controller for photo upload operations on the reactive stack.
+ * Same contract as the servlet UploadController, but the file is never buffered: multipart parts are
+ * read as a stream of events and the file part is relayed to Flickr chunk by chunk, so the client is
+ * read only as fast as Flickr accepts the photo. Form fields must therefore precede the file part.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Upload", description = "Photo upload operations")
+public class ReactiveUploadController {
+
+    private static final String FILE_PART = "file";
+
+    private final ReactiveFlickrClient flickrClient;
+    private final ReactiveAlbumService albumService;
+    private final ReactiveUploadProperties properties;
+
+    /**
+     * Upload photo to Flickr with metadata and album assignment.
+     * If album doesn't exist, it will be created automatically.
+     *
+     * @param parts multipart body: album (required, repeated for several albums), title, description, tags, dedupCheck, priority and
+     *              ordered fields, followed by the file part (required, max 200MB)
+     * @return upload response with photo details
+     */
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+        summary = "Upload photo to Flickr",
+        description = "Uploads a photo to Flickr and adds it to specified album. " +
+                     "Creates album if it doesn't exist. " +
+                     "The photo is streamed to Flickr while it's received, so form fields must be sent before the file.",
+        security = @SecurityRequirement(name = "basicAuth")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Photo uploaded successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = UploadResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - missing required parameters, invalid format or fields sent after the file",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Conflict - duplicate photo detected (only when dedupCheck is enabled)",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Service unavailable - too many concurrent uploads",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public Mono<ResponseEntity<UploadResponse>> uploadPhoto(@RequestBody Flux<PartEvent> parts) {
+        UploadForm form = new UploadForm(properties.getMaxFileSize().toBytes());
+
+        // Parts are processed eagerly, so a field sent after the file fails the request while the upload is in flight
+        return parts.windowUntil(PartEvent::isLast)
+            .flatMap(part -> part.switchOnFirst((signal, events) -> handlePart(signal, events, form)))
+            .then(Mono.defer(() -> complete(form)))
+            .onErrorMap(e -> form.sizeExceeded && !(e instanceof MaxUploadSizeExceededException),
+                e -> new MaxUploadSizeExceededException(form.maxFileSize, e))
+            .map(ResponseEntity::ok);
+    }
+
+    private Mono<Void> handlePart(Signal<? extends PartEvent> signal, Flux<PartEvent> events, UploadForm form) {
+        if (!signal.hasValue()) {
+            return events.then();  // Either complete or error signal
+        }
+
+        PartEvent first = signal.get();
+        if (first instanceof FormPartEvent) {
+            return events
+                .doOnNext(event -> {
+                    try {
+                        form.set(event.name(), ((FormPartEvent) event).value());
+                    } finally {
+                        DataBufferUtils.release(event.content());
+                    }
+                })
+                .then();
+        }
+        if (first instanceof FilePartEvent file) {
+            return uploadFile(file, events, form);
+        }
+
+        DataBufferUtils.release(first.content());
+        return Mono.error(new IllegalArgumentException("Unexpected multipart part: " + first.name()));
+    }
+
+    private Mono<Void> uploadFile(FilePartEvent file, Flux<PartEvent> events, UploadForm form) {
+        UploadRequest request;
+        try {
+            if (!FILE_PART.equals(file.name())) {
+                throw new IllegalArgumentException("Unexpected file part: " + file.name());
+            }
+            if (form.fileReceived) {
+                throw new IllegalArgumentException("Only one file can be uploaded");
+            }
+            form.fileReceived = true;
+            if (file.isLast() && file.content().readableByteCount() == 0) {
+                throw new IllegalArgumentException("File cannot be empty");
+            }
+            request = form.toRequest();
+            form.request = request;
+        } catch (IllegalArgumentException e) {
+            DataBufferUtils.release(file.content());
+            return Mono.error(e);
+        }
+
+        log.debug("Upload endpoint called: filename={}, album={}", file.filename(), request.getAlbum());
+        Flux<DataBuffer> content = events
+            .map(PartEvent::content)
+            .handle((buffer, sink) -> {
+                form.fileSize += buffer.readableByteCount();
+                if (form.fileSize > form.maxFileSize) {
+                    DataBufferUtils.release(buffer);
+                    form.sizeExceeded = true;
+                    sink.error(new MaxUploadSizeExceededException(form.maxFileSize));
+                } else {
+                    sink.next(buffer);
+                }
+            });
+
+        return flickrClient.upload(content, file.filename(), file.headers().getContentType(), request)
+            .doOnNext(photoId -> form.photoId = photoId)
+            .then();
+    }
+
+    private Mono<UploadResponse> complete(UploadForm form) {
+        if (form.photoId == null) {
+            return Mono.error(new IllegalArgumentException("Required parameter 'file' is missing"));
+        }
+        String photoId = form.photoId;
+
+        // All albums are resolved and filled concurrently, results keep the request order
+        return Flux.fromIterable(form.request.albums())
+            .flatMapSequential(album -> albumService.ensureAlbum(album, photoId)
+                .flatMap(albumId -> albumService.addPhotoToAlbum(photoId, albumId)
+                    .thenReturn(new AlbumOutcome(album, albumId, null))
+                    .onErrorResume(e -> Mono.just(new AlbumOutcome(album, albumId, e))))
+                .onErrorResume(e -> Mono.just(new AlbumOutcome(album, null, e))))
+            .collectList()
+            .flatMap(outcomes -> {
+                long failedAlbums = outcomes.stream().filter(outcome -> outcome.error() != null).count();
+                if (failedAlbums == outcomes.size()) {
+                    // Photo is in none of its albums, fail like a single-album upload
+                    return Mono.error(outcomes.getFirst().error());
+                }
+                // The response names the first album the photo actually landed in
+                AlbumOutcome first = outcomes.stream().filter(outcome -> outcome.error() == null).findFirst().orElseThrow();
+                return Mono.just(UploadResponse.builder()
+                    .photoId(photoId)
+                    .album(first.album())
+                    .albumId(first.albumId())
+                    .albums(outcomes.stream().map(AlbumOutcome::toResult).toList())
+                    .uploadedAt(Instant.now())
+                    .status(failedAlbums == 0 ? "SUCCESS" : "PARTIAL")
+                    .url(flickrClient.buildPhotoUrl(photoId))
+                    .build());
+            });
+    }
+
+    /**
+     * Outcome of the album steps for one album.
+     */
+    private record AlbumOutcome(String album, String albumId, Throwable error) {
+
+        AlbumResult toResult() {
+            String message = error instanceof FlickrUploaderException e && e.getDetails() != null
+                ? error.getMessage() + ": " + e.getDetails()
+                : error != null ? error.getMessage() : null;
+            return AlbumResult.builder()
+                .album(album)
+                .albumId(albumId)
+                .success(error == null)
+                .error(message)
+                .build();
+        }
+    }
+
+    /**
+     * Form fields and upload state of one request. Parts of a request are processed one after another.
+     */
+    private static final class UploadForm {
+
+        private final long maxFileSize;
+        private final List<String> albums = new ArrayList<>();
+        private String title;
+        private String description;
+        private String tags;
+        private Integer dedupCheck;
+        private UploadPriority priority;
+        private boolean ordered;
+        private boolean fileReceived;
+        private long fileSize;
+        private volatile boolean sizeExceeded;
+        private UploadRequest request;
+        private volatile String photoId;
+
+        private UploadForm(long maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        private void set(String name, String value) {
+            if (fileReceived) {
+                throw new IllegalArgumentException("Form field '" + name + "' must be sent before the file");
+            }
+            switch (name) {
+                case "album" -> albums.add(value);
+                case "title" -> title = value;
+                case "description" -> description = value;
+                case "tags" -> tags = value;
+                case "dedupCheck" -> dedupCheck = value.isBlank() ? null : Integer.valueOf(value.trim());
+                case "priority" -> priority = value.isBlank() ? null
+                    : UploadPriority.valueOf(value.trim().toUpperCase(Locale.ROOT));
+                case "ordered" -> ordered = Boolean.parseBoolean(value.trim());
+                default -> log.debug("Ignoring unknown form field: {}", name);
+            }
+        }
+
+        private UploadRequest toRequest() {
+            if (albums.isEmpty() || albums.getFirst().trim().isEmpty()) {
+                throw new IllegalArgumentException("Album name is required");
+            }
+            UploadRequest request = UploadRequest.builder()
+                .album(albums.getFirst().trim())
+                .additionalAlbums(albums.subList(1, albums.size()))
+                .title(title != null ? title.trim() : null)
+                .description(description != null ? description.trim() : null)
+                .tags(tags != null ? tags.trim() : null)
+                .dedupCheck(dedupCheck)
+                .priority(priority)
+                .ordered(ordered)
+                .build();
+            if (request.albums().size() > UploadRequest.MAX_ALBUMS) {
+                throw new IllegalArgumentException("At most " + UploadRequest.MAX_ALBUMS + " albums per photo are allowed");
+            }
+            return request;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package pl.czerwiu.flickr.upldr.reactive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the reactive upload stack.
+ * Maps properties from application.yml with prefix "upldr.reactive".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upldr.reactive")
+public class ReactiveUploadProperties {
+
+    /**
+     * Flickr REST API endpoint
+     */
+    private String apiUrl = "https://api.flickr.com/services/rest/";
+
+    /**
+     * Flickr upload endpoint
+     */
+    private String uploadUrl = "https://up.flickr.com/services/upload/";
+
+    /**
+     * Largest accepted photo
+     */
+    private DataSize maxFileSize = DataSize.ofMegabytes(200);
+
+    /**
+     * Maximum number of uploads streamed to Flickr concurrently; further uploads get 503
+     */
+    private int maxConcurrentUploads = 32;
+
+    /**
+     * Timeout for connecting to Flickr
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Timeout for Flickr API calls (album lookup, creation, adding photos)
+     */
+    private Duration callTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Timeout for streaming a photo to Flickr and receiving its ID
+     */
+    private Duration uploadTimeout = Duration.ofMinutes(10);
+}
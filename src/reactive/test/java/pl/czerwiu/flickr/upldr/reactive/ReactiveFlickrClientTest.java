@@ -0,0 +1,54 @@
+package pl.czerwiu.flickr.upldr.reactive;
+
+import org.junit.jupiter.api.Test;
+import pl.czerwiu.flickr.upldr.exception.DuplicatePhotoException;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrRejectedException;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveFlickrClientTest {
+
+    private static String fail(String code, String message) {
+        return "<rsp stat=\"fail\"><err code=\"" + code + "\" msg=\"" + message + "\"/></rsp>";
+    }
+
+    @Test
+    void returnsPhotoId() {
+        assertThat(ReactiveFlickrClient.parseUploadResponse("<rsp stat=\"ok\"><photoid>42</photoid></rsp>"))
+            .isEqualTo("42");
+    }
+
+    @Test
+    void reportsDuplicates() {
+        assertThatThrownBy(() -> ReactiveFlickrClient.parseUploadResponse(fail("9", "Duplicate photo")))
+            .isInstanceOf(DuplicatePhotoException.class)
+            .hasMessage("Duplicate photo detected");
+    }
+
+    @Test
+    void reportsRetryableErrors() {
+        assertThatThrownBy(() -> ReactiveFlickrClient.parseUploadResponse(fail("3", "General upload failure")))
+            .isExactlyInstanceOf(FlickrUploadException.class)
+            .satisfies(e -> assertThat(((FlickrUploadException) e).getCategory()).isEqualTo(ErrorCategory.RETRYABLE));
+    }
+
+    @Test
+    void reportsRejectedFiles() {
+        assertThatThrownBy(() -> ReactiveFlickrClient.parseUploadResponse(fail("5", "Filetype was not recognised")))
+            .isInstanceOfSatisfying(FlickrRejectedException.class, e -> {
+                assertThat(e.getCategory()).isEqualTo(ErrorCategory.CLIENT_ERROR);
+                assertThat(e.getErrorCode()).isEqualTo("5");
+                assertThat(e.getDetails()).isEqualTo("5: Filetype was not recognised");
+            });
+    }
+
+    @Test
+    void reportsInvalidResponses() {
+        assertThatThrownBy(() -> ReactiveFlickrClient.parseUploadResponse("Bad gateway"))
+            .isExactlyInstanceOf(FlickrUploadException.class)
+            .hasMessage("Invalid Flickr upload response");
+    }
+}
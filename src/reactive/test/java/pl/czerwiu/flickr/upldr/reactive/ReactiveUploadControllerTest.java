@@ -0,0 +1,202 @@
+package pl.czerwiu.flickr.upldr.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.BodyInserters;
+import pl.czerwiu.flickr.upldr.dto.UploadRequest;
+import pl.czerwiu.flickr.upldr.exception.FlickrUploadException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveUploadControllerTest {
+
+    private static final byte[] PHOTO = "not really a jpeg".getBytes();
+
+    private final ReactiveFlickrClient flickrClient = mock(ReactiveFlickrClient.class);
+    private final ReactiveAlbumService albumService = mock(ReactiveAlbumService.class);
+    private final ReactiveUploadProperties properties = new ReactiveUploadProperties();
+    private final AtomicReference<byte[]> uploaded = new AtomicReference<>();
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        when(flickrClient.upload(any(), anyString(), any(), any())).thenAnswer(invocation -> {
+            Flux<DataBuffer> content = invocation.getArgument(0);
+            return DataBufferUtils.join(content).map(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                uploaded.set(bytes);
+                return "42";
+            });
+        });
+        when(flickrClient.buildPhotoUrl("42")).thenReturn("https://www.flickr.com/photos/user/42/");
+        when(albumService.ensureAlbum("Holidays", "42")).thenReturn(Mono.just("a1"));
+        when(albumService.ensureAlbum("Family", "42")).thenReturn(Mono.just("a2"));
+        when(albumService.addPhotoToAlbum(eq("42"), anyString())).thenReturn(Mono.empty());
+
+        client = WebTestClient.bindToController(new ReactiveUploadController(flickrClient, albumService, properties))
+            .controllerAdvice(new ReactiveExceptionHandler())
+            .build();
+    }
+
+    private static MultipartBodyBuilder form(String... albums) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        for (String album : albums) {
+            body.part("album", album);
+        }
+        body.part("title", " Sunset ");
+        body.part("tags", "beach, summer");
+        return body;
+    }
+
+    private static void file(MultipartBodyBuilder body, byte[] content) {
+        body.part("file", new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "sunset.jpg";
+            }
+        }).contentType(MediaType.IMAGE_JPEG);
+    }
+
+    private WebTestClient.ResponseSpec post(MultipartBodyBuilder body) {
+        return client.post().uri("/upload")
+            .contentType(MediaType.MULTIPART_FORM_DATA)
+            .body(BodyInserters.fromMultipartData(body.build()))
+            .exchange();
+    }
+
+    @Test
+    void streamsTheFileAndFillsAllAlbums() {
+        MultipartBodyBuilder body = form("Holidays", "Family");
+        file(body, PHOTO);
+
+        post(body).expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.photoId").isEqualTo("42")
+            .jsonPath("$.status").isEqualTo("SUCCESS")
+            .jsonPath("$.album").isEqualTo("Holidays")
+            .jsonPath("$.albumId").isEqualTo("a1")
+            .jsonPath("$.albums[1].albumId").isEqualTo("a2")
+            .jsonPath("$.url").isEqualTo("https://www.flickr.com/photos/user/42/");
+
+        assertThat(uploaded.get()).isEqualTo(PHOTO);
+        ArgumentCaptor<UploadRequest> request = ArgumentCaptor.forClass(UploadRequest.class);
+        verify(flickrClient).upload(any(), eq("sunset.jpg"), eq(MediaType.IMAGE_JPEG), request.capture());
+        assertThat(request.getValue().getTitle()).isEqualTo("Sunset");
+        assertThat(request.getValue().albums()).containsExactly("Holidays", "Family");
+        verify(albumService).addPhotoToAlbum("42", "a1");
+        verify(albumService).addPhotoToAlbum("42", "a2");
+    }
+
+    @Test
+    void reportsFailedAlbumsAsPartial() {
+        when(albumService.addPhotoToAlbum("42", "a2"))
+            .thenReturn(Mono.error(new FlickrUploadException("Failed to add photo to album", "1: Photoset not found")));
+        MultipartBodyBuilder body = form("Holidays", "Family");
+        file(body, PHOTO);
+
+        post(body).expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.status").isEqualTo("PARTIAL")
+            .jsonPath("$.albums[0].success").isEqualTo(true)
+            .jsonPath("$.albums[1].success").isEqualTo(false)
+            .jsonPath("$.albums[1].error").isEqualTo("Failed to add photo to album: 1: Photoset not found");
+    }
+
+    @Test
+    void namesTheFirstAlbumThePhotoLandedIn() {
+        when(albumService.ensureAlbum("Holidays", "42"))
+            .thenReturn(Mono.error(new FlickrUploadException("Failed to create album", "Flickr unavailable")));
+        MultipartBodyBuilder body = form("Holidays", "Family");
+        file(body, PHOTO);
+
+        post(body).expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.status").isEqualTo("PARTIAL")
+            .jsonPath("$.album").isEqualTo("Family")
+            .jsonPath("$.albumId").isEqualTo("a2")
+            .jsonPath("$.albums[0].success").isEqualTo(false);
+    }
+
+    @Test
+    void failsWhenNoAlbumCouldBeFilled() {
+        when(albumService.ensureAlbum("Holidays", "42"))
+            .thenReturn(Mono.error(new FlickrUploadException("Failed to create album", "Flickr unavailable")));
+        MultipartBodyBuilder body = form("Holidays");
+        file(body, PHOTO);
+
+        post(body).expectStatus().is5xxServerError()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Failed to upload photo: Failed to create album");
+    }
+
+    @Test
+    void requiresAnAlbum() {
+        MultipartBodyBuilder body = form();
+        file(body, PHOTO);
+
+        post(body).expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Album name is required");
+        verify(flickrClient, never()).upload(any(), any(), any(), any());
+    }
+
+    @Test
+    void rejectsFieldsSentAfterTheFile() {
+        MultipartBodyBuilder body = form("Holidays");
+        file(body, PHOTO);
+        body.part("description", "too late");
+
+        post(body).expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Form field 'description' must be sent before the file");
+    }
+
+    @Test
+    void rejectsFilesOverTheLimit() {
+        properties.setMaxFileSize(DataSize.ofBytes(PHOTO.length - 1));
+        MultipartBodyBuilder body = form("Holidays");
+        file(body, PHOTO);
+
+        post(body).expectStatus().isBadRequest();
+        verify(albumService, never()).ensureAlbum(anyString(), anyString());
+    }
+
+    @Test
+    void requiresTheFile() {
+        post(form("Holidays")).expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Required parameter 'file' is missing");
+    }
+
+    @Test
+    void rejectsTooManyAlbums() {
+        MultipartBodyBuilder body = form(IntStream.rangeClosed(0, UploadRequest.MAX_ALBUMS)
+            .mapToObj(i -> "Album " + i)
+            .toArray(String[]::new));
+        file(body, PHOTO);
+
+        post(body).expectStatus().isBadRequest();
+    }
+}
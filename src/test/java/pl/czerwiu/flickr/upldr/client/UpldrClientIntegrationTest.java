@@ -0,0 +1,502 @@
+package pl.czerwiu.flickr.upldr.client;
+
+import com.flickr4java.flickr.Flickr;
+import com.flickr4java.flickr.FlickrException;
+import com.flickr4java.flickr.photosets.Photoset;
+import com.flickr4java.flickr.photosets.Photosets;
+import com.flickr4java.flickr.photosets.PhotosetsInterface;
+import com.flickr4java.flickr.test.TestInterface;
+import com.flickr4java.flickr.uploader.UploadMetaData;
+import com.flickr4java.flickr.uploader.Uploader;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.DispatcherServlet;
+import pl.czerwiu.flickr.upldr.config.Sha256PasswordEncoder;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+import pl.czerwiu.flickr.upldr.exception.ErrorCategory;
+import pl.czerwiu.flickr.upldr.exception.FlickrOverloadedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Runs the service on a random port against a stub Flickr and uploads through {@link UpldrClient}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UpldrClientIntegrationTest {
+
+    private static final String USER = "tester";
+    private static final String PASSWORD = "secret";
+
+    @TempDir
+    static Path workDir;
+
+    @TempDir
+    Path files;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    StubFlickr stubFlickr;
+
+    @Autowired
+    UploadRequestRecorder recorder;
+
+    @Autowired
+    WebApplicationContext context;
+
+    private final Random random = new Random();
+    private final List<UpldrClient> clients = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("flickr.api.key", () -> "key");
+        registry.add("flickr.api.secret", () -> "secret");
+        registry.add("flickr.user.nsid", () -> "12345@N00");
+        registry.add("flickr.user.name", () -> USER);
+        registry.add("flickr.user.pswd", () -> new Sha256PasswordEncoder().encode(PASSWORD));
+        registry.add("upldr.spool.directories", () -> workDir.resolve("spool").toString());
+        registry.add("upldr.spool.min-free-space", () -> "0");
+        registry.add("upldr.drain.readiness-delay", () -> "0s");
+        registry.add("upldr.drain.journal-dir", () -> workDir.resolve("drain-journal").toString());
+        registry.add("upldr.import.checkpoint-dir", () -> workDir.resolve("import-checkpoints").toString());
+        registry.add("upldr.warm-up.preconnect-urls", () -> "");
+        registry.add("upldr.warm-up.iterations", () -> "3");
+        registry.add("upldr.jfr.continuous", () -> "false");
+        registry.add("upldr.scheduler.workers", () -> "2");
+    }
+
+    @BeforeEach
+    void setUp() {
+        stubFlickr.reset();
+        recorder.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(UpldrClient::close);
+    }
+
+    @Test
+    void uploadsLargeFileIntact() throws IOException {
+        Path photo = photo("large.jpg", 5 * 1024 * 1024);
+        UpldrClient client = client(UpldrClientConfig.builder());
+
+        UploadResponse response = client.upload(photo, request("Holidays")).join();
+
+        assertThat(response.getStatus()).isEqualTo("SUCCESS");
+        assertThat(stubFlickr.uploaded.get(response.getPhotoId())).isEqualTo(Files.readAllBytes(photo));
+    }
+
+    @Test
+    void capsConcurrentUploads() throws IOException {
+        stubFlickr.uploadDelay = Duration.ofMillis(300);
+        List<Path> photos = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            photos.add(photo("photo-" + i + ".jpg", 64 * 1024));
+        }
+        UpldrClient client = client(UpldrClientConfig.builder().maxConcurrentUploads(2));
+
+        List<FileUploadResult> results = client.uploadAll(photos, file -> request("Holidays")).join();
+
+        assertThat(results).allMatch(FileUploadResult::isSuccess);
+        assertThat(stubFlickr.uploaded).hasSize(6);
+        assertThat(stubFlickr.maxActiveUploads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void retriesServiceBusyAfterRetryAfterWithTheSameIdempotencyKey() throws IOException {
+        stubFlickr.overloadedUploads.set(1);
+        Path photo = photo("busy.jpg", 64 * 1024);
+        UpldrClient client = client(UpldrClientConfig.builder().initialBackoff(Duration.ofMinutes(1)));
+
+        long start = System.nanoTime();
+        UploadResponse response = client.upload(photo, request("Holidays")).join();
+
+        assertThat(response.getStatus()).isEqualTo("SUCCESS");
+        assertThat(recorder.statuses).containsExactly(503, 200);
+        assertThat(recorder.idempotencyKeys).hasSize(2).doesNotContainNull();
+        assertThat(recorder.idempotencyKeys.get(1)).isEqualTo(recorder.idempotencyKeys.get(0));
+        // Waited as long as Retry-After asked (1s), not the configured backoff
+        assertThat(Duration.ofNanos(System.nanoTime() - start))
+            .isBetween(Duration.ofSeconds(1), Duration.ofSeconds(30));
+        assertThat(stubFlickr.uploaded).containsOnlyKeys(response.getPhotoId());
+    }
+
+    @Test
+    void reportsDuplicatesWithoutRetrying() throws IOException {
+        Path photo = photo("original.jpg", 64 * 1024);
+        Path copy = files.resolve("copy.jpg");
+        Files.copy(photo, copy);
+        UpldrClient client = client(UpldrClientConfig.builder());
+
+        FileUploadRequest request = FileUploadRequest.builder().album("Holidays").dedupCheck(1).build();
+
+        client.upload(photo, request).join();
+        Throwable error = catchThrowable(() -> client.upload(copy, request).join());
+
+        assertThat(error).isInstanceOf(CompletionException.class).cause().isInstanceOf(UpldrClientException.class);
+        UpldrClientException failure = (UpldrClientException) error.getCause();
+        assertThat(failure.getStatus()).isEqualTo(409);
+        assertThat(failure.getCategory()).isEqualTo(ErrorCategory.DUPLICATE);
+        assertThat(recorder.statuses).containsExactly(200, 409);
+        assertThat(stubFlickr.uploaded).hasSize(1);
+    }
+
+    @Test
+    void namesTheFirstAlbumThePhotoLandedIn() throws IOException {
+        stubFlickr.brokenAlbums.add("Broken");
+        Path photo = photo("partial.jpg", 64 * 1024);
+        UpldrClient client = client(UpldrClientConfig.builder());
+
+        // In none of its albums: the upload fails and its content isn't remembered as uploaded
+        Throwable error = catchThrowable(() -> client.upload(photo,
+            FileUploadRequest.builder().album("Broken").dedupCheck(1).build()).join());
+        assertThat(error).isInstanceOf(CompletionException.class).cause().isInstanceOf(UpldrClientException.class);
+
+        UploadResponse response = client.upload(photo,
+            FileUploadRequest.builder().album("Broken").additionalAlbums(List.of("Holidays")).dedupCheck(1).build()).join();
+
+        assertThat(response.getStatus()).isEqualTo("PARTIAL");
+        assertThat(response.getAlbum()).isEqualTo("Holidays");
+        assertThat(response.getAlbumId()).isEqualTo(stubFlickr.albumId("Holidays"));
+        assertThat(recorder.statuses).doesNotContain(409).endsWith(200);
+    }
+
+    @Test
+    void skipsKnownFiles() throws IOException {
+        Path photo = photo("known.jpg", 64 * 1024);
+        UpldrClient client = client(UpldrClientConfig.builder().knownFiles(new InMemoryKnownFiles()));
+
+        UploadResponse first = client.upload(photo, request("Holidays")).join();
+        UploadResponse second = client.upload(photo, request("Holidays")).join();
+
+        assertThat(second.getStatus()).isEqualTo(UpldrClient.STATUS_SKIPPED);
+        assertThat(second.getPhotoId()).isEqualTo(first.getPhotoId());
+        assertThat(recorder.statuses).containsExactly(200);
+        assertThat(stubFlickr.uploaded).hasSize(1);
+    }
+
+    @Test
+    void finishesIdempotentUploadsQueuedWhenTheirClientDisconnects() throws Exception {
+        // Both workers wait, so the next upload stays queued with its file spooled to disk
+        stubFlickr.gate = new CountDownLatch(1);
+        UpldrClient client = client(UpldrClientConfig.builder());
+        Path photo = photo("queued.jpg", 3 * 1024 * 1024);
+        List<CompletableFuture<UploadResponse>> running;
+        try {
+            running = List.of(
+                client.upload(photo("first.jpg", 1024), request("Holidays")),
+                client.upload(photo("second.jpg", 1024), request("Holidays")));
+            await(() -> stubFlickr.waiting.get() == 2);
+
+            // Sent through the application's DispatcherServlet and multipart resolver, without a connection
+            MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+            String boundary = "disconnect-test";
+            MvcResult result = mockMvc.perform(post("/upload")
+                    .principal(() -> USER)
+                    .header("Idempotency-Key", "disconnected-1")
+                    .contentType("multipart/form-data; boundary=" + boundary)
+                    .content(multipartBody(boundary, photo)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+            assertThat(spooledFiles()).isEqualTo(1);
+
+            // The container reports the closed connection as an async error; Spring answers with an error
+            // dispatch of the request the async processing started with, which cleans up its multipart parts
+            MockHttpServletRequest httpRequest = result.getRequest();
+            MockAsyncContext asyncContext = (MockAsyncContext) httpRequest.getAsyncContext();
+            DispatcherServlet dispatcherServlet = mockMvc.getDispatcherServlet();
+            AtomicBoolean dispatched = new AtomicBoolean();
+            asyncContext.addDispatchHandler(() -> {
+                httpRequest.setDispatcherType(DispatcherType.ASYNC);
+                httpRequest.setAsyncStarted(false);
+                try {
+                    dispatcherServlet.service(asyncContext.getRequest(), asyncContext.getResponse());
+                } catch (ServletException | IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                dispatched.set(true);
+            });
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onError(new AsyncEvent(asyncContext, new IOException("Connection reset by peer")));
+            }
+            assertThat(dispatched).isTrue();
+            assertThat(spooledFiles()).isEqualTo(1);
+        } finally {
+            stubFlickr.gate.countDown();
+        }
+
+        running.forEach(CompletableFuture::join);
+        await(() -> stubFlickr.uploaded.size() == 3);
+        assertThat(stubFlickr.uploaded.values()).anySatisfy(content -> assertThat(content).isEqualTo(Files.readAllBytes(photo)));
+        await(() -> spooledFiles() == 0);
+    }
+
+    private static byte[] multipartBody(String boundary, Path photo) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"album\"\r\n\r\nHolidays\r\n"
+            + "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"" + photo.getFileName() + "\"\r\n"
+            + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(Files.readAllBytes(photo));
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static long spooledFiles() throws IOException {
+        Path spool = workDir.resolve("spool");
+        if (!Files.exists(spool)) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(spool)) {
+            return paths.filter(Files::isRegularFile).filter(path -> path.toString().endsWith(".spool")).count();
+        }
+    }
+
+    private static void await(Callable<Boolean> condition) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!condition.call()) {
+            assertThat(System.nanoTime()).as("condition met within 30s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private UpldrClient client(UpldrClientConfig.UpldrClientConfigBuilder config) {
+        UpldrClient client = new UpldrClient(config
+            .baseUri(URI.create("http://localhost:" + port))
+            .username(USER)
+            .password(PASSWORD)
+            .build());
+        clients.add(client);
+        return client;
+    }
+
+    private static FileUploadRequest request(String album) {
+        return FileUploadRequest.builder().album(album).build();
+    }
+
+    /**
+     * Writes a file of random content starting with the JPEG signature, so content sniffing accepts it.
+     */
+    private Path photo(String name, int size) throws IOException {
+        byte[] content = new byte[size];
+        random.nextBytes(content);
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        content[2] = (byte) 0xFF;
+        return Files.write(files.resolve(name), content);
+    }
+
+    @TestConfiguration
+    static class StubFlickrConfig {
+
+        @Bean
+        StubFlickr stubFlickr() throws Exception {
+            return new StubFlickr();
+        }
+
+        @Bean
+        @Primary
+        Flickr stubFlickrClient(StubFlickr stubFlickr) {
+            return stubFlickr.client;
+        }
+
+        @Bean
+        UploadRequestRecorder uploadRequestRecorder() {
+            return new UploadRequestRecorder();
+        }
+    }
+
+    /**
+     * Flickr client keeping uploaded photos and albums in memory. Uploads record their bytes and how many
+     * run at once; the next {@link #overloadedUploads} uploads are rejected as Flickr being busy.
+     */
+    static class StubFlickr {
+
+        final Map<String, byte[]> uploaded = new ConcurrentHashMap<>();
+        final AtomicInteger maxActiveUploads = new AtomicInteger();
+        final AtomicInteger overloadedUploads = new AtomicInteger();
+        final AtomicInteger waiting = new AtomicInteger();
+        // Albums with these titles can't be created
+        final Set<String> brokenAlbums = ConcurrentHashMap.newKeySet();
+        volatile Duration uploadDelay = Duration.ZERO;
+        // Uploads wait for the gate, when set, before reading the file
+        volatile CountDownLatch gate;
+
+        private final AtomicInteger activeUploads = new AtomicInteger();
+        private final AtomicInteger ids = new AtomicInteger();
+        private final Map<String, Photoset> albums = new ConcurrentHashMap<>();
+        private final Flickr client = mock(Flickr.class);
+
+        StubFlickr() throws Exception {
+            Uploader uploader = mock(Uploader.class);
+            when(uploader.upload(any(InputStream.class), any(UploadMetaData.class)))
+                .thenAnswer(invocation -> upload(invocation.getArgument(0)));
+            when(client.getUploader()).thenReturn(uploader);
+
+            PhotosetsInterface photosets = mock(PhotosetsInterface.class);
+            when(photosets.getList(anyString())).thenAnswer(invocation -> albumList());
+            when(photosets.getList(anyString(), anyInt(), anyInt(), any())).thenAnswer(invocation -> albumList());
+            when(photosets.create(anyString(), any(), anyString()))
+                .thenAnswer(invocation -> createAlbum(invocation.getArgument(0)));
+            when(client.getPhotosetsInterface()).thenReturn(photosets);
+
+            when(client.getTestInterface()).thenReturn(mock(TestInterface.class));
+        }
+
+        void reset() {
+            uploaded.clear();
+            maxActiveUploads.set(0);
+            overloadedUploads.set(0);
+            uploadDelay = Duration.ZERO;
+            gate = null;
+            brokenAlbums.clear();
+        }
+
+        String albumId(String title) {
+            return albums.values().stream()
+                .filter(album -> album.getTitle().equals(title))
+                .map(Photoset::getId)
+                .findFirst()
+                .orElse(null);
+        }
+
+        private String upload(InputStream in) throws IOException, InterruptedException {
+            if (overloadedUploads.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new FlickrOverloadedException("Flickr is busy, please retry", "Stub overloaded",
+                    Duration.ofSeconds(1));
+            }
+            CountDownLatch gate = this.gate;
+            if (gate != null) {
+                waiting.incrementAndGet();
+                try {
+                    gate.await();
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+            maxActiveUploads.accumulateAndGet(activeUploads.incrementAndGet(), Math::max);
+            try {
+                byte[] content = in.readAllBytes();
+                Thread.sleep(uploadDelay);
+                String photoId = String.valueOf(ids.incrementAndGet());
+                uploaded.put(photoId, content);
+                return photoId;
+            } finally {
+                activeUploads.decrementAndGet();
+            }
+        }
+
+        private Photosets albumList() {
+            Photosets list = mock(Photosets.class);
+            when(list.getPhotosets()).thenReturn(List.copyOf(albums.values()));
+            when(list.getPages()).thenReturn(1);
+            return list;
+        }
+
+        private Photoset createAlbum(String title) throws FlickrException {
+            if (brokenAlbums.contains(title)) {
+                throw new FlickrException("2", "Invalid primary photo");
+            }
+            String id = "album-" + ids.incrementAndGet();
+            Photoset album = mock(Photoset.class);
+            when(album.getId()).thenReturn(id);
+            when(album.getTitle()).thenReturn(title);
+            albums.put(id, album);
+            return album;
+        }
+    }
+
+    /**
+     * Records the Idempotency-Key and response status of every upload request.
+     */
+    static class UploadRequestRecorder extends OncePerRequestFilter {
+
+        final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+        final List<Integer> statuses = new CopyOnWriteArrayList<>();
+
+        void reset() {
+            idempotencyKeys.clear();
+            statuses.clear();
+        }
+
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            return !"/upload".equals(request.getRequestURI());
+        }
+
+        @Override
+        protected boolean shouldNotFilterAsyncDispatch() {
+            return false;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            if (!isAsyncDispatch(request)) {
+                idempotencyKeys.add(request.getHeader("Idempotency-Key"));
+            }
+            chain.doFilter(request, response);
+            if (!request.isAsyncStarted()) {
+                statuses.add(response.getStatus());
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package pl.czerwiu.flickr.upldr.flickr;
+
+import org.junit.jupiter.api.Test;
+import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlickrOAuthSignerTest {
+
+    private static FlickrOAuthSigner signer(String key, String secret, String token, String tokenSecret) {
+        FlickrProperties properties = new FlickrProperties();
+        properties.getApi().setKey(key);
+        properties.getApi().setSecret(secret);
+        properties.getOauth().setToken(token);
+        properties.getOauth().setTokenSecret(tokenSecret);
+        return new FlickrOAuthSigner(properties);
+    }
+
+    @Test
+    void signsTheReferenceRequest() {
+        // Twitter's published HMAC-SHA1 example ("Creating a signature"), the usual OAuth 1.0a test vector
+        FlickrOAuthSigner signer = signer("xvz1evFS4wEEPTGEFPHBog", "kAcSOqF21Fu85e7zjz7ZN2U4ZRhfV3WpwPAoE3Z7kBw",
+            "370773112-GmHxMAgYyLbNEtIKZeRNFsMKPR9EyMZeS9weJAEb", "LswwdoUaIvS8ltyTt5jkRh4J50vUPVVHtR2YPi5kE");
+
+        String authorization = signer.authorization("POST", "https://api.twitter.com/1.1/statuses/update.json",
+            Map.of("status", "Hello Ladies + Gentlemen, a signed OAuth request!", "include_entities", "true"),
+            "kYjzVBB8Y0ZFabxSWbWovY3uYSQ2pTgmZeNu2VS4cg", 1318622958);
+
+        assertThat(authorization).isEqualTo("OAuth "
+            + "oauth_consumer_key=\"xvz1evFS4wEEPTGEFPHBog\", "
+            + "oauth_nonce=\"kYjzVBB8Y0ZFabxSWbWovY3uYSQ2pTgmZeNu2VS4cg\", "
+            + "oauth_signature=\"hCtSmYh%2BiHYCEqBWrE7C7hYmtUk%3D\", "
+            + "oauth_signature_method=\"HMAC-SHA1\", "
+            + "oauth_timestamp=\"1318622958\", "
+            + "oauth_token=\"370773112-GmHxMAgYyLbNEtIKZeRNFsMKPR9EyMZeS9weJAEb\", "
+            + "oauth_version=\"1.0\"");
+    }
+
+    @Test
+    void encodesUploadFieldsPerRfc3986() {
+        // Spaces, quotes, '*' and '~' are encoded as OAuth requires, not as a form would
+        FlickrOAuthSigner signer = signer("api-key", "api-secret", "72157-token", "token-secret");
+
+        String authorization = signer.authorization("POST", "https://up.flickr.com/services/upload/",
+            Map.of("title", "Sunset ~ *beach*", "tags", "\"new york\" summer", "is_public", "0", "async", "1"),
+            "0123456789abcdef", 1700000000);
+
+        assertThat(authorization).contains("oauth_signature=\"doOyyQaMCtqQf1xPLuTU0O%2BQCRg%3D\"");
+    }
+
+    @Test
+    void usesFreshNonces() {
+        FlickrOAuthSigner signer = signer("api-key", "api-secret", "72157-token", "token-secret");
+
+        String first = signer.authorization("POST", "https://api.flickr.com/services/rest/", Map.of());
+        String second = signer.authorization("POST", "https://api.flickr.com/services/rest/", Map.of());
+
+        assertThat(first).isNotEqualTo(second);
+    }
+}
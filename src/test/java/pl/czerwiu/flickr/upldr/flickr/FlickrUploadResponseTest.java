@@ -0,0 +1,71 @@
+package pl.czerwiu.flickr.upldr.flickr;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlickrUploadResponseTest {
+
+    @Test
+    void parsesPhotoId() {
+        FlickrUploadResponse response = FlickrUploadResponse.parse("""
+            <?xml version="1.0" encoding="utf-8" ?>
+            <rsp stat="ok">
+            <photoid>53123456789</photoid>
+            </rsp>
+            """);
+
+        assertThat(response.isOk()).isTrue();
+        assertThat(response.id()).isEqualTo("53123456789");
+    }
+
+    @Test
+    void parsesTicketIdOfAsyncUploads() {
+        FlickrUploadResponse response = FlickrUploadResponse.parse("<rsp stat=\"ok\"><ticketid>1234-5</ticketid></rsp>");
+
+        assertThat(response.id()).isEqualTo("1234-5");
+    }
+
+    @Test
+    void parsesError() {
+        FlickrUploadResponse response = FlickrUploadResponse.parse(
+            "<rsp stat=\"fail\"><err code=\"5\" msg=\"Filetype was not recognised\" /></rsp>");
+
+        assertThat(response.isOk()).isFalse();
+        assertThat(response.errorCode()).isEqualTo("5");
+        assertThat(response.errorMessage()).isEqualTo("Filetype was not recognised");
+    }
+
+    @Test
+    void keepsFailureWithoutErrorElement() {
+        FlickrUploadResponse response = FlickrUploadResponse.parse("<rsp stat=\"fail\"/>");
+
+        assertThat(response.isOk()).isFalse();
+        assertThat(response.errorCode()).isEmpty();
+        assertThat(response.errorMessage()).isEqualTo("<rsp stat=\"fail\"/>");
+    }
+
+    @Test
+    void rejectsSuccessWithoutId() {
+        assertThatThrownBy(() -> FlickrUploadResponse.parse("<rsp stat=\"ok\"></rsp>"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("missing photoid");
+    }
+
+    @Test
+    void rejectsInvalidXml() {
+        assertThatThrownBy(() -> FlickrUploadResponse.parse("<html>Bad gateway"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsDoctypes() {
+        assertThatThrownBy(() -> FlickrUploadResponse.parse("""
+            <?xml version="1.0"?>
+            <!DOCTYPE rsp [<!ENTITY id SYSTEM "file:///etc/hostname">]>
+            <rsp stat="ok"><photoid>&id;</photoid></rsp>
+            """))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
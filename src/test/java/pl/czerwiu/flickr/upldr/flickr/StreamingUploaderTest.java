@@ -0,0 +1,152 @@
+package pl.czerwiu.flickr.upldr.flickr;
+
+import com.flickr4java.flickr.FlickrException;
+import com.flickr4java.flickr.uploader.UploadMetaData;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingUploaderTest {
+
+    private HttpServer server;
+    private final AtomicReference<HttpExchange> exchange = new AtomicReference<>();
+    private final AtomicReference<byte[]> body = new AtomicReference<>();
+    private volatile int status = 200;
+    private volatile String response = "<rsp stat=\"ok\"><photoid>1234</photoid></rsp>";
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/services/upload/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        this.exchange.set(exchange);
+        try (exchange) {
+            body.set(exchange.getRequestBody().readAllBytes());
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private StreamingUploader uploader() {
+        FlickrProperties properties = new FlickrProperties();
+        properties.getApi().setKey("api-key");
+        properties.getApi().setSecret("api-secret");
+        properties.getOauth().setToken("token");
+        properties.getOauth().setTokenSecret("token-secret");
+        return new StreamingUploader(properties,
+            "http://localhost:" + server.getAddress().getPort() + "/services/upload/");
+    }
+
+    private static UploadMetaData metaData() {
+        UploadMetaData metaData = new UploadMetaData();
+        metaData.setTitle("Sunset");
+        metaData.setTags(List.of("beach"));
+        metaData.setFilename("sunset.jpg");
+        metaData.setFilemimetype("image/jpeg");
+        return metaData;
+    }
+
+    @Test
+    void streamsSignedMultipartInChunks() throws Exception {
+        byte[] photo = new byte[3 * 64 * 1024 + 17];
+        new Random(1).nextBytes(photo);
+
+        String photoId = uploader().upload(new ByteArrayInputStream(photo), metaData());
+
+        assertThat(photoId).isEqualTo("1234");
+        HttpExchange request = exchange.get();
+        assertThat(request.getRequestMethod()).isEqualTo("POST");
+        assertThat(request.getRequestHeaders().getFirst("Transfer-Encoding")).isEqualTo("chunked");
+        assertThat(request.getRequestHeaders().getFirst("Content-Length")).isNull();
+        assertThat(request.getRequestHeaders().getFirst("Authorization"))
+            .startsWith("OAuth ")
+            .contains("oauth_consumer_key=\"api-key\"", "oauth_token=\"token\"", "oauth_signature=");
+
+        String contentType = request.getRequestHeaders().getFirst("Content-Type");
+        assertThat(contentType).startsWith("multipart/form-data; boundary=");
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        String text = new String(body.get(), StandardCharsets.ISO_8859_1);
+        assertThat(text)
+            .contains("name=\"title\"\r\n\r\nSunset\r\n")
+            .contains("name=\"photo\"; filename=\"sunset.jpg\"\r\nContent-Type: image/jpeg\r\n\r\n")
+            .endsWith("\r\n--" + boundary + "--\r\n");
+        int start = text.indexOf("image/jpeg\r\n\r\n") + "image/jpeg\r\n\r\n".length();
+        byte[] sent = new byte[photo.length];
+        System.arraycopy(body.get(), start, sent, 0, photo.length);
+        assertThat(sent).isEqualTo(photo);
+    }
+
+    @Test
+    void returnsTicketIdOfAsyncUploads() throws Exception {
+        response = "<rsp stat=\"ok\"><ticketid>t-1</ticketid></rsp>";
+
+        assertThat(uploader().upload(new byte[] {1, 2, 3}, metaData())).isEqualTo("t-1");
+    }
+
+    @Test
+    void reportsFlickrErrorsWithTheirCode() {
+        response = "<rsp stat=\"fail\"><err code=\"9\" msg=\"Duplicate photo\"/></rsp>";
+
+        assertThatThrownBy(() -> uploader().upload(new byte[] {1, 2, 3}, metaData()))
+            .isInstanceOfSatisfying(FlickrException.class, e -> {
+                assertThat(e.getErrorCode()).isEqualTo("9");
+                assertThat(e.getErrorMessage()).isEqualTo("Duplicate photo");
+            });
+    }
+
+    @Test
+    void reportsErrorStatusWithoutCode() {
+        status = 502;
+        response = "Bad gateway";
+
+        assertThatThrownBy(() -> uploader().upload(new byte[] {1, 2, 3}, metaData()))
+            .isInstanceOfSatisfying(FlickrException.class, e -> assertThat(e.getErrorCode()).isNull());
+    }
+
+    @Test
+    void stopsSendingWhenTheStreamFails() {
+        InputStream failing = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (++read > 1000) {
+                    throw new IOException("Upload cancelled");
+                }
+                return 0;
+            }
+        };
+
+        assertThatThrownBy(() -> uploader().upload(failing, metaData()))
+            .isInstanceOf(FlickrException.class)
+            .hasRootCauseMessage("Upload cancelled");
+    }
+}
@@ -0,0 +1,284 @@
+package pl.czerwiu.flickr.upldr.importer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import pl.czerwiu.flickr.upldr.config.SpoolProperties;
+import pl.czerwiu.flickr.upldr.config.UrlIngestProperties;
+import pl.czerwiu.flickr.upldr.exception.ServiceBusyException;
+import pl.czerwiu.flickr.upldr.exception.SourceFetchException;
+import pl.czerwiu.flickr.upldr.exception.UnsupportedFileTypeException;
+import pl.czerwiu.flickr.upldr.spool.SpoolStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UrlFetcherTest {
+
+    private static final byte[] PHOTO = "not really a jpeg, but long enough to be read in a few chunks".getBytes();
+
+    @TempDir
+    Path spoolDir;
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private UrlIngestProperties properties;
+    private SpoolStorage spoolStorage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        properties = new UrlIngestProperties();
+        properties.setAllowedHosts(List.of("localhost"));
+        properties.setAllowInternalAddresses(true);
+        properties.setMaxSize(DataSize.ofBytes(1024));
+
+        SpoolProperties spoolProperties = new SpoolProperties();
+        spoolProperties.setDirectories(List.of(spoolDir.toString()));
+        spoolProperties.setMinFreeSpace(DataSize.ofBytes(0));
+        spoolStorage = new SpoolStorage(spoolProperties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        spoolStorage.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        try (exchange) {
+            switch (path) {
+                case "/photo.jpg" -> send(exchange, "image/jpeg", PHOTO, PHOTO.length);
+                case "/chunked.jpg" -> send(exchange, "image/jpeg", new byte[2048], 0);
+                case "/streamed.jpg" -> send(exchange, "image/jpeg", PHOTO, 0);
+                case "/large.jpg" -> send(exchange, "image/jpeg", new byte[2048], 2048);
+                case "/page.html" -> send(exchange, "text/html", "<html/>".getBytes(), 7);
+                case "/moved" -> redirect(exchange, "/photo.jpg");
+                case "/away" -> redirect(exchange, "http://files.example.com/photo.jpg");
+                case "/loop" -> redirect(exchange, "/loop");
+                default -> exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] body, long length) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().set("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private UrlFetcher fetcher() {
+        return new UrlFetcher(properties, spoolStorage, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void fetchesOnceAndReplaysTheSpooledBody() throws IOException {
+        try (UrlMultipartFile file = fetcher().fetch(url("/photo.jpg"))) {
+            assertThat(file.getOriginalFilename()).isEqualTo("photo.jpg");
+            assertThat(file.getContentType()).isEqualTo("image/jpeg");
+            assertThat(file.getSize()).isEqualTo(PHOTO.length);
+
+            try (InputStream first = file.getInputStream()) {
+                assertThat(first.readNBytes(10)).isEqualTo(Arrays.copyOf(PHOTO, 10));
+            }
+            assertThat(file.getBytes()).isEqualTo(PHOTO);
+            assertThat(file.getBytes()).isEqualTo(PHOTO);
+        }
+        assertThat(requests.get("/photo.jpg")).hasValue(1);
+    }
+
+    @Test
+    void rejectsDeclaredSizeOverLimit() {
+        assertThatThrownBy(() -> fetcher().fetch(url("/large.jpg")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("exceeds maximum allowed size");
+    }
+
+    @Test
+    void measuresUndeclaredBodyAsItIsRead() throws IOException {
+        try (UrlMultipartFile file = fetcher().fetch(url("/streamed.jpg"))) {
+            assertThat(file.getSize()).isZero();
+            assertThat(file.isEmpty()).isFalse();
+
+            assertThat(file.getBytes()).isEqualTo(PHOTO);
+            assertThat(file.getSize()).isEqualTo(PHOTO.length);
+        }
+    }
+
+    @Test
+    void failsReadingUndeclaredBodyOverLimit() throws IOException {
+        try (UrlMultipartFile file = fetcher().fetch(url("/chunked.jpg"))) {
+            assertThatThrownBy(file::getBytes)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exceeds maximum allowed size");
+        }
+    }
+
+    @Test
+    void rejectsContentTypeOtherThanImageOrVideo() {
+        assertThatThrownBy(() -> fetcher().fetch(url("/page.html")))
+            .isInstanceOf(UnsupportedFileTypeException.class);
+    }
+
+    @Test
+    void rejectsErrorResponses() {
+        assertThatThrownBy(() -> fetcher().fetch(url("/missing.jpg")))
+            .isInstanceOf(SourceFetchException.class);
+    }
+
+    @Test
+    void refusesEverythingWithoutAllowedHosts() {
+        properties.setAllowedHosts(List.of());
+
+        assertThatThrownBy(() -> fetcher().fetch(url("/photo.jpg")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("disabled");
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void refusesHostsNotAllowed() {
+        properties.setAllowedHosts(List.of("files.example.com", "*.example.org"));
+
+        assertThatThrownBy(() -> fetcher().fetch(url("/photo.jpg")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("not allowed");
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void matchesWildcardHosts() throws IOException {
+        properties.setAllowedHosts(List.of("*"));
+
+        try (UrlMultipartFile file = fetcher().fetch(url("/photo.jpg"))) {
+            assertThat(file.getBytes()).isEqualTo(PHOTO);
+        }
+    }
+
+    @Test
+    void refusesInternalAddressesByDefault() {
+        properties.setAllowInternalAddresses(false);
+
+        assertThatThrownBy(() -> fetcher().fetch(url("/photo.jpg")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("internal address");
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void followsRedirects() throws IOException {
+        try (UrlMultipartFile file = fetcher().fetch(url("/moved"))) {
+            assertThat(file.getUri().getPath()).isEqualTo("/photo.jpg");
+            assertThat(file.getBytes()).isEqualTo(PHOTO);
+        }
+    }
+
+    @Test
+    void checksRedirectLocations() {
+        assertThatThrownBy(() -> fetcher().fetch(url("/away")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("files.example.com is not allowed");
+    }
+
+    @Test
+    void limitsRedirects() {
+        assertThatThrownBy(() -> fetcher().fetch(url("/loop")))
+            .isInstanceOf(SourceFetchException.class);
+        assertThat(requests.get("/loop")).hasValue(properties.getMaxRedirects() + 1);
+    }
+
+    @Test
+    void releasesFetchSlotsOfFailedFetches() throws IOException {
+        properties.setMaxConcurrentFetches(1);
+        properties.setFetchWait(Duration.ZERO);
+        UrlFetcher fetcher = fetcher();
+
+        assertThatThrownBy(() -> fetcher.fetch(url("/page.html")))
+            .isInstanceOf(UnsupportedFileTypeException.class);
+        try (UrlMultipartFile file = fetcher.fetch(url("/photo.jpg"))) {
+            assertThat(file.getBytes()).isEqualTo(PHOTO);
+        }
+    }
+
+    @Test
+    void countsEachFetchOnce() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UrlFetcher fetcher = new UrlFetcher(properties, spoolStorage, meterRegistry);
+
+        try (UrlMultipartFile file = fetcher.fetch(url("/photo.jpg"))) {
+            assertThat(file.getBytes()).isEqualTo(PHOTO);
+        }
+        assertThatThrownBy(() -> fetcher.fetch(url("/page.html")))
+            .isInstanceOf(UnsupportedFileTypeException.class);
+
+        assertThat(meterRegistry.counter("upload.url.fetches", "result", "ok").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("upload.url.fetches", "result", "failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void countsFetchWithoutSpoolSpaceAsFailed() throws IOException {
+        SpoolProperties spoolProperties = new SpoolProperties();
+        spoolProperties.setDirectories(List.of(spoolDir.resolve("full").toString()));
+        spoolProperties.setMinFreeSpace(DataSize.ofBytes(0));
+        spoolProperties.setQuota(DataSize.ofBytes(PHOTO.length - 1));
+        spoolProperties.setReserveWait(Duration.ZERO);
+        SpoolStorage fullStorage = new SpoolStorage(spoolProperties, new SimpleMeterRegistry());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try {
+            UrlFetcher fetcher = new UrlFetcher(properties, fullStorage, meterRegistry);
+
+            assertThatThrownBy(() -> fetcher.fetch(url("/photo.jpg")))
+                .isInstanceOf(ServiceBusyException.class);
+
+            assertThat(meterRegistry.counter("upload.url.fetches", "result", "ok").count()).isZero();
+            assertThat(meterRegistry.counter("upload.url.fetches", "result", "failed").count()).isEqualTo(1);
+        } finally {
+            fullStorage.shutdown();
+        }
+    }
+
+    @Test
+    void detectsInternalAddresses() throws IOException {
+        for (String internal : List.of("127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "0.0.0.0", "100.64.0.1", "::1", "fe80::1", "fd00::1")) {
+            assertThat(UrlFetcher.isInternal(InetAddress.getByName(internal))).as(internal).isTrue();
+        }
+        for (String external : List.of("8.8.8.8", "151.101.1.1", "2001:4860:4860::8888")) {
+            assertThat(UrlFetcher.isInternal(InetAddress.getByName(external))).as(external).isFalse();
+        }
+    }
+}
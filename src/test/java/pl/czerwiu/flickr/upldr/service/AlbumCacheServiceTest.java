@@ -0,0 +1,107 @@
+package pl.czerwiu.flickr.upldr.service;
+
+import com.flickr4java.flickr.Flickr;
+import com.flickr4java.flickr.photosets.Photoset;
+import com.flickr4java.flickr.photosets.Photosets;
+import com.flickr4java.flickr.photosets.PhotosetsInterface;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.czerwiu.flickr.upldr.config.AlbumCacheProperties;
+import pl.czerwiu.flickr.upldr.config.FlickrConcurrencyProperties;
+import pl.czerwiu.flickr.upldr.config.FlickrProperties;
+import pl.czerwiu.flickr.upldr.dto.AlbumSummary;
+import pl.czerwiu.flickr.upldr.flickr.FlickrConcurrencyLimits;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AlbumCacheServiceTest {
+
+    private final PhotosetsInterface photosets = mock(PhotosetsInterface.class);
+    private AlbumCacheService albumCacheService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Flickr flickr = mock(Flickr.class);
+        when(flickr.getPhotosetsInterface()).thenReturn(photosets);
+        Photoset album = mock(Photoset.class);
+        when(album.getId()).thenReturn("1");
+        when(album.getTitle()).thenReturn("Holidays");
+        when(album.getPhotoCount()).thenReturn(10);
+        when(album.getVideoCount()).thenReturn(2);
+        when(album.getDateUpdate()).thenReturn("1700000000");
+        Photosets list = mock(Photosets.class);
+        when(list.getPhotosets()).thenReturn(List.of(album));
+        when(list.getPages()).thenReturn(1);
+        when(photosets.getList(any(), anyInt(), anyInt(), any())).thenReturn(list);
+
+        FlickrProperties flickrProperties = new FlickrProperties();
+        flickrProperties.getUser().setNsid("12345@N00");
+        AlbumCacheProperties properties = new AlbumCacheProperties();
+        properties.setRefreshDelay(Duration.ofMillis(50));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        albumCacheService = new AlbumCacheService(flickr, flickrProperties,
+            new FlickrConcurrencyLimits(new FlickrConcurrencyProperties(), meterRegistry), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        albumCacheService.shutdown();
+    }
+
+    @Test
+    void countsAddedPhotosWithoutReloadingTheList() throws Exception {
+        AlbumCacheService.Page<AlbumSummary> before = albumCacheService.albums(1, null);
+
+        albumCacheService.photoAdded("1", false, true);
+        albumCacheService.photoAdded("1", true, true);
+        AlbumCacheService.Page<AlbumSummary> after = albumCacheService.albums(1, null);
+
+        assertThat(after.items().getFirst().getPhotos()).isEqualTo(11);
+        assertThat(after.items().getFirst().getVideos()).isEqualTo(3);
+        assertThat(after.version()).isNotEqualTo(before.version());
+        verify(photosets, times(1)).getList(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void keepsCountsOfPhotosAlreadyInTheAlbum() throws Exception {
+        albumCacheService.albums(1, null);
+
+        albumCacheService.photoAdded("1", false, false);
+        AlbumCacheService.Page<AlbumSummary> after = albumCacheService.albums(1, null);
+
+        assertThat(after.items().getFirst().getPhotos()).isEqualTo(10);
+        assertThat(after.items().getFirst().getVideos()).isEqualTo(2);
+    }
+
+    @Test
+    void reloadsTheListOnceForNewAlbums() throws Exception {
+        albumCacheService.albums(1, null);
+
+        albumCacheService.photoAdded("2", false, true);
+        albumCacheService.photoAdded("3", false, false);
+
+        verify(photosets, timeout(2000).times(2)).getList(any(), anyInt(), anyInt(), any());
+        Thread.sleep(200);
+        verify(photosets, times(2)).getList(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void leavesAnUnloadedListToTheFirstRequest() throws Exception {
+        albumCacheService.photoAdded("1", false, true);
+
+        Thread.sleep(200);
+        verify(photosets, times(0)).getList(any(), anyInt(), anyInt(), any());
+    }
+}
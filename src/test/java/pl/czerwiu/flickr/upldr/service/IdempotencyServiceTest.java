@@ -0,0 +1,105 @@
+package pl.czerwiu.flickr.upldr.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.czerwiu.flickr.upldr.config.IdempotencyProperties;
+import pl.czerwiu.flickr.upldr.dto.UploadResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+    private final AtomicInteger started = new AtomicInteger();
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxEntries(2);
+        idempotencyService = new IdempotencyService(properties, new SimpleMeterRegistry());
+    }
+
+    private Supplier<CompletableFuture<UploadResponse>> upload(CompletableFuture<UploadResponse> result) {
+        return () -> {
+            started.incrementAndGet();
+            return result;
+        };
+    }
+
+    private static UploadResponse response(String photoId, String status) {
+        return UploadResponse.builder().photoId(photoId).status(status).build();
+    }
+
+    @Test
+    void replaysCompletedUpload() {
+        idempotencyService.execute("k1", "f1", upload(CompletableFuture.completedFuture(response("1", "SUCCESS"))));
+
+        IdempotencyService.Result repeated = idempotencyService.execute("k1", "f1", upload(new CompletableFuture<>()));
+
+        assertThat(repeated.replayed()).isTrue();
+        assertThat(repeated.response().join().getPhotoId()).isEqualTo("1");
+        assertThat(started).hasValue(1);
+    }
+
+    @Test
+    void keepsRunningUploadsAboveTheLimit() {
+        CompletableFuture<UploadResponse> running = new CompletableFuture<>();
+        idempotencyService.execute("k1", "f1", upload(running));
+        idempotencyService.execute("k2", "f2", upload(new CompletableFuture<>()));
+        idempotencyService.execute("k3", "f3", upload(new CompletableFuture<>()));
+
+        IdempotencyService.Result repeated = idempotencyService.execute("k1", "f1", upload(new CompletableFuture<>()));
+
+        assertThat(repeated.replayed()).isTrue();
+        assertThat(started).hasValue(3);
+        running.complete(response("1", "SUCCESS"));
+        assertThat(repeated.response().join().getPhotoId()).isEqualTo("1");
+    }
+
+    @Test
+    void evictsOldestCompletedUploadFirst() {
+        CompletableFuture<UploadResponse> first = new CompletableFuture<>();
+        CompletableFuture<UploadResponse> second = new CompletableFuture<>();
+        idempotencyService.execute("k1", "f1", upload(first));
+        idempotencyService.execute("k2", "f2", upload(second));
+        second.complete(response("2", "SUCCESS"));
+        first.complete(response("1", "SUCCESS"));
+
+        idempotencyService.execute("k3", "f3", upload(new CompletableFuture<>()));
+
+        assertThat(idempotencyService.execute("k1", "f1", upload(new CompletableFuture<>())).replayed()).isTrue();
+        assertThat(idempotencyService.execute("k2", "f2", upload(new CompletableFuture<>())).replayed()).isFalse();
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        idempotencyService.execute("k1", "f1", upload(CompletableFuture.failedFuture(new IllegalStateException("boom"))));
+
+        assertThat(idempotencyService.execute("k1", "f1", upload(new CompletableFuture<>())).replayed()).isFalse();
+        assertThat(started).hasValue(2);
+    }
+
+    @Test
+    void doesNotCachePendingResponsesOfADrainingInstance() {
+        CompletableFuture<UploadResponse> result = CompletableFuture.completedFuture(response("1", "PENDING"));
+        IdempotencyService.Result first = idempotencyService.execute("k1", "f1", upload(result));
+
+        assertThat(first.response().join().getStatus()).isEqualTo("PENDING");
+        assertThat(idempotencyService.execute("k1", "f1", upload(new CompletableFuture<>())).replayed()).isFalse();
+        assertThat(started).hasValue(2);
+    }
+
+    @Test
+    void rejectsKeyReusedForADifferentUpload() {
+        idempotencyService.execute("k1", "f1", upload(new CompletableFuture<>()));
+
+        assertThatThrownBy(() -> idempotencyService.execute("k1", "f2", upload(new CompletableFuture<>())))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,143 @@
+package pl.czerwiu.flickr.upldr.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSignatureTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "isom|MP4",
+        "iso6|MP4",
+        "mp42|MP4",
+        "avc1|MP4",
+        "'M4V '|MP4",
+        "dash|MP4",
+        "'qt  '|QUICKTIME",
+        "3gp5|THREE_GPP",
+        "3g2a|THREE_GPP",
+        "heic|HEIC",
+        "mif1|HEIC",
+    })
+    void recognizesIsoBrands(String brand, FileSignature expected) {
+        assertThat(FileSignature.detect(ftyp(brand))).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"M4A ", "M4B ", "avif", "crx ", "jp2 ", "abcd"})
+    void rejectsOtherIsoBrands(String brand) {
+        assertThat(FileSignature.detect(ftyp(brand))).isNull();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+        "JPEG|FF D8 FF E0 00 10 4A 46 49 46|JPEG",
+        "PNG|89 50 4E 47 0D 0A 1A 0A|PNG",
+        "GIF87a|47 49 46 38 37 61|GIF",
+        "GIF89a|47 49 46 38 39 61|GIF",
+        "TIFF, little-endian|49 49 2A 00|TIFF",
+        "TIFF, big-endian|4D 4D 00 2A|TIFF",
+        "WEBP|52 49 46 46 24 00 00 00 57 45 42 50|WEBP",
+        "AVI|52 49 46 46 24 00 00 00 41 56 49 20|AVI",
+        "MPEG program stream|00 00 01 BA|MPEG",
+        "MPEG-1 elementary stream|00 00 01 B3|MPEG",
+        "WMV|30 26 B2 75 8E 66 CF 11|WMV",
+        "Ogg|4F 67 67 53|OGG",
+        "QuickTime, movie atom first|00 00 00 6C 6D 6F 6F 76|QUICKTIME",
+        "QuickTime, wide atom before movie data|00 00 00 08 77 69 64 65 00 10 00 00 6D 64 61 74|QUICKTIME",
+        "QuickTime, free atom before movie atom|00 00 00 10 66 72 65 65 00 00 00 00 00 00 00 00 00 00 01 00 6D 6F 6F 76|QUICKTIME",
+        "QuickTime, 64-bit movie data size|00 00 00 01 6D 64 61 74 00 00 00 01 00 00 00 00|QUICKTIME",
+    })
+    void recognizesSignatures(String format, String hex, FileSignature expected) {
+        assertThat(FileSignature.detect(head(hex))).isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+        "JPEG without a marker|FF D8 00 E0",
+        "PNG with a wrong line ending|89 50 4E 47 0D 0A 0A 0A",
+        "GIF of an unknown version|47 49 46 38 38 61",
+        "TIFF, little-endian marker with big-endian magic|49 49 00 2A",
+        "TIFF, big-endian marker with little-endian magic|4D 4D 2A 00",
+        "RIFF audio|52 49 46 46 24 00 00 00 57 41 56 45",
+        "MPEG end code|00 00 01 B9",
+        "ASF header of another object|30 26 B2 75 8E 66 CF 12",
+        "Ogg with a lowercase capture pattern|4F 67 67 73",
+        "QuickTime atom smaller than its header|00 00 00 04 66 72 65 65",
+        "QuickTime free atom of unknown size|00 00 00 00 66 72 65 65",
+        "QuickTime movie data followed by garbage|00 00 00 10 6D 64 61 74",
+        "QuickTime free atom running past the sniffed bytes|00 10 00 00 66 72 65 65",
+        "Text mentioning a free atom|54 68 65 20 66 72 65 65 20 61 74 6F 6D",
+    })
+    void rejectsNearMisses(String description, String hex) {
+        assertThat(FileSignature.detect(head(hex))).isNull();
+    }
+
+    @Test
+    void recognizesTransportStreamsBySyncBytes() {
+        byte[] ts = new byte[FileSignature.SNIFF_LENGTH];
+        ts[0] = 0x47;
+        ts[188] = 0x47;
+        assertThat(FileSignature.detect(ts)).isEqualTo(FileSignature.MPEG_TS);
+
+        // M2TS (AVCHD) packets are 192 bytes, a 4-byte timestamp first
+        byte[] m2ts = new byte[FileSignature.SNIFF_LENGTH];
+        m2ts[4] = 0x47;
+        m2ts[196] = 0x47;
+        assertThat(FileSignature.detect(m2ts)).isEqualTo(FileSignature.MPEG_TS);
+    }
+
+    @Test
+    void rejectsSingleSyncByte() {
+        byte[] ts = new byte[FileSignature.SNIFF_LENGTH];
+        ts[0] = 0x47;
+        ts[187] = 0x47;
+        assertThat(FileSignature.detect(ts)).isNull();
+
+        byte[] m2ts = new byte[FileSignature.SNIFF_LENGTH];
+        m2ts[4] = 0x47;
+        m2ts[192] = 0x47;
+        assertThat(FileSignature.detect(m2ts)).isNull();
+    }
+
+    @Test
+    void rejectsQuickTimeAtomsWithoutMovie() {
+        // Padding atoms only, more than a QuickTime file starts with
+        byte[] head = new byte[FileSignature.SNIFF_LENGTH];
+        for (int offset = 0; offset + 8 <= head.length; offset += 8) {
+            head[offset + 3] = 8;
+            System.arraycopy("free".getBytes(StandardCharsets.US_ASCII), 0, head, offset + 4, 4);
+        }
+        assertThat(FileSignature.detect(head)).isNull();
+    }
+
+    @Test
+    void rejectsShortFiles() {
+        assertThat(FileSignature.detect(new byte[0])).isNull();
+        assertThat(FileSignature.detect(new byte[]{(byte) 0xFF, (byte) 0xD8})).isNull();
+    }
+
+    /**
+     * Hex encoded bytes followed by zeros up to the sniffed length.
+     */
+    private static byte[] head(String hex) {
+        byte[] bytes = HexFormat.of().parseHex(hex.replace(" ", ""));
+        byte[] head = new byte[FileSignature.SNIFF_LENGTH];
+        System.arraycopy(bytes, 0, head, 0, bytes.length);
+        return head;
+    }
+
+    private static byte[] ftyp(String brand) {
+        byte[] head = new byte[32];
+        head[3] = 32;
+        System.arraycopy(("ftyp" + brand).getBytes(StandardCharsets.US_ASCII), 0, head, 4, 8);
+        return head;
+    }
+}
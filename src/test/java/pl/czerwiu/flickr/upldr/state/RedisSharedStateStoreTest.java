@@ -0,0 +1,165 @@
+package pl.czerwiu.flickr.upldr.state;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RedisSharedStateStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RedisSharedStateStore store;
+    private String prefix;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Fresh prefix per test, so tests don't see each other's keys
+        prefix = "test-" + UUID.randomUUID() + ":";
+        store = new RedisSharedStateStore(redisTemplate, prefix);
+    }
+
+    private Duration ttlOf(String key) {
+        Long seconds = redisTemplate.getExpire(prefix + key);
+        return Duration.ofSeconds(seconds);
+    }
+
+    @Test
+    void keepsFirstAlbumId() {
+        store.putAlbumIdIfAbsent("holidays", "a1", TTL);
+        store.putAlbumIdIfAbsent("holidays", "a2", TTL);
+
+        assertThat(store.getAlbumId("holidays")).contains("a1");
+        assertThat(ttlOf("album:holidays")).isPositive().isLessThanOrEqualTo(TTL);
+    }
+
+    @Test
+    void replacesAlbumId() {
+        store.putAlbumId("holidays", "a1", TTL);
+        store.putAlbumId("holidays", "a2", TTL);
+
+        assertThat(store.getAlbumId("holidays")).contains("a2");
+    }
+
+    @Test
+    void fillsCatalogWithoutOverwritingMappedAlbums() {
+        store.putAlbumId("holidays", "a1", TTL);
+        Map<String, String> catalog = new LinkedHashMap<>();
+        catalog.put("holidays", "stale");
+        catalog.put("family", "a2");
+        catalog.put("work", "a3");
+
+        store.putAlbumIdsIfAbsent(catalog, TTL);
+
+        assertThat(store.getAlbumId("holidays")).contains("a1");
+        assertThat(store.getAlbumId("family")).contains("a2");
+        assertThat(store.getAlbumId("work")).contains("a3");
+        assertThat(ttlOf("album:family")).isPositive().isLessThanOrEqualTo(TTL);
+    }
+
+    @Test
+    void acceptsEmptyCatalog() {
+        store.putAlbumIdsIfAbsent(Map.of(), TTL);
+
+        assertThat(redisTemplate.keys(prefix + "*")).isEmpty();
+    }
+
+    @Test
+    void removesOnlyStaleAlbumId() {
+        store.putAlbumId("holidays", "a2", TTL);
+
+        store.removeAlbumId("holidays", "a1");
+        assertThat(store.getAlbumId("holidays")).contains("a2");
+
+        store.removeAlbumId("holidays", "a2");
+        assertThat(store.getAlbumId("holidays")).isEmpty();
+    }
+
+    @Test
+    void grantsLeaseToOneOwnerAtATime() {
+        Optional<String> first = store.tryAcquireLease("album:holidays", TTL);
+        Optional<String> second = store.tryAcquireLease("album:holidays", TTL);
+
+        assertThat(first).isPresent();
+        assertThat(second).isEmpty();
+        assertThat(ttlOf("lease:album:holidays")).isPositive().isLessThanOrEqualTo(TTL);
+    }
+
+    @Test
+    void releasesLeaseOnlyForItsOwner() {
+        String token = store.tryAcquireLease("album:holidays", TTL).orElseThrow();
+
+        store.releaseLease("album:holidays", "someone-else");
+        assertThat(store.tryAcquireLease("album:holidays", TTL)).isEmpty();
+
+        store.releaseLease("album:holidays", token);
+        assertThat(store.tryAcquireLease("album:holidays", TTL)).isPresent();
+    }
+
+    @Test
+    void expiresAbandonedLease() throws InterruptedException {
+        String token = store.tryAcquireLease("album:holidays", Duration.ofMillis(200)).orElseThrow();
+
+        Thread.sleep(500);
+        Optional<String> next = store.tryAcquireLease("album:holidays", TTL);
+        assertThat(next).isPresent().isNotEqualTo(Optional.of(token));
+
+        // The previous owner releasing late must not free the new owner's lease
+        store.releaseLease("album:holidays", token);
+        assertThat(store.tryAcquireLease("album:holidays", TTL)).isEmpty();
+    }
+
+    @Test
+    void remembersPhotoHashes() {
+        assertThat(store.getPhotoIdByHash("abc123")).isEmpty();
+
+        store.putPhotoHash("abc123", "42", TTL);
+
+        assertThat(store.getPhotoIdByHash("abc123")).contains("42");
+        assertThat(ttlOf("hash:abc123")).isPositive().isLessThanOrEqualTo(TTL);
+    }
+
+    @Test
+    void expiresPhotoHashes() throws InterruptedException {
+        store.putPhotoHash("abc123", "42", Duration.ofMillis(200));
+
+        Thread.sleep(500);
+
+        assertThat(store.getPhotoIdByHash("abc123")).isEmpty();
+    }
+}